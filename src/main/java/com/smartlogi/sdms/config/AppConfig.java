@@ -1,5 +1,7 @@
 package com.smartlogi.sdms.config;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @Configuration
+@EnableScheduling
 public class AppConfig {
 }
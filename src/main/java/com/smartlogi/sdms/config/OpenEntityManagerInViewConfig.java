@@ -0,0 +1,42 @@
+package com.smartlogi.sdms.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-EntityManager-in-View, sauf pour les flux Server-Sent Events.
+ * <p>
+ * L'EntityManager ouvert par l'intercepteur reste attaché à la requête jusqu'à la fin du traitement
+ * asynchrone et garde la connexion JDBC acquise lors du contrôle d'accès : un abonnement SSE de
+ * plusieurs minutes immobiliserait une connexion du pool. Remplace la configuration par défaut de
+ * Spring Boot (qui ne permet pas d'exclure de chemins) et respecte {@code spring.jpa.open-in-view}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.jpa", name = "open-in-view", havingValue = "true", matchIfMissing = true)
+public class OpenEntityManagerInViewConfig {
+
+    private static final String[] CHEMINS_SSE = {
+            "/api/v1/colis/*/evenements",
+            "/api/v1/colis/client/*/evenements",
+            "/api/v1/colis/livreur/*/evenements"
+    };
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Bean
+    public WebMvcConfigurer openEntityManagerInViewConfigurer(OpenEntityManagerInViewInterceptor interceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addWebRequestInterceptor(interceptor).excludePathPatterns(CHEMINS_SSE);
+            }
+        };
+    }
+}
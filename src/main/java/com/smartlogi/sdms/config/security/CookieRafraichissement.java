@@ -0,0 +1,50 @@
+package com.smartlogi.sdms.config.security;
+
+import com.smartlogi.sdms.service.interfaces.JetonRafraichissementService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * Jeton de rafraîchissement transmis en cookie HttpOnly, Secure, SameSite=Strict, limité à {@code /auth/refresh} :
+ * illisible par le JavaScript du frontend et absent des URL, donc des journaux et de l'historique du navigateur.
+ * <p>
+ * Utilisé pour la connexion OAuth2, qui se termine par une redirection : le frontend appelle ensuite
+ * {@code POST /auth/refresh} sans corps, avec {@code credentials: 'include'}. SameSite=Strict suppose que le
+ * frontend et l'API partagent le même site (domaine enregistrable).
+ */
+@Component
+public class CookieRafraichissement {
+
+    public static final String NOM = "refresh_token";
+
+    private static final String CHEMIN = "/auth/refresh";
+
+    private final JetonRafraichissementService jetonRafraichissementService;
+
+    public CookieRafraichissement(JetonRafraichissementService jetonRafraichissementService) {
+        this.jetonRafraichissementService = jetonRafraichissementService;
+    }
+
+    public void ajouter(HttpServletResponse response, String jeton) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(jeton,
+                Duration.ofMillis(jetonRafraichissementService.getExpirationMs())).toString());
+    }
+
+    public void supprimer(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+
+    private static ResponseCookie cookie(String valeur, Duration duree) {
+        return ResponseCookie.from(NOM, valeur)
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("Strict")
+                .path(CHEMIN)
+                .maxAge(duree)
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package com.smartlogi.sdms.config.security;
 import com.smartlogi.sdms.entity.Utilisateur;
 import com.smartlogi.sdms.entity.enumeration.AuthProvider;
 import com.smartlogi.sdms.entity.enumeration.RoleUtilisateur;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +25,7 @@ public class CustomUserDetails implements UserDetails {
     private final RoleUtilisateur role;
     private final AuthProvider provider;
     private final Boolean enabled;
+    private final Integer jetonVersion;
     private final Collection<? extends GrantedAuthority> authorities;
 
     public CustomUserDetails(Utilisateur utilisateur) {
@@ -35,11 +37,36 @@ public class CustomUserDetails implements UserDetails {
         this.role = utilisateur.getRole();
         this.provider = utilisateur.getProvider();
         this.enabled = utilisateur.getEnabled() != null ? utilisateur.getEnabled() : true;
+        this.jetonVersion = utilisateur.getJetonVersion() != null ? utilisateur.getJetonVersion() : 0;
         this.authorities = Collections.singletonList(
                 new SimpleGrantedAuthority(mapRoleToAuthority(utilisateur.getRole()))
         );
     }
 
+    private CustomUserDetails(Claims claims, int jetonVersion) {
+        String autorite = claims.get("roles", String.class);
+        this.id = claims.get("userId", String.class);
+        this.email = claims.getSubject();
+        this.password = null;
+        this.nom = claims.get("nom", String.class);
+        this.prenom = claims.get("prenom", String.class);
+        this.role = mapAuthorityToRole(autorite);
+        String provider = claims.get("provider", String.class);
+        this.provider = provider != null ? AuthProvider.valueOf(provider) : AuthProvider.LOCAL;
+        this.enabled = true;
+        this.jetonVersion = jetonVersion;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority(mapRoleToAuthority(role)));
+    }
+
+    /**
+     * Reconstruit l'utilisateur à partir des claims d'un JWT vérifié, sans accès à la base.
+     * Le compte est supposé actif : l'appelant contrôle l'état et la version du jeton.
+     */
+    public static CustomUserDetails fromClaims(Claims claims) {
+        Integer version = claims.get("ver", Integer.class);
+        return new CustomUserDetails(claims, version != null ? version : 0);
+    }
+
 
     private String mapRoleToAuthority(RoleUtilisateur role) {
         if (role == null) {
@@ -54,6 +81,19 @@ public class CustomUserDetails implements UserDetails {
         };
     }
 
+    private static RoleUtilisateur mapAuthorityToRole(String autorite) {
+        if (autorite == null) {
+            return RoleUtilisateur.CLIENT_EXPEDITEUR;
+        }
+        return switch (autorite) {
+            case "ROLE_ADMIN" -> RoleUtilisateur.ADMIN;
+            case "ROLE_MANAGER" -> RoleUtilisateur.GESTIONNAIRE;
+            case "ROLE_DELIVERY" -> RoleUtilisateur.LIVREUR;
+            case "ROLE_VIEWER" -> RoleUtilisateur.DESTINATAIRE;
+            default -> RoleUtilisateur.CLIENT_EXPEDITEUR;
+        };
+    }
+
     public String getId() {
         return id;
     }
@@ -74,6 +114,10 @@ public class CustomUserDetails implements UserDetails {
         return provider;
     }
 
+    public Integer getJetonVersion() {
+        return jetonVersion;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,93 @@
+package com.smartlogi.sdms.config.security;
+
+import com.smartlogi.sdms.repository.UtilisateurRepository;
+import com.smartlogi.sdms.repository.projection.EtatUtilisateurProjection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * État d'authentification des utilisateurs (compte actif, version des jetons), gardé quelques secondes
+ * en mémoire pour contrôler les JWT sans requête par appel.
+ * <p>
+ * Un compte désactivé ou des jetons révoqués sont donc refusés au plus tard après {@code ttl-ms}
+ * sur les autres instances, immédiatement sur celle qui a fait la modification.
+ */
+@Component
+public class EtatUtilisateurCache {
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<String, Etat> etats = new ConcurrentHashMap<>();
+
+    public EtatUtilisateurCache(UtilisateurRepository utilisateurRepository,
+                                @Value("${security.jwt.etat-utilisateur.ttl-ms:30000}") long ttlMs,
+                                @Value("${security.jwt.etat-utilisateur.max-entries:10000}") int maxEntries) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return vrai si le compte existe, est actif et que la version du jeton est la version courante
+     */
+    public boolean estValide(String userId, int jetonVersion) {
+        Etat etat = etat(userId);
+        return etat.actif() && etat.jetonVersion() == jetonVersion;
+    }
+
+    /**
+     * Invalide tous les jetons émis pour cet utilisateur.
+     */
+    @Transactional
+    public void revoquer(String userId) {
+        utilisateurRepository.incrementerJetonVersion(userId);
+        invalider(userId);
+    }
+
+    /**
+     * À appeler après toute modification de l'état d'un compte (activation, désactivation).
+     */
+    public void invalider(String userId) {
+        etats.remove(userId);
+    }
+
+    int getTaille() {
+        return etats.size();
+    }
+
+    private Etat etat(String userId) {
+        long maintenant = System.currentTimeMillis();
+        Etat etat = etats.get(userId);
+        if (etat != null && etat.expireA() > maintenant) {
+            return etat;
+        }
+        // Un compte inexistant est aussi mis en cache, pour ne pas relire la base à chaque jeton d'un compte supprimé
+        etat = utilisateurRepository.findEtatById(userId)
+                .map(projection -> new Etat(!Boolean.FALSE.equals(projection.getEnabled()),
+                        version(projection), maintenant + ttlMs))
+                .orElseGet(() -> new Etat(false, -1, maintenant + ttlMs));
+        if (ttlMs > 0) {
+            if (etats.size() >= maxEntries) {
+                etats.values().removeIf(entree -> entree.expireA() <= maintenant);
+                if (etats.size() >= maxEntries) {
+                    etats.clear();
+                }
+            }
+            etats.put(userId, etat);
+        }
+        return etat;
+    }
+
+    private static int version(EtatUtilisateurProjection projection) {
+        return projection.getJetonVersion() != null ? projection.getJetonVersion() : 0;
+    }
+
+    private record Etat(boolean actif, int jetonVersion, long expireA) {
+    }
+}
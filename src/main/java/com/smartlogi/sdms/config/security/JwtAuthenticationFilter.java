@@ -1,11 +1,13 @@
 package com.smartlogi.sdms.config.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,11 +29,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final EtatUtilisateurCache etatUtilisateurCache;
+    private final boolean principalSansBase;
 
     public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
-                                   CustomUserDetailsService userDetailsService) {
+                                   CustomUserDetailsService userDetailsService,
+                                   EtatUtilisateurCache etatUtilisateurCache,
+                                   @Value("${security.jwt.stateless-principal.enabled:false}") boolean principalSansBase) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.etatUtilisateurCache = etatUtilisateurCache;
+        this.principalSansBase = principalSansBase;
     }
 
     @Override
@@ -41,10 +49,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsername(jwt);
+            // Un seul décodage du token : validation et lecture du sujet
+            Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.getValidClaims(jwt).orElse(null) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = chargerUtilisateur(claims);
+                if (userDetails == null) {
+                    logger.debug("Jeton révoqué ou compte désactivé pour l'utilisateur: {}", username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -67,6 +82,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
+    /**
+     * Utilisateur authentifié par le jeton : reconstruit depuis les claims (sans requête, état du compte
+     * contrôlé par le cache) ou chargé depuis la base pour les jetons émis sans userId ni version.
+     * Dans les deux cas, un jeton dont la version n'est plus celle du compte (révocation) est refusé.
+     *
+     * @return null si le jeton a été révoqué ou le compte désactivé
+     */
+    private UserDetails chargerUtilisateur(Claims claims) {
+        Object version = claims.get("ver");
+        if (principalSansBase && claims.get("userId") != null && version != null) {
+            CustomUserDetails userDetails = CustomUserDetails.fromClaims(claims);
+            return etatUtilisateurCache.estValide(userDetails.getId(), userDetails.getJetonVersion()) ? userDetails : null;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (version instanceof Number numero && userDetails instanceof CustomUserDetails utilisateur
+                && utilisateur.getJetonVersion() != numero.intValue()) {
+            return null;
+        }
+        return userDetails;
+    }
+
+
     private String extractJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
 
@@ -3,6 +3,7 @@ package com.smartlogi.sdms.config.security;
 import com.smartlogi.sdms.config.security.oauth2.OAuth2UserPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -18,7 +19,14 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 
@@ -29,12 +37,23 @@ public class JwtTokenProvider {
 
     private final Key signingKey;
     private final long jwtExpirationMs;
+    // Immuable et thread-safe : construit une seule fois au lieu d'un parserBuilder() par appel
+    private final JwtParser jwtParser;
+
+    // Claims déjà vérifiés, par empreinte SHA-256 du token, jusqu'à l'expiration du token
+    private final Map<String, ClaimsVerifies> claimsCache = new ConcurrentHashMap<>();
+    private final int cacheMaxEntries;
 
     public JwtTokenProvider(
             @Value("${security.jwt.secret}") String jwtSecret,
-            @Value("${security.jwt.expiration-ms}") long jwtExpirationMs) {
+            @Value("${security.jwt.expiration-ms}") long jwtExpirationMs,
+            @Value("${security.jwt.cache.max-entries:10000}") int cacheMaxEntries) {
         this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationMs = jwtExpirationMs;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.cacheMaxEntries = cacheMaxEntries;
     }
 
     /**
@@ -56,6 +75,7 @@ public class JwtTokenProvider {
                 .claim("roles", roles)
                 .claim("nom", userDetails.getNom())
                 .claim("prenom", userDetails.getPrenom())
+                .claim("ver", userDetails.getJetonVersion())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(signingKey, SignatureAlgorithm.HS256)
@@ -83,6 +103,7 @@ public class JwtTokenProvider {
                 .claim("nom", principal.getNom() != null ? principal.getNom() : "")
                 .claim("prenom", principal.getPrenom() != null ? principal.getPrenom() : "")
                 .claim("provider", principal.getUtilisateur().getProvider().name())
+                .claim("ver", principal.getUtilisateur().getJetonVersion() != null ? principal.getUtilisateur().getJetonVersion() : 0)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(signingKey, SignatureAlgorithm.HS256)
@@ -109,9 +130,18 @@ public class JwtTokenProvider {
 
 
     public boolean validateToken(String token) {
+        return getValidClaims(token).isPresent();
+    }
+
+
+    /**
+     * Claims d'un token valide (signature et expiration vérifiées), vide sinon avec la cause journalisée.
+     * Permet de valider le token et d'en lire le sujet avec un seul décodage.
+     * Les claims retournés sont partagés par le cache : ne pas les modifier.
+     */
+    public Optional<Claims> getValidClaims(String token) {
         try {
-            parseToken(token);
-            return true;
+            return Optional.of(parseToken(token));
         } catch (SignatureException ex) {
             logger.error("Signature JWT invalide: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -123,16 +153,81 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("Claims JWT vide: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
 
     private Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String empreinte = empreinte(token);
+        if (empreinte != null) {
+            ClaimsVerifies enCache = claimsCache.get(empreinte);
+            if (enCache != null) {
+                if (enCache.expiration() > System.currentTimeMillis()) {
+                    return enCache.claims();
+                }
+                // Expiré : le parseur relève l'expiration comme pour un token jamais vu
+                claimsCache.remove(empreinte, enCache);
+            }
+        }
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        mettreEnCache(empreinte, claims);
+        return claims;
+    }
+
+    private void mettreEnCache(String empreinte, Claims claims) {
+        if (empreinte == null || cacheMaxEntries <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+        if (claimsCache.size() >= cacheMaxEntries) {
+            purgerCache();
+        }
+        claimsCache.put(empreinte, new ClaimsVerifies(claims, claims.getExpiration().getTime()));
+    }
+
+    /**
+     * Retire les entrées expirées ; si le cache reste plein, évince les 10 % les plus proches de l'expiration.
+     */
+    private synchronized void purgerCache() {
+        if (claimsCache.size() < cacheMaxEntries) {
+            return;
+        }
+        long maintenant = System.currentTimeMillis();
+        claimsCache.values().removeIf(entree -> entree.expiration() <= maintenant);
+        int cible = cacheMaxEntries - Math.max(1, cacheMaxEntries / 10);
+        if (claimsCache.size() > cible) {
+            claimsCache.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entree -> entree.getValue().expiration()))
+                    .limit(claimsCache.size() - cible)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(claimsCache::remove);
+        }
+    }
+
+    /**
+     * Nombre de claims actuellement en cache.
+     */
+    public int getCacheSize() {
+        return claimsCache.size();
+    }
+
+    /**
+     * Clé de cache de taille fixe : le token lui-même n'est pas conservé.
+     * Deux tokens de même empreinte sont identiques, la signature déjà vérifiée vaut donc pour les deux.
+     */
+    private static String empreinte(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private record ClaimsVerifies(Claims claims, long expiration) {
     }
 
 
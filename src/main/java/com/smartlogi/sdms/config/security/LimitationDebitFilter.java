@@ -0,0 +1,333 @@
+package com.smartlogi.sdms.config.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitation de débit par seau à jetons, placée juste après le filtre JWT : la clé est l'utilisateur
+ * authentifié (limite de son rôle) ou, à défaut, l'adresse IP. Des limites supplémentaires par endpoint
+ * s'appliquent à chaque clé en plus de sa limite globale. Au-delà, réponse 429 avec {@code Retry-After}.
+ * Tous les seaux de la requête sont vérifiés avant d'en prélever un : une requête refusée par une limite
+ * d'endpoint n'entame pas la limite globale.
+ * <p>
+ * L'adresse IP est celle du client telle que résolue par le serveur : derrière un proxy, seuls les en-têtes
+ * {@code X-Forwarded-For} posés par les proxies de confiance sont pris en compte
+ * ({@code server.forward-headers-strategy: native}, {@code server.tomcat.remoteip.internal-proxies}).
+ * <p>
+ * Chaque seau tient dans un {@link AtomicLong} (algorithme GCRA : date théorique de la prochaine requête,
+ * équivalent à un seau de {@code capacite} jetons rechargé de {@code parSeconde}) et se met à jour par
+ * compare-and-set, sans verrou. Les seaux sont répartis sur {@value #SEGMENTS} tables indépendantes,
+ * bornées chacune : un seau plein équivaut à un seau absent, il est purgé lorsque sa table est pleine et
+ * périodiquement.
+ * <p>
+ * Format des limites : {@code capacite/parSeconde}, par exemple {@code 20/0.5} pour une rafale de 20 requêtes
+ * puis une toutes les deux secondes.
+ */
+@Component
+public class LimitationDebitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimitationDebitFilter.class);
+
+    private static final int SEGMENTS = 16;
+    static final String CLASSE_ANONYME = "ANONYME";
+    private static final String REGLE_GLOBALE = "global";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean actif;
+    private final Limite limiteAnonyme;
+    private final Map<String, Limite> limitesRoles;
+    private final List<RegleEndpoint> reglesEndpoints;
+    private final int maxClesParSegment;
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, AtomicLong>[] segments = new ConcurrentHashMap[SEGMENTS];
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public LimitationDebitFilter(MeterRegistry meterRegistry,
+                                 @Value("${sdms.limitation-debit.enabled:false}") boolean actif,
+                                 @Value("${sdms.limitation-debit.anonyme:60/10}") String limiteAnonyme,
+                                 @Value("${sdms.limitation-debit.roles:}") String limitesRoles,
+                                 @Value("${sdms.limitation-debit.endpoints:}") String limitesEndpoints,
+                                 @Value("${sdms.limitation-debit.max-cles:100000}") int maxCles) {
+        this.meterRegistry = meterRegistry;
+        this.actif = actif;
+        this.limiteAnonyme = Limite.parse(limiteAnonyme);
+        this.limitesRoles = parseRoles(limitesRoles);
+        this.reglesEndpoints = parseEndpoints(limitesEndpoints);
+        this.maxClesParSegment = Math.max(1, maxCles / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long maintenant = System.nanoTime();
+        String cle;
+        String classe;
+        Limite limite;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails utilisateur) {
+            cle = "u:" + utilisateur.getId();
+            classe = utilisateur.getRole() != null ? utilisateur.getRole().name() : CLASSE_ANONYME;
+            limite = limitesRoles.getOrDefault(classe, limiteAnonyme);
+        } else {
+            cle = "ip:" + request.getRemoteAddr();
+            classe = CLASSE_ANONYME;
+            limite = limiteAnonyme;
+        }
+
+        // Seaux de la requête : limite globale de la clé, puis limites des endpoints correspondants
+        String[] cles = new String[reglesEndpoints.size() + 1];
+        Limite[] limites = new Limite[cles.length];
+        String[] regles = new String[cles.length];
+        cles[0] = cle;
+        limites[0] = limite;
+        regles[0] = REGLE_GLOBALE;
+        int nombre = 1;
+        String chemin = request.getRequestURI().substring(request.getContextPath().length());
+        for (int i = 0; i < reglesEndpoints.size(); i++) {
+            RegleEndpoint endpoint = reglesEndpoints.get(i);
+            if (endpoint.correspond(request.getMethod(), chemin, pathMatcher)) {
+                cles[nombre] = cle + "|" + i;
+                limites[nombre] = endpoint.limite();
+                regles[nombre] = endpoint.libelle();
+                nombre++;
+            }
+        }
+
+        for (int i = 0; i < nombre; i++) {
+            long attenteNs = attente(cles[i], limites[i], maintenant);
+            if (attenteNs > 0) {
+                rejeter(request, response, classe, regles[i], attenteNs);
+                return;
+            }
+        }
+        for (int i = 0; i < nombre; i++) {
+            long attenteNs = consommer(cles[i], limites[i], maintenant);
+            if (attenteNs > 0) {
+                // Seau vidé par une requête concurrente depuis la vérification : prélèvements précédents rendus
+                for (int j = 0; j < i; j++) {
+                    rendre(cles[j], limites[j]);
+                }
+                rejeter(request, response, classe, regles[i], attenteNs);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !actif ||
+               path.startsWith("/swagger-ui") ||
+               path.startsWith("/v3/api-docs") ||
+               path.equals("/actuator/health");
+    }
+
+    /**
+     * Retire les seaux redevenus pleins : ils équivalent à une clé jamais vue.
+     */
+    @Scheduled(fixedDelayString = "${sdms.limitation-debit.purge-ms:60000}")
+    public void purger() {
+        long maintenant = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> segment : segments) {
+            purger(segment, maintenant);
+        }
+    }
+
+    /**
+     * Nombre de seaux en mémoire, pour la supervision et les tests.
+     */
+    public int getNombreSeaux() {
+        int total = 0;
+        for (ConcurrentHashMap<String, AtomicLong> segment : segments) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    /**
+     * Attente avant le prochain jeton du seau de la clé, sans le prélever.
+     *
+     * @return 0 si un jeton est disponible
+     */
+    private long attente(String cle, Limite limite, long maintenant) {
+        AtomicLong seau = segment(cle).get(cle);
+        if (seau == null) {
+            return 0;
+        }
+        return Math.max(0, Math.max(seau.get(), maintenant) + limite.intervalleNs() - maintenant - limite.plafondNs());
+    }
+
+    /**
+     * Rend au seau de la clé le jeton prélevé par {@link #consommer}.
+     */
+    private void rendre(String cle, Limite limite) {
+        AtomicLong seau = segment(cle).get(cle);
+        if (seau != null) {
+            seau.addAndGet(-limite.intervalleNs());
+        }
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> segment(String cle) {
+        return segments[(cle.hashCode() & 0x7fffffff) % SEGMENTS];
+    }
+
+    /**
+     * Prélève un jeton du seau de la clé.
+     *
+     * @return 0 si la requête est admise, sinon l'attente en nanosecondes avant le prochain jeton
+     */
+    private long consommer(String cle, Limite limite, long maintenant) {
+        ConcurrentHashMap<String, AtomicLong> segment = segment(cle);
+        AtomicLong seau = segment.get(cle);
+        if (seau == null) {
+            if (segment.size() >= maxClesParSegment) {
+                purger(segment, maintenant);
+            }
+            if (segment.size() >= maxClesParSegment) {
+                // Table saturée (balayage d'adresses) : admission sans suivi plutôt que refus des nouveaux clients
+                meterRegistry.counter("sdms.limitation.saturations").increment();
+                return 0;
+            }
+            seau = segment.computeIfAbsent(cle, k -> new AtomicLong(maintenant));
+        }
+
+        while (true) {
+            long prevue = seau.get();
+            long suivante = Math.max(prevue, maintenant) + limite.intervalleNs();
+            long depassement = suivante - maintenant - limite.plafondNs();
+            if (depassement > 0) {
+                return depassement;
+            }
+            if (seau.compareAndSet(prevue, suivante)) {
+                return 0;
+            }
+        }
+    }
+
+    private static void purger(ConcurrentHashMap<String, AtomicLong> segment, long maintenant) {
+        segment.values().removeIf(seau -> seau.get() - maintenant <= 0);
+    }
+
+    private void rejeter(HttpServletRequest request, HttpServletResponse response,
+                         String classe, String regle, long attenteNs) throws IOException {
+        long retryAfter = Math.max(1, (attenteNs + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        meterRegistry.counter("sdms.limitation.rejets", "classe", classe, "regle", regle).increment();
+        logger.debug("Limite de débit atteinte ({} / {}) : {} {}", classe, regle, request.getMethod(), request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now().toString());
+        errorDetails.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorDetails.put("error", "Trop de requêtes");
+        errorDetails.put("message", "Limite de débit atteinte. Réessayez dans " + retryAfter + " s.");
+        errorDetails.put("path", request.getRequestURI());
+
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    private static Map<String, Limite> parseRoles(String valeur) {
+        Map<String, Limite> limites = new LinkedHashMap<>();
+        for (String entree : StringUtils.commaDelimitedListToStringArray(valeur)) {
+            if (!StringUtils.hasText(entree)) {
+                continue;
+            }
+            String[] parties = entree.trim().split("=", 2);
+            if (parties.length != 2) {
+                throw new IllegalArgumentException("Limite de rôle invalide (ROLE=capacite/parSeconde) : " + entree);
+            }
+            limites.put(parties[0].trim(), Limite.parse(parties[1]));
+        }
+        return Map.copyOf(limites);
+    }
+
+    private static List<RegleEndpoint> parseEndpoints(String valeur) {
+        List<RegleEndpoint> regles = new ArrayList<>();
+        for (String entree : StringUtils.commaDelimitedListToStringArray(valeur)) {
+            if (!StringUtils.hasText(entree)) {
+                continue;
+            }
+            String[] parties = entree.trim().split("=", 2);
+            if (parties.length != 2) {
+                throw new IllegalArgumentException(
+                        "Limite d'endpoint invalide ([METHODE] /chemin/**=capacite/parSeconde) : " + entree);
+            }
+            String[] cible = parties[0].trim().split("\\s+", 2);
+            String methode = cible.length == 2 ? cible[0].toUpperCase() : null;
+            String motif = cible.length == 2 ? cible[1] : cible[0];
+            regles.add(new RegleEndpoint(methode, motif, Limite.parse(parties[1])));
+        }
+        return List.copyOf(regles);
+    }
+
+    /**
+     * Seau de {@code capacite} jetons rechargé de {@code parSeconde} : une requête toutes les
+     * {@code intervalleNs}, avec une avance maximale de {@code plafondNs}.
+     */
+    record Limite(long intervalleNs, long plafondNs) {
+
+        static Limite parse(String valeur) {
+            String[] parties = valeur.trim().split("/", 2);
+            try {
+                long capacite = Long.parseLong(parties[0].trim());
+                double parSeconde = Double.parseDouble(parties[1].trim());
+                if (capacite < 1 || parSeconde <= 0) {
+                    throw new IllegalArgumentException("Limite de débit invalide (capacité >= 1, recharge > 0) : " + valeur);
+                }
+                long intervalleNs = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / parSeconde));
+                return new Limite(intervalleNs, capacite * intervalleNs);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Limite de débit invalide (capacite/parSeconde) : " + valeur, e);
+            }
+        }
+    }
+
+    record RegleEndpoint(String methode, String motif, Limite limite) {
+
+        boolean correspond(String methodeRequete, String chemin, AntPathMatcher pathMatcher) {
+            return (methode == null || methode.equals(methodeRequete)) && pathMatcher.match(motif, chemin);
+        }
+
+        String libelle() {
+            return methode != null ? methode + " " + motif : motif;
+        }
+    }
+}
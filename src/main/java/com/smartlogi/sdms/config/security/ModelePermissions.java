@@ -0,0 +1,186 @@
+package com.smartlogi.sdms.config.security;
+
+import com.smartlogi.sdms.entity.Permission;
+import com.smartlogi.sdms.entity.Role;
+import com.smartlogi.sdms.entity.VersionPermissions;
+import com.smartlogi.sdms.repository.RoleRepository;
+import com.smartlogi.sdms.repository.VersionPermissionsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modèle RBAC compilé : chaque rôle actif est associé à un ensemble de bits sur les identifiants
+ * des permissions actives, numérotées une fois pour toutes à la compilation.
+ * {@link #autorise} répond par un test de bit, sans accès à la base.
+ * <p>
+ * Volontairement non déclaré comme {@code RoleHierarchy} : les principaux ne portent que leur autorité de rôle,
+ * et les alternatives {@code hasAuthority(...)} des contrôleurs ne sont jamais satisfaites. Les rendre effectives
+ * élargirait les accès (ADMIN porte {@code USER_MANAGE} dans les données initiales et atteindrait les endpoints
+ * clients et destinataires) : ce changement d'autorisation relève d'une évolution à part, avec sa matrice d'accès.
+ * Les résultats sont figés par {@code MatriceAccesIntegrationTest}.
+ * <p>
+ * Compilé au premier contrôle, puis recompilé d'un bloc après chaque modification des rôles ou des permissions
+ * ({@link #recompilerApresCommit()}) : un contrôle voit toujours l'ancien ou le nouveau modèle, jamais un mélange.
+ * La modification incrémente aussi la version partagée ({@link VersionPermissions}) ; les autres instances la
+ * relisent toutes les {@code security.permissions.verification-ms} et recompilent quand elle a changé.
+ */
+@Component
+public class ModelePermissions {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelePermissions.class);
+
+    private static final String PREFIXE_ROLE = "ROLE_";
+
+    private final RoleRepository roleRepository;
+    private final VersionPermissionsRepository versionRepository;
+
+    private volatile Compilation compilation;
+
+    public ModelePermissions(RoleRepository roleRepository, VersionPermissionsRepository versionRepository) {
+        this.roleRepository = roleRepository;
+        this.versionRepository = versionRepository;
+    }
+
+    /**
+     * @return vrai si l'une des autorités (rôle ou permission directe) porte la permission
+     */
+    public boolean autorise(Collection<? extends GrantedAuthority> autorites, String permission) {
+        Compilation modele = modele();
+        Integer indice = modele.indices().get(permission);
+        for (GrantedAuthority autorite : autorites) {
+            String nom = autorite.getAuthority();
+            if (permission.equals(nom)) {
+                return true;
+            }
+            BitSet bits = indice != null ? modele.bitsParRole().get(nom) : null;
+            if (bits != null && bits.get(indice)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Incrémente la version partagée dans la transaction courante, puis recompile le modèle après sa validation
+     * (immédiatement sans transaction).
+     */
+    public void recompilerApresCommit() {
+        if (versionRepository.incrementer(VersionPermissions.ID) == 0) {
+            // Ligne absente (schéma créé sans Liquibase) : première modification
+            versionRepository.save(new VersionPermissions(VersionPermissions.ID, 1L));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recompiler();
+                }
+            });
+        } else {
+            recompiler();
+        }
+    }
+
+    /**
+     * Recompile si une autre instance a modifié les rôles ou les permissions depuis la dernière compilation.
+     * Rien à faire tant qu'aucun contrôle n'a demandé le modèle.
+     */
+    @Scheduled(fixedDelayString = "${security.permissions.verification-ms:10000}",
+            initialDelayString = "${security.permissions.verification-ms:10000}")
+    public void verifierVersion() {
+        Compilation modele = compilation;
+        if (modele == null) {
+            return;
+        }
+        try {
+            long version = lireVersion();
+            if (version != modele.version()) {
+                log.info("Modèle de permissions modifié (version {} -> {}) : recompilation", modele.version(), version);
+                recompiler();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Lecture de la version du modèle de permissions impossible : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relit les rôles et permissions actifs et remplace le modèle d'un bloc.
+     * Sérialisé : une compilation démarrée après un commit voit ce commit et tous les précédents.
+     * La version est lue avant les rôles : une modification validée entre les deux lectures sera revue
+     * à la prochaine vérification.
+     */
+    public synchronized void recompiler() {
+        try {
+            long version = lireVersion();
+            compilation = compiler(roleRepository.findByActifTrue(), version);
+        } catch (RuntimeException e) {
+            // Modèle précédent conservé ; nouvel essai au prochain contrôle si aucun modèle n'a encore été compilé
+            log.error("Compilation du modèle de permissions impossible : {}", e.getMessage());
+        }
+    }
+
+    private long lireVersion() {
+        return versionRepository.findById(VersionPermissions.ID).map(VersionPermissions::getVersion).orElse(0L);
+    }
+
+    int getNombrePermissions() {
+        return modele().indices().size();
+    }
+
+    private Compilation modele() {
+        Compilation modele = compilation;
+        if (modele == null) {
+            synchronized (this) {
+                if (compilation == null) {
+                    recompiler();
+                }
+                modele = compilation != null ? compilation : Compilation.VIDE;
+            }
+        }
+        return modele;
+    }
+
+    static Compilation compiler(List<Role> roles, long version) {
+        Map<String, Integer> indices = new HashMap<>();
+        Map<String, BitSet> bitsParRole = new HashMap<>();
+        for (Role role : roles) {
+            BitSet bits = new BitSet();
+            for (Permission permission : role.getPermissions()) {
+                if (Boolean.FALSE.equals(permission.getActif())) {
+                    continue;
+                }
+                Integer indice = indices.get(permission.getNom());
+                if (indice == null) {
+                    indice = indices.size();
+                    indices.put(permission.getNom(), indice);
+                }
+                bits.set(indice);
+            }
+            bitsParRole.put(PREFIXE_ROLE + role.getNom(), bits);
+        }
+
+        log.info("Modèle de permissions compilé : {} rôles, {} permissions", bitsParRole.size(), indices.size());
+        return new Compilation(version, Map.copyOf(indices), Map.copyOf(bitsParRole));
+    }
+
+    /**
+     * Modèle immuable une fois publié : les BitSet ne sont plus modifiés après la compilation.
+     */
+    record Compilation(long version,
+                       Map<String, Integer> indices,
+                       Map<String, BitSet> bitsParRole) {
+
+        static final Compilation VIDE = new Compilation(0, Map.of(), Map.of());
+    }
+}
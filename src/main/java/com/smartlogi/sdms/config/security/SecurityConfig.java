@@ -3,6 +3,7 @@ package com.smartlogi.sdms.config.security;
 import com.smartlogi.sdms.config.security.oauth2.CustomOAuth2UserService;
 import com.smartlogi.sdms.config.security.oauth2.OAuth2AuthenticationFailureHandler;
 import com.smartlogi.sdms.config.security.oauth2.OAuth2AuthenticationSuccessHandler;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,6 +33,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LimitationDebitFilter limitationDebitFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final CustomAccessDeniedHandler accessDeniedHandler;
     private final CustomUserDetailsService userDetailsService;
@@ -43,6 +45,7 @@ public class SecurityConfig {
     private final OAuth2AuthenticationFailureHandler oAuth2FailureHandler;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          LimitationDebitFilter limitationDebitFilter,
                           JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
                           CustomAccessDeniedHandler accessDeniedHandler,
                           CustomUserDetailsService userDetailsService,
@@ -51,6 +54,7 @@ public class SecurityConfig {
                           OAuth2AuthenticationSuccessHandler oAuth2SuccessHandler,
                           OAuth2AuthenticationFailureHandler oAuth2FailureHandler) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.limitationDebitFilter = limitationDebitFilter;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.accessDeniedHandler = accessDeniedHandler;
         this.userDetailsService = userDetailsService;
@@ -81,6 +85,9 @@ public class SecurityConfig {
 
                 // Règles d'autorisation des endpoints
                 .authorizeHttpRequests(auth -> auth
+                        // Redispatch asynchrone (flux SSE, import en flux) : la requête initiale a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints publics - Authentification classique
                         .requestMatchers("/auth/**").permitAll()
 
@@ -97,6 +104,7 @@ public class SecurityConfig {
 
                         // Endpoints publics - Actuator health
                         .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAnyRole("ADMIN", "MANAGER")
 
                         // Endpoints ADMIN uniquement - Gestion rôles et permissions
                         .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
@@ -144,6 +152,9 @@ public class SecurityConfig {
                 // Ajouter le filtre JWT avant le filtre d'authentification par défaut
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
 
+                // Limitation de débit par utilisateur (claims déjà vérifiés) ou par IP, avant tout accès aux données
+                .addFilterAfter(limitationDebitFilter, JwtAuthenticationFilter.class)
+
                 .build();
     }
 
@@ -1,6 +1,8 @@
 package com.smartlogi.sdms.config.security.oauth2;
 
+import com.smartlogi.sdms.config.security.CookieRafraichissement;
 import com.smartlogi.sdms.config.security.JwtTokenProvider;
+import com.smartlogi.sdms.service.interfaces.JetonRafraichissementService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
@@ -17,7 +19,8 @@ import java.io.IOException;
  * Handler appelé après une authentification OAuth2 réussie.
  *
  * Génère un JWT interne et redirige l'utilisateur vers le frontend
- * avec le token en paramètre de l'URL.
+ * avec le token en paramètre de l'URL. Le jeton de rafraîchissement, de longue durée, n'apparaît pas
+ * dans l'URL : il est posé en cookie HttpOnly ({@link CookieRafraichissement}).
  */
 @Component
 public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
@@ -25,12 +28,18 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
     private static final Logger log = LoggerFactory.getLogger(OAuth2AuthenticationSuccessHandler.class);
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final JetonRafraichissementService jetonRafraichissementService;
+    private final CookieRafraichissement cookieRafraichissement;
 
     @Value("${app.oauth2.authorized-redirect-uri:http://localhost:4200/oauth2/redirect}")
     private String authorizedRedirectUri;
 
-    public OAuth2AuthenticationSuccessHandler(JwtTokenProvider jwtTokenProvider) {
+    public OAuth2AuthenticationSuccessHandler(JwtTokenProvider jwtTokenProvider,
+                                              JetonRafraichissementService jetonRafraichissementService,
+                                              CookieRafraichissement cookieRafraichissement) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.jetonRafraichissementService = jetonRafraichissementService;
+        this.cookieRafraichissement = cookieRafraichissement;
     }
 
     @Override
@@ -45,6 +54,8 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
             return;
         }
 
+        OAuth2UserPrincipal principal = (OAuth2UserPrincipal) authentication.getPrincipal();
+        cookieRafraichissement.ajouter(response, jetonRafraichissementService.emettre(principal.getId()));
         clearAuthenticationAttributes(request);
         getRedirectStrategy().sendRedirect(request, response, targetUrl);
     }
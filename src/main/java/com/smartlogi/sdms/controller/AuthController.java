@@ -1,9 +1,11 @@
 package com.smartlogi.sdms.controller;
 
+import com.smartlogi.sdms.config.security.CookieRafraichissement;
 import com.smartlogi.sdms.config.security.CustomUserDetails;
 import com.smartlogi.sdms.config.security.JwtTokenProvider;
 import com.smartlogi.sdms.dto.auth.LoginRequest;
 import com.smartlogi.sdms.dto.auth.LoginResponse;
+import com.smartlogi.sdms.dto.auth.RefreshRequest;
 import com.smartlogi.sdms.dto.auth.RegisterRequest;
 import com.smartlogi.sdms.entity.ClientExpediteur;
 import com.smartlogi.sdms.entity.GestionnaireLogistique;
@@ -13,10 +15,13 @@ import com.smartlogi.sdms.entity.enumeration.RoleUtilisateur;
 import com.smartlogi.sdms.exception.ResourceAlreadyExistsException;
 import com.smartlogi.sdms.repository.UtilisateurRepository;
 import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.service.interfaces.JetonRafraichissementService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +36,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
 
 
 @RestController
@@ -45,17 +51,23 @@ public class AuthController {
     private final UtilisateurRepository utilisateurRepository;
     private final PasswordEncoder passwordEncoder;
     private final ZoneRepository zoneRepository;
+    private final JetonRafraichissementService jetonRafraichissementService;
+    private final CookieRafraichissement cookieRafraichissement;
 
     public AuthController(AuthenticationManager authenticationManager,
                           JwtTokenProvider jwtTokenProvider,
                           UtilisateurRepository utilisateurRepository,
                           PasswordEncoder passwordEncoder,
-                          ZoneRepository zoneRepository) {
+                          ZoneRepository zoneRepository,
+                          JetonRafraichissementService jetonRafraichissementService,
+                          CookieRafraichissement cookieRafraichissement) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.utilisateurRepository = utilisateurRepository;
         this.passwordEncoder = passwordEncoder;
         this.zoneRepository = zoneRepository;
+        this.jetonRafraichissementService = jetonRafraichissementService;
+        this.cookieRafraichissement = cookieRafraichissement;
     }
 
 
@@ -76,19 +88,10 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtTokenProvider.generateToken(authentication);
 
             CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-
-            LoginResponse response = LoginResponse.builder()
-                    .token(jwt)
-                    .expiresIn(jwtTokenProvider.getExpirationMs())
-                    .userId(userDetails.getId())
-                    .email(userDetails.getUsername())
-                    .nom(userDetails.getNom())
-                    .prenom(userDetails.getPrenom())
-                    .role(userDetails.getRole())
-                    .build();
+            LoginResponse response = buildLoginResponse(authentication,
+                    jetonRafraichissementService.emettre(userDetails.getId()));
 
             logger.info("Connexion réussie pour l'utilisateur: {}", loginRequest.getEmail());
             return ResponseEntity.ok(response);
@@ -102,6 +105,41 @@ public class AuthController {
     }
 
 
+    @Operation(summary = "Rafraîchir le token JWT",
+            description = "Échange un jeton de rafraîchissement contre un nouveau JWT et un nouveau jeton de rafraîchissement, "
+                    + "sans mot de passe. Chaque jeton n'est utilisable qu'une fois : sa réutilisation révoque la session. "
+                    + "Sans corps, le jeton est lu dans le cookie HttpOnly posé par la connexion OAuth2, "
+                    + "et le jeton suivant est renvoyé dans ce cookie plutôt que dans la réponse.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Nouveaux jetons émis"),
+            @ApiResponse(responseCode = "401", description = "Jeton inconnu, expiré, révoqué ou déjà utilisé")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody(required = false) RefreshRequest refreshRequest,
+                                     @CookieValue(name = CookieRafraichissement.NOM, required = false) String cookie,
+                                     HttpServletResponse response) {
+        boolean parCookie = refreshRequest == null;
+        Optional<JetonRafraichissementService.Rotation> rotation =
+                jetonRafraichissementService.rafraichir(parCookie ? cookie : refreshRequest.getRefreshToken());
+        if (rotation.isEmpty()) {
+            if (parCookie && cookie != null) {
+                cookieRafraichissement.supprimer(response);
+            }
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "Jeton de rafraîchissement invalide ou expiré"));
+        }
+        CustomUserDetails userDetails = rotation.get().utilisateur();
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        if (parCookie) {
+            cookieRafraichissement.ajouter(response, rotation.get().jeton());
+            return ResponseEntity.ok(buildLoginResponse(authentication, null));
+        }
+        return ResponseEntity.ok(buildLoginResponse(authentication, rotation.get().jeton()));
+    }
+
+
     @Operation(summary = "Inscription d'un nouvel utilisateur",
             description = "Crée un nouveau compte utilisateur (accessible aux managers)")
     @ApiResponses(value = {
@@ -179,10 +217,11 @@ public class AuthController {
     public ResponseEntity<?> validateToken(@RequestHeader(value = "Authorization", required = false) String authHeader) {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            if (jwtTokenProvider.validateToken(token)) {
+            Optional<Claims> claims = jwtTokenProvider.getValidClaims(token);
+            if (claims.isPresent()) {
                 return ResponseEntity.ok(Map.of(
                         "valid", true,
-                        "email", jwtTokenProvider.getUsername(token)
+                        "email", claims.get().getSubject()
                 ));
             }
         }
@@ -192,6 +231,22 @@ public class AuthController {
     }
 
 
+    private LoginResponse buildLoginResponse(Authentication authentication, String refreshToken) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        return LoginResponse.builder()
+                .token(jwtTokenProvider.generateToken(authentication))
+                .expiresIn(jwtTokenProvider.getExpirationMs())
+                .userId(userDetails.getId())
+                .email(userDetails.getUsername())
+                .nom(userDetails.getNom())
+                .prenom(userDetails.getPrenom())
+                .role(userDetails.getRole())
+                .refreshToken(refreshToken)
+                .refreshExpiresIn(jetonRafraichissementService.getExpirationMs())
+                .build();
+    }
+
+
     private Utilisateur createUtilisateurFromRequest(RegisterRequest request) {
         Utilisateur utilisateur;
 
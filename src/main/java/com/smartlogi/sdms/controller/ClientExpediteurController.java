@@ -2,14 +2,15 @@ package com.smartlogi.sdms.controller;
 
 import com.smartlogi.sdms.dto.ClientExpediteurDTO;
 import com.smartlogi.sdms.service.interfaces.ClientExpediteurService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -58,8 +59,9 @@ public class ClientExpediteurController {
     })
     @PreAuthorize("hasRole('MANAGER') or hasAuthority('USER_MANAGE')")
     @GetMapping
-    public ResponseEntity<Page<ClientExpediteurDTO>> getAllClientExpediteurs(@Parameter(description = "Paramètres de pagination (page, size, sort)") Pageable pageable) {
-        return ResponseEntity.ok(clientExpediteurService.findAll(pageable));
+    public ResponseEntity<Slice<ClientExpediteurDTO>> getAllClientExpediteurs(@Parameter(description = "Paramètres de pagination (page, size, sort)") Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        return ResponseEntity.ok(clientExpediteurService.findAll(pageable, ModeTotal.depuis(withTotal)));
     }
 
     @Operation(summary = "Mettre à jour un client expéditeur existant")
@@ -1,33 +1,65 @@
 package com.smartlogi.sdms.controller;
 
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
 import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.CursorPageDTO;
+import com.smartlogi.sdms.dto.ScanStatutDTO;
 import com.smartlogi.sdms.dto.UpdateStatutRequestDTO;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.service.interfaces.ColisImportService;
 import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.smartlogi.sdms.service.security.ColisSecurityService;
+import com.smartlogi.sdms.service.support.ColisCurseur;
+import com.smartlogi.sdms.service.support.ColisEvenementDiffuseur;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/colis")
 @Tag(name = "Colis", description = "API pour la gestion complète des colis")
 public class ColisController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    // Le client peut conserver la réponse mais doit la revalider (If-None-Match) à chaque lecture
+    private static final CacheControl REVALIDATION = CacheControl.noCache().cachePrivate();
+
     private final ColisService colisService;
+    private final ColisImportService colisImportService;
+    private final ColisSecurityService colisSecurityService;
+    private final ColisEvenementDiffuseur colisEvenementDiffuseur;
 
-    public ColisController(ColisService colisService) {
+    public ColisController(ColisService colisService,
+                           ColisImportService colisImportService,
+                           ColisSecurityService colisSecurityService,
+                           ColisEvenementDiffuseur colisEvenementDiffuseur) {
         this.colisService = colisService;
+        this.colisImportService = colisImportService;
+        this.colisSecurityService = colisSecurityService;
+        this.colisEvenementDiffuseur = colisEvenementDiffuseur;
     }
 
     @Operation(summary = "Créer une nouvelle demande de livraison (multi-produits)",
@@ -45,6 +77,41 @@ public class ColisController {
                 .body(savedColis);
     }
 
+    @Operation(summary = "Créer un lot de demandes de livraison",
+            description = "Création en masse pour les intégrations marchands. Retourne un résultat par élément du lot.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lot traité (voir le résultat de chaque élément)"),
+            @ApiResponse(responseCode = "400", description = "Lot vide ou trop volumineux")
+    })
+    @PreAuthorize("hasAnyRole('MANAGER', 'CLIENT') or hasAuthority('COLIS_CREATE')")
+    @PostMapping("/batch")
+    public ResponseEntity<ColisBatchResponseDTO> createColisBatch(@RequestBody List<ColisDTO> colisDTOs) {
+        return ResponseEntity.ok(colisService.creerDemandesLivraisonEnLot(colisDTOs));
+    }
+
+    @Operation(summary = "Importer un flux de demandes de livraison (NDJSON ou CSV)",
+            description = "Flux marchands nocturnes : le corps est lu ligne par ligne et validé par paquets. "
+                    + "La réponse est un flux NDJSON d'événements (erreurs par ligne, progression, bilan final). "
+                    + "CSV : en-tête obligatoire, colonne produits au format produitId:quantite|produitId:quantite.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import lancé, progression et erreurs renvoyées en flux"),
+            @ApiResponse(responseCode = "415", description = "Format non supporté (attendu application/x-ndjson ou text/csv)")
+    })
+    @PreAuthorize("hasAnyRole('MANAGER', 'CLIENT') or hasAuthority('COLIS_CREATE')")
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importColis(HttpServletRequest request) {
+        ColisImportService.FormatImport format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ColisImportService.FormatImport.NDJSON
+                : ColisImportService.FormatImport.CSV;
+        StreamingResponseBody flux = sortie -> colisImportService.importerColis(request.getInputStream(), format, sortie);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(flux);
+    }
+
     @Operation(summary = "Filtrer et paginer tous les colis",
             description = "US Gestionnaire (SDMS-31)")
     @ApiResponses(value = {
@@ -52,27 +119,94 @@ public class ColisController {
     })
     @PreAuthorize("hasRole('MANAGER') or hasAuthority('COLIS_READ')")
     @GetMapping
-    public ResponseEntity<Page<ColisDTO>> filterColis(
+    public ResponseEntity<Slice<ColisDTO>> filterColis(
             @Parameter(description = "Filtrer par statut") @RequestParam(required = false) StatutColis statut,
             @Parameter(description = "Filtrer par ID de zone") @RequestParam(required = false) String zoneId,
             @Parameter(description = "Filtrer par ville de destination (recherche partielle)") @RequestParam(required = false) String ville,
             @Parameter(description = "Filtrer par priorité") @RequestParam(required = false) Priorite priorite,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal,
             Pageable pageable) {
 
-        Page<ColisDTO> colisPage = colisService.findAllColisByCriteria(statut, zoneId, ville, priorite, pageable);
+        Slice<ColisDTO> colisPage = colisService.findAllColisByCriteria(statut, zoneId, ville, priorite, pageable,
+                ModeTotal.depuis(withTotal));
         return ResponseEntity.ok(colisPage);
     }
 
+    @Operation(summary = "Filtrer tous les colis (pagination par curseur)",
+            description = "Variante sans COUNT ni OFFSET de GET /api/v1/colis, pour les parcours profonds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page de colis et curseur de la page suivante"),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide ou obtenu avec un autre ordre")
+    })
+    @PreAuthorize("hasRole('MANAGER') or hasAuthority('COLIS_READ')")
+    @GetMapping("/curseur")
+    public ResponseEntity<CursorPageDTO<ColisDTO>> filterColisParCurseur(
+            @Parameter(description = "Filtrer par statut") @RequestParam(required = false) StatutColis statut,
+            @Parameter(description = "Filtrer par ID de zone") @RequestParam(required = false) String zoneId,
+            @Parameter(description = "Filtrer par ville de destination (recherche partielle)") @RequestParam(required = false) String ville,
+            @Parameter(description = "Filtrer par priorité") @RequestParam(required = false) Priorite priorite,
+            @Parameter(description = "Ordre de parcours (PRIORITE_ZONE : trié à chaque page, réservé aux petits volumes)") @RequestParam(defaultValue = "DATE_CREATION") ColisCurseur.Ordre ordre,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent = première page)") @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre de colis par page (max 100)") @RequestParam(defaultValue = "20") int taille) {
+
+        return ResponseEntity.ok(colisService.findAllColisByCriteriaCurseur(statut, zoneId, ville, priorite, ordre, curseur, taille));
+    }
+
     @Operation(summary = "Récupérer un colis par son ID (N° de suivi)",
             description = "US Destinataire (SDMS-27)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Colis trouvé"),
+            @ApiResponse(responseCode = "304", description = "Colis inchangé depuis l'ETag fourni (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Colis non trouvé avec cet ID")
     })
-    @PreAuthorize("@colisSecurityService.canAccess(#id, authentication)")
+    @PreAuthorize("@colisSecurityService.canRead(#id, authentication)")
     @GetMapping("/{id}")
-    public ResponseEntity<ColisDTO> getColisById(@Parameter(description = "ID (N° de suivi) du colis") @PathVariable String id) {
-        return ResponseEntity.ok(colisService.findById(id));
+    public ResponseEntity<ColisDTO> getColisById(@Parameter(description = "ID (N° de suivi) du colis") @PathVariable String id,
+                                                 WebRequest webRequest) {
+        // Contrôle d'accès, ETag et corps servis par une seule lecture du colis (ColisAccesMemo)
+        Optional<String> etag = colisService.findEtag(id);
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATION).build();
+        }
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok().cacheControl(REVALIDATION);
+        etag.ifPresent(reponse::eTag);
+        return reponse.body(colisService.findById(id));
+    }
+
+    @Operation(summary = "Suivre en temps réel les changements d'un colis (Server-Sent Events)",
+            description = "Remplace l'interrogation périodique de GET /colis/{id} : un événement 'colis' est poussé "
+                    + "à chaque changement de statut ou d'assignation.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flux d'événements ouvert"),
+            @ApiResponse(responseCode = "503", description = "Nombre maximal d'abonnements atteint")
+    })
+    @PreAuthorize("@colisSecurityService.canAccess(#id, authentication)")
+    @GetMapping(value = "/{id}/evenements", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suivreColis(@Parameter(description = "ID (N° de suivi) du colis") @PathVariable String id) {
+        return colisEvenementDiffuseur.abonnerColis(id);
+    }
+
+    @Operation(summary = "Suivre en temps réel les colis d'un client expéditeur (Server-Sent Events)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flux d'événements ouvert"),
+            @ApiResponse(responseCode = "503", description = "Nombre maximal d'abonnements atteint")
+    })
+    @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#clientId, authentication)")
+    @GetMapping(value = "/client/{clientId}/evenements", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suivreColisClient(@Parameter(description = "ID du client expéditeur") @PathVariable String clientId) {
+        return colisEvenementDiffuseur.abonnerClient(clientId);
+    }
+
+    @Operation(summary = "Suivre en temps réel les colis d'un livreur (Server-Sent Events)",
+            description = "Inclut les colis assignés au livreur et ceux qui lui sont retirés.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flux d'événements ouvert"),
+            @ApiResponse(responseCode = "503", description = "Nombre maximal d'abonnements atteint")
+    })
+    @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#livreurId, authentication)")
+    @GetMapping(value = "/livreur/{livreurId}/evenements", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suivreColisLivreur(@Parameter(description = "ID du livreur") @PathVariable String livreurId) {
+        return colisEvenementDiffuseur.abonnerLivreur(livreurId);
     }
 
     @Operation(summary = "Mettre à jour le statut d'un colis",
@@ -96,6 +230,27 @@ public class ColisController {
         return ResponseEntity.ok(updatedColis);
     }
 
+    @Operation(summary = "Mettre à jour les statuts d'un lot de colis scannés",
+            description = "US Livreur : scans au dépôt. Un livreur ne peut modifier que ses colis assignés. "
+                    + "Retourne un résultat par scan.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lot traité (voir le résultat de chaque scan)"),
+            @ApiResponse(responseCode = "400", description = "Lot vide ou trop volumineux")
+    })
+    @PreAuthorize("hasAnyRole('MANAGER', 'DELIVERY') or hasAuthority('COLIS_UPDATE_STATUS')")
+    @PatchMapping("/statuts")
+    public ResponseEntity<ColisBatchResponseDTO> updateStatutsEnLot(@RequestBody List<ScanStatutDTO> scans,
+                                                                    Authentication authentication) {
+        String livreurId = null;
+        if (!colisSecurityService.isManager(authentication)) {
+            livreurId = colisSecurityService.getCurrentUserId(authentication);
+            if (livreurId == null) {
+                throw new AccessDeniedException("Utilisateur courant non identifié");
+            }
+        }
+        return ResponseEntity.ok(colisService.updateStatutsEnLot(scans, livreurId));
+    }
+
     @Operation(summary = "Récupérer les colis d'un client expéditeur",
             description = "US Client (SDMS-26)")
     @ApiResponses(value = {
@@ -104,8 +259,24 @@ public class ColisController {
     })
     @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#clientId, authentication)")
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<Page<ColisDTO>> getColisByClient(@Parameter(description = "ID du client expéditeur") @PathVariable String clientId, Pageable pageable) {
-        return ResponseEntity.ok(colisService.findColisByClientExpediteur(clientId, pageable));
+    public ResponseEntity<Slice<ColisDTO>> getColisByClient(@Parameter(description = "ID du client expéditeur") @PathVariable String clientId, Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total, colis archivés exclus), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        return ResponseEntity.ok(colisService.findColisByClientExpediteur(clientId, pageable, ModeTotal.depuis(withTotal)));
+    }
+
+    @Operation(summary = "Récupérer les colis d'un client expéditeur (pagination par curseur)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page de colis du client et curseur de la page suivante"),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide ou obtenu avec un autre ordre")
+    })
+    @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#clientId, authentication)")
+    @GetMapping("/client/{clientId}/curseur")
+    public ResponseEntity<CursorPageDTO<ColisDTO>> getColisByClientParCurseur(
+            @Parameter(description = "ID du client expéditeur") @PathVariable String clientId,
+            @Parameter(description = "Ordre de parcours (PRIORITE_ZONE : trié à chaque page, réservé aux petits volumes)") @RequestParam(defaultValue = "DATE_CREATION") ColisCurseur.Ordre ordre,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent = première page)") @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre de colis par page (max 100)") @RequestParam(defaultValue = "20") int taille) {
+        return ResponseEntity.ok(colisService.findColisByClientExpediteurCurseur(clientId, ordre, curseur, taille));
     }
 
     @Operation(summary = "Récupérer les colis d'un destinataire",
@@ -115,8 +286,9 @@ public class ColisController {
     })
     @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#destinataireId, authentication)")
     @GetMapping("/destinataire/{destinataireId}")
-    public ResponseEntity<Page<ColisDTO>> getColisByDestinataire(@Parameter(description = "ID du destinataire") @PathVariable String destinataireId, Pageable pageable) {
-        return ResponseEntity.ok(colisService.findColisByDestinataire(destinataireId, pageable));
+    public ResponseEntity<Slice<ColisDTO>> getColisByDestinataire(@Parameter(description = "ID du destinataire") @PathVariable String destinataireId, Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total, colis archivés exclus), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        return ResponseEntity.ok(colisService.findColisByDestinataire(destinataireId, pageable, ModeTotal.depuis(withTotal)));
     }
 
     @Operation(summary = "Récupérer les colis assignés à un livreur",
@@ -126,8 +298,24 @@ public class ColisController {
     })
     @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#livreurId, authentication)")
     @GetMapping("/livreur/{livreurId}")
-    public ResponseEntity<Page<ColisDTO>> getColisByLivreur(@Parameter(description = "ID du livreur") @PathVariable String livreurId, Pageable pageable) {
-        return ResponseEntity.ok(colisService.findColisByLivreur(livreurId, pageable));
+    public ResponseEntity<Slice<ColisDTO>> getColisByLivreur(@Parameter(description = "ID du livreur") @PathVariable String livreurId, Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        return ResponseEntity.ok(colisService.findColisByLivreur(livreurId, pageable, ModeTotal.depuis(withTotal)));
+    }
+
+    @Operation(summary = "Récupérer les colis assignés à un livreur (pagination par curseur)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page de colis du livreur (triée par priorité) et curseur de la page suivante"),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide ou obtenu avec un autre ordre")
+    })
+    @PreAuthorize("hasRole('MANAGER') or @colisSecurityService.isCurrentUser(#livreurId, authentication)")
+    @GetMapping("/livreur/{livreurId}/curseur")
+    public ResponseEntity<CursorPageDTO<ColisDTO>> getColisByLivreurParCurseur(
+            @Parameter(description = "ID du livreur") @PathVariable String livreurId,
+            @Parameter(description = "Ordre de parcours (PRIORITE_ZONE : tri de la tournée, non adossé à un index)") @RequestParam(defaultValue = "PRIORITE_ZONE") ColisCurseur.Ordre ordre,
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent = première page)") @RequestParam(required = false) String curseur,
+            @Parameter(description = "Nombre de colis par page (max 100)") @RequestParam(defaultValue = "20") int taille) {
+        return ResponseEntity.ok(colisService.findColisByLivreurCurseur(livreurId, ordre, curseur, taille));
     }
 
 
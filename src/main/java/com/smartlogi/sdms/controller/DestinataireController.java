@@ -2,14 +2,15 @@ package com.smartlogi.sdms.controller;
 
 import com.smartlogi.sdms.dto.DestinataireDTO;
 import com.smartlogi.sdms.service.interfaces.DestinataireService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -58,8 +59,9 @@ public class DestinataireController {
     })
     @PreAuthorize("hasRole('MANAGER') or hasAuthority('USER_MANAGE')")
     @GetMapping
-    public ResponseEntity<Page<DestinataireDTO>> getAllDestinataires(@Parameter(description = "Paramètres de pagination (page, size, sort)") Pageable pageable) {
-        return ResponseEntity.ok(destinataireService.findAll(pageable));
+    public ResponseEntity<Slice<DestinataireDTO>> getAllDestinataires(@Parameter(description = "Paramètres de pagination (page, size, sort)") Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        return ResponseEntity.ok(destinataireService.findAll(pageable, ModeTotal.depuis(withTotal)));
     }
 
     @Operation(summary = "Mettre à jour un destinataire existant")
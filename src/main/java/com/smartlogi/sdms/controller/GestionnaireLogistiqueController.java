@@ -1,9 +1,12 @@
 package com.smartlogi.sdms.controller;
 
 import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
 import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
 import com.smartlogi.sdms.service.interfaces.ColisService;
 import com.smartlogi.sdms.service.interfaces.GestionnaireLogistiqueService;
 import com.smartlogi.sdms.service.interfaces.HistoriqueLivraisonService;
@@ -13,10 +16,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -76,6 +82,53 @@ public class GestionnaireLogistiqueController {
         return ResponseEntity.ok(gestionnaireLogistiqueService.getStatistiquesTournees());
     }
 
+    @Operation(summary = "Obtenir les délais de livraison",
+            description = "Percentiles (p50, p90, p99, en secondes) du délai de la création à la livraison "
+                    + "et du temps passé dans chaque statut, global, par zone et par livreur. "
+                    + "Période par défaut : les 7 derniers jours.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Délais calculés"),
+            @ApiResponse(responseCode = "400", description = "Période invalide"),
+            @ApiResponse(responseCode = "503", description = "Analyse des délais désactivée")
+    })
+    @GetMapping("/statistiques/delais")
+    public ResponseEntity<DelaisLivraisonDTO> getDelaisLivraison(
+            @Parameter(description = "Premier jour inclus (AAAA-MM-JJ)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate du,
+            @Parameter(description = "Dernier jour inclus (AAAA-MM-JJ), aujourd'hui par défaut")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate au) {
+
+        LocalDate fin = au != null ? au : LocalDate.now();
+        LocalDate debut = du != null ? du : fin.minusDays(6);
+        return ResponseEntity.ok(gestionnaireLogistiqueService.getDelaisLivraison(debut, fin));
+    }
+
+    @Operation(summary = "Obtenir le débit des colis par zone",
+            description = "Nombre de colis ayant atteint chaque statut (créés, collectés, livrés...) par zone "
+                    + "et par minute, heure ou jour. Sans pas, la granularité est choisie selon la durée de la période ; "
+                    + "elle est élargie si la rétention de la granularité demandée ne couvre pas la période. "
+                    + "Période par défaut : les dernières 24 heures.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Débit calculé"),
+            @ApiResponse(responseCode = "400", description = "Période invalide"),
+            @ApiResponse(responseCode = "503", description = "Cumuls de débit désactivés")
+    })
+    @GetMapping("/statistiques/debit")
+    public ResponseEntity<DebitColisDTO> getDebitColis(
+            @Parameter(description = "Début inclus (AAAA-MM-JJTHH:MM:SS)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime du,
+            @Parameter(description = "Fin exclue (AAAA-MM-JJTHH:MM:SS), maintenant par défaut")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime au,
+            @Parameter(description = "Granularité : MINUTE, HEURE ou JOUR")
+            @RequestParam(required = false) GranulariteDebit pas,
+            @Parameter(description = "Limiter à une zone")
+            @RequestParam(required = false) String zoneId) {
+
+        LocalDateTime fin = au != null ? au : LocalDateTime.now();
+        LocalDateTime debut = du != null ? du : fin.minusHours(24);
+        return ResponseEntity.ok(gestionnaireLogistiqueService.getDebitColis(debut, fin, pas, zoneId));
+    }
+
     @Operation(summary = "Consulter l'historique complet d'un colis",
             description = "US Gestionnaire (SDMS-33)")
     @ApiResponses(value = {
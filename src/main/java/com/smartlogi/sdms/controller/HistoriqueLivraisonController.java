@@ -7,20 +7,27 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1")
 @Tag(name = "Historique Colis", description = "API pour consulter l'historique d'un colis")
 public class HistoriqueLivraisonController {
 
+    // Le client peut conserver la réponse mais doit la revalider (If-None-Match) à chaque lecture
+    private static final CacheControl REVALIDATION = CacheControl.noCache().cachePrivate();
+
     private final HistoriqueLivraisonService historiqueLivraisonService;
 
     public HistoriqueLivraisonController(HistoriqueLivraisonService historiqueLivraisonService) {
@@ -31,14 +38,23 @@ public class HistoriqueLivraisonController {
             description = "US Gestionnaire (SDMS-34) - Endpoint public/client")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Parcel history (sorted newest to oldest)"),
+            @ApiResponse(responseCode = "304", description = "History unchanged since the given ETag (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Parcel not found")
     })
     @PreAuthorize("@colisSecurityService.canAccess(#id, authentication)")
     @GetMapping("/colis/{id}/historique")
     public ResponseEntity<List<HistoriqueLivraisonDTO>> getHistoriqueParColisId(
-            @Parameter(description = "ID (Tracking Number) of the parcel") @PathVariable String id) {
+            @Parameter(description = "ID (Tracking Number) of the parcel") @PathVariable String id,
+            WebRequest webRequest) {
+
+        Optional<String> etag = historiqueLivraisonService.findEtagHistorique(id);
+        if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATION).build();
+        }
 
         List<HistoriqueLivraisonDTO> historique = historiqueLivraisonService.findHistoriqueByColisId(id);
-        return ResponseEntity.ok(historique);
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok().cacheControl(REVALIDATION);
+        etag.ifPresent(reponse::eTag);
+        return reponse.body(historique);
     }
 }
\ No newline at end of file
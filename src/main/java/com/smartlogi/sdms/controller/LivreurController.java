@@ -2,14 +2,15 @@ package com.smartlogi.sdms.controller;
 
 import com.smartlogi.sdms.dto.LivreurDTO;
 import com.smartlogi.sdms.service.interfaces.LivreurService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -56,8 +57,9 @@ public class LivreurController {
             @ApiResponse(responseCode = "200", description = "Paginated list of drivers")
     })
     @GetMapping
-    public ResponseEntity<Page<LivreurDTO>> getAllLivreurs(@Parameter(description = "Pagination parameters (page, size, sort)") Pageable pageable) {
-        return ResponseEntity.ok(livreurService.findAll(pageable));
+    public ResponseEntity<Slice<LivreurDTO>> getAllLivreurs(@Parameter(description = "Pagination parameters (page, size, sort)") Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        return ResponseEntity.ok(livreurService.findAll(pageable, ModeTotal.depuis(withTotal)));
     }
 
     @Operation(summary = "Mettre à jour un livreur existant")
@@ -2,14 +2,15 @@ package com.smartlogi.sdms.controller;
 
 import com.smartlogi.sdms.dto.ProduitDTO;
 import com.smartlogi.sdms.service.interfaces.ProduitService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -59,8 +60,9 @@ public class ProduitController {
     })
     @PreAuthorize("isAuthenticated()")
     @GetMapping
-    public ResponseEntity<Page<ProduitDTO>> getAllProduits(@Parameter(description = "Paramètres de pagination (page, size, sort)") Pageable pageable) {
-        Page<ProduitDTO> produits = produitService.findAll(pageable);
+    public ResponseEntity<Slice<ProduitDTO>> getAllProduits(@Parameter(description = "Paramètres de pagination (page, size, sort)") Pageable pageable,
+            @Parameter(description = "Total : true (COUNT exact, défaut), false (sans total), estime (statistiques du planificateur)") @RequestParam(required = false) String withTotal) {
+        Slice<ProduitDTO> produits = produitService.findAll(pageable, ModeTotal.depuis(withTotal));
         return ResponseEntity.ok(produits);
     }
 
@@ -0,0 +1,13 @@
+package com.smartlogi.sdms.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ColisBatchResponseDTO {
+    private int total;
+    private int nombreSucces;
+    private int nombreEchecs;
+    private List<ColisBatchResultatDTO> resultats;
+}
@@ -0,0 +1,27 @@
+package com.smartlogi.sdms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat de traitement d'un élément d'un lot de colis.
+ * L'index correspond à la position de l'élément dans le lot soumis.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColisBatchResultatDTO {
+    private int index;
+    private boolean succes;
+    private String colisId;
+    private String erreur;
+
+    public static ColisBatchResultatDTO succes(int index, String colisId) {
+        return new ColisBatchResultatDTO(index, true, colisId, null);
+    }
+
+    public static ColisBatchResultatDTO echec(int index, String erreur) {
+        return new ColisBatchResultatDTO(index, false, null, erreur);
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartlogi.sdms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Événement émis (une ligne NDJSON) pendant l'import en flux de colis :
+ * erreur sur une ligne, progression après chaque paquet validé, ou bilan final.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ColisImportEvenementDTO {
+
+    public enum Type { ERREUR, PROGRESSION, TERMINE }
+
+    private Type type;
+    // Numéro de ligne (1-based) dans le flux soumis, pour les erreurs
+    private Long ligne;
+    private String message;
+    private Long lignesLues;
+    private Long nombreSucces;
+    private Long nombreEchecs;
+
+    public static ColisImportEvenementDTO erreur(long ligne, String message) {
+        ColisImportEvenementDTO evenement = new ColisImportEvenementDTO();
+        evenement.setType(Type.ERREUR);
+        evenement.setLigne(ligne);
+        evenement.setMessage(message);
+        return evenement;
+    }
+
+    public static ColisImportEvenementDTO bilan(Type type, long lignesLues, long nombreSucces, long nombreEchecs) {
+        ColisImportEvenementDTO evenement = new ColisImportEvenementDTO();
+        evenement.setType(type);
+        evenement.setLignesLues(lignesLues);
+        evenement.setNombreSucces(nombreSucces);
+        evenement.setNombreEchecs(nombreEchecs);
+        return evenement;
+    }
+}
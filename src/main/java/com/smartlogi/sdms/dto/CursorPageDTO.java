@@ -0,0 +1,20 @@
+package com.smartlogi.sdms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'une pagination par curseur (keyset) : pas de numéro de page ni de total.
+ * {@code curseurSuivant} est à repasser tel quel pour obtenir la page suivante ; il vaut null sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> contenu;
+    private int taille;
+    private String curseurSuivant;
+}
@@ -0,0 +1,16 @@
+package com.smartlogi.sdms.dto;
+
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class DebitColisDTO {
+    private LocalDateTime du;
+    private LocalDateTime au;
+    // Granularité effectivement servie (peut être plus grossière que celle demandée)
+    private GranulariteDebit pas;
+    private List<DebitZoneDTO> parZone;
+}
@@ -0,0 +1,19 @@
+package com.smartlogi.sdms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Débit d'une zone (id nul : colis sans zone). Seuls les intervalles non vides sont listés.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DebitZoneDTO {
+    private String zoneId;
+    private String zoneNom;
+    private List<PointDebitDTO> points;
+}
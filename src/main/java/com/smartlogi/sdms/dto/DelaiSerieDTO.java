@@ -0,0 +1,25 @@
+package com.smartlogi.sdms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Délais d'une zone, d'un livreur ou de l'ensemble des colis (id nul) sur la période demandée.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DelaiSerieDTO {
+    private String id;
+    private String nom;
+    // Délai de livraison : de la création (CREE) à la livraison (LIVRE)
+    private PercentilesDureeDTO livraison;
+    // Temps passé dans chaque statut avant d'en sortir
+    private Map<StatutColis, PercentilesDureeDTO> parStatut;
+}
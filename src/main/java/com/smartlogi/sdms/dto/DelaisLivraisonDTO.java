@@ -0,0 +1,19 @@
+package com.smartlogi.sdms.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class DelaisLivraisonDTO {
+    private LocalDate du;
+    private LocalDate au;
+    // Vrai si une partie de la période est hors rétention ou a été évincée par le plafond d'histogrammes
+    private boolean tronque;
+    // Premier jour dont les délais sont complets
+    private LocalDate couvertDepuis;
+    private DelaiSerieDTO global;
+    private List<DelaiSerieDTO> parZone;
+    private List<DelaiSerieDTO> parLivreur;
+}
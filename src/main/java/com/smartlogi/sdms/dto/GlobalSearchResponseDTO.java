@@ -2,10 +2,17 @@ package com.smartlogi.sdms.dto;
 import lombok.Data;
 import org.springframework.data.domain.Page;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 @Data
 public class GlobalSearchResponseDTO {
     private Page<ColisDTO> colis;
     private Page<ClientExpediteurDTO> clients;
     private Page<LivreurDTO> livreurs;
+
+    // Vrai si au moins une source n'a pas répondu à temps : ses résultats sont alors vides
+    private boolean partiel;
+    private List<String> sourcesIndisponibles = new ArrayList<>();
 }
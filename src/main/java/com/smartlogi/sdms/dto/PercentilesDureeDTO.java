@@ -0,0 +1,19 @@
+package com.smartlogi.sdms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Distribution d'une durée, en secondes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PercentilesDureeDTO {
+    private long nombre;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long max;
+}
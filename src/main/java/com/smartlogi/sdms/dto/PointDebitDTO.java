@@ -0,0 +1,20 @@
+package com.smartlogi.sdms.dto;
+
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Nombre de colis ayant atteint chaque statut pendant l'intervalle commençant à {@code debut}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointDebitDTO {
+    private LocalDateTime debut;
+    private Map<StatutColis, Long> parStatut;
+}
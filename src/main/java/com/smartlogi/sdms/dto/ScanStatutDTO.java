@@ -0,0 +1,29 @@
+package com.smartlogi.sdms.dto;
+
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement de scan d'un colis (mise à jour de statut en lot par un livreur).
+ * {@code scannedAt} est l'heure du scan sur le terminal ; à défaut, l'heure de traitement est utilisée.
+ * Contrôlée par {@code ColisServiceImpl} : une avance d'horloge du terminal est tolérée jusqu'à
+ * {@code AVANCE_MAX_HORLOGE} (ramenée à l'heure de traitement) ; elle ne peut être antérieure ni à la création
+ * du colis, ni à son dernier statut, ni plus ancienne que {@code ANCIENNETE_MAX_SCAN} (terminal mal réglé).
+ */
+@Data
+public class ScanStatutDTO {
+
+    @NotBlank(message = "L'ID du colis est obligatoire")
+    private String colisId;
+
+    @NotNull(message = "Le nouveau statut ne peut pas être null")
+    private StatutColis statut;
+
+    private String commentaire;
+
+    private LocalDateTime scannedAt;
+}
@@ -1,9 +1,13 @@
 package com.smartlogi.sdms.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,4 +16,11 @@ public class StatistiqueLivreurDTO {
     private String livreurNom;
     private long nombreColis;
     private double poidsTotal;
-}
\ No newline at end of file
+    // Nombre de colis par statut (tous statuts), renseigné par les compteurs de tournées
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<StatutColis, Long> parStatut;
+
+    public StatistiqueLivreurDTO(String livreurId, String livreurNom, long nombreColis, double poidsTotal) {
+        this(livreurId, livreurNom, nombreColis, poidsTotal, null);
+    }
+}
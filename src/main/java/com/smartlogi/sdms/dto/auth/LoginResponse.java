@@ -13,6 +13,9 @@ public class LoginResponse {
     private String nom;
     private String prenom;
     private RoleUtilisateur role;
+    // Jeton de rafraîchissement à usage unique (POST /auth/refresh)
+    private String refreshToken;
+    private long refreshExpiresIn;
 
     public LoginResponse() {
         this.type = "Bearer";
@@ -43,6 +46,8 @@ public class LoginResponse {
         private String nom;
         private String prenom;
         private RoleUtilisateur role;
+        private String refreshToken;
+        private long refreshExpiresIn;
 
         public Builder token(String token) {
             this.token = token;
@@ -79,8 +84,21 @@ public class LoginResponse {
             return this;
         }
 
+        public Builder refreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+            return this;
+        }
+
+        public Builder refreshExpiresIn(long refreshExpiresIn) {
+            this.refreshExpiresIn = refreshExpiresIn;
+            return this;
+        }
+
         public LoginResponse build() {
-            return new LoginResponse(token, expiresIn, userId, email, nom, prenom, role);
+            LoginResponse response = new LoginResponse(token, expiresIn, userId, email, nom, prenom, role);
+            response.setRefreshToken(refreshToken);
+            response.setRefreshExpiresIn(refreshExpiresIn);
+            return response;
         }
     }
 
@@ -148,5 +166,21 @@ public class LoginResponse {
     public void setRole(RoleUtilisateur role) {
         this.role = role;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public long getRefreshExpiresIn() {
+        return refreshExpiresIn;
+    }
+
+    public void setRefreshExpiresIn(long refreshExpiresIn) {
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
 }
 
@@ -0,0 +1,25 @@
+package com.smartlogi.sdms.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+
+
+public class RefreshRequest {
+
+    @NotBlank(message = "Le jeton de rafraîchissement est obligatoire")
+    private String refreshToken;
+
+    public RefreshRequest() {
+    }
+
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartlogi.sdms.entity;
+
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Clé d'un cumul de débit : début de l'intervalle, zone du colis et statut atteint.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CleDebit implements Serializable {
+
+    // Colis sans zone : la clé primaire n'accepte pas de valeur nulle
+    public static final String SANS_ZONE = "-";
+
+    @Column(name = "debut", nullable = false)
+    private LocalDateTime debut;
+
+    @Column(name = "zone_id", length = 36, nullable = false)
+    private String zoneId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut", length = 50, nullable = false)
+    private StatutColis statut;
+
+    /**
+     * Même zone et même statut, sur l'intervalle de la granularité demandée.
+     */
+    public CleDebit tronquer(GranulariteDebit granularite) {
+        return new CleDebit(granularite.tronquer(debut), zoneId, statut);
+    }
+}
@@ -1,7 +1,9 @@
 package com.smartlogi.sdms.entity;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuid;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -21,7 +23,7 @@ import java.util.Set;
 public class Colis implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private String id;
     @Column(name = "description")
     private String description;
@@ -40,12 +42,24 @@ public class Colis implements Serializable {
     @Column(name = "ville_destination")
     private String villeDestination;
 
-    @Column(name = "date_creation")
+    // Fixée à la création : borne basse de date_changement de son historique (voir HistoriqueLivraison)
+    @Column(name = "date_creation", updatable = false)
     private LocalDateTime dateCreation;
 
     @Column(name = "date_dernier_statut")
     private LocalDateTime dateDernierStatut;
 
+    // Date du dernier statut fixée par horodaterStatut (heure de scan) : conservée par onUpdate
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient boolean dateDernierStatutFixee;
+
+    // Verrouillage optimiste : détecte les mises à jour concurrentes (scans, réassignation)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_expediteur_id")
@@ -80,8 +94,19 @@ public class Colis implements Serializable {
         }
     }
 
+    /**
+     * Fixe la date du dernier statut à l'heure de l'événement (scan du terminal) au lieu de l'heure d'écriture.
+     */
+    public void horodaterStatut(LocalDateTime date) {
+        dateDernierStatut = date;
+        dateDernierStatutFixee = true;
+    }
+
     @PreUpdate
     protected void onUpdate() {
-        dateDernierStatut = LocalDateTime.now();
+        if (!dateDernierStatutFixee) {
+            dateDernierStatut = LocalDateTime.now();
+        }
+        dateDernierStatutFixee = false;
     }
 }
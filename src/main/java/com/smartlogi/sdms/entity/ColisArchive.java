@@ -0,0 +1,80 @@
+package com.smartlogi.sdms.entity;
+
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Colis livré déplacé dans l'archive froide par {@code ArchivageColis} (changelog 020).
+ * <p>
+ * Copie en lecture seule de la ligne de colis : les rattachements sont conservés comme simples identifiants,
+ * sans clé étrangère vers les tables chaudes.
+ */
+@Entity
+@Immutable
+@Table(name = "colis_archive", indexes = {
+        @Index(name = "idx_colis_archive_client_date_creation_id", columnList = "client_expediteur_id, date_creation, id"),
+        @Index(name = "idx_colis_archive_destinataire_date_creation_id", columnList = "destinataire_id, date_creation, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ColisArchive implements Serializable {
+
+    @Id
+    private String id;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "poids_total")
+    private Double poidsTotal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut")
+    private StatutColis statut;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priorite")
+    private Priorite priorite;
+
+    @Column(name = "ville_destination")
+    private String villeDestination;
+
+    @Column(name = "date_creation")
+    private LocalDateTime dateCreation;
+
+    @Column(name = "date_dernier_statut")
+    private LocalDateTime dateDernierStatut;
+
+    // Version du colis au moment de l'archivage : l'ETag reste celui servi avant le déplacement
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "client_expediteur_id", length = 36)
+    private String clientExpediteurId;
+
+    @Column(name = "destinataire_id", length = 36)
+    private String destinataireId;
+
+    @Column(name = "livreur_id", length = 36)
+    private String livreurId;
+
+    @Column(name = "zone_id", length = 36)
+    private String zoneId;
+
+    @Column(name = "date_archivage", nullable = false)
+    private LocalDateTime dateArchivage;
+
+    @OneToMany(mappedBy = "colis")
+    private Set<ColisProduitArchive> colisProduits = new HashSet<>();
+}
@@ -1,4 +1,5 @@
 package com.smartlogi.sdms.entity;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,7 +18,7 @@ import java.time.LocalDateTime;
 public class ColisProduit implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,40 @@
+package com.smartlogi.sdms.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de produit d'un colis archivé (changelog 020), en lecture seule.
+ */
+@Entity
+@Immutable
+@Table(name = "colis_produit_archive", indexes = {
+        @Index(name = "idx_colis_produit_archive_colis", columnList = "colis_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ColisProduitArchive implements Serializable {
+
+    @Id
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "colis_id", nullable = false)
+    private ColisArchive colis;
+
+    @Column(name = "produit_id", length = 36)
+    private String produitId;
+
+    @Column(name = "quantite")
+    private Integer quantite;
+
+    @Column(name = "date_ajout")
+    private LocalDateTime dateAjout;
+}
@@ -0,0 +1,32 @@
+package com.smartlogi.sdms.entity;
+
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Avancement de la compaction vers une granularité : les cumuls plus fins antérieurs au filigrane
+ * y sont reportés. Filigrane nul : aucune compaction encore effectuée.
+ */
+@Entity
+@Table(name = "debit_compaction")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactionDebit implements Serializable {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularite", length = 20)
+    private GranulariteDebit granularite;
+
+    @Column(name = "filigrane")
+    private LocalDateTime filigrane;
+}
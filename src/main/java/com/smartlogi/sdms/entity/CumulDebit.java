@@ -0,0 +1,32 @@
+package com.smartlogi.sdms.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Nombre de colis ayant atteint un statut dans une zone, sur un intervalle de temps.
+ * Une table par granularité (minute, heure, jour), de même structure.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class CumulDebit implements Serializable {
+
+    @EmbeddedId
+    private CleDebit id;
+
+    @Column(name = "nombre", nullable = false)
+    private long nombre;
+
+    protected CumulDebit(CleDebit id, long nombre) {
+        this.id = id;
+        this.nombre = nombre;
+    }
+}
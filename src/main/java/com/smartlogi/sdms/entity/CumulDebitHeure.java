@@ -0,0 +1,15 @@
+package com.smartlogi.sdms.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "debit_heure")
+@NoArgsConstructor
+public class CumulDebitHeure extends CumulDebit {
+
+    public CumulDebitHeure(CleDebit id, long nombre) {
+        super(id, nombre);
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartlogi.sdms.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "debit_jour")
+@NoArgsConstructor
+public class CumulDebitJour extends CumulDebit {
+
+    public CumulDebitJour(CleDebit id, long nombre) {
+        super(id, nombre);
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartlogi.sdms.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "debit_minute")
+@NoArgsConstructor
+public class CumulDebitMinute extends CumulDebit {
+
+    public CumulDebitMinute(CleDebit id, long nombre) {
+        super(id, nombre);
+    }
+}
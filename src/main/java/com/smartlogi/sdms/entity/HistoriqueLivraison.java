@@ -1,5 +1,6 @@
 package com.smartlogi.sdms.entity;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,7 +19,7 @@ import java.time.LocalDateTime;
 public class HistoriqueLivraison implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,7 +31,8 @@ public class HistoriqueLivraison implements Serializable {
     @Column(name = "statut")
     private StatutColis statut;
 
-    @Column(name = "date_changement")
+    // Clé de partitionnement (changelog 019) : obligatoire
+    @Column(name = "date_changement", nullable = false)
     private LocalDateTime dateChangement;
 
     @Column(name = "commentaire")
@@ -39,8 +41,21 @@ public class HistoriqueLivraison implements Serializable {
 
     @PrePersist
     protected void onCreate() {
+        horodater();
+    }
+
+    /**
+     * Date de changement par défaut (maintenant), jamais antérieure à la création du colis :
+     * l'historique d'un colis est lu avec la borne date_changement >= date_creation du colis,
+     * qui permet d'écarter les partitions plus anciennes (changelog 019).
+     */
+    public void horodater() {
         if (dateChangement == null) {
             dateChangement = LocalDateTime.now();
         }
+        LocalDateTime creation = colis != null ? colis.getDateCreation() : null;
+        if (creation != null && dateChangement.isBefore(creation)) {
+            dateChangement = creation;
+        }
     }
 }
@@ -0,0 +1,41 @@
+package com.smartlogi.sdms.entity;
+
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Changement de statut d'un colis archivé (changelog 020), en lecture seule.
+ */
+@Entity
+@Immutable
+@Table(name = "historique_livraison_archive", indexes = {
+        @Index(name = "idx_historique_archive_colis_date_changement", columnList = "colis_id, date_changement")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class HistoriqueLivraisonArchive implements Serializable {
+
+    @Id
+    private String id;
+
+    @Column(name = "colis_id", length = 36, nullable = false)
+    private String colisId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut")
+    private StatutColis statut;
+
+    @Column(name = "date_changement")
+    private LocalDateTime dateChangement;
+
+    @Column(name = "commentaire")
+    private String commentaire;
+}
@@ -0,0 +1,58 @@
+package com.smartlogi.sdms.entity;
+
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuid;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Jeton de rafraîchissement, conservé sous forme d'empreinte SHA-256 (le jeton lui-même n'est jamais stocké).
+ * <p>
+ * Chaque rafraîchissement consomme le jeton et en émet un nouveau dans la même famille : un jeton déjà consommé
+ * présenté une seconde fois signale un vol, et toute la famille est révoquée.
+ */
+@Entity
+@Table(name = "jeton_rafraichissement", indexes = {
+        @Index(name = "idx_jeton_rafraichissement_famille", columnList = "famille"),
+        @Index(name = "idx_jeton_rafraichissement_expiration", columnList = "date_expiration")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class JetonRafraichissement implements Serializable {
+
+    @Id
+    @TimeOrderedUuid
+    private String id;
+
+    @Column(name = "empreinte", length = 64, unique = true, nullable = false)
+    private String empreinte;
+
+    @Column(name = "utilisateur_id", length = 36, nullable = false)
+    private String utilisateurId;
+
+    // Identifiant commun à tous les jetons issus d'une même connexion
+    @Column(name = "famille", length = 36, nullable = false)
+    private String famille;
+
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation;
+
+    @Column(name = "date_expiration", nullable = false)
+    private LocalDateTime dateExpiration;
+
+    // Renseignée quand le jeton est échangé contre le suivant
+    @Column(name = "date_utilisation")
+    private LocalDateTime dateUtilisation;
+
+    @Column(name = "revoque", nullable = false)
+    private boolean revoque;
+}
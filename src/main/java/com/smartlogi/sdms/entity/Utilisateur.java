@@ -53,4 +53,8 @@ public abstract class Utilisateur implements Serializable {
 
     @Column(name = "email_verified", nullable = false)
     private Boolean emailVerified = false;
+
+    // Incrémentée pour révoquer tous les JWT déjà émis (claim "ver")
+    @Column(name = "jeton_version", nullable = false)
+    private Integer jetonVersion = 0;
 }
@@ -0,0 +1,35 @@
+package com.smartlogi.sdms.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Version du modèle de permissions, incrémentée dans la transaction de chaque modification des rôles
+ * ou des permissions : chaque instance la relit périodiquement et recompile son modèle quand elle change.
+ * Une seule ligne, d'identifiant {@link #ID}.
+ */
+@Entity
+@Table(name = "permission_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionPermissions implements Serializable {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -0,0 +1,30 @@
+package com.smartlogi.sdms.entity.enumeration;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Granularité des cumuls de débit, de la plus fine à la plus grossière.
+ */
+public enum GranulariteDebit {
+    MINUTE(ChronoUnit.MINUTES),
+    HEURE(ChronoUnit.HOURS),
+    JOUR(ChronoUnit.DAYS);
+
+    private final ChronoUnit unite;
+
+    GranulariteDebit(ChronoUnit unite) {
+        this.unite = unite;
+    }
+
+    /**
+     * Début de l'intervalle contenant cette date.
+     */
+    public LocalDateTime tronquer(LocalDateTime date) {
+        return date.truncatedTo(unite);
+    }
+
+    public ChronoUnit getUnite() {
+        return unite;
+    }
+}
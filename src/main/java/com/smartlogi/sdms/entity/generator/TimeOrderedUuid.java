@@ -0,0 +1,20 @@
+package com.smartlogi.sdms.entity.generator;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identifiant UUIDv7 (ordonné dans le temps) généré côté application.
+ * À placer sur l'attribut {@code @Id} d'une entité à la place de
+ * {@code @GeneratedValue(strategy = GenerationType.UUID)} : le format texte (36 caractères)
+ * reste identique, mais les insertions arrivent en fin d'index au lieu de positions aléatoires.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
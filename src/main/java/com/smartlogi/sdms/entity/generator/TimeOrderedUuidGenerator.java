@@ -0,0 +1,81 @@
+package com.smartlogi.sdms.entity.generator;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Générateur d'UUIDv7 (RFC 9562) monotone pour ce nœud.
+ * <ul>
+ *     <li>48 bits : horodatage Unix en millisecondes ;</li>
+ *     <li>12 bits (rand_a) : compteur incrémenté dans la même milliseconde, réamorcé aléatoirement à chaque nouvelle milliseconde ;</li>
+ *     <li>62 bits : aléa cryptographique, pour que les N° de suivi restent non devinables.</li>
+ * </ul>
+ * Si le compteur déborde ou si l'horloge recule, l'horodatage logique avance d'une milliseconde :
+ * les identifiants produits restent strictement croissants, y compris dans leur forme texte.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final int BITS_COMPTEUR = 12;
+    private static final int COMPTEUR_MAX = (1 << BITS_COMPTEUR) - 1;
+    // Le compteur est réamorcé dans la moitié basse pour garder de la marge avant débordement
+    private static final int AMORCE_COMPTEUR_MAX = 1 << (BITS_COMPTEUR - 1);
+
+    private static long dernierHorodatage = -1L;
+    private static int compteur;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+
+    /**
+     * Retourne un nouvel identifiant sous sa forme texte canonique (minuscules, 36 caractères).
+     */
+    public static String nextId() {
+        return nextUuid().toString();
+    }
+
+    public static UUID nextUuid() {
+        long aleaBas = RANDOM.nextLong();
+        long horodatage;
+        int sequence;
+        synchronized (TimeOrderedUuidGenerator.class) {
+            long maintenant = System.currentTimeMillis();
+            if (maintenant > dernierHorodatage) {
+                dernierHorodatage = maintenant;
+                compteur = ThreadLocalRandom.current().nextInt(AMORCE_COMPTEUR_MAX);
+            } else if (compteur < COMPTEUR_MAX) {
+                compteur++;
+            } else {
+                // Compteur épuisé (ou horloge en retard) : on emprunte la milliseconde suivante
+                dernierHorodatage++;
+                compteur = 0;
+            }
+            horodatage = dernierHorodatage;
+            sequence = compteur;
+        }
+        long poidsFort = (horodatage << 16) | 0x7000L | sequence;
+        long poidsFaible = (aleaBas & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(poidsFort, poidsFaible);
+    }
+
+    /**
+     * Horodatage (ms depuis l'époque Unix) encodé dans un UUIDv7.
+     */
+    public static long extraireHorodatage(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
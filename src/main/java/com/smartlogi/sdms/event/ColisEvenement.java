@@ -0,0 +1,27 @@
+package com.smartlogi.sdms.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement de domaine publié à chaque changement de statut ou d'assignation d'un colis.
+ * Il n'est diffusé aux abonnés qu'après validation de la transaction qui l'a produit.
+ *
+ * @param ancienStatut     statut avant le changement (égal à {@code statut} pour une assignation)
+ * @param ancienLivreurId  livreur assigné avant le changement (égal à {@code livreurId} pour un changement de statut)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ColisEvenement(Type type,
+                             String colisId,
+                             StatutColis statut,
+                             StatutColis ancienStatut,
+                             String clientExpediteurId,
+                             String livreurId,
+                             String ancienLivreurId,
+                             String commentaire,
+                             LocalDateTime horodatage) {
+
+    public enum Type { STATUT, ASSIGNATION }
+}
@@ -1,5 +1,6 @@
 package com.smartlogi.sdms.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -43,4 +44,12 @@ public class GlobalExceptionHandler {
         body.put("message", ex.getBindingResult().getFieldError().getDefaultMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "Conflict");
+        body.put("message", "La ressource a été modifiée simultanément par une autre opération. Veuillez recharger et réessayer.");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
 }
@@ -17,5 +17,6 @@ public interface ClientExpediteurMapper {
     @Mapping(target = "imageUrl", ignore = true)
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "emailVerified", ignore = true)
+    @Mapping(target = "jetonVersion", ignore = true)
     ClientExpediteur toEntity(ClientExpediteurDTO dto);
 }
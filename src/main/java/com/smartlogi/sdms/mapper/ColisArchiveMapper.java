@@ -0,0 +1,24 @@
+package com.smartlogi.sdms.mapper;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
+import com.smartlogi.sdms.entity.ColisArchive;
+import com.smartlogi.sdms.entity.ColisProduitArchive;
+import com.smartlogi.sdms.entity.HistoriqueLivraisonArchive;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Archive froide vers les DTO des lectures chaudes : un colis archivé est servi sous la même forme.
+ */
+@Mapper(componentModel = "spring")
+public interface ColisArchiveMapper {
+
+    @Mapping(source = "colisProduits", target = "produits")
+    ColisDTO toDto(ColisArchive entity);
+
+    ColisProduitDTO toDto(ColisProduitArchive entity);
+
+    HistoriqueLivraisonDTO toDto(HistoriqueLivraisonArchive entity);
+}
@@ -27,6 +27,7 @@ public interface ColisMapper {
     @Mapping(source = "livreurId", target = "livreur", qualifiedByName = "livreurFromId")
     @Mapping(source = "zoneId", target = "zone", qualifiedByName = "zoneFromId")
     @Mapping(target = "colisProduits", ignore = true) 
+    @Mapping(target = "version", ignore = true)
     Colis toEntity(ColisDTO dto);
 
     @Named("clientFromId")
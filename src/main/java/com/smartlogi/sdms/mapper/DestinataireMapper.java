@@ -17,5 +17,6 @@ public interface DestinataireMapper {
     @Mapping(target = "imageUrl", ignore = true)
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "emailVerified", ignore = true)
+    @Mapping(target = "jetonVersion", ignore = true)
     Destinataire toEntity(DestinataireDTO dto);
 }
\ No newline at end of file
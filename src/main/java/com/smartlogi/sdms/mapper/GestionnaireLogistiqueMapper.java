@@ -16,5 +16,6 @@ public interface GestionnaireLogistiqueMapper {
     @Mapping(target = "imageUrl", ignore = true)
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "emailVerified", ignore = true)
+    @Mapping(target = "jetonVersion", ignore = true)
     GestionnaireLogistique toEntity(GestionnaireLogistiqueDTO dto);
 }
@@ -21,6 +21,7 @@ public interface LivreurMapper {
     @Mapping(target = "imageUrl", ignore = true)
     @Mapping(target = "enabled", ignore = true)
     @Mapping(target = "emailVerified", ignore = true)
+    @Mapping(target = "jetonVersion", ignore = true)
     Livreur toEntity(LivreurDTO dto);
 
 
@@ -1,5 +1,6 @@
 package com.smartlogi.sdms.repository;
 import com.smartlogi.sdms.entity.ClientExpediteur;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,10 +14,17 @@ import java.util.Optional;
 public interface ClientExpediteurRepository extends JpaRepository<ClientExpediteur, String> {
     Optional<ClientExpediteur> findByEmail(String email);
 
+    // Lecture sans COUNT (size + 1 lignes) pour ?withTotal=false
+    Slice<ClientExpediteur> findSliceBy(Pageable pageable);
+
+    /**
+     * Recherche par motif LIKE déjà en minuscules et échappé ; expressions alignées sur les index trigrammes
+     * de la table utilisateur (changelog 012).
+     */
     @Query("SELECT c FROM ClientExpediteur c WHERE " +
-            "LOWER(c.nom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.prenom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.telephone) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<ClientExpediteur> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+            "LOWER(c.nom) LIKE :motif ESCAPE '\\' OR " +
+            "LOWER(c.prenom) LIKE :motif ESCAPE '\\' OR " +
+            "LOWER(c.email) LIKE :motif ESCAPE '\\' OR " +
+            "c.telephone LIKE :motif ESCAPE '\\'")
+    Page<ClientExpediteur> searchByKeyword(@Param("motif") String motif, Pageable pageable);
 }
@@ -0,0 +1,42 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.ColisArchive;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectures de l'archive froide des colis livrés, en repli des lectures de {@link ColisRepository}.
+ * Les listes sont lues par fenêtre (offset, limite) sans COUNT : la fusion avec les colis chauds
+ * est faite par {@code LectureArchive}.
+ */
+@Repository
+public interface ColisArchiveRepository extends JpaRepository<ColisArchive, String> {
+
+    @EntityGraph(attributePaths = {"colisProduits"})
+    Optional<ColisArchive> findWithProduitsById(String id);
+
+    @EntityGraph(attributePaths = {"colisProduits"})
+    List<ColisArchive> findWithProduitsByIdIn(Collection<String> ids);
+
+    @Query("SELECT c.version AS version, c.dateDernierStatut AS dateDernierStatut, c.dateCreation AS dateCreation, " +
+            "c.clientExpediteurId AS clientExpediteurId, c.destinataireId AS destinataireId, c.livreurId AS livreurId " +
+            "FROM ColisArchive c WHERE c.id = :id")
+    Optional<ColisAccesProjection> findAccesById(@Param("id") String id);
+
+    List<ColisArchive> findByClientExpediteurId(String clientExpediteurId, Pageable fenetre);
+
+    long countByClientExpediteurId(String clientExpediteurId);
+
+    List<ColisArchive> findByDestinataireId(String destinataireId, Pageable fenetre);
+
+    long countByDestinataireId(String destinataireId);
+}
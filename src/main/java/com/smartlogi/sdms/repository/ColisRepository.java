@@ -3,15 +3,19 @@ package com.smartlogi.sdms.repository;
 import com.smartlogi.sdms.dto.StatistiqueLivreurDTO;
 import com.smartlogi.sdms.dto.StatistiqueZoneDTO;
 import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.repository.projection.AgregatTourneeProjection;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,14 +25,47 @@ public interface ColisRepository extends JpaRepository<Colis, String>, JpaSpecif
     @EntityGraph(attributePaths = {"colisProduits", "colisProduits.produit"})
     Optional<Colis> findWithProduitsById(String id);
 
-    Page<Colis> findAllByClientExpediteurId(String clientExpediteurId, Pageable pageable);
-    Page<Colis> findAllByDestinataireId(String destinataireId, Pageable pageable);
-    Page<Colis> findAllByLivreurId(String livreurId, Pageable pageable);
+    // Second temps des listes : lignes de produits d'une page entière en une requête (produit lu par sa clé)
+    @EntityGraph(attributePaths = {"colisProduits"})
+    List<Colis> findWithProduitsByIdIn(Collection<String> ids);
+
+    // c.xxx.id est lu dans la clé étrangère du colis, sans jointure
+    @Query("SELECT c.version AS version, c.dateDernierStatut AS dateDernierStatut, c.dateCreation AS dateCreation, " +
+            "c.clientExpediteur.id AS clientExpediteurId, c.destinataire.id AS destinataireId, c.livreur.id AS livreurId " +
+            "FROM Colis c WHERE c.id = :id")
+    Optional<ColisAccesProjection> findAccesById(@Param("id") String id);
+
+    // Filtre sur la clé étrangère du colis : les requêtes dérivées joignaient l'utilisateur et filtraient
+    // sur sa clé primaire, ce qui écartait les index (xxx_id, date_creation, id) des changelogs 013 et 018
+    @Query("SELECT c FROM Colis c WHERE c.clientExpediteur.id = :clientExpediteurId")
+    Page<Colis> findAllByClientExpediteurId(@Param("clientExpediteurId") String clientExpediteurId, Pageable pageable);
+
+    @Query("SELECT c FROM Colis c WHERE c.destinataire.id = :destinataireId")
+    Page<Colis> findAllByDestinataireId(@Param("destinataireId") String destinataireId, Pageable pageable);
+
+    @Query("SELECT c FROM Colis c WHERE c.livreur.id = :livreurId")
+    Page<Colis> findAllByLivreurId(@Param("livreurId") String livreurId, Pageable pageable);
+
+    // Variantes sans COUNT (size + 1 lignes) pour ?withTotal=false
+    @Query("SELECT c FROM Colis c WHERE c.clientExpediteur.id = :clientExpediteurId")
+    Slice<Colis> findSliceByClientExpediteurId(@Param("clientExpediteurId") String clientExpediteurId, Pageable pageable);
+
+    @Query("SELECT c FROM Colis c WHERE c.destinataire.id = :destinataireId")
+    Slice<Colis> findSliceByDestinataireId(@Param("destinataireId") String destinataireId, Pageable pageable);
+
+    @Query("SELECT c FROM Colis c WHERE c.livreur.id = :livreurId")
+    Slice<Colis> findSliceByLivreurId(@Param("livreurId") String livreurId, Pageable pageable);
+
+    /**
+     * Recherche par motif LIKE déjà en minuscules et échappé (voir GlobalSearchServiceImpl).
+     * Chaque expression correspond à un index trigramme PostgreSQL (changelog 012) ;
+     * l'ID est stocké en minuscules, il est comparé sans conversion.
+     */
     @Query("SELECT c FROM Colis c WHERE " +
-            "CAST(c.id AS string) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " + // Cherche sur l'ID (UUID)
-            "LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(c.villeDestination) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Colis> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+            "c.id LIKE :motif ESCAPE '\\' OR " + // Cherche sur l'ID (UUID)
+            "LOWER(c.description) LIKE :motif ESCAPE '\\' OR " +
+            "LOWER(c.villeDestination) LIKE :motif ESCAPE '\\'")
+    Page<Colis> searchByKeyword(@Param("motif") String motif, Pageable pageable);
 
     @Query("SELECT NEW com.smartlogi.sdms.dto.StatistiqueLivreurDTO(" +
             "  l.id, " +
@@ -52,4 +89,14 @@ public interface ColisRepository extends JpaRepository<Colis, String>, JpaSpecif
             "WHERE c.statut IN ('COLLECTE', 'EN_STOCK', 'EN_TRANSIT') " +
             "GROUP BY z.id, z.nom")
     List<StatistiqueZoneDTO> findStatistiquesParZone();
+
+    /**
+     * Tous les colis agrégés par livreur, zone et statut, en une seule lecture de la table.
+     */
+    @Query("SELECT l.id AS livreurId, CONCAT(l.nom, ' ', l.prenom) AS livreurNom, " +
+            "  z.id AS zoneId, z.nom AS zoneNom, c.statut AS statut, " +
+            "  COUNT(c.id) AS nombre, COALESCE(SUM(c.poidsTotal), 0.0) AS poids " +
+            "FROM Colis c LEFT JOIN c.livreur l LEFT JOIN c.zone z " +
+            "GROUP BY l.id, l.nom, l.prenom, z.id, z.nom, c.statut")
+    List<AgregatTourneeProjection> findAgregatsTournees();
 }
@@ -0,0 +1,27 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.CompactionDebit;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CompactionDebitRepository extends JpaRepository<CompactionDebit, GranulariteDebit> {
+
+    // Verrou exclusif de la compaction : une seule instance avance le filigrane à la fois
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CompactionDebit c WHERE c.granularite = :granularite")
+    Optional<CompactionDebit> verrouiller(@Param("granularite") GranulariteDebit granularite);
+
+    // Verrou partagé de l'écriture des cumuls : le filigrane ne bouge pas pendant l'écriture
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM CompactionDebit c ORDER BY c.granularite")
+    List<CompactionDebit> lirePartage();
+}
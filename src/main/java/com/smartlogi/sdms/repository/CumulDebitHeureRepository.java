@@ -0,0 +1,8 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.CumulDebitHeure;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CumulDebitHeureRepository extends CumulDebitRepository<CumulDebitHeure> {
+}
@@ -0,0 +1,8 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.CumulDebitJour;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CumulDebitJourRepository extends CumulDebitRepository<CumulDebitJour> {
+}
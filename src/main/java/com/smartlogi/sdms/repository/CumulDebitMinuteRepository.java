@@ -0,0 +1,8 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.CumulDebitMinute;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CumulDebitMinuteRepository extends CumulDebitRepository<CumulDebitMinute> {
+}
@@ -0,0 +1,36 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.CleDebit;
+import com.smartlogi.sdms.entity.CumulDebit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Requêtes communes aux tables de cumuls de débit (une par granularité).
+ */
+@NoRepositoryBean
+public interface CumulDebitRepository<T extends CumulDebit> extends JpaRepository<T, CleDebit> {
+
+    // Ajout atomique au cumul existant ; 0 si la ligne n'existe pas encore
+    @Modifying
+    @Query("UPDATE #{#entityName} c SET c.nombre = c.nombre + :nombre WHERE c.id = :cle")
+    int incrementer(@Param("cle") CleDebit cle, @Param("nombre") long nombre);
+
+    // Zone facultative : toutes les zones si nulle
+    @Query("SELECT c FROM #{#entityName} c WHERE c.id.debut >= :du AND c.id.debut < :au "
+            + "AND (:zoneId IS NULL OR c.id.zoneId = :zoneId)")
+    List<T> findPeriode(@Param("du") LocalDateTime du, @Param("au") LocalDateTime au, @Param("zoneId") String zoneId);
+
+    @Query("SELECT MIN(c.id.debut) FROM #{#entityName} c")
+    LocalDateTime findPremierDebut();
+
+    @Modifying
+    @Query("DELETE FROM #{#entityName} c WHERE c.id.debut < :limite")
+    int supprimerAvant(@Param("limite") LocalDateTime limite);
+}
@@ -1,5 +1,7 @@
 package com.smartlogi.sdms.repository;
 import com.smartlogi.sdms.entity.Destinataire;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,4 +10,7 @@ import java.util.Optional;
 @Repository
 public interface DestinataireRepository extends JpaRepository<Destinataire, String> {
     Optional<Destinataire> findByEmail(String email);
+
+    // Lecture sans COUNT (size + 1 lignes) pour ?withTotal=false
+    Slice<Destinataire> findSliceBy(Pageable pageable);
 }
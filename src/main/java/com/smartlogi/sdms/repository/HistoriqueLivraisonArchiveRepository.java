@@ -0,0 +1,13 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.HistoriqueLivraisonArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HistoriqueLivraisonArchiveRepository extends JpaRepository<HistoriqueLivraisonArchive, String> {
+
+    List<HistoriqueLivraisonArchive> findAllByColisIdOrderByDateChangementDesc(String colisId);
+}
@@ -1,13 +1,28 @@
 package com.smartlogi.sdms.repository;
 import com.smartlogi.sdms.entity.HistoriqueLivraison;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface HistoriqueLivraisonRepository extends JpaRepository<HistoriqueLivraison, String> {
 
-    // Trie automatiquement l'historique du plus récent au plus ancien
-    List<HistoriqueLivraison> findAllByColisIdOrderByDateChangementDesc(String colisId);
-}
\ No newline at end of file
+    // Trie l'historique du plus récent au plus ancien. h.colis.id est lu dans la clé étrangère :
+    // la requête dérivée joignait colis et filtrait sur sa clé primaire, hors de l'index (colis_id, date_changement).
+    // Sans borne sur date_changement : sur la table partitionnée (changelog 019), chaque partition est parcourue.
+    // Réservée aux colis sans date de création ; la lecture courante passe par findAllByColisIdDepuis.
+    @Query("SELECT h FROM HistoriqueLivraison h WHERE h.colis.id = :colisId ORDER BY h.dateChangement DESC")
+    List<HistoriqueLivraison> findAllByColisIdOrderByDateChangementDesc(@Param("colisId") String colisId);
+
+    // Même lecture bornée par la date de création du colis : date_changement >= date_creation est garanti à
+    // l'écriture (HistoriqueLivraison#horodater, trigger du changelog 022). PostgreSQL écarte les partitions
+    // antérieures à la borne, à la planification ou à l'exécution pour un plan générique.
+    @Query("SELECT h FROM HistoriqueLivraison h WHERE h.colis.id = :colisId AND h.dateChangement >= :depuis " +
+            "ORDER BY h.dateChangement DESC")
+    List<HistoriqueLivraison> findAllByColisIdDepuis(@Param("colisId") String colisId,
+                                                     @Param("depuis") LocalDateTime depuis);
+}
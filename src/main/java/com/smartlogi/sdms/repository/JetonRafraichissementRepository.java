@@ -0,0 +1,37 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.JetonRafraichissement;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface JetonRafraichissementRepository extends JpaRepository<JetonRafraichissement, String> {
+
+    /**
+     * Jeton verrouillé jusqu'à la fin de la transaction : deux rafraîchissements simultanés du même jeton
+     * sont sérialisés, le second voit le jeton déjà consommé.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM JetonRafraichissement j WHERE j.empreinte = :empreinte")
+    Optional<JetonRafraichissement> findByEmpreintePourRotation(@Param("empreinte") String empreinte);
+
+    /**
+     * Le contexte de persistance est vidé après la mise à jour : un jeton de la famille déjà chargé
+     * dans la transaction ne doit pas rester vu comme valide.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE JetonRafraichissement j SET j.revoque = true WHERE j.famille = :famille AND j.revoque = false")
+    int revoquerFamille(@Param("famille") String famille);
+
+    @Modifying
+    @Query("DELETE FROM JetonRafraichissement j WHERE j.dateExpiration < :date")
+    int supprimerExpiresAvant(@Param("date") LocalDateTime date);
+}
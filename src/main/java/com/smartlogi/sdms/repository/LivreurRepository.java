@@ -2,6 +2,7 @@ package com.smartlogi.sdms.repository;
 import com.smartlogi.sdms.entity.Livreur;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,11 +14,18 @@ import java.util.Optional;
 public interface LivreurRepository extends JpaRepository<Livreur, String> {
     Optional<Livreur> findByEmail(String email);
 
+    // Lecture sans COUNT (size + 1 lignes) pour ?withTotal=false
+    Slice<Livreur> findSliceBy(Pageable pageable);
+
+    /**
+     * Recherche par motif LIKE déjà en minuscules et échappé ; expressions alignées sur les index trigrammes
+     * de la table utilisateur (changelog 012).
+     */
     @Query("SELECT l FROM Livreur l WHERE " +
-            "LOWER(l.nom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(l.prenom) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(l.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(l.telephone) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(l.vehicule) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Livreur> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+            "LOWER(l.nom) LIKE :motif ESCAPE '\\' OR " +
+            "LOWER(l.prenom) LIKE :motif ESCAPE '\\' OR " +
+            "LOWER(l.email) LIKE :motif ESCAPE '\\' OR " +
+            "l.telephone LIKE :motif ESCAPE '\\' OR " +
+            "LOWER(l.vehicule) LIKE :motif ESCAPE '\\'")
+    Page<Livreur> searchByKeyword(@Param("motif") String motif, Pageable pageable);
 }
@@ -1,8 +1,13 @@
 package com.smartlogi.sdms.repository;
 import com.smartlogi.sdms.entity.Produit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProduitRepository extends JpaRepository<Produit, String> {
+
+    // Lecture sans COUNT (size + 1 lignes) pour ?withTotal=false
+    Slice<Produit> findSliceBy(Pageable pageable);
 }
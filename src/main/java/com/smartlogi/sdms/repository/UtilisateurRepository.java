@@ -1,7 +1,11 @@
 package com.smartlogi.sdms.repository;
 
 import com.smartlogi.sdms.entity.Utilisateur;
+import com.smartlogi.sdms.repository.projection.EtatUtilisateurProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,5 +16,15 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, String
 
 
     Optional<Utilisateur> findByEmail(String email);
+
+    /**
+     * État d'authentification d'un utilisateur (actif, version des jetons) sans charger l'entité.
+     */
+    @Query("SELECT u.enabled AS enabled, u.jetonVersion AS jetonVersion FROM Utilisateur u WHERE u.id = :id")
+    Optional<EtatUtilisateurProjection> findEtatById(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE Utilisateur u SET u.jetonVersion = u.jetonVersion + 1 WHERE u.id = :id")
+    int incrementerJetonVersion(@Param("id") String id);
 }
 
@@ -0,0 +1,19 @@
+package com.smartlogi.sdms.repository;
+
+import com.smartlogi.sdms.entity.VersionPermissions;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface VersionPermissionsRepository extends JpaRepository<VersionPermissions, Integer> {
+
+    // Incrément en base : deux modifications concurrentes donnent deux versions distinctes
+    @Transactional
+    @Modifying
+    @Query("UPDATE VersionPermissions v SET v.version = v.version + 1 WHERE v.id = :id")
+    int incrementer(@Param("id") Integer id);
+}
@@ -0,0 +1,24 @@
+package com.smartlogi.sdms.repository.projection;
+
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+
+/**
+ * Agrégat des colis par couple (livreur, zone) et par statut, source de reconstruction
+ * des compteurs de tournées. Livreur et zone sont nuls pour les colis non assignés / sans zone.
+ */
+public interface AgregatTourneeProjection {
+
+    String getLivreurId();
+
+    String getLivreurNom();
+
+    String getZoneId();
+
+    String getZoneNom();
+
+    StatutColis getStatut();
+
+    Long getNombre();
+
+    Double getPoids();
+}
@@ -0,0 +1,19 @@
+package com.smartlogi.sdms.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'un colis pour les contrôles d'accès : identifiants des utilisateurs rattachés
+ * (clés étrangères, sans jointure), version pour l'ETag et date de création (borne basse de
+ * l'historique), sans charger l'entité.
+ */
+public interface ColisAccesProjection extends ColisVersionProjection {
+
+    LocalDateTime getDateCreation();
+
+    String getClientExpediteurId();
+
+    String getDestinataireId();
+
+    String getLivreurId();
+}
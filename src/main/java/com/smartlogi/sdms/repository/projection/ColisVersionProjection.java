@@ -0,0 +1,26 @@
+package com.smartlogi.sdms.repository.projection;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Projection minimale d'un colis pour les lectures conditionnelles (If-None-Match) :
+ * version optimiste et date du dernier changement, sans charger l'entité ni ses produits.
+ */
+public interface ColisVersionProjection {
+
+    Long getVersion();
+
+    LocalDateTime getDateDernierStatut();
+
+    /**
+     * Valeur d'ETag forte (non entourée de guillemets) : change à chaque mise à jour du colis.
+     */
+    default String etag() {
+        long horodatage = getDateDernierStatut() != null
+                ? getDateDernierStatut().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : 0L;
+        long version = getVersion() != null ? getVersion() : 0L;
+        return Long.toHexString(version) + "-" + Long.toHexString(horodatage);
+    }
+}
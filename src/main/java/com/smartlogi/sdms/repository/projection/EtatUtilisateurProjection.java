@@ -0,0 +1,12 @@
+package com.smartlogi.sdms.repository.projection;
+
+/**
+ * Projection minimale d'un utilisateur pour contrôler un JWT sans recharger le compte :
+ * compte actif et version courante des jetons.
+ */
+public interface EtatUtilisateurProjection {
+
+    Boolean getEnabled();
+
+    Integer getJetonVersion();
+}
@@ -8,8 +8,11 @@ import com.smartlogi.sdms.entity.enumeration.StatutColis;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,4 +50,60 @@ public class ColisSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    public static Specification<Colis> hasClientExpediteur(String clientExpediteurId) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("clientExpediteur").get("id"), clientExpediteurId);
+    }
+
+    public static Specification<Colis> hasLivreur(String livreurId) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("livreur").get("id"), livreurId);
+    }
+
+    /**
+     * Pagination par curseur, ordre (date_creation DESC, id DESC) : colis strictement après la position
+     * (dateCreation, id) donnée, ou depuis le début si elle est nulle. Fixe aussi l'ORDER BY de la requête.
+     */
+    public static Specification<Colis> apresDateCreation(LocalDateTime dateCreation, String id) {
+        return (root, query, criteriaBuilder) -> {
+            query.orderBy(criteriaBuilder.desc(root.get("dateCreation")), criteriaBuilder.desc(root.get("id")));
+            if (dateCreation == null) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.or(
+                    criteriaBuilder.lessThan(root.<LocalDateTime>get("dateCreation"), dateCreation),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("dateCreation"), dateCreation),
+                            criteriaBuilder.lessThan(root.<String>get("id"), id)));
+        };
+    }
+
+    /**
+     * Pagination par curseur, ordre (priorite DESC, zone.nom ASC, id ASC) : tri par défaut des tournées.
+     * Les colis sans zone sont traités comme une zone de nom vide (placés en tête de chaque priorité).
+     * Hors de la garantie d'index des curseurs : zone.nom est lu par jointure, le tri porte sur tout le filtre
+     * restant (voir ColisCurseur.Ordre).
+     */
+    public static Specification<Colis> apresPrioriteZone(Priorite priorite, String zoneNom, String id) {
+        return (root, query, criteriaBuilder) -> {
+            Join<Colis, Zone> zoneJoin = root.join("zone", JoinType.LEFT);
+            Expression<String> nomZone = criteriaBuilder.coalesce(zoneJoin.<String>get("nom"), "");
+            query.orderBy(criteriaBuilder.desc(root.get("priorite")), criteriaBuilder.asc(nomZone),
+                    criteriaBuilder.asc(root.get("id")));
+            if (priorite == null) {
+                return criteriaBuilder.conjunction();
+            }
+            // Priorité stockée en texte : la comparaison suit le même ordre que le tri SQL
+            return criteriaBuilder.or(
+                    criteriaBuilder.lessThan(root.<Priorite>get("priorite"), priorite),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("priorite"), priorite),
+                            criteriaBuilder.or(
+                                    criteriaBuilder.greaterThan(nomZone, zoneNom),
+                                    criteriaBuilder.and(
+                                            criteriaBuilder.equal(nomZone, zoneNom),
+                                            criteriaBuilder.greaterThan(root.<String>get("id"), id)))));
+        };
+    }
+}
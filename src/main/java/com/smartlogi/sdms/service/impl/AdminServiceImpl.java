@@ -1,5 +1,6 @@
 package com.smartlogi.sdms.service.impl;
 
+import com.smartlogi.sdms.config.security.ModelePermissions;
 import com.smartlogi.sdms.dto.admin.PermissionDTO;
 import com.smartlogi.sdms.dto.admin.RoleDTO;
 import com.smartlogi.sdms.entity.Permission;
@@ -28,10 +29,13 @@ public class AdminServiceImpl implements AdminService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final ModelePermissions modelePermissions;
 
-    public AdminServiceImpl(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+    public AdminServiceImpl(RoleRepository roleRepository, PermissionRepository permissionRepository,
+                            ModelePermissions modelePermissions) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.modelePermissions = modelePermissions;
     }
 
     // ========== GESTION DES RÔLES ==========
@@ -47,6 +51,7 @@ public class AdminServiceImpl implements AdminService {
 
         Role savedRole = roleRepository.save(role);
         logger.info("Rôle créé: {}", savedRole.getNom());
+        modelePermissions.recompilerApresCommit();
 
         return toRoleDTO(savedRole);
     }
@@ -69,6 +74,7 @@ public class AdminServiceImpl implements AdminService {
 
         Role updatedRole = roleRepository.save(role);
         logger.info("Rôle mis à jour: {}", updatedRole.getNom());
+        modelePermissions.recompilerApresCommit();
 
         return toRoleDTO(updatedRole);
     }
@@ -80,6 +86,7 @@ public class AdminServiceImpl implements AdminService {
 
         roleRepository.delete(role);
         logger.info("Rôle supprimé: {}", role.getNom());
+        modelePermissions.recompilerApresCommit();
     }
 
     @Override
@@ -112,6 +119,7 @@ public class AdminServiceImpl implements AdminService {
         role.setActif(actif);
         Role updatedRole = roleRepository.save(role);
         logger.info("Rôle {} {}", updatedRole.getNom(), actif ? "activé" : "désactivé");
+        modelePermissions.recompilerApresCommit();
 
         return toRoleDTO(updatedRole);
     }
@@ -159,6 +167,7 @@ public class AdminServiceImpl implements AdminService {
 
         Permission updatedPermission = permissionRepository.save(permission);
         logger.info("Permission mise à jour: {}", updatedPermission.getNom());
+        modelePermissions.recompilerApresCommit();
 
         return toPermissionDTO(updatedPermission);
     }
@@ -170,6 +179,7 @@ public class AdminServiceImpl implements AdminService {
 
         permissionRepository.delete(permission);
         logger.info("Permission supprimée: {}", permission.getNom());
+        modelePermissions.recompilerApresCommit();
     }
 
     @Override
@@ -207,6 +217,7 @@ public class AdminServiceImpl implements AdminService {
         Role updatedRole = roleRepository.save(role);
 
         logger.info("Permission '{}' assignée au rôle '{}'", permission.getNom(), role.getNom());
+        modelePermissions.recompilerApresCommit();
         return toRoleDTO(updatedRole);
     }
 
@@ -221,6 +232,7 @@ public class AdminServiceImpl implements AdminService {
         Role updatedRole = roleRepository.save(role);
 
         logger.info("Permission '{}' retirée du rôle '{}'", permission.getNom(), role.getNom());
+        modelePermissions.recompilerApresCommit();
         return toRoleDTO(updatedRole);
     }
 
@@ -248,6 +260,7 @@ public class AdminServiceImpl implements AdminService {
 
         Role updatedRole = roleRepository.save(role);
         logger.info("{} permissions assignées au rôle '{}'", permissionIds.size(), role.getNom());
+        modelePermissions.recompilerApresCommit();
 
         return toRoleDTO(updatedRole);
     }
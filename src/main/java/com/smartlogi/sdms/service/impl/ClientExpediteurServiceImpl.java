@@ -7,10 +7,14 @@ import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.mapper.ClientExpediteurMapper;
 import com.smartlogi.sdms.repository.ClientExpediteurRepository;
 import com.smartlogi.sdms.service.interfaces.ClientExpediteurService;
+import com.smartlogi.sdms.service.support.EstimationVolume;
+import com.smartlogi.sdms.service.support.LecturePaginee;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -25,11 +29,14 @@ public class ClientExpediteurServiceImpl implements ClientExpediteurService {
 
     private final ClientExpediteurRepository clientExpediteurRepository;
     private final ClientExpediteurMapper clientExpediteurMapper;
+    private final EstimationVolume estimationVolume;
 
     public ClientExpediteurServiceImpl(ClientExpediteurRepository clientExpediteurRepository,
-                                       ClientExpediteurMapper clientExpediteurMapper) {
+                                       ClientExpediteurMapper clientExpediteurMapper,
+                                       EstimationVolume estimationVolume) {
         this.clientExpediteurRepository = clientExpediteurRepository;
         this.clientExpediteurMapper = clientExpediteurMapper;
+        this.estimationVolume = estimationVolume;
     }
 
     @Override
@@ -84,6 +91,16 @@ public class ClientExpediteurServiceImpl implements ClientExpediteurService {
                 .map(clientExpediteurMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ClientExpediteurDTO> findAll(Pageable pageable, ModeTotal modeTotal) {
+        log.debug("Recherche de tous les clients expéditeurs (paginée, total {})", modeTotal);
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> clientExpediteurRepository.findSliceBy(p).map(clientExpediteurMapper::toDto),
+                this::findAll,
+                () -> estimationVolume.lignes("utilisateur", "role", "CLIENT_EXPEDITEUR"));
+    }
+
     @Override
     public void delete(String id) {
         log.warn("Suppression du client expéditeur ID : {}", id);
@@ -0,0 +1,322 @@
+package com.smartlogi.sdms.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
+import com.smartlogi.sdms.dto.ColisBatchResultatDTO;
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisImportEvenementDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.service.interfaces.ColisImportService;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Import en flux (NDJSON ou CSV) des demandes de livraison.
+ * Le flux n'est jamais chargé entièrement en mémoire : les lignes sont lues une à une,
+ * regroupées en paquets de taille fixe puis créées via {@link ColisService#creerDemandesLivraisonEnLot(List)}
+ * (une transaction par paquet, mêmes règles que la création unitaire).
+ * Avant chaque paquet, l'import ralentit tant que le pool de connexions est saturé.
+ */
+@Service
+public class ColisImportServiceImpl implements ColisImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ColisImportServiceImpl.class);
+
+    private static final long PAUSE_INITIALE_MS = 50;
+    private static final long PAUSE_MAX_MS = 1_000;
+
+    // Colonnes reconnues dans l'en-tête CSV ; "produits" au format "produitId:quantite|produitId:quantite"
+    private static final String CSV_DESCRIPTION = "description";
+    private static final String CSV_PRIORITE = "priorite";
+    private static final String CSV_VILLE = "villedestination";
+    private static final String CSV_CLIENT = "clientexpediteurid";
+    private static final String CSV_DESTINATAIRE = "destinataireid";
+    private static final String CSV_ZONE = "zoneid";
+    private static final String CSV_PRODUITS = "produits";
+
+    private final ColisService colisService;
+    private final DataSource dataSource;
+    private final ObjectReader lecteurColis;
+    private final ObjectWriter ecrivainEvenement;
+    private final int taillePaquet;
+    private final long attentePoolMaxMs;
+
+    public ColisImportServiceImpl(ColisService colisService,
+                                  DataSource dataSource,
+                                  ObjectMapper objectMapper,
+                                  @Value("${sdms.import.taille-paquet:500}") int taillePaquet,
+                                  @Value("${sdms.import.attente-pool-max-ms:30000}") long attentePoolMaxMs) {
+        if (taillePaquet <= 0 || taillePaquet > ColisServiceImpl.TAILLE_MAX_LOT) {
+            throw new IllegalArgumentException("sdms.import.taille-paquet doit être compris entre 1 et " + ColisServiceImpl.TAILLE_MAX_LOT);
+        }
+        this.colisService = colisService;
+        this.dataSource = dataSource;
+        this.lecteurColis = objectMapper.readerFor(ColisDTO.class);
+        this.ecrivainEvenement = objectMapper.writerFor(ColisImportEvenementDTO.class);
+        this.taillePaquet = taillePaquet;
+        this.attentePoolMaxMs = attentePoolMaxMs;
+    }
+
+    @Override
+    public void importerColis(InputStream entree, FormatImport format, OutputStream sortie) throws IOException {
+        log.info("Début de l'import en flux ({}) de demandes de livraison", format);
+        Compteurs compteurs = new Compteurs();
+        List<ColisDTO> paquet = new ArrayList<>(taillePaquet);
+        List<Long> lignesPaquet = new ArrayList<>(taillePaquet);
+
+        BufferedReader lecteur = new BufferedReader(new InputStreamReader(entree, StandardCharsets.UTF_8));
+        Map<String, Integer> colonnesCsv = null;
+        long numeroLigne = 0;
+        String ligne;
+        while ((ligne = lecteur.readLine()) != null) {
+            numeroLigne++;
+            if (ligne.isBlank()) {
+                continue;
+            }
+            if (format == FormatImport.CSV && colonnesCsv == null) {
+                try {
+                    colonnesCsv = lireEnTeteCsv(ligne);
+                } catch (InvalidDataException e) {
+                    // En-tête inexploitable : rien ne peut être importé
+                    ecrire(sortie, ColisImportEvenementDTO.erreur(numeroLigne, e.getMessage()));
+                    break;
+                }
+                continue;
+            }
+            compteurs.lignesLues++;
+            try {
+                paquet.add(format == FormatImport.CSV ? lireLigneCsv(ligne, colonnesCsv) : lireLigneNdjson(ligne));
+                lignesPaquet.add(numeroLigne);
+            } catch (InvalidDataException e) {
+                compteurs.echecs++;
+                ecrire(sortie, ColisImportEvenementDTO.erreur(numeroLigne, e.getMessage()));
+            }
+
+            if (paquet.size() >= taillePaquet) {
+                traiterPaquet(paquet, lignesPaquet, compteurs, sortie);
+            }
+        }
+        traiterPaquet(paquet, lignesPaquet, compteurs, sortie);
+
+        ecrire(sortie, ColisImportEvenementDTO.bilan(ColisImportEvenementDTO.Type.TERMINE,
+                compteurs.lignesLues, compteurs.succes, compteurs.echecs));
+        log.info("Import terminé : {} ligne(s) lue(s), {} colis créé(s), {} en échec",
+                compteurs.lignesLues, compteurs.succes, compteurs.echecs);
+    }
+
+    private void traiterPaquet(List<ColisDTO> paquet,
+                               List<Long> lignesPaquet,
+                               Compteurs compteurs,
+                               OutputStream sortie) throws IOException {
+        if (paquet.isEmpty()) {
+            return;
+        }
+        attendreDisponibilitePool();
+        try {
+            ColisBatchResponseDTO response = colisService.creerDemandesLivraisonEnLot(List.copyOf(paquet));
+            for (ColisBatchResultatDTO resultat : response.getResultats()) {
+                if (resultat.isSucces()) {
+                    compteurs.succes++;
+                } else {
+                    compteurs.echecs++;
+                    ecrire(sortie, ColisImportEvenementDTO.erreur(lignesPaquet.get(resultat.getIndex()), resultat.getErreur()));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Le paquet entier a été annulé : chaque ligne est signalée, l'import continue
+            log.error("Échec du paquet de lignes {} à {}", lignesPaquet.get(0), lignesPaquet.get(lignesPaquet.size() - 1), e);
+            compteurs.echecs += paquet.size();
+            for (Long numero : lignesPaquet) {
+                ecrire(sortie, ColisImportEvenementDTO.erreur(numero, "Paquet annulé : " + e.getMessage()));
+            }
+        }
+        paquet.clear();
+        lignesPaquet.clear();
+
+        ecrire(sortie, ColisImportEvenementDTO.bilan(ColisImportEvenementDTO.Type.PROGRESSION,
+                compteurs.lignesLues, compteurs.succes, compteurs.echecs));
+        sortie.flush();
+    }
+
+    /**
+     * Attend (avec un délai croissant) que le pool Hikari ne soit plus saturé,
+     * au plus {@code sdms.import.attente-pool-max-ms}. Sans pool Hikari, ne fait rien.
+     */
+    void attendreDisponibilitePool() {
+        HikariDataSource hikari = hikariDataSource();
+        if (hikari == null || hikari.getHikariPoolMXBean() == null) {
+            return;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        long pause = PAUSE_INITIALE_MS;
+        long attenteTotale = 0;
+        while (attenteTotale < attentePoolMaxMs
+                && (pool.getThreadsAwaitingConnection() > 0 || pool.getActiveConnections() >= hikari.getMaximumPoolSize())) {
+            log.debug("Pool de connexions saturé ({} actives, {} en attente), pause de {} ms",
+                    pool.getActiveConnections(), pool.getThreadsAwaitingConnection(), pause);
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrompu pendant l'attente du pool de connexions", e);
+            }
+            attenteTotale += pause;
+            pause = Math.min(pause * 2, PAUSE_MAX_MS);
+        }
+        if (attenteTotale >= attentePoolMaxMs) {
+            log.warn("Pool de connexions toujours saturé après {} ms, reprise de l'import", attenteTotale);
+        }
+    }
+
+    private HikariDataSource hikariDataSource() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.debug("Impossible d'accéder au pool Hikari : {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private ColisDTO lireLigneNdjson(String ligne) {
+        try {
+            return lecteurColis.readValue(ligne);
+        } catch (JsonProcessingException e) {
+            throw new InvalidDataException("JSON invalide : " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> lireEnTeteCsv(String ligne) {
+        List<String> colonnes = decouperLigneCsv(ligne);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < colonnes.size(); i++) {
+            index.put(colonnes.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String obligatoire : List.of(CSV_CLIENT, CSV_DESTINATAIRE, CSV_VILLE, CSV_PRODUITS)) {
+            if (!index.containsKey(obligatoire)) {
+                throw new InvalidDataException("Colonne CSV obligatoire manquante : " + obligatoire);
+            }
+        }
+        return index;
+    }
+
+    private ColisDTO lireLigneCsv(String ligne, Map<String, Integer> colonnes) {
+        List<String> valeurs = decouperLigneCsv(ligne);
+        ColisDTO dto = new ColisDTO();
+        dto.setDescription(valeur(valeurs, colonnes, CSV_DESCRIPTION));
+        dto.setVilleDestination(valeur(valeurs, colonnes, CSV_VILLE));
+        dto.setClientExpediteurId(valeur(valeurs, colonnes, CSV_CLIENT));
+        dto.setDestinataireId(valeur(valeurs, colonnes, CSV_DESTINATAIRE));
+        dto.setZoneId(valeur(valeurs, colonnes, CSV_ZONE));
+
+        String priorite = valeur(valeurs, colonnes, CSV_PRIORITE);
+        if (priorite != null) {
+            try {
+                dto.setPriorite(Priorite.valueOf(priorite.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidDataException("Priorité inconnue : " + priorite);
+            }
+        }
+
+        List<ColisProduitDTO> produits = new ArrayList<>();
+        String produitsBruts = valeur(valeurs, colonnes, CSV_PRODUITS);
+        if (produitsBruts != null) {
+            for (String element : produitsBruts.split("\\|")) {
+                String[] parties = element.trim().split(":");
+                if (parties.length != 2) {
+                    throw new InvalidDataException("Produit invalide (attendu produitId:quantite) : " + element);
+                }
+                ColisProduitDTO produit = new ColisProduitDTO();
+                produit.setProduitId(parties[0].trim());
+                try {
+                    produit.setQuantite(Integer.valueOf(parties[1].trim()));
+                } catch (NumberFormatException e) {
+                    throw new InvalidDataException("Quantité invalide : " + parties[1]);
+                }
+                produits.add(produit);
+            }
+        }
+        dto.setProduits(produits);
+        return dto;
+    }
+
+    private static String valeur(List<String> valeurs, Map<String, Integer> colonnes, String colonne) {
+        Integer index = colonnes.get(colonne);
+        if (index == null || index >= valeurs.size()) {
+            return null;
+        }
+        String valeur = valeurs.get(index).trim();
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    /**
+     * Découpe une ligne CSV (séparateur virgule, champs éventuellement entre guillemets,
+     * guillemet doublé pour l'échappement). Les champs multi-lignes ne sont pas supportés.
+     */
+    static List<String> decouperLigneCsv(String ligne) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder courant = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    courant.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    courant.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == ',') {
+                champs.add(courant.toString());
+                courant.setLength(0);
+            } else {
+                courant.append(c);
+            }
+        }
+        if (entreGuillemets) {
+            throw new InvalidDataException("Guillemet non fermé dans la ligne CSV");
+        }
+        champs.add(courant.toString());
+        return champs;
+    }
+
+    private void ecrire(OutputStream sortie, ColisImportEvenementDTO evenement) throws IOException {
+        sortie.write(ecrivainEvenement.writeValueAsBytes(evenement));
+        sortie.write('\n');
+    }
+
+    private static final class Compteurs {
+        private long lignesLues;
+        private long succes;
+        private long echecs;
+    }
+}
@@ -1,11 +1,18 @@
 package com.smartlogi.sdms.service.impl;
 
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
+import com.smartlogi.sdms.dto.ColisBatchResultatDTO;
 import com.smartlogi.sdms.dto.ColisDTO;
 import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.CursorPageDTO;
+import com.smartlogi.sdms.dto.ScanStatutDTO;
 import com.smartlogi.sdms.dto.StatistiqueLivreurDTO;
 import com.smartlogi.sdms.dto.StatistiqueZoneDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
 import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.ColisArchive;
+import com.smartlogi.sdms.entity.Destinataire;
 import com.smartlogi.sdms.entity.HistoriqueLivraison;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
@@ -16,25 +23,58 @@ import com.smartlogi.sdms.repository.LivreurRepository;
 import com.smartlogi.sdms.repository.ColisProduitRepository;
 import com.smartlogi.sdms.repository.ProduitRepository;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.event.ColisEvenement;
 import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.mapper.ColisArchiveMapper;
 import com.smartlogi.sdms.mapper.ColisMapper;
 import com.smartlogi.sdms.repository.*;
 import com.smartlogi.sdms.repository.specification.ColisSpecification;
 import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
+import com.smartlogi.sdms.service.support.ColisCurseur;
+import com.smartlogi.sdms.service.support.CompteursTournees;
+import com.smartlogi.sdms.service.support.CompteursTournees.Empreinte;
+import com.smartlogi.sdms.service.support.ConflictRetryPolicy;
+import com.smartlogi.sdms.service.support.DebitColis;
+import com.smartlogi.sdms.service.support.EstimationVolume;
+import com.smartlogi.sdms.service.support.HistoriqueWriteBehind;
+import com.smartlogi.sdms.service.support.LectureArchive;
+import com.smartlogi.sdms.service.support.LecturePaginee;
+import com.smartlogi.sdms.service.support.ModeTotal;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.PageRequest; // Important
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -43,6 +83,21 @@ public class ColisServiceImpl implements ColisService {
 
     private static final Logger log = LoggerFactory.getLogger(ColisServiceImpl.class);
 
+    // Nombre maximal de colis acceptés dans un seul lot
+    static final int TAILLE_MAX_LOT = 20_000;
+    // Nombre de colis persistés entre deux flush/clear du contexte de persistance
+    static final int TAILLE_FLUSH_LOT = 500;
+    // Nombre maximal d'identifiants par requête IN (limite des paramètres JDBC)
+    private static final int TAILLE_MAX_CLAUSE_IN = 1_000;
+    // Taille maximale d'une page en pagination par curseur
+    static final int TAILLE_MAX_CURSEUR = 100;
+    // Nombre maximal de scans acceptés dans une mise à jour de statuts en lot
+    static final int TAILLE_MAX_SCANS = 1_000;
+    // Ancienneté maximale de l'heure de scan fournie par le terminal (synchronisation différée)
+    static final Duration ANCIENNETE_MAX_SCAN = Duration.ofHours(72);
+    // Avance tolérée de l'horloge du terminal sur celle du serveur
+    static final Duration AVANCE_MAX_HORLOGE = Duration.ofMinutes(2);
+
     private final ColisRepository colisRepository;
     private final ColisMapper colisMapper;
     private final HistoriqueLivraisonRepository historiqueLivraisonRepository;
@@ -53,6 +108,18 @@ public class ColisServiceImpl implements ColisService {
     private final DestinataireRepository destinataireRepository;
     private final LivreurRepository livreurRepository;
 
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final HistoriqueWriteBehind historiqueWriteBehind;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EstimationVolume estimationVolume;
+    private final CompteursTournees compteursTournees;
+    private final DebitColis debitColis;
+    private final ColisAccesMemo colisAccesMemo;
+    private final ColisArchiveRepository colisArchiveRepository;
+    private final ColisArchiveMapper colisArchiveMapper;
+
     public ColisServiceImpl(ColisRepository colisRepository,
                             ColisMapper colisMapper,
                             HistoriqueLivraisonRepository historiqueLivraisonRepository,
@@ -60,7 +127,18 @@ public class ColisServiceImpl implements ColisService {
                             DestinataireRepository destinataireRepository,
                             LivreurRepository livreurRepository,
                             ProduitRepository produitRepository,
-                            ColisProduitRepository colisProduitRepository) {
+                            ColisProduitRepository colisProduitRepository,
+                            Validator validator,
+                            EntityManager entityManager,
+                            HistoriqueWriteBehind historiqueWriteBehind,
+                            ConflictRetryPolicy conflictRetryPolicy,
+                            ApplicationEventPublisher eventPublisher,
+                            EstimationVolume estimationVolume,
+                            CompteursTournees compteursTournees,
+                            DebitColis debitColis,
+                            ColisAccesMemo colisAccesMemo,
+                            ColisArchiveRepository colisArchiveRepository,
+                            ColisArchiveMapper colisArchiveMapper) {
         this.colisRepository = colisRepository;
         this.colisMapper = colisMapper;
         this.historiqueLivraisonRepository = historiqueLivraisonRepository;
@@ -69,6 +147,17 @@ public class ColisServiceImpl implements ColisService {
         this.livreurRepository = livreurRepository;
         this.produitRepository = produitRepository;
         this.colisProduitRepository = colisProduitRepository;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.historiqueWriteBehind = historiqueWriteBehind;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.eventPublisher = eventPublisher;
+        this.estimationVolume = estimationVolume;
+        this.compteursTournees = compteursTournees;
+        this.debitColis = debitColis;
+        this.colisAccesMemo = colisAccesMemo;
+        this.colisArchiveRepository = colisArchiveRepository;
+        this.colisArchiveMapper = colisArchiveMapper;
 
     }
 
@@ -122,15 +211,193 @@ public class ColisServiceImpl implements ColisService {
         historique.setColis(colisFinal);
         historique.setStatut(StatutColis.CREE);
         historique.setCommentaire("Demande de livraison créée avec " + produitsDuColis.size() + " produit(s).");
-        historiqueLivraisonRepository.save(historique);
-        // Ajouter à la collection du colis pour maintenir la cohérence bidirectionnelle
-        colisFinal.getHistoriqueLivraisons().add(historique);
+        enregistrerHistorique(colisFinal, historique);
+        compteursTournees.enregistrer(null, Empreinte.de(colisFinal));
+        debitColis.enregistrer(idZone(colisFinal), StatutColis.CREE, colisFinal.getDateCreation());
 
         log.info("Colis créé avec succès ({} produits, {} kg)", produitsDuColis.size(), poidsTotalCalcule);
 
         return colisMapper.toDto(colisFinal);
     }
 
+    /**
+     * Crée un lot de demandes de livraison en appliquant les mêmes règles que
+     * {@link #creerDemandeLivraison(ColisDTO)}.
+     * Les clients, destinataires et produits référencés sont validés par des requêtes ensemblistes,
+     * puis les colis (avec leurs produits et leur historique initial, par cascade) sont persistés
+     * par paquets afin de profiter du batching JDBC d'Hibernate.
+     * Un élément invalide est rapporté dans le résultat sans bloquer le reste du lot.
+     */
+    @Override
+    @Transactional
+    public ColisBatchResponseDTO creerDemandesLivraisonEnLot(List<ColisDTO> colisDTOs) {
+        if (colisDTOs == null || colisDTOs.isEmpty()) {
+            throw new InvalidDataException("Le lot de colis ne peut pas être vide.");
+        }
+        if (colisDTOs.size() > TAILLE_MAX_LOT) {
+            throw new InvalidDataException("Le lot ne peut pas dépasser " + TAILLE_MAX_LOT + " colis.");
+        }
+        log.info("Début de la création d'un lot de {} demande(s) de livraison", colisDTOs.size());
+
+        Set<String> clientsExistants = chargerParPaquets(
+                collecterIds(colisDTOs, ColisDTO::getClientExpediteurId),
+                ids -> clientExpediteurRepository.findAllById(ids).stream().map(ClientExpediteur::getId).toList())
+                .stream().collect(Collectors.toSet());
+        Set<String> destinatairesExistants = chargerParPaquets(
+                collecterIds(colisDTOs, ColisDTO::getDestinataireId),
+                ids -> destinataireRepository.findAllById(ids).stream().map(Destinataire::getId).toList())
+                .stream().collect(Collectors.toSet());
+        Map<String, Produit> produits = chargerParPaquets(
+                colisDTOs.stream()
+                        .filter(dto -> dto != null && dto.getProduits() != null)
+                        .flatMap(dto -> dto.getProduits().stream())
+                        .filter(Objects::nonNull)
+                        .map(ColisProduitDTO::getProduitId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()),
+                produitRepository::findAllById)
+                .stream().collect(Collectors.toMap(Produit::getId, Function.identity()));
+
+        List<ColisBatchResultatDTO> resultats = new ArrayList<>(colisDTOs.size());
+        List<Colis> paquet = new ArrayList<>(TAILLE_FLUSH_LOT);
+        List<Integer> indexPaquet = new ArrayList<>(TAILLE_FLUSH_LOT);
+
+        for (int index = 0; index < colisDTOs.size(); index++) {
+            ColisDTO dto = colisDTOs.get(index);
+            String erreur = validerElementLot(dto, clientsExistants, destinatairesExistants, produits);
+            if (erreur != null) {
+                resultats.add(ColisBatchResultatDTO.echec(index, erreur));
+                continue;
+            }
+
+            Colis colis = construireColis(dto, produits);
+            colisRepository.save(colis);
+            compteursTournees.enregistrer(null, Empreinte.de(colis));
+            debitColis.enregistrer(idZone(colis), StatutColis.CREE, colis.getDateCreation());
+            paquet.add(colis);
+            indexPaquet.add(index);
+
+            if (paquet.size() >= TAILLE_FLUSH_LOT) {
+                viderPaquet(paquet, indexPaquet, resultats);
+            }
+        }
+        viderPaquet(paquet, indexPaquet, resultats);
+
+        resultats.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+
+        ColisBatchResponseDTO response = construireReponseLot(resultats);
+
+        log.info("Lot traité : {} colis créé(s), {} en échec", response.getNombreSucces(), response.getNombreEchecs());
+        return response;
+    }
+
+    private String validerElementLot(ColisDTO dto,
+                                     Set<String> clientsExistants,
+                                     Set<String> destinatairesExistants,
+                                     Map<String, Produit> produits) {
+        if (dto == null) {
+            return "Élément du lot vide.";
+        }
+        Set<ConstraintViolation<ColisDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!clientsExistants.contains(dto.getClientExpediteurId())) {
+            return "Client Expéditeur non trouvé avec l'id : " + dto.getClientExpediteurId();
+        }
+        if (!destinatairesExistants.contains(dto.getDestinataireId())) {
+            return "Destinataire non trouvé avec l'id : " + dto.getDestinataireId();
+        }
+        for (ColisProduitDTO produitDto : dto.getProduits()) {
+            if (!produits.containsKey(produitDto.getProduitId())) {
+                return "Produit non trouvé : " + produitDto.getProduitId();
+            }
+        }
+        return null;
+    }
+
+    private Colis construireColis(ColisDTO dto, Map<String, Produit> produits) {
+        Colis colis = colisMapper.toEntity(dto);
+        LocalDateTime maintenant = LocalDateTime.now();
+        colis.setStatut(StatutColis.CREE);
+        colis.setDateCreation(maintenant);
+        colis.setDateDernierStatut(maintenant);
+        if (colis.getPriorite() == null) {
+            colis.setPriorite(Priorite.NORMALE);
+        }
+
+        double poidsTotalCalcule = 0.0;
+        for (ColisProduitDTO produitDto : dto.getProduits()) {
+            Produit produit = produits.get(produitDto.getProduitId());
+            poidsTotalCalcule += produit.getPoids() * produitDto.getQuantite();
+
+            ColisProduit cp = new ColisProduit();
+            cp.setColis(colis);
+            cp.setProduit(produit);
+            cp.setQuantite(produitDto.getQuantite());
+            colis.getColisProduits().add(cp);
+        }
+        colis.setPoidsTotal(poidsTotalCalcule);
+
+        // Historique initial, persisté par cascade avec le colis
+        HistoriqueLivraison historique = new HistoriqueLivraison();
+        historique.setColis(colis);
+        historique.setStatut(StatutColis.CREE);
+        historique.setCommentaire("Demande de livraison créée avec " + dto.getProduits().size() + " produit(s).");
+        colis.getHistoriqueLivraisons().add(historique);
+
+        return colis;
+    }
+
+    private void viderPaquet(List<Colis> paquet,
+                             List<Integer> indexPaquet,
+                             List<ColisBatchResultatDTO> resultats) {
+        if (paquet.isEmpty()) {
+            return;
+        }
+        // Envoie les INSERT groupés puis libère le contexte de persistance pour borner la mémoire.
+        // Flush par le repository : les exceptions JPA y sont traduites en exceptions Spring
+        colisRepository.flush();
+        for (int i = 0; i < paquet.size(); i++) {
+            resultats.add(ColisBatchResultatDTO.succes(indexPaquet.get(i), paquet.get(i).getId()));
+        }
+        entityManager.clear();
+        paquet.clear();
+        indexPaquet.clear();
+    }
+
+    private static ColisBatchResponseDTO construireReponseLot(List<ColisBatchResultatDTO> resultats) {
+        ColisBatchResponseDTO response = new ColisBatchResponseDTO();
+        response.setTotal(resultats.size());
+        response.setNombreSucces((int) resultats.stream().filter(ColisBatchResultatDTO::isSucces).count());
+        response.setNombreEchecs(response.getTotal() - response.getNombreSucces());
+        response.setResultats(resultats);
+        return response;
+    }
+
+    private static Set<String> collecterIds(List<ColisDTO> colisDTOs, Function<ColisDTO, String> extracteur) {
+        Set<String> ids = new HashSet<>();
+        for (ColisDTO dto : colisDTOs) {
+            if (dto != null && extracteur.apply(dto) != null) {
+                ids.add(extracteur.apply(dto));
+            }
+        }
+        return ids;
+    }
+
+    private static <T> List<T> chargerParPaquets(Collection<String> ids, Function<List<String>, List<T>> chargeur) {
+        List<String> listeIds = new ArrayList<>(ids);
+        List<T> resultat = new ArrayList<>(listeIds.size());
+        for (int debut = 0; debut < listeIds.size(); debut += TAILLE_MAX_CLAUSE_IN) {
+            int fin = Math.min(debut + TAILLE_MAX_CLAUSE_IN, listeIds.size());
+            resultat.addAll(chargeur.apply(listeIds.subList(debut, fin)));
+        }
+        return resultat;
+    }
+
     @Override
     public ColisDTO update(String id, ColisDTO colisDTO) {
         // Implémentation du CRUD de base (à venir)
@@ -142,17 +409,25 @@ public class ColisServiceImpl implements ColisService {
     @Transactional(readOnly = true)
     public ColisDTO findById(String id) {
         log.debug("Recherche du colis ID : {}", id);
-        return colisRepository.findById(id)
-                .map(colisMapper::toDto)
+        // Même lecture que le contrôle d'accès et l'ETag de la requête ; colis livré archivé
+        // (ArchivageColis) servi depuis l'archive froide, sous la même forme
+        return colisAccesMemo.chargerDetail(id)
+                .map(ColisAccesMemo.Detail::colis)
                 .orElseThrow(() -> new ResourceNotFoundException("Colis non trouvé avec l'id : " + id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findEtag(String id) {
+        // Lecture partagée avec le contrôle d'accès et le corps de la même requête
+        return colisAccesMemo.chargerDetail(id).map(detail -> detail.acces().etag());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<ColisDTO> findAll(Pageable pageable) {
         log.debug("Recherche de tous les colis (paginée)");
-        return colisRepository.findAll(pageable)
-                .map(colisMapper::toDto);
+        return pageDto(colisRepository.findAll(pageable));
     }
 
     @Override
@@ -162,6 +437,9 @@ public class ColisServiceImpl implements ColisService {
         if (!colisRepository.existsById(id)) {
             throw new ResourceNotFoundException("Colis non trouvé avec l'id : " + id);
         }
+        if (compteursTournees.isActif()) {
+            colisRepository.findById(id).ifPresent(colis -> compteursTournees.enregistrer(Empreinte.de(colis), null));
+        }
 
         colisRepository.deleteById(id);
     }
@@ -171,9 +449,11 @@ public class ColisServiceImpl implements ColisService {
     public Page<ColisDTO> findColisByClientExpediteur(String clientExpediteurId, Pageable pageable) {
         log.debug("Recherche des colis (paginée) pour le client ID : {}", clientExpediteurId);
 
-        Page<Colis> colisPage = colisRepository.findAllByClientExpediteurId(clientExpediteurId, pageable);
-
-        return colisPage.map(colisMapper::toDto);
+        // Les colis archivés suivent les colis chauds (voir LectureArchive)
+        return LectureArchive.page(pageable,
+                p -> pageDto(colisRepository.findAllByClientExpediteurId(clientExpediteurId, p)),
+                f -> versDtoArchive(colisArchiveRepository.findByClientExpediteurId(clientExpediteurId, f)),
+                () -> colisArchiveRepository.countByClientExpediteurId(clientExpediteurId));
     }
 
     @Override
@@ -181,9 +461,10 @@ public class ColisServiceImpl implements ColisService {
     public Page<ColisDTO> findColisByDestinataire(String destinataireId, Pageable pageable) {
         log.debug("Recherche des colis (paginée) pour le destinataire ID : {}", destinataireId);
 
-        Page<Colis> colisPage = colisRepository.findAllByDestinataireId(destinataireId, pageable);
-
-        return colisPage.map(colisMapper::toDto);
+        return LectureArchive.page(pageable,
+                p -> pageDto(colisRepository.findAllByDestinataireId(destinataireId, p)),
+                f -> versDtoArchive(colisArchiveRepository.findByDestinataireId(destinataireId, f)),
+                () -> colisArchiveRepository.countByDestinataireId(destinataireId));
     }
 
     @Override
@@ -191,56 +472,115 @@ public class ColisServiceImpl implements ColisService {
     public Page<ColisDTO> findColisByLivreur(String livreurId, Pageable pageable) {
         log.debug("Recherche des colis (paginée) pour le livreur ID : {}", livreurId);
 
-        Pageable pageableWithSort = pageable;
+        return pageDto(colisRepository.findAllByLivreurId(livreurId, avecTriTournee(pageable)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ColisDTO> findColisByClientExpediteur(String clientExpediteurId, Pageable pageable, ModeTotal modeTotal) {
+        // Pas de statistique par client : le mode estimé se replie sur le comptage exact.
+        // Sans total, colis chauds seulement : l'archive se situe par le nombre de colis chauds (LectureArchive)
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> sliceDto(colisRepository.findSliceByClientExpediteurId(clientExpediteurId, p)),
+                p -> findColisByClientExpediteur(clientExpediteurId, p),
+                OptionalLong::empty);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ColisDTO> findColisByDestinataire(String destinataireId, Pageable pageable, ModeTotal modeTotal) {
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> sliceDto(colisRepository.findSliceByDestinataireId(destinataireId, p)),
+                p -> findColisByDestinataire(destinataireId, p),
+                OptionalLong::empty);
+    }
 
-        if (pageable.getSort().isUnsorted()) {
-            log.trace("Aucun tri spécifié. Application du tri par défaut (priorite DESC, zone.nom ASC)");
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ColisDTO> findColisByLivreur(String livreurId, Pageable pageable, ModeTotal modeTotal) {
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> sliceDto(colisRepository.findSliceByLivreurId(livreurId, avecTriTournee(p))),
+                p -> findColisByLivreur(livreurId, p),
+                OptionalLong::empty);
+    }
 
+    private Page<ColisDTO> pageDto(Page<Colis> page) {
+        return new PageImpl<>(versDto(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
 
-            Sort defaultSort = Sort.by(
-                    Sort.Order.desc("priorite"),
-                    Sort.Order.asc("zone.nom") // Tri par nom de la zone
-            );
+    private Slice<ColisDTO> sliceDto(Slice<Colis> slice) {
+        return new SliceImpl<>(versDto(slice.getContent()), slice.getPageable(), slice.hasNext());
+    }
 
-            pageableWithSort = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), defaultSort);
+    /**
+     * Conversion d'une liste en deux temps : la page est lue sans ses lignes de produits, puis les lignes de
+     * tous ses colis sont chargées par une requête (graphe colisProduits) au lieu d'une requête par colis
+     * à la conversion. Nombre de requêtes constant par page, quelle que soit sa taille.
+     */
+    private List<ColisDTO> versDto(List<Colis> colis) {
+        if (colis.isEmpty()) {
+            return List.of();
         }
+        Map<String, Colis> avecProduits = chargerParPaquets(colis.stream().map(Colis::getId).toList(),
+                colisRepository::findWithProduitsByIdIn).stream()
+                .collect(Collectors.toMap(Colis::getId, Function.identity(), (premier, doublon) -> premier));
+        return colis.stream()
+                .map(c -> colisMapper.toDto(avecProduits.getOrDefault(c.getId(), c)))
+                .toList();
+    }
 
-        Page<Colis> colisPage = colisRepository.findAllByLivreurId(livreurId, pageableWithSort);
+    private List<ColisDTO> versDtoArchive(List<ColisArchive> archives) {
+        if (archives.isEmpty()) {
+            return List.of();
+        }
+        Map<String, ColisArchive> avecProduits = chargerParPaquets(archives.stream().map(ColisArchive::getId).toList(),
+                colisArchiveRepository::findWithProduitsByIdIn).stream()
+                .collect(Collectors.toMap(ColisArchive::getId, Function.identity(), (premier, doublon) -> premier));
+        return archives.stream()
+                .map(archive -> colisArchiveMapper.toDto(avecProduits.getOrDefault(archive.getId(), archive)))
+                .toList();
+    }
 
-        return colisPage.map(colisMapper::toDto);
+    /**
+     * Tri par défaut des tournées livreur lorsqu'aucun tri n'est demandé : priorite DESC, zone.nom ASC.
+     */
+    private static Pageable avecTriTournee(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        log.trace("Aucun tri spécifié. Application du tri par défaut (priorite DESC, zone.nom ASC)");
+        Sort defaultSort = Sort.by(
+                Sort.Order.desc("priorite"),
+                Sort.Order.asc("zone.nom") // Tri par nom de la zone
+        );
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), defaultSort)
+                : Pageable.unpaged(defaultSort);
     }
 
+    /**
+     * Mise à jour de statut protégée par verrouillage optimiste : en cas de modification concurrente
+     * du colis, l'opération est rejouée sur l'état à jour par {@link ConflictRetryPolicy}.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ColisDTO updateStatutColis(String colisId, StatutColis newStatut, String commentaire) {
+        return conflictRetryPolicy.executer("updateStatutColis(" + colisId + ")",
+                () -> appliquerStatutColis(colisId, newStatut, commentaire));
+    }
+
+    private ColisDTO appliquerStatutColis(String colisId, StatutColis newStatut, String commentaire) {
         log.info("Tentative de mise à jour du statut pour colis ID : {}. Nouveau statut : {}", colisId, newStatut);
 
         Colis colis = colisRepository.findById(colisId)
                 .orElseThrow(() -> new ResourceNotFoundException("Colis non trouvé avec l'id : " + colisId));
 
-        StatutColis currentStatut = colis.getStatut();
-
-        if (newStatut == null) {
-            throw new InvalidDataException("Le nouveau statut ne peut pas être null.");
-        }
-
-        if (currentStatut == newStatut) {
-            log.warn("Le colis {} est déjà au statut {}. Aucune action.", colisId, newStatut);
+        if (!verifierTransition(colis, newStatut)) {
             return colisMapper.toDto(colis); // Retourne l'état actuel
         }
 
-        if (currentStatut == StatutColis.LIVRE) {
-            log.error("Transition de statut invalide : le colis {} est déjà LIVRE.", colisId);
-            throw new InvalidDataException("Le statut d'un colis déjà livré ne peut pas être modifié.");
-        }
-
-
-        if (newStatut.ordinal() < currentStatut.ordinal()) {
-            log.error("Transition de statut invalide (retour en arrière) : {} -> {} pour colis {}",
-                    currentStatut, newStatut, colisId);
-            throw new InvalidDataException("Transition de statut invalide (retour en arrière) : de " + currentStatut + " à " + newStatut);
-        }
-
+        StatutColis ancienStatut = colis.getStatut();
+        Empreinte avant = Empreinte.de(colis);
         colis.setStatut(newStatut);
         colis.setDateDernierStatut(LocalDateTime.now()); // Automatisé aussi par @PreUpdate
 
@@ -251,18 +591,224 @@ public class ColisServiceImpl implements ColisService {
         historique.setStatut(newStatut);
         historique.setCommentaire(commentaire);
 
-        historiqueLivraisonRepository.save(historique);
-        // Ajouter à la collection du colis pour maintenir la cohérence bidirectionnelle
-        updatedColis.getHistoriqueLivraisons().add(historique);
+        enregistrerHistorique(updatedColis, historique);
+        compteursTournees.enregistrer(avant, Empreinte.de(updatedColis));
+        debitColis.enregistrer(idZone(updatedColis), newStatut, updatedColis.getDateDernierStatut());
+        publierEvenement(ColisEvenement.Type.STATUT, updatedColis, ancienStatut, idLivreur(updatedColis), commentaire);
 
         log.info("Statut du colis ID {} mis à jour à {} et historique créé.", updatedColis.getId(), newStatut);
 
         return colisMapper.toDto(updatedColis);
     }
 
+    /**
+     * Applique une liste de scans avec les mêmes règles de transition que {@link #updateStatutColis}.
+     * Les colis sont chargés (et l'appartenance au livreur vérifiée) en une seule requête,
+     * puis tous les historiques du lot sont insérés dans un même batch JDBC.
+     * Un scan invalide est rapporté dans le résultat sans bloquer les autres.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ColisBatchResponseDTO updateStatutsEnLot(List<ScanStatutDTO> scans, String livreurId) {
+        if (scans == null || scans.isEmpty()) {
+            throw new InvalidDataException("La liste des scans ne peut pas être vide.");
+        }
+        if (scans.size() > TAILLE_MAX_SCANS) {
+            throw new InvalidDataException("Un lot ne peut pas dépasser " + TAILLE_MAX_SCANS + " scans.");
+        }
+        return conflictRetryPolicy.executer("updateStatutsEnLot", () -> appliquerScans(scans, livreurId));
+    }
+
+    private ColisBatchResponseDTO appliquerScans(List<ScanStatutDTO> scans, String livreurId) {
+        log.info("Mise à jour en lot de {} statut(s) de colis (livreur : {})", scans.size(), livreurId);
+
+        Map<String, Colis> colisParId = chargerParPaquets(
+                scans.stream()
+                        .filter(Objects::nonNull)
+                        .map(ScanStatutDTO::getColisId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()),
+                colisRepository::findAllById)
+                .stream().collect(Collectors.toMap(Colis::getId, Function.identity()));
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<ColisBatchResultatDTO> resultats = new ArrayList<>(scans.size());
+        List<HistoriqueLivraison> historiques = new ArrayList<>(scans.size());
+
+        for (int index = 0; index < scans.size(); index++) {
+            ScanStatutDTO scan = scans.get(index);
+            String erreur = validerScan(scan, colisParId, livreurId, maintenant);
+            if (erreur != null) {
+                resultats.add(ColisBatchResultatDTO.echec(index, erreur));
+                continue;
+            }
+
+            Colis colis = colisParId.get(scan.getColisId());
+            try {
+                if (verifierTransition(colis, scan.getStatut())) {
+                    // Avance d'horloge tolérée : ramenée à l'heure de traitement
+                    LocalDateTime dateScan = scan.getScannedAt() != null && !scan.getScannedAt().isAfter(maintenant)
+                            ? scan.getScannedAt() : maintenant;
+                    StatutColis ancienStatut = colis.getStatut();
+                    Empreinte avant = Empreinte.de(colis);
+                    colis.setStatut(scan.getStatut());
+                    colis.horodaterStatut(dateScan);
+
+                    HistoriqueLivraison historique = new HistoriqueLivraison();
+                    historique.setColis(colis);
+                    historique.setStatut(scan.getStatut());
+                    historique.setCommentaire(scan.getCommentaire());
+                    historique.setDateChangement(dateScan);
+                    historiques.add(historique);
+                    compteursTournees.enregistrer(avant, Empreinte.de(colis));
+                    debitColis.enregistrer(idZone(colis), scan.getStatut(), dateScan);
+                    publierEvenement(ColisEvenement.Type.STATUT, colis, ancienStatut, idLivreur(colis), scan.getCommentaire());
+                }
+                resultats.add(ColisBatchResultatDTO.succes(index, colis.getId()));
+            } catch (InvalidDataException e) {
+                resultats.add(ColisBatchResultatDTO.echec(index, e.getMessage()));
+            }
+        }
+
+        if (historiqueWriteBehind.isActif()) {
+            historiques.forEach(historiqueWriteBehind::ajouter);
+        } else if (!historiques.isEmpty()) {
+            // Taille de batch alignée sur le lot : un seul aller-retour pour les historiques
+            Session session = entityManager.unwrap(Session.class);
+            Integer tailleBatchPrecedente = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(historiques.size());
+            try {
+                // Flush par le repository : un conflit de version sur les colis du lot y est traduit en
+                // ObjectOptimisticLockingFailureException, rejouée par ConflictRetryPolicy (409 au-delà)
+                historiqueLivraisonRepository.saveAll(historiques);
+                historiqueLivraisonRepository.flush();
+            } finally {
+                session.setJdbcBatchSize(tailleBatchPrecedente);
+            }
+        }
+
+        ColisBatchResponseDTO response = construireReponseLot(resultats);
+        log.info("Scans traités : {} appliqué(s), {} en échec, {} historique(s) créé(s)",
+                response.getNombreSucces(), response.getNombreEchecs(), historiques.size());
+        return response;
+    }
+
+    private String validerScan(ScanStatutDTO scan, Map<String, Colis> colisParId, String livreurId, LocalDateTime maintenant) {
+        if (scan == null) {
+            return "Scan vide.";
+        }
+        Set<ConstraintViolation<ScanStatutDTO>> violations = validator.validate(scan);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        Colis colis = colisParId.get(scan.getColisId());
+        if (colis == null) {
+            return "Colis non trouvé avec l'id : " + scan.getColisId();
+        }
+        if (livreurId != null && (colis.getLivreur() == null || !livreurId.equals(colis.getLivreur().getId()))) {
+            return "Le colis " + scan.getColisId() + " n'est pas assigné à ce livreur.";
+        }
+        // L'heure de scan devient la date de l'historique et du dernier statut : bornée par la création du colis
+        // et par son dernier statut, pour que l'historique suive la progression des statuts
+        LocalDateTime scannedAt = scan.getScannedAt();
+        if (scannedAt == null) {
+            return null;
+        }
+        if (scannedAt.isAfter(maintenant.plus(AVANCE_MAX_HORLOGE))) {
+            return "L'heure du scan ne peut pas être dans le futur.";
+        }
+        if (scannedAt.isBefore(maintenant.minus(ANCIENNETE_MAX_SCAN))) {
+            return "L'heure du scan dépasse l'ancienneté maximale de " + ANCIENNETE_MAX_SCAN.toHours() + " h.";
+        }
+        if (colis.getDateCreation() != null && scannedAt.isBefore(colis.getDateCreation())) {
+            return "L'heure du scan est antérieure à la création du colis " + scan.getColisId() + ".";
+        }
+        // Colis déjà horodaté par un scan précédent du lot : dateDernierStatut est à jour
+        if (colis.getDateDernierStatut() != null && scannedAt.isBefore(colis.getDateDernierStatut())) {
+            return "L'heure du scan est antérieure au dernier statut du colis " + scan.getColisId() + ".";
+        }
+        return null;
+    }
+
+    /**
+     * Publie l'événement de domaine ; les écouteurs transactionnels ne le reçoivent qu'après le commit,
+     * une tentative annulée (conflit rejoué, erreur) ne produit donc aucune notification.
+     */
+    private void publierEvenement(ColisEvenement.Type type, Colis colis, StatutColis ancienStatut,
+                                  String ancienLivreurId, String commentaire) {
+        eventPublisher.publishEvent(new ColisEvenement(
+                type,
+                colis.getId(),
+                colis.getStatut(),
+                ancienStatut,
+                colis.getClientExpediteur() != null ? colis.getClientExpediteur().getId() : null,
+                idLivreur(colis),
+                ancienLivreurId,
+                commentaire,
+                LocalDateTime.now()));
+    }
+
+    private static String idLivreur(Colis colis) {
+        return colis.getLivreur() != null ? colis.getLivreur().getId() : null;
+    }
+
+    private static String idZone(Colis colis) {
+        return colis.getZone() != null ? colis.getZone().getId() : null;
+    }
+
+    private void enregistrerHistorique(Colis colis, HistoriqueLivraison historique) {
+        if (historiqueWriteBehind.isActif()) {
+            // Écrit après la validation de la transaction par le thread d'écriture différée
+            historiqueWriteBehind.ajouter(historique);
+            return;
+        }
+        historiqueLivraisonRepository.save(historique);
+        // Ajouter à la collection du colis pour maintenir la cohérence bidirectionnelle
+        colis.getHistoriqueLivraisons().add(historique);
+    }
+
+    /**
+     * Règles de transition de statut, communes à la mise à jour unitaire et en lot.
+     *
+     * @return false si le colis est déjà au statut demandé (aucune action), true si la transition est valide
+     * @throws InvalidDataException si la transition est interdite
+     */
+    private boolean verifierTransition(Colis colis, StatutColis newStatut) {
+        StatutColis currentStatut = colis.getStatut();
+
+        if (newStatut == null) {
+            throw new InvalidDataException("Le nouveau statut ne peut pas être null.");
+        }
+
+        if (currentStatut == newStatut) {
+            log.warn("Le colis {} est déjà au statut {}. Aucune action.", colis.getId(), newStatut);
+            return false;
+        }
+
+        if (currentStatut == StatutColis.LIVRE) {
+            log.error("Transition de statut invalide : le colis {} est déjà LIVRE.", colis.getId());
+            throw new InvalidDataException("Le statut d'un colis déjà livré ne peut pas être modifié.");
+        }
+
+        if (newStatut.ordinal() < currentStatut.ordinal()) {
+            log.error("Transition de statut invalide (retour en arrière) : {} -> {} pour colis {}",
+                    currentStatut, newStatut, colis.getId());
+            throw new InvalidDataException("Transition de statut invalide (retour en arrière) : de " + currentStatut + " à " + newStatut);
+        }
+        return true;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ColisDTO assignerColisLivreur(String colisId, String livreurId) {
+        return conflictRetryPolicy.executer("assignerColisLivreur(" + colisId + ")",
+                () -> appliquerAssignation(colisId, livreurId));
+    }
+
+    private ColisDTO appliquerAssignation(String colisId, String livreurId) {
         log.info("Tentative d'assignation du colis ID : {} au livreur ID : {}", colisId, livreurId);
 
         Colis colis = colisRepository.findById(colisId)
@@ -278,9 +824,15 @@ public class ColisServiceImpl implements ColisService {
                     colis.getZone().getNom(), livreur.getZone().getNom());
         }
 
+        String ancienLivreurId = idLivreur(colis);
+        Empreinte avant = Empreinte.de(colis);
         colis.setLivreur(livreur);
 
         Colis updatedColis = colisRepository.save(colis);
+        if (!livreurId.equals(ancienLivreurId)) {
+            compteursTournees.enregistrer(avant, Empreinte.de(updatedColis));
+            publierEvenement(ColisEvenement.Type.ASSIGNATION, updatedColis, updatedColis.getStatut(), ancienLivreurId, null);
+        }
 
         log.info("Colis ID {} assigné avec succès au livreur {}", colisId, livreur.getNom());
         return colisMapper.toDto(updatedColis);
@@ -294,14 +846,88 @@ public class ColisServiceImpl implements ColisService {
         Specification<Colis> spec = ColisSpecification.findByCriteria(statut, zoneId, ville, priorite);
 
 
-        Page<Colis> colisPage = colisRepository.findAll(spec, pageable);
+        return pageDto(colisRepository.findAll(spec, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ColisDTO> findAllColisByCriteria(StatutColis statut, String zoneId, String ville, Priorite priorite,
+                                                  Pageable pageable, ModeTotal modeTotal) {
+        Specification<Colis> spec = ColisSpecification.findByCriteria(statut, zoneId, ville, priorite);
+        // Statistiques disponibles pour la table entière seulement : estimation sans filtre, sinon comptage exact
+        boolean sansFiltre = statut == null && !StringUtils.hasText(zoneId) && !StringUtils.hasText(ville) && priorite == null;
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> sliceDto(colisRepository.findBy(spec, requete -> requete.slice(p))),
+                p -> findAllColisByCriteria(statut, zoneId, ville, priorite, p),
+                () -> sansFiltre ? estimationVolume.lignes("colis") : OptionalLong.empty());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ColisDTO> findAllColisByCriteriaCurseur(StatutColis statut, String zoneId, String ville, Priorite priorite,
+                                                                 ColisCurseur.Ordre ordre, String curseur, int taille) {
+        log.debug("Recherche de colis par critères (curseur) : statut={}, zoneId={}, ville={}, priorite={}, ordre={}",
+                statut, zoneId, ville, priorite, ordre);
+        return pageParCurseur(ColisSpecification.findByCriteria(statut, zoneId, ville, priorite), ordre, curseur, taille);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ColisDTO> findColisByClientExpediteurCurseur(String clientExpediteurId, ColisCurseur.Ordre ordre,
+                                                                      String curseur, int taille) {
+        log.debug("Recherche des colis (curseur) pour le client ID : {}", clientExpediteurId);
+        return pageParCurseur(ColisSpecification.hasClientExpediteur(clientExpediteurId), ordre, curseur, taille);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ColisDTO> findColisByLivreurCurseur(String livreurId, ColisCurseur.Ordre ordre, String curseur, int taille) {
+        log.debug("Recherche des colis (curseur) pour le livreur ID : {}", livreurId);
+        // Même tri par défaut que la variante paginée (priorite DESC, zone.nom ASC)
+        ColisCurseur.Ordre ordreEffectif = ordre != null ? ordre : ColisCurseur.Ordre.PRIORITE_ZONE;
+        return pageParCurseur(ColisSpecification.hasLivreur(livreurId), ordreEffectif, curseur, taille);
+    }
 
-        return colisPage.map(colisMapper::toDto);
+    /**
+     * Lit {@code taille + 1} colis après la position du curseur : le colis en trop indique seulement
+     * qu'une page suivante existe, ce qui évite la requête COUNT de la pagination classique.
+     */
+    private CursorPageDTO<ColisDTO> pageParCurseur(Specification<Colis> filtre, ColisCurseur.Ordre ordre,
+                                                   String curseur, int taille) {
+        ColisCurseur.Ordre ordreEffectif = ordre != null ? ordre : ColisCurseur.Ordre.DATE_CREATION;
+        int limite = Math.max(1, Math.min(taille, TAILLE_MAX_CURSEUR));
+        ColisCurseur position = curseur == null || curseur.isBlank() ? null : ColisCurseur.decoder(curseur, ordreEffectif);
+
+        Specification<Colis> keyset = switch (ordreEffectif) {
+            case DATE_CREATION -> ColisSpecification.apresDateCreation(
+                    position != null ? position.dateCreation() : null, position != null ? position.id() : null);
+            case PRIORITE_ZONE -> ColisSpecification.apresPrioriteZone(
+                    position != null ? position.priorite() : null,
+                    position != null ? position.zoneNom() : null, position != null ? position.id() : null);
+        };
+
+        List<Colis> colis = colisRepository.findBy(filtre.and(keyset), requete -> requete.limit(limite + 1).all());
+
+        String curseurSuivant = null;
+        if (colis.size() > limite) {
+            colis = colis.subList(0, limite);
+            curseurSuivant = ColisCurseur.depuis(colis.get(limite - 1), ordreEffectif).encoder();
+        }
+        List<ColisDTO> contenu = versDto(colis);
+        return new CursorPageDTO<>(contenu, contenu.size(), curseurSuivant);
     }
 
+    /**
+     * Statistiques servies par les compteurs de tournées lorsqu'ils sont actifs et construits,
+     * sinon calculées par agrégation sur les colis actifs.
+     */
     @Override
     @Transactional(readOnly = true)
     public StatistiquesTourneeDTO getStatistiquesTournees() {
+        Optional<StatistiquesTourneeDTO> depuisCompteurs = compteursTournees.statistiques();
+        if (depuisCompteurs.isPresent()) {
+            return depuisCompteurs.get();
+        }
         log.debug("Calcul des statistiques de tournées...");
 
         List<StatistiqueLivreurDTO> statsLivreurs = colisRepository.findStatistiquesParLivreur();
@@ -7,10 +7,14 @@ import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.mapper.DestinataireMapper;
 import com.smartlogi.sdms.repository.DestinataireRepository;
 import com.smartlogi.sdms.service.interfaces.DestinataireService;
+import com.smartlogi.sdms.service.support.EstimationVolume;
+import com.smartlogi.sdms.service.support.LecturePaginee;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -25,11 +29,14 @@ public class DestinataireServiceImpl implements DestinataireService {
 
     private final DestinataireRepository destinataireRepository;
     private final DestinataireMapper destinataireMapper;
+    private final EstimationVolume estimationVolume;
 
     public DestinataireServiceImpl(DestinataireRepository destinataireRepository,
-                                   DestinataireMapper destinataireMapper) {
+                                   DestinataireMapper destinataireMapper,
+                                   EstimationVolume estimationVolume) {
         this.destinataireRepository = destinataireRepository;
         this.destinataireMapper = destinataireMapper;
+        this.estimationVolume = estimationVolume;
     }
 
     @Override
@@ -81,6 +88,16 @@ public class DestinataireServiceImpl implements DestinataireService {
                 .map(destinataireMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<DestinataireDTO> findAll(Pageable pageable, ModeTotal modeTotal) {
+        log.debug("Recherche de tous les destinataires (paginée, total {})", modeTotal);
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> destinataireRepository.findSliceBy(p).map(destinataireMapper::toDto),
+                this::findAll,
+                () -> estimationVolume.lignes("utilisateur", "role", "DESTINATAIRE"));
+    }
+
     @Override
     public void delete(String id) {
         log.warn("Suppression du destinataire ID : {}", id);
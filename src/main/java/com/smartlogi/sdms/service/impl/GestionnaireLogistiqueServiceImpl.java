@@ -1,23 +1,32 @@
 package com.smartlogi.sdms.service.impl;
 
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
 import com.smartlogi.sdms.dto.GestionnaireLogistiqueDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
 import com.smartlogi.sdms.entity.GestionnaireLogistique;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.mapper.GestionnaireLogistiqueMapper;
 import com.smartlogi.sdms.repository.GestionnaireLogistiqueRepository;
 import com.smartlogi.sdms.service.interfaces.ColisService;
 import com.smartlogi.sdms.service.interfaces.GestionnaireLogistiqueService;
 import com.smartlogi.sdms.service.interfaces.GlobalSearchService;
+import com.smartlogi.sdms.service.support.AnalyseDelais;
+import com.smartlogi.sdms.service.support.DebitColis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 @Service
 @Transactional
 @Validated
@@ -29,20 +38,26 @@ public class GestionnaireLogistiqueServiceImpl implements GestionnaireLogistique
     private final ColisService colisService;
     private final GestionnaireLogistiqueRepository gestionnaireRepository;
     private final GestionnaireLogistiqueMapper gestionnaireMapper;
+    private final AnalyseDelais analyseDelais;
+    private final DebitColis debitColis;
 
     public GestionnaireLogistiqueServiceImpl(GlobalSearchService globalSearchService,
                                              ColisService colisService,
                                              GestionnaireLogistiqueRepository gestionnaireRepository,
-                                             GestionnaireLogistiqueMapper gestionnaireMapper) {
+                                             GestionnaireLogistiqueMapper gestionnaireMapper,
+                                             AnalyseDelais analyseDelais,
+                                             DebitColis debitColis) {
         this.globalSearchService = globalSearchService;
         this.colisService = colisService;
         this.gestionnaireRepository = gestionnaireRepository;
         this.gestionnaireMapper = gestionnaireMapper;
+        this.analyseDelais = analyseDelais;
+        this.debitColis = debitColis;
     }
 
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public GlobalSearchResponseDTO rechercher(String motCle, Pageable pageable) {
         log.debug("Le gestionnaire exécute une recherche globale pour : {}", motCle);
         return globalSearchService.rechercher(motCle, pageable);
@@ -103,4 +118,18 @@ public class GestionnaireLogistiqueServiceImpl implements GestionnaireLogistique
         log.debug("Le gestionnaire demande les statistiques de tournées.");
         return colisService.getStatistiquesTournees();
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public DelaisLivraisonDTO getDelaisLivraison(LocalDate du, LocalDate au) {
+        log.debug("Le gestionnaire demande les délais de livraison du {} au {}.", du, au);
+        return analyseDelais.rapport(du, au);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DebitColisDTO getDebitColis(LocalDateTime du, LocalDateTime au, GranulariteDebit pas, String zoneId) {
+        log.debug("Le gestionnaire demande le débit des colis du {} au {} (pas : {}, zone : {}).", du, au, pas, zoneId);
+        return debitColis.debit(du, au, pas, zoneId);
+    }
+}
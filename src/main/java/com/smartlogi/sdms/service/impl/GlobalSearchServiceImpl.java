@@ -1,9 +1,9 @@
 package com.smartlogi.sdms.service.impl;
 
+import com.smartlogi.sdms.dto.ClientExpediteurDTO;
+import com.smartlogi.sdms.dto.ColisDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
-import com.smartlogi.sdms.entity.ClientExpediteur;
-import com.smartlogi.sdms.entity.Colis;
-import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.dto.LivreurDTO;
 import com.smartlogi.sdms.mapper.ClientExpediteurMapper;
 import com.smartlogi.sdms.mapper.ColisMapper;
 import com.smartlogi.sdms.mapper.LivreurMapper;
@@ -11,19 +11,47 @@ import com.smartlogi.sdms.repository.ClientExpediteurRepository;
 import com.smartlogi.sdms.repository.ColisRepository;
 import com.smartlogi.sdms.repository.LivreurRepository;
 import com.smartlogi.sdms.service.interfaces.GlobalSearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Recherche globale : les trois sources (colis, clients, livreurs) sont interrogées en parallèle
+ * sur un pool borné, chacune dans sa propre transaction en lecture seule.
+ * <p>
+ * Une source qui ne répond pas dans {@code sdms.recherche.delai-source-ms} (ou qui échoue) est renvoyée vide
+ * et signalée dans {@link GlobalSearchResponseDTO#getSourcesIndisponibles()} : la réponse est alors partielle.
+ * Le délai est aussi appliqué comme timeout de transaction, ce qui annule la requête SQL abandonnée.
+ */
 @Service
-@Transactional(readOnly = true)
 public class GlobalSearchServiceImpl implements GlobalSearchService {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalSearchServiceImpl.class);
 
+    static final String SOURCE_COLIS = "colis";
+    static final String SOURCE_CLIENTS = "clients";
+    static final String SOURCE_LIVREURS = "livreurs";
+
+    static final String METRIQUE_DUREE = "sdms.recherche.source.duree";
+    static final String METRIQUE_INDISPONIBLE = "sdms.recherche.source.indisponible";
+
     private final ColisRepository colisRepository;
     private final ClientExpediteurRepository clientExpediteurRepository;
     private final LivreurRepository livreurRepository;
@@ -32,33 +60,141 @@ public class GlobalSearchServiceImpl implements GlobalSearchService {
     private final ClientExpediteurMapper clientExpediteurMapper;
     private final LivreurMapper livreurMapper;
 
+    private final TransactionTemplate lectureTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executeur;
+    private final long delaiSourceMs;
+
     public GlobalSearchServiceImpl(ColisRepository colisRepository,
                                    ClientExpediteurRepository clientExpediteurRepository,
                                    LivreurRepository livreurRepository,
                                    ColisMapper colisMapper,
                                    ClientExpediteurMapper clientExpediteurMapper,
-                                   LivreurMapper livreurMapper) {
+                                   LivreurMapper livreurMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${sdms.recherche.delai-source-ms:2000}") long delaiSourceMs,
+                                   @Value("${sdms.recherche.threads:6}") int threads,
+                                   @Value("${sdms.recherche.capacite-file:60}") int capaciteFile) {
         this.colisRepository = colisRepository;
         this.clientExpediteurRepository = clientExpediteurRepository;
         this.livreurRepository = livreurRepository;
         this.colisMapper = colisMapper;
         this.clientExpediteurMapper = clientExpediteurMapper;
         this.livreurMapper = livreurMapper;
+        this.meterRegistry = meterRegistry;
+        this.delaiSourceMs = delaiSourceMs;
+
+        this.lectureTemplate = new TransactionTemplate(transactionManager);
+        this.lectureTemplate.setReadOnly(true);
+        // Timeout de transaction en secondes (arrondi au supérieur) : borne aussi la requête SQL côté base
+        this.lectureTemplate.setTimeout((int) Math.max(1, (delaiSourceMs + 999) / 1000));
+
+        AtomicInteger compteur = new AtomicInteger();
+        this.executeur = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capaciteFile),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sdms-recherche-" + compteur.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executeur.allowCoreThreadTimeOut(true);
     }
 
+    /**
+     * Pas de transaction englobante : chaque source prend sa propre connexion, l'appelant n'en garde aucune.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public GlobalSearchResponseDTO rechercher(String motCle, Pageable pageable) {
         log.debug("Exécution de la recherche globale pour le mot-clé : {}", motCle);
 
-        Page<Colis> colisPage = colisRepository.searchByKeyword(motCle, pageable);
-        Page<ClientExpediteur> clientPage = clientExpediteurRepository.searchByKeyword(motCle, pageable);
-        Page<Livreur> livreurPage = livreurRepository.searchByKeyword(motCle, pageable);
+        String motif = construireMotif(motCle);
+        long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiSourceMs);
+
+        // Le mapping reste dans la transaction de la source (associations paresseuses)
+        Future<Page<ColisDTO>> colis = soumettre(SOURCE_COLIS,
+                () -> colisRepository.searchByKeyword(motif, pageable).map(colisMapper::toDto));
+        Future<Page<ClientExpediteurDTO>> clients = soumettre(SOURCE_CLIENTS,
+                () -> clientExpediteurRepository.searchByKeyword(motif, pageable).map(clientExpediteurMapper::toDto));
+        Future<Page<LivreurDTO>> livreurs = soumettre(SOURCE_LIVREURS,
+                () -> livreurRepository.searchByKeyword(motif, pageable).map(livreurMapper::toDto));
 
+        List<String> indisponibles = new ArrayList<>();
         GlobalSearchResponseDTO response = new GlobalSearchResponseDTO();
-        response.setColis(colisPage.map(colisMapper::toDto));
-        response.setClients(clientPage.map(clientExpediteurMapper::toDto));
-        response.setLivreurs(livreurPage.map(livreurMapper::toDto));
+        response.setColis(attendre(SOURCE_COLIS, colis, echeance, pageable, indisponibles));
+        response.setClients(attendre(SOURCE_CLIENTS, clients, echeance, pageable, indisponibles));
+        response.setLivreurs(attendre(SOURCE_LIVREURS, livreurs, echeance, pageable, indisponibles));
+        response.setPartiel(!indisponibles.isEmpty());
+        response.setSourcesIndisponibles(indisponibles);
 
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Motif LIKE "contient" en minuscules : la conversion est faite une fois ici plutôt que par ligne en base,
+     * pour que les requêtes restent alignées sur les index trigrammes. Les jokers saisis (%, _) sont échappés.
+     */
+    static String construireMotif(String motCle) {
+        String normalise = motCle == null ? "" : motCle.trim().toLowerCase(Locale.ROOT);
+        StringBuilder motif = new StringBuilder(normalise.length() + 2).append('%');
+        for (char c : normalise.toCharArray()) {
+            if (c == '%' || c == '_' || c == '\\') {
+                motif.append('\\');
+            }
+            motif.append(c);
+        }
+        return motif.append('%').toString();
+    }
+
+    @PreDestroy
+    void arreter() {
+        executeur.shutdownNow();
+    }
+
+    private <T> Future<Page<T>> soumettre(String source, Supplier<Page<T>> recherche) {
+        try {
+            return executeur.submit(() -> executerSource(source, recherche));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Durée réelle de chaque source, y compris lorsqu'elle termine après le délai de l'appelant.
+     */
+    private <T> Page<T> executerSource(String source, Supplier<Page<T>> recherche) {
+        Timer.Sample chrono = Timer.start(meterRegistry);
+        String resultat = "succes";
+        try {
+            return lectureTemplate.execute(status -> recherche.get());
+        } catch (RuntimeException e) {
+            resultat = "erreur";
+            throw e;
+        } finally {
+            chrono.stop(meterRegistry.timer(METRIQUE_DUREE, "source", source, "resultat", resultat));
+        }
+    }
+
+    private <T> Page<T> attendre(String source, Future<Page<T>> future, long echeance,
+                                 Pageable pageable, List<String> indisponibles) {
+        String cause;
+        try {
+            return future.get(Math.max(0, echeance - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            cause = "delai";
+            log.warn("Recherche globale : source {} sans réponse après {} ms, résultats partiels", source, delaiSourceMs);
+        } catch (ExecutionException e) {
+            cause = e.getCause() instanceof RejectedExecutionException ? "saturation" : "erreur";
+            log.warn("Recherche globale : source {} indisponible ({}), résultats partiels", source, cause, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            cause = "interruption";
+        }
+        meterRegistry.counter(METRIQUE_INDISPONIBLE, "source", source, "cause", cause).increment();
+        indisponibles.add(source);
+        return Page.empty(pageable);
+    }
+}
@@ -1,15 +1,27 @@
 package com.smartlogi.sdms.service.impl;
 
 import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
+import com.smartlogi.sdms.entity.HistoriqueLivraison;
+import com.smartlogi.sdms.mapper.ColisArchiveMapper;
 import com.smartlogi.sdms.mapper.HistoriqueLivraisonMapper;
+import com.smartlogi.sdms.repository.HistoriqueLivraisonArchiveRepository;
 import com.smartlogi.sdms.repository.HistoriqueLivraisonRepository;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
 import com.smartlogi.sdms.service.interfaces.HistoriqueLivraisonService;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
+import com.smartlogi.sdms.service.support.HistoriqueWriteBehind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,11 +32,30 @@ public class HistoriqueLivraisonServiceImpl implements HistoriqueLivraisonServic
 
     private final HistoriqueLivraisonRepository historiqueRepository;
     private final HistoriqueLivraisonMapper historiqueMapper;
+    private final HistoriqueWriteBehind historiqueWriteBehind;
+    private final ColisAccesMemo colisAccesMemo;
+    private final HistoriqueLivraisonArchiveRepository historiqueArchiveRepository;
+    private final ColisArchiveMapper colisArchiveMapper;
 
     public HistoriqueLivraisonServiceImpl(HistoriqueLivraisonRepository historiqueRepository,
-                                          HistoriqueLivraisonMapper historiqueMapper) {
+                                          HistoriqueLivraisonMapper historiqueMapper,
+                                          HistoriqueWriteBehind historiqueWriteBehind,
+                                          ColisAccesMemo colisAccesMemo,
+                                          HistoriqueLivraisonArchiveRepository historiqueArchiveRepository,
+                                          ColisArchiveMapper colisArchiveMapper) {
         this.historiqueRepository = historiqueRepository;
         this.historiqueMapper = historiqueMapper;
+        this.historiqueWriteBehind = historiqueWriteBehind;
+        this.colisAccesMemo = colisAccesMemo;
+        this.historiqueArchiveRepository = historiqueArchiveRepository;
+        this.colisArchiveMapper = colisArchiveMapper;
+    }
+
+    @Override
+    public Optional<String> findEtagHistorique(String colisId) {
+        // Projection partagée avec le contrôle d'accès de la même requête ; préfixe distinct :
+        // l'historique et le colis sont deux représentations différentes
+        return colisAccesMemo.charger(colisId).map(projection -> "h" + projection.etag());
     }
 
 
@@ -32,8 +63,41 @@ public class HistoriqueLivraisonServiceImpl implements HistoriqueLivraisonServic
     public List<HistoriqueLivraisonDTO> findHistoriqueByColisId(String colisId) {
         log.debug("Recherche de l'historique complet pour le colis ID : {}", colisId);
 
-        return historiqueRepository.findAllByColisIdOrderByDateChangementDesc(colisId)
-                .stream()
+        // Borne basse lue dans la projection déjà chargée par le contrôle d'accès de la requête. Tronquée à la
+        // seconde : une entité encore en mémoire garde des nanosecondes que la colonne arrondit
+        LocalDateTime depuis = colisAccesMemo.charger(colisId)
+                .map(ColisAccesProjection::getDateCreation)
+                .map(date -> date.truncatedTo(ChronoUnit.SECONDS))
+                .orElse(null);
+        List<HistoriqueLivraison> historiques = depuis != null
+                ? historiqueRepository.findAllByColisIdDepuis(colisId, depuis)
+                : historiqueRepository.findAllByColisIdOrderByDateChangementDesc(colisId);
+        if (historiques.isEmpty()) {
+            // Colis livré archivé (ArchivageColis) : son historique a été déplacé avec lui
+            List<HistoriqueLivraisonDTO> archives = historiqueArchiveRepository.findAllByColisIdOrderByDateChangementDesc(colisId)
+                    .stream()
+                    .map(colisArchiveMapper::toDto)
+                    .toList();
+            if (!archives.isEmpty()) {
+                return archives;
+            }
+        }
+
+        // Écriture différée : fusion des historiques validés mais pas encore en base
+        List<HistoriqueLivraison> enAttente = historiqueWriteBehind.enAttente(colisId);
+        if (!enAttente.isEmpty()) {
+            Set<String> idsEnBase = historiques.stream().map(HistoriqueLivraison::getId).collect(Collectors.toSet());
+            historiques = new ArrayList<>(historiques);
+            for (HistoriqueLivraison historique : enAttente) {
+                if (!idsEnBase.contains(historique.getId())) {
+                    historiques.add(historique);
+                }
+            }
+            historiques.sort(Comparator.comparing(HistoriqueLivraison::getDateChangement,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+        }
+
+        return historiques.stream()
                 .map(historiqueMapper::toDto)
                 .collect(Collectors.toList());
     }
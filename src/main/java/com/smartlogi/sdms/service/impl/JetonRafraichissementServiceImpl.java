@@ -0,0 +1,141 @@
+package com.smartlogi.sdms.service.impl;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+import com.smartlogi.sdms.config.security.EtatUtilisateurCache;
+import com.smartlogi.sdms.entity.JetonRafraichissement;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import com.smartlogi.sdms.repository.JetonRafraichissementRepository;
+import com.smartlogi.sdms.repository.UtilisateurRepository;
+import com.smartlogi.sdms.service.interfaces.JetonRafraichissementService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class JetonRafraichissementServiceImpl implements JetonRafraichissementService {
+
+    private static final Logger log = LoggerFactory.getLogger(JetonRafraichissementServiceImpl.class);
+
+    private static final int OCTETS_JETON = 32;
+
+    private final JetonRafraichissementRepository jetonRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final EtatUtilisateurCache etatUtilisateurCache;
+    private final long expirationMs;
+    private final Counter reutilisations;
+
+    private final SecureRandom aleatoire = new SecureRandom();
+
+    public JetonRafraichissementServiceImpl(JetonRafraichissementRepository jetonRepository,
+                                            UtilisateurRepository utilisateurRepository,
+                                            EtatUtilisateurCache etatUtilisateurCache,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${security.jwt.refresh.expiration-ms:604800000}") long expirationMs) {
+        this.jetonRepository = jetonRepository;
+        this.utilisateurRepository = utilisateurRepository;
+        this.etatUtilisateurCache = etatUtilisateurCache;
+        this.expirationMs = expirationMs;
+        this.reutilisations = Counter.builder("sdms.auth.rafraichissement.reutilisations")
+                .description("Jetons de rafraîchissement déjà consommés présentés à nouveau (familles révoquées)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String emettre(String utilisateurId) {
+        return emettre(utilisateurId, TimeOrderedUuidGenerator.nextId());
+    }
+
+    @Override
+    public Optional<Rotation> rafraichir(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<JetonRafraichissement> trouve = jetonRepository.findByEmpreintePourRotation(empreinte(jeton));
+        if (trouve.isEmpty()) {
+            return Optional.empty();
+        }
+        JetonRafraichissement courant = trouve.get();
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        if (courant.getDateUtilisation() != null && !courant.isRevoque()) {
+            // Jeton déjà échangé : copie volée ou rejouée, la famille entière et les JWT émis sont invalidés
+            jetonRepository.revoquerFamille(courant.getFamille());
+            etatUtilisateurCache.revoquer(courant.getUtilisateurId());
+            reutilisations.increment();
+            log.warn("Réutilisation d'un jeton de rafraîchissement : famille {} révoquée pour l'utilisateur {}",
+                    courant.getFamille(), courant.getUtilisateurId());
+            return Optional.empty();
+        }
+        if (courant.isRevoque() || !courant.getDateExpiration().isAfter(maintenant)) {
+            return Optional.empty();
+        }
+
+        Optional<CustomUserDetails> utilisateur = utilisateurRepository.findById(courant.getUtilisateurId())
+                .map(CustomUserDetails::new)
+                .filter(CustomUserDetails::isEnabled);
+        if (utilisateur.isEmpty()) {
+            jetonRepository.revoquerFamille(courant.getFamille());
+            return Optional.empty();
+        }
+
+        courant.setDateUtilisation(maintenant);
+        String suivant = emettre(courant.getUtilisateurId(), courant.getFamille());
+        return Optional.of(new Rotation(utilisateur.get(), suivant));
+    }
+
+    @Override
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    /**
+     * Supprime les jetons expirés ; les familles révoquées disparaissent avec l'expiration de leurs jetons.
+     */
+    @Scheduled(cron = "${security.jwt.refresh.purge-cron:0 15 4 * * *}")
+    public void purgerExpires() {
+        int supprimes = jetonRepository.supprimerExpiresAvant(LocalDateTime.now());
+        if (supprimes > 0) {
+            log.info("{} jetons de rafraîchissement expirés supprimés", supprimes);
+        }
+    }
+
+    private String emettre(String utilisateurId, String famille) {
+        byte[] octets = new byte[OCTETS_JETON];
+        aleatoire.nextBytes(octets);
+        String jeton = Base64.getUrlEncoder().withoutPadding().encodeToString(octets);
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        JetonRafraichissement entite = new JetonRafraichissement();
+        entite.setEmpreinte(empreinte(jeton));
+        entite.setUtilisateurId(utilisateurId);
+        entite.setFamille(famille);
+        entite.setDateCreation(maintenant);
+        entite.setDateExpiration(maintenant.plusNanos(expirationMs * 1_000_000L));
+        jetonRepository.save(entite);
+        return jeton;
+    }
+
+    private static String empreinte(String jeton) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jeton.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -9,10 +9,14 @@ import com.smartlogi.sdms.mapper.LivreurMapper;
 import com.smartlogi.sdms.repository.LivreurRepository;
 import com.smartlogi.sdms.repository.ZoneRepository; // Requis pour l'update
 import com.smartlogi.sdms.service.interfaces.LivreurService;
+import com.smartlogi.sdms.service.support.EstimationVolume;
+import com.smartlogi.sdms.service.support.LecturePaginee;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -28,13 +32,16 @@ public class LivreurServiceImpl implements LivreurService {
     private final LivreurRepository livreurRepository;
     private final LivreurMapper livreurMapper;
     private final ZoneRepository zoneRepository;
+    private final EstimationVolume estimationVolume;
 
     public LivreurServiceImpl(LivreurRepository livreurRepository,
                               LivreurMapper livreurMapper,
-                              ZoneRepository zoneRepository) {
+                              ZoneRepository zoneRepository,
+                              EstimationVolume estimationVolume) {
         this.livreurRepository = livreurRepository;
         this.livreurMapper = livreurMapper;
         this.zoneRepository = zoneRepository;
+        this.estimationVolume = estimationVolume;
     }
 
     @Override
@@ -98,6 +105,16 @@ public class LivreurServiceImpl implements LivreurService {
                 .map(livreurMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<LivreurDTO> findAll(Pageable pageable, ModeTotal modeTotal) {
+        log.debug("Recherche de tous les livreurs (paginée, total {})", modeTotal);
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> livreurRepository.findSliceBy(p).map(livreurMapper::toDto),
+                this::findAll,
+                () -> estimationVolume.lignes("utilisateur", "role", "LIVREUR"));
+    }
+
     @Override
     public void delete(String id) {
         log.warn("Suppression du livreur ID : {}", id);
@@ -6,10 +6,14 @@ import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.mapper.ProduitMapper;
 import com.smartlogi.sdms.repository.ProduitRepository;
 import com.smartlogi.sdms.service.interfaces.ProduitService;
+import com.smartlogi.sdms.service.support.EstimationVolume;
+import com.smartlogi.sdms.service.support.LecturePaginee;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -23,10 +27,13 @@ public class ProduitServiceImpl implements ProduitService {
 
     private final ProduitRepository produitRepository;
     private final ProduitMapper produitMapper;
+    private final EstimationVolume estimationVolume;
 
-    public ProduitServiceImpl(ProduitRepository produitRepository, ProduitMapper produitMapper) {
+    public ProduitServiceImpl(ProduitRepository produitRepository, ProduitMapper produitMapper,
+                              EstimationVolume estimationVolume) {
         this.produitRepository = produitRepository;
         this.produitMapper = produitMapper;
+        this.estimationVolume = estimationVolume;
     }
 
     @Override
@@ -69,6 +76,16 @@ public class ProduitServiceImpl implements ProduitService {
                 .map(produitMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProduitDTO> findAll(Pageable pageable, ModeTotal modeTotal) {
+        log.debug("Recherche de tous les produits (paginée, total {})", modeTotal);
+        return LecturePaginee.lire(modeTotal, pageable,
+                p -> produitRepository.findSliceBy(p).map(produitMapper::toDto),
+                this::findAll,
+                () -> estimationVolume.lignes("produit"));
+    }
+
     @Override
     public void delete(String id) {
         log.warn("Suppression du produit ID : {}", id);
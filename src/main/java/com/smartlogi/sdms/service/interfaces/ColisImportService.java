@@ -0,0 +1,17 @@
+package com.smartlogi.sdms.service.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ColisImportService {
+
+    enum FormatImport { NDJSON, CSV }
+
+
+    /**
+     * Lit le flux ligne par ligne, crée les colis par paquets (une transaction par paquet)
+     * et écrit la progression et les erreurs par ligne en NDJSON dans {@code sortie}.
+     */
+    void importerColis(InputStream entree, FormatImport format, OutputStream sortie) throws IOException;
+}
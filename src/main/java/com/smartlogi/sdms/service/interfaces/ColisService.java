@@ -1,12 +1,21 @@
 package com.smartlogi.sdms.service.interfaces;
 
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
 import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.CursorPageDTO;
+import com.smartlogi.sdms.dto.ScanStatutDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.service.support.ColisCurseur;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface ColisService {
 
@@ -14,22 +23,60 @@ public interface ColisService {
     ColisDTO creerDemandeLivraison(@Valid ColisDTO colisDTO);
 
 
+    ColisBatchResponseDTO creerDemandesLivraisonEnLot(List<ColisDTO> colisDTOs);
+
+
     ColisDTO update(String id, ColisDTO colisDTO);
 
 
     ColisDTO findById(String id);
 
+    /**
+     * ETag du colis (version + date du dernier statut), calculé par une projection sur la clé primaire.
+     * Vide si le colis n'existe pas.
+     */
+    Optional<String> findEtag(String id);
+
 
     Page<ColisDTO> findAll(Pageable pageable);
 
 
     void delete(String id);
 
+    /**
+     * Listes client et destinataire : les colis livrés archivés suivent les colis chauds.
+     */
     Page<ColisDTO> findColisByClientExpediteur(String clientExpediteurId, Pageable pageable);
     Page<ColisDTO> findColisByDestinataire(String destinataireId, Pageable pageable);
     Page<ColisDTO> findColisByLivreur(String livreurId, Pageable pageable);
+
+    /**
+     * Variantes des listes paginées selon le mode de total demandé (voir {@link ModeTotal}).
+     * Sans total ({@link ModeTotal#AUCUN}), les listes client et destinataire s'arrêtent aux colis chauds.
+     */
+    Slice<ColisDTO> findColisByClientExpediteur(String clientExpediteurId, Pageable pageable, ModeTotal modeTotal);
+    Slice<ColisDTO> findColisByDestinataire(String destinataireId, Pageable pageable, ModeTotal modeTotal);
+    Slice<ColisDTO> findColisByLivreur(String livreurId, Pageable pageable, ModeTotal modeTotal);
     ColisDTO updateStatutColis(String colisId, StatutColis newStatut, String commentaire);
+
+    /**
+     * Applique une liste de scans de statut. Si {@code livreurId} est renseigné,
+     * seuls les colis assignés à ce livreur peuvent être modifiés (null = gestionnaire).
+     */
+    ColisBatchResponseDTO updateStatutsEnLot(List<ScanStatutDTO> scans, String livreurId);
     ColisDTO assignerColisLivreur(String colisId, String livreurId);
     Page<ColisDTO> findAllColisByCriteria(StatutColis statut, String zoneId, String ville, Priorite priorite, Pageable pageable);
+    Slice<ColisDTO> findAllColisByCriteria(StatutColis statut, String zoneId, String ville, Priorite priorite,
+                                           Pageable pageable, ModeTotal modeTotal);
+
+    /**
+     * Variantes paginées par curseur (keyset) : coût constant quelle que soit la profondeur, sans COUNT.
+     * {@code curseur} null ou vide = première page ; un curseur invalide lève InvalidDataException.
+     */
+    CursorPageDTO<ColisDTO> findAllColisByCriteriaCurseur(StatutColis statut, String zoneId, String ville, Priorite priorite,
+                                                          ColisCurseur.Ordre ordre, String curseur, int taille);
+    CursorPageDTO<ColisDTO> findColisByClientExpediteurCurseur(String clientExpediteurId, ColisCurseur.Ordre ordre,
+                                                               String curseur, int taille);
+    CursorPageDTO<ColisDTO> findColisByLivreurCurseur(String livreurId, ColisCurseur.Ordre ordre, String curseur, int taille);
     StatistiquesTourneeDTO getStatistiquesTournees();
 }
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.smartlogi.sdms.service.interfaces;
 
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
 import com.smartlogi.sdms.dto.GestionnaireLogistiqueDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 public interface GestionnaireLogistiqueService {
 
 
@@ -24,4 +30,14 @@ public interface GestionnaireLogistiqueService {
     void delete(String id);
     StatistiquesTourneeDTO getStatistiquesTournees();
 
+    /**
+     * Percentiles des délais de livraison et du temps passé par statut, sur la période [du, au].
+     */
+    DelaisLivraisonDTO getDelaisLivraison(LocalDate du, LocalDate au);
+
+    /**
+     * Colis ayant atteint chaque statut par zone et par intervalle sur [du, au[ ; pas nul : granularité automatique.
+     */
+    DebitColisDTO getDebitColis(LocalDateTime du, LocalDateTime au, GranulariteDebit pas, String zoneId);
+
 }
\ No newline at end of file
@@ -2,6 +2,13 @@ package com.smartlogi.sdms.service.interfaces;
 
 import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
 import java.util.List;
+import java.util.Optional;
 public interface HistoriqueLivraisonService {
     List<HistoriqueLivraisonDTO> findHistoriqueByColisId(String colisId);
+
+    /**
+     * ETag de l'historique d'un colis : tout nouvel historique accompagne un changement de statut,
+     * qui incrémente la version du colis. Vide si le colis n'existe pas.
+     */
+    Optional<String> findEtagHistorique(String colisId);
 }
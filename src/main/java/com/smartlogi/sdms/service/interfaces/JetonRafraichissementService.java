@@ -0,0 +1,31 @@
+package com.smartlogi.sdms.service.interfaces;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+
+import java.util.Optional;
+
+/**
+ * Jetons de rafraîchissement à rotation : renouvellent le JWT d'accès sans mot de passe.
+ */
+public interface JetonRafraichissementService {
+
+    /**
+     * Émet le premier jeton d'une nouvelle famille (connexion).
+     *
+     * @return le jeton à transmettre au client, seule occurrence en clair
+     */
+    String emettre(String utilisateurId);
+
+    /**
+     * Consomme le jeton et émet son successeur. Un jeton déjà consommé révoque toute sa famille
+     * et les JWT d'accès déjà émis pour l'utilisateur.
+     *
+     * @return vide si le jeton est inconnu, expiré, révoqué, réutilisé ou si le compte est désactivé
+     */
+    Optional<Rotation> rafraichir(String jeton);
+
+    long getExpirationMs();
+
+    record Rotation(CustomUserDetails utilisateur, String jeton) {
+    }
+}
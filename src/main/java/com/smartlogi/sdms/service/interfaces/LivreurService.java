@@ -1,9 +1,11 @@
 package com.smartlogi.sdms.service.interfaces;
 
 import com.smartlogi.sdms.dto.LivreurDTO;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface LivreurService {
 
@@ -15,5 +17,10 @@ public interface LivreurService {
 
     Page<LivreurDTO> findAll(Pageable pageable);
 
+    /**
+     * Liste paginée selon le mode de total demandé (voir {@link ModeTotal}).
+     */
+    Slice<LivreurDTO> findAll(Pageable pageable, ModeTotal modeTotal);
+
     void delete(String id);
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.smartlogi.sdms.service.interfaces;
 
 import com.smartlogi.sdms.dto.ProduitDTO;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface ProduitService {
 
@@ -15,5 +17,10 @@ public interface ProduitService {
 
     Page<ProduitDTO> findAll(Pageable pageable);
 
+    /**
+     * Liste paginée selon le mode de total demandé (voir {@link ModeTotal}).
+     */
+    Slice<ProduitDTO> findAll(Pageable pageable, ModeTotal modeTotal);
+
     void delete(String id);
 }
\ No newline at end of file
@@ -1,22 +1,24 @@
 package com.smartlogi.sdms.service.security;
 
 import com.smartlogi.sdms.config.security.CustomUserDetails;
-import com.smartlogi.sdms.entity.Colis;
-import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 /**
  * Service de sécurité pour les opérations sur les colis.
  * Fournit des méthodes de vérification d'accès utilisables dans les expressions @PreAuthorize.
+ * Les rattachements du colis sont lus par projection, une seule fois par requête ({@link ColisAccesMemo}) ;
+ * {@link #canRead} lit le colis complet, partagé avec le corps de la réponse.
  */
 @Service("colisSecurityService")
 public class ColisSecurityService {
 
-    private final ColisRepository colisRepository;
+    private final ColisAccesMemo colisAccesMemo;
 
-    public ColisSecurityService(ColisRepository colisRepository) {
-        this.colisRepository = colisRepository;
+    public ColisSecurityService(ColisAccesMemo colisAccesMemo) {
+        this.colisAccesMemo = colisAccesMemo;
     }
 
     /**
@@ -33,13 +35,8 @@ public class ColisSecurityService {
 
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
 
-        return colisRepository.findById(colisId)
-                .map(colis -> {
-                    if (colis.getClientExpediteur() == null) {
-                        return false;
-                    }
-                    return colis.getClientExpediteur().getId().equals(userDetails.getId());
-                })
+        return colisAccesMemo.charger(colisId)
+                .map(acces -> isClientExpediteur(acces, userDetails.getId()))
                 .orElse(false);
     }
 
@@ -57,13 +54,8 @@ public class ColisSecurityService {
 
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
 
-        return colisRepository.findById(colisId)
-                .map(colis -> {
-                    if (colis.getLivreur() == null) {
-                        return false;
-                    }
-                    return colis.getLivreur().getId().equals(userDetails.getId());
-                })
+        return colisAccesMemo.charger(colisId)
+                .map(acces -> isLivreur(acces, userDetails.getId()))
                 .orElse(false);
     }
 
@@ -85,20 +77,40 @@ public class ColisSecurityService {
         }
 
         // Les managers ont accès à tout
-        if (authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_MANAGER"))) {
+        if (isManager(authentication)) {
             return true;
         }
 
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         String userId = userDetails.getId();
 
-        return colisRepository.findById(colisId)
-                .map(colis ->
-                    isClientExpediteur(colis, userId) ||
-                    isLivreur(colis, userId) ||
-                    isDestinataire(colis, userId)
-                )
+        return colisAccesMemo.charger(colisId)
+                .map(acces -> isRattache(acces, userId))
+                .orElse(false);
+    }
+
+    /**
+     * Mêmes règles que {@link #canAccess}, pour les endpoints qui renvoient le colis lui-même :
+     * le colis complet est lu dès le contrôle d'accès et réutilisé pour l'ETag et le corps de la réponse.
+     *
+     * @param colisId L'ID du colis
+     * @param authentication L'authentification courante
+     * @return true si l'utilisateur peut lire le colis
+     */
+    public boolean canRead(String colisId, Authentication authentication) {
+        if (authentication == null || authentication.getPrincipal() == null) {
+            return false;
+        }
+
+        if (isManager(authentication)) {
+            return true;
+        }
+
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        String userId = userDetails.getId();
+
+        return colisAccesMemo.chargerDetail(colisId)
+                .map(detail -> isRattache(detail.acces(), userId))
                 .orElse(false);
     }
 
@@ -116,8 +128,7 @@ public class ColisSecurityService {
         }
 
         // Les managers peuvent tout modifier
-        if (authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_MANAGER"))) {
+        if (isManager(authentication)) {
             return true;
         }
 
@@ -125,19 +136,25 @@ public class ColisSecurityService {
         return isAssignedDelivery(colisId, authentication);
     }
 
-    private boolean isClientExpediteur(Colis colis, String userId) {
-        return colis.getClientExpediteur() != null &&
-               colis.getClientExpediteur().getId().equals(userId);
+    private boolean isRattache(ColisAccesProjection acces, String userId) {
+        return isClientExpediteur(acces, userId) ||
+               isLivreur(acces, userId) ||
+               isDestinataire(acces, userId);
+    }
+
+    private boolean isClientExpediteur(ColisAccesProjection acces, String userId) {
+        return acces.getClientExpediteurId() != null &&
+               acces.getClientExpediteurId().equals(userId);
     }
 
-    private boolean isLivreur(Colis colis, String userId) {
-        return colis.getLivreur() != null &&
-               colis.getLivreur().getId().equals(userId);
+    private boolean isLivreur(ColisAccesProjection acces, String userId) {
+        return acces.getLivreurId() != null &&
+               acces.getLivreurId().equals(userId);
     }
 
-    private boolean isDestinataire(Colis colis, String userId) {
-        return colis.getDestinataire() != null &&
-               colis.getDestinataire().getId().equals(userId);
+    private boolean isDestinataire(ColisAccesProjection acces, String userId) {
+        return acces.getDestinataireId() != null &&
+               acces.getDestinataireId().equals(userId);
     }
 
     /**
@@ -155,5 +172,28 @@ public class ColisSecurityService {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         return userId != null && userId.equals(userDetails.getId());
     }
-}
 
+    /**
+     * Vérifie si l'utilisateur authentifié a le rôle MANAGER.
+     *
+     * @param authentication L'authentification courante
+     * @return true si l'utilisateur est gestionnaire
+     */
+    public boolean isManager(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_MANAGER"));
+    }
+
+    /**
+     * Retourne l'ID de l'utilisateur authentifié, ou null s'il n'est pas identifiable.
+     *
+     * @param authentication L'authentification courante
+     * @return l'ID de l'utilisateur courant
+     */
+    public String getCurrentUserId(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+            return null;
+        }
+        return userDetails.getId();
+    }
+}
@@ -0,0 +1,538 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.dto.DelaiSerieDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
+import com.smartlogi.sdms.dto.PercentilesDureeDTO;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Analyse des délais de livraison, activée par {@code sdms.delais.enabled=true} :
+ * délai de la création à la livraison et temps passé dans chaque statut, par zone, par livreur et par jour.
+ * <p>
+ * Les historiques de livraison sont lus en flux (curseur JDBC, colis par colis) : seul l'état du colis courant
+ * est conservé pendant la lecture. Chaque transition alimente un {@link HistogrammeDurees} du jour où elle a eu lieu,
+ * pour l'ensemble des colis, la zone et le livreur actuels du colis (l'historique ne mémorise pas l'affectation
+ * au moment de la transition). Les percentiles d'une période s'obtiennent en fusionnant les histogrammes des jours.
+ * <p>
+ * Les nouvelles transitions sont intégrées périodiquement au-delà d'un filigrane (date de changement),
+ * avec un décalage qui laisse le temps aux transactions et à l'écriture différée de se terminer.
+ * Une reconstruction nocturne réintègre les scans saisis avec une date antérieure au filigrane.
+ * <p>
+ * Mémoire bornée quel que soit le volume d'historique : les jours au-delà de la rétention sont oubliés,
+ * et le nombre total d'histogrammes est plafonné (les jours les plus anciens sont évincés en premier).
+ * Par défaut ({@code max-histogrammes: 0}), le plafond est calculé à chaque reconstruction pour couvrir toute
+ * la rétention : (1 + zones + livreurs) x histogrammes par série x jours. Un plafond fixe plus bas tronque
+ * les jours anciens : le rapport l'indique ({@code tronque}, {@code couvertDepuis}), avec le compteur
+ * {@code sdms.delais.evictions}.
+ */
+@Component
+public class AnalyseDelais {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyseDelais.class);
+
+    private static final int TAILLE_LOT_LECTURE = 1_000;
+
+    // Histogrammes au plus par série et par jour : un par statut quitté, plus le délai de livraison
+    private static final int HISTOGRAMMES_PAR_SERIE = StatutColis.values().length + 1;
+
+    // Historique complet des colis ayant au moins une transition dans la fenêtre, dans l'ordre de chaque colis
+    private static final String SQL_TRANSITIONS =
+            "SELECT h.colis_id, h.statut, h.date_changement, c.date_creation, c.zone_id, c.livreur_id "
+                    + "FROM historique_livraison h JOIN colis c ON c.id = h.colis_id "
+                    + "WHERE h.colis_id IN (SELECT f.colis_id FROM historique_livraison f "
+                    + "WHERE f.date_changement > ? AND f.date_changement <= ?) "
+                    + "ORDER BY h.colis_id, h.date_changement, h.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LivreurRepository livreurRepository;
+    private final ZoneRepository zoneRepository;
+    private final boolean actif;
+    private final int retentionJours;
+    private final int maxHistogrammes;
+    private final Duration decalage;
+
+    private final Counter transitionsIntegrees;
+    private final Counter evictions;
+    private final Counter valeursIgnorees;
+
+    // Une seule lecture d'historique à la fois (rattrapage ou reconstruction)
+    private final Object verrouLecture = new Object();
+
+    // Protégés par this
+    private Histogrammes histogrammes;
+    private LocalDateTime filigrane;
+    private int plafond;
+
+    public AnalyseDelais(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         LivreurRepository livreurRepository,
+                         ZoneRepository zoneRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${sdms.delais.enabled:false}") boolean actif,
+                         @Value("${sdms.delais.retention-jours:31}") int retentionJours,
+                         @Value("${sdms.delais.max-histogrammes:0}") int maxHistogrammes,
+                         @Value("${sdms.delais.decalage-s:300}") long decalageSecondes) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(TAILLE_LOT_LECTURE);
+        // Curseur serveur (PostgreSQL) : la lecture en flux exige une transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.livreurRepository = livreurRepository;
+        this.zoneRepository = zoneRepository;
+        this.actif = actif;
+        this.retentionJours = retentionJours;
+        this.maxHistogrammes = maxHistogrammes;
+        this.decalage = Duration.ofSeconds(decalageSecondes);
+
+        this.transitionsIntegrees = Counter.builder("sdms.delais.transitions")
+                .description("Transitions de statut intégrées dans les histogrammes de délais")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("sdms.delais.evictions")
+                .description("Jours évincés pour respecter le plafond d'histogrammes")
+                .register(meterRegistry);
+        this.valeursIgnorees = Counter.builder("sdms.delais.valeurs-ignorees")
+                .description("Durées non retenues car leur jour est plus ancien que les jours gardés sous le plafond")
+                .register(meterRegistry);
+        this.plafond = maxHistogrammes > 0 ? maxHistogrammes : Integer.MAX_VALUE;
+        this.histogrammes = new Histogrammes(plafond, evictions, valeursIgnorees);
+        Gauge.builder("sdms.delais.histogrammes", this, AnalyseDelais::getNombreHistogrammes)
+                .description("Nombre d'histogrammes de délais en mémoire")
+                .register(meterRegistry);
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    /**
+     * Délais sur la période [du, au] (jours inclus), bornée à la rétention.
+     */
+    public DelaisLivraisonDTO rapport(LocalDate du, LocalDate au) {
+        if (!actif) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "L'analyse des délais de livraison est désactivée.");
+        }
+        if (du.isAfter(au)) {
+            throw new InvalidDataException("La date de début doit précéder la date de fin.");
+        }
+
+        Map<Serie, Fusion> fusions = new HashMap<>();
+        LocalDate couvertDepuis = LocalDate.now().minusDays(retentionJours);
+        synchronized (this) {
+            histogrammes.parJour.subMap(du, true, au, true).values().forEach(series ->
+                    series.forEach((serie, cellule) -> fusions.computeIfAbsent(serie, s -> new Fusion()).ajouter(cellule)));
+            if (histogrammes.incompletJusquau != null && !histogrammes.incompletJusquau.isBefore(couvertDepuis)) {
+                couvertDepuis = histogrammes.incompletJusquau.plusDays(1);
+            }
+        }
+
+        DelaisLivraisonDTO rapport = new DelaisLivraisonDTO();
+        rapport.setDu(du);
+        rapport.setAu(au);
+        // Jours de la période hors rétention ou évincés par le plafond : percentiles incomplets
+        rapport.setTronque(du.isBefore(couvertDepuis));
+        rapport.setCouvertDepuis(couvertDepuis);
+        rapport.setGlobal(fusions.getOrDefault(Serie.GLOBAL, new Fusion()).versDto(null, null));
+        rapport.setParZone(lister(fusions, Dimension.ZONE, this::nomsZones));
+        rapport.setParLivreur(lister(fusions, Dimension.LIVREUR, this::nomsLivreurs));
+        return rapport;
+    }
+
+    /**
+     * Intègre les transitions validées depuis le dernier passage ; reconstruit tout au premier passage.
+     */
+    @Scheduled(fixedDelayString = "${sdms.delais.intervalle-ms:60000}")
+    public void rattraper() {
+        if (!actif) {
+            return;
+        }
+        synchronized (verrouLecture) {
+            LocalDateTime debut;
+            synchronized (this) {
+                debut = filigrane;
+            }
+            if (debut == null) {
+                reconstruire();
+                return;
+            }
+            LocalDateTime fin = LocalDateTime.now().minus(decalage);
+            if (!fin.isAfter(debut)) {
+                return;
+            }
+            Histogrammes nouvelles = lire(debut, fin);
+            synchronized (this) {
+                histogrammes.fusionner(nouvelles);
+                filigrane = fin;
+                appliquerRetention();
+            }
+        }
+    }
+
+    /**
+     * Relit toute la fenêtre de rétention et remplace les histogrammes courants.
+     */
+    @Scheduled(cron = "${sdms.delais.reconstruction-cron:0 30 3 * * *}")
+    public void reconstruire() {
+        if (!actif) {
+            return;
+        }
+        synchronized (verrouLecture) {
+            LocalDateTime fin = LocalDateTime.now().minus(decalage);
+            LocalDateTime debut = fin.toLocalDate().minusDays(retentionJours).atStartOfDay();
+            long debutNs = System.nanoTime();
+            dimensionnerPlafond();
+            Histogrammes relues = lire(debut, fin);
+            synchronized (this) {
+                histogrammes = relues;
+                filigrane = fin;
+                appliquerRetention();
+            }
+            log.info("Histogrammes de délais reconstruits sur {} jour(s) : {} histogramme(s) en {} ms",
+                    retentionJours, relues.nombre, (System.nanoTime() - debutNs) / 1_000_000);
+            if (relues.incompletJusquau != null) {
+                log.warn("Plafond de {} histogrammes atteint : délais incomplets jusqu'au {} inclus", plafond,
+                        relues.incompletJusquau);
+            }
+        }
+    }
+
+    /**
+     * Plafond couvrant toute la rétention pour les zones et livreurs actuels (un jour de marge pour le jour
+     * en cours), ou plafond fixe configuré, signalé s'il est insuffisant.
+     */
+    private void dimensionnerPlafond() {
+        long series = 1 + zoneRepository.count() + livreurRepository.count();
+        long necessaire = series * HISTOGRAMMES_PAR_SERIE * (retentionJours + 2L);
+        int calcule;
+        if (maxHistogrammes > 0) {
+            calcule = maxHistogrammes;
+            if (maxHistogrammes < necessaire) {
+                log.warn("sdms.delais.max-histogrammes={} < {} nécessaires pour {} série(s) sur {} jour(s) : "
+                        + "les jours anciens seront évincés", maxHistogrammes, necessaire, series, retentionJours);
+            }
+        } else {
+            calcule = (int) Math.min(Integer.MAX_VALUE, necessaire);
+        }
+        synchronized (this) {
+            plafond = calcule;
+        }
+    }
+
+    public synchronized int getNombreHistogrammes() {
+        return histogrammes.nombre;
+    }
+
+    /**
+     * Lit en flux les transitions dont la date est dans ]debut, fin] dans un jeu d'histogrammes séparé,
+     * fusionné ensuite sous le verrou : les lectures du tableau de bord ne sont pas bloquées pendant la requête.
+     */
+    private Histogrammes lire(LocalDateTime debut, LocalDateTime fin) {
+        Histogrammes lus;
+        synchronized (this) {
+            lus = new Histogrammes(plafond, evictions, valeursIgnorees);
+        }
+        LecteurTransitions lecteur = new LecteurTransitions(lus, debut, fin);
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(SQL_TRANSITIONS, lecteur, Timestamp.valueOf(debut), Timestamp.valueOf(fin)));
+        transitionsIntegrees.increment(lecteur.transitions);
+        return lus;
+    }
+
+    private void appliquerRetention() {
+        histogrammes.oublierAvant(LocalDate.now().minusDays(retentionJours));
+    }
+
+    private static List<DelaiSerieDTO> lister(Map<Serie, Fusion> fusions, Dimension dimension,
+                                              Function<List<String>, Map<String, String>> noms) {
+        List<String> ids = fusions.keySet().stream()
+                .filter(serie -> serie.dimension() == dimension)
+                .map(Serie::id)
+                .sorted()
+                .toList();
+        Map<String, String> nomsParId = ids.isEmpty() ? Map.of() : noms.apply(ids);
+        List<DelaiSerieDTO> series = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            series.add(fusions.get(new Serie(dimension, id)).versDto(id, nomsParId.get(id)));
+        }
+        return series;
+    }
+
+    private Map<String, String> nomsZones(List<String> ids) {
+        Map<String, String> noms = new HashMap<>();
+        for (Zone zone : zoneRepository.findAllById(ids)) {
+            noms.put(zone.getId(), zone.getNom());
+        }
+        return noms;
+    }
+
+    private Map<String, String> nomsLivreurs(List<String> ids) {
+        Map<String, String> noms = new HashMap<>();
+        for (Livreur livreur : livreurRepository.findAllById(ids)) {
+            noms.put(livreur.getId(), livreur.getPrenom() != null ? livreur.getNom() + " " + livreur.getPrenom() : livreur.getNom());
+        }
+        return noms;
+    }
+
+    enum Dimension { GLOBAL, ZONE, LIVREUR }
+
+    record Serie(Dimension dimension, String id) {
+        static final Serie GLOBAL = new Serie(Dimension.GLOBAL, null);
+    }
+
+    /**
+     * Histogrammes d'une série pour un jour, alloués à la première valeur.
+     */
+    static final class Cellule {
+        HistogrammeDurees livraison;
+        final Map<StatutColis, HistogrammeDurees> parStatut = new EnumMap<>(StatutColis.class);
+    }
+
+    /**
+     * Histogrammes par jour et par série. Le plafond est vérifié à chaque allocation : au-delà, le jour
+     * le plus ancien est évincé, et une valeur de ce jour (ou d'un jour antérieur) n'est plus retenue.
+     * {@code incompletJusquau} garde le jour le plus récent ainsi amputé.
+     */
+    static final class Histogrammes {
+        final TreeMap<LocalDate, Map<Serie, Cellule>> parJour = new TreeMap<>();
+        private final int plafond;
+        private final Counter evictions;
+        private final Counter valeursIgnorees;
+        int nombre;
+        LocalDate incompletJusquau;
+
+        Histogrammes(int plafond, Counter evictions, Counter valeursIgnorees) {
+            this.plafond = plafond;
+            this.evictions = evictions;
+            this.valeursIgnorees = valeursIgnorees;
+        }
+
+        void enregistrerLivraison(LocalDate jour, Serie serie, long secondes) {
+            HistogrammeDurees histogramme = livraison(jour, serie);
+            if (histogramme != null) {
+                histogramme.enregistrer(secondes);
+            }
+        }
+
+        void enregistrerStatut(LocalDate jour, Serie serie, StatutColis statut, long secondes) {
+            HistogrammeDurees histogramme = statut(jour, serie, statut);
+            if (histogramme != null) {
+                histogramme.enregistrer(secondes);
+            }
+        }
+
+        void fusionner(Histogrammes autres) {
+            marquerIncomplet(autres.incompletJusquau);
+            autres.parJour.forEach((jour, series) -> series.forEach((serie, autre) -> {
+                if (autre.livraison != null) {
+                    HistogrammeDurees histogramme = livraison(jour, serie);
+                    if (histogramme != null) {
+                        histogramme.fusionner(autre.livraison);
+                    }
+                }
+                autre.parStatut.forEach((statut, source) -> {
+                    HistogrammeDurees histogramme = statut(jour, serie, statut);
+                    if (histogramme != null) {
+                        histogramme.fusionner(source);
+                    }
+                });
+            }));
+        }
+
+        void oublierAvant(LocalDate limite) {
+            while (!parJour.isEmpty() && parJour.firstKey().isBefore(limite)) {
+                oublierJour(parJour.firstKey());
+            }
+        }
+
+        private HistogrammeDurees livraison(LocalDate jour, Serie serie) {
+            Cellule cellule = celluleExistante(jour, serie);
+            if (cellule != null && cellule.livraison != null) {
+                return cellule.livraison;
+            }
+            if (!reserver(jour)) {
+                return null;
+            }
+            cellule = cellule(jour, serie);
+            cellule.livraison = new HistogrammeDurees();
+            return cellule.livraison;
+        }
+
+        private HistogrammeDurees statut(LocalDate jour, Serie serie, StatutColis statut) {
+            Cellule cellule = celluleExistante(jour, serie);
+            if (cellule != null && cellule.parStatut.containsKey(statut)) {
+                return cellule.parStatut.get(statut);
+            }
+            if (!reserver(jour)) {
+                return null;
+            }
+            HistogrammeDurees histogramme = new HistogrammeDurees();
+            cellule(jour, serie).parStatut.put(statut, histogramme);
+            return histogramme;
+        }
+
+        private boolean reserver(LocalDate jour) {
+            while (nombre >= plafond) {
+                LocalDate plusAncien = parJour.firstKey();
+                if (!jour.isAfter(plusAncien)) {
+                    valeursIgnorees.increment();
+                    marquerIncomplet(jour);
+                    return false;
+                }
+                oublierJour(plusAncien);
+                evictions.increment();
+                marquerIncomplet(plusAncien);
+            }
+            nombre++;
+            return true;
+        }
+
+        private void marquerIncomplet(LocalDate jour) {
+            if (jour != null && (incompletJusquau == null || jour.isAfter(incompletJusquau))) {
+                incompletJusquau = jour;
+            }
+        }
+
+        private void oublierJour(LocalDate jour) {
+            Map<Serie, Cellule> series = parJour.remove(jour);
+            if (series != null) {
+                for (Cellule cellule : series.values()) {
+                    nombre -= (cellule.livraison != null ? 1 : 0) + cellule.parStatut.size();
+                }
+            }
+        }
+
+        private Cellule celluleExistante(LocalDate jour, Serie serie) {
+            Map<Serie, Cellule> series = parJour.get(jour);
+            return series != null ? series.get(serie) : null;
+        }
+
+        private Cellule cellule(LocalDate jour, Serie serie) {
+            return parJour.computeIfAbsent(jour, j -> new HashMap<>()).computeIfAbsent(serie, s -> new Cellule());
+        }
+    }
+
+    /**
+     * Fusion des jours d'une série pour un rapport.
+     */
+    private static final class Fusion {
+        private final HistogrammeDurees livraison = new HistogrammeDurees();
+        private final Map<StatutColis, HistogrammeDurees> parStatut = new EnumMap<>(StatutColis.class);
+
+        void ajouter(Cellule cellule) {
+            if (cellule.livraison != null) {
+                livraison.fusionner(cellule.livraison);
+            }
+            cellule.parStatut.forEach((statut, histogramme) ->
+                    parStatut.computeIfAbsent(statut, s -> new HistogrammeDurees()).fusionner(histogramme));
+        }
+
+        DelaiSerieDTO versDto(String id, String nom) {
+            Map<StatutColis, PercentilesDureeDTO> statuts = new EnumMap<>(StatutColis.class);
+            parStatut.forEach((statut, histogramme) -> statuts.put(statut, percentiles(histogramme)));
+            return new DelaiSerieDTO(id, nom, percentiles(livraison), statuts);
+        }
+
+        private static PercentilesDureeDTO percentiles(HistogrammeDurees histogramme) {
+            return new PercentilesDureeDTO(histogramme.getNombre(), histogramme.percentile(0.50),
+                    histogramme.percentile(0.90), histogramme.percentile(0.99), histogramme.getMax());
+        }
+    }
+
+    /**
+     * Parcourt l'historique trié par colis puis par date, en ne gardant que la ligne précédente du colis courant.
+     * Une transition n'est comptée que si sa date est dans ]debut, fin] ; les lignes antérieures
+     * ne servent qu'à connaître le statut quitté et sa date d'entrée.
+     */
+    private static final class LecteurTransitions implements RowCallbackHandler {
+        private final Histogrammes cible;
+        private final LocalDateTime debut;
+        private final LocalDateTime fin;
+
+        private String colisCourant;
+        private StatutColis statutPrecedent;
+        private LocalDateTime datePrecedente;
+        private long transitions;
+
+        LecteurTransitions(Histogrammes cible, LocalDateTime debut, LocalDateTime fin) {
+            this.cible = cible;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String colisId = rs.getString("colis_id");
+            StatutColis statut = StatutColis.valueOf(rs.getString("statut"));
+            LocalDateTime date = rs.getTimestamp("date_changement").toLocalDateTime();
+            if (!Objects.equals(colisId, colisCourant)) {
+                colisCourant = colisId;
+                statutPrecedent = null;
+                datePrecedente = null;
+            }
+
+            if (date.isAfter(debut) && !date.isAfter(fin)) {
+                LocalDate jour = date.toLocalDate();
+                List<Serie> series = series(rs.getString("zone_id"), rs.getString("livreur_id"));
+                if (statutPrecedent != null && statutPrecedent != statut) {
+                    long secondes = Duration.between(datePrecedente, date).toSeconds();
+                    series.forEach(serie -> cible.enregistrerStatut(jour, serie, statutPrecedent, secondes));
+                    transitions++;
+                }
+                Timestamp dateCreation = rs.getTimestamp("date_creation");
+                if (statut == StatutColis.LIVRE && dateCreation != null && statutPrecedent != StatutColis.LIVRE) {
+                    long secondes = Duration.between(dateCreation.toLocalDateTime(), date).toSeconds();
+                    series.forEach(serie -> cible.enregistrerLivraison(jour, serie, secondes));
+                }
+            }
+            statutPrecedent = statut;
+            datePrecedente = date;
+        }
+
+        private static List<Serie> series(String zoneId, String livreurId) {
+            List<Serie> series = new ArrayList<>(3);
+            series.add(Serie.GLOBAL);
+            if (zoneId != null) {
+                series.add(new Serie(Dimension.ZONE, zoneId));
+            }
+            if (livreurId != null) {
+                series.add(new Serie(Dimension.LIVREUR, livreurId));
+            }
+            return series;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.service.support.CompteursTournees.Empreinte;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Archivage froid des colis livrés, activé par {@code sdms.archive.enabled=true} : les colis au statut LIVRE
+ * depuis plus de {@code age-jours} sont déplacés, avec leurs produits et leur historique, dans les tables
+ * d'archive (changelog 020). La table colis ne garde que le volume de travail courant.
+ * <p>
+ * Les colis sont traités par lots du plus ancien au plus récent, chaque lot dans sa propre transaction
+ * (copie puis suppression, lignes sources verrouillées) : une interruption n'annule que le lot en cours,
+ * le passage suivant reprend sur les colis restants. Les lectures par identifiant, l'historique et les listes
+ * client se replient sur l'archive (voir LectureArchive).
+ */
+@Component
+public class ArchivageColis {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivageColis.class);
+
+    static final String COLONNES_COLIS = "id, description, poids_total, statut, priorite, ville_destination, "
+            + "date_creation, date_dernier_statut, version, client_expediteur_id, destinataire_id, livreur_id, zone_id";
+    static final String COLONNES_PRODUIT = "id, quantite, date_ajout, colis_id, produit_id";
+    static final String COLONNES_HISTORIQUE = "id, statut, date_changement, commentaire, colis_id";
+
+    private static final String SQL_SELECTION = "SELECT id, livreur_id, zone_id, statut, poids_total FROM colis "
+            + "WHERE statut = ? AND date_dernier_statut < ? ORDER BY date_dernier_statut, id LIMIT ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CompteursTournees compteursTournees;
+    private final boolean actif;
+    private final int ageJours;
+    private final int tailleLot;
+    private final int maxLots;
+
+    private final Counter colisArchives;
+
+    public ArchivageColis(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          CompteursTournees compteursTournees,
+                          MeterRegistry meterRegistry,
+                          @Value("${sdms.archive.enabled:false}") boolean actif,
+                          @Value("${sdms.archive.age-jours:90}") int ageJours,
+                          @Value("${sdms.archive.taille-lot:500}") int tailleLot,
+                          @Value("${sdms.archive.max-lots:0}") int maxLots) {
+        if (ageJours < 1 || tailleLot < 1) {
+            throw new IllegalArgumentException("Archivage : age-jours et taille-lot doivent être positifs");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compteursTournees = compteursTournees;
+        this.actif = actif;
+        this.ageJours = ageJours;
+        this.tailleLot = tailleLot;
+        this.maxLots = maxLots;
+        this.colisArchives = Counter.builder("sdms.archive.colis")
+                .description("Colis livrés déplacés dans l'archive froide")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${sdms.archive.cron:0 30 1 * * *}")
+    public void archiver() {
+        if (!actif) {
+            return;
+        }
+        archiver(LocalDateTime.now());
+    }
+
+    /**
+     * Archive les colis livrés avant {@code maintenant - age-jours}, lot par lot, jusqu'à épuisement
+     * ou jusqu'à {@code max-lots} lots (0 : sans limite).
+     *
+     * @return le nombre de colis archivés
+     */
+    public int archiver(LocalDateTime maintenant) {
+        LocalDateTime limite = maintenant.minusDays(ageJours);
+        int total = 0;
+        int lots = 0;
+        while (maxLots == 0 || lots < maxLots) {
+            Integer archives = transactionTemplate.execute(status -> archiverLot(limite, maintenant));
+            int nombre = archives != null ? archives : 0;
+            colisArchives.increment(nombre);
+            total += nombre;
+            lots++;
+            if (nombre < tailleLot) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("{} colis livré(s) avant {} archivé(s) en {} lot(s)", total, limite, lots);
+        }
+        return total;
+    }
+
+    private int archiverLot(LocalDateTime limite, LocalDateTime dateArchivage) {
+        List<Ligne> lignes = jdbcTemplate.query(SQL_SELECTION,
+                (rs, i) -> new Ligne(rs.getString("id"), new Empreinte(rs.getString("livreur_id"), rs.getString("zone_id"),
+                        StatutColis.valueOf(rs.getString("statut")), rs.getDouble("poids_total"))),
+                StatutColis.LIVRE.name(), Timestamp.valueOf(limite), tailleLot);
+        if (lignes.isEmpty()) {
+            return 0;
+        }
+
+        String parametres = String.join(", ", Collections.nCopies(lignes.size(), "?"));
+        Object[] ids = lignes.stream().map(Ligne::id).toArray();
+        Object[] avecDate = new Object[ids.length + 1];
+        avecDate[0] = Timestamp.valueOf(dateArchivage);
+        System.arraycopy(ids, 0, avecDate, 1, ids.length);
+
+        // Parents d'abord dans l'archive, enfants d'abord dans les tables chaudes (clés étrangères)
+        jdbcTemplate.update("INSERT INTO colis_archive (" + COLONNES_COLIS + ", date_archivage) SELECT "
+                + COLONNES_COLIS + ", ? FROM colis WHERE id IN (" + parametres + ")", avecDate);
+        jdbcTemplate.update("INSERT INTO colis_produit_archive (" + COLONNES_PRODUIT + ") SELECT "
+                + COLONNES_PRODUIT + " FROM colis_produit WHERE colis_id IN (" + parametres + ")", ids);
+        jdbcTemplate.update("INSERT INTO historique_livraison_archive (" + COLONNES_HISTORIQUE + ") SELECT "
+                + COLONNES_HISTORIQUE + " FROM historique_livraison WHERE colis_id IN (" + parametres + ")", ids);
+        jdbcTemplate.update("DELETE FROM historique_livraison WHERE colis_id IN (" + parametres + ")", ids);
+        jdbcTemplate.update("DELETE FROM colis_produit WHERE colis_id IN (" + parametres + ")", ids);
+        jdbcTemplate.update("DELETE FROM colis WHERE id IN (" + parametres + ")", ids);
+
+        // Les colis livrés sortent aussi des compteurs de tournées, après validation du lot
+        for (Ligne ligne : lignes) {
+            compteursTournees.enregistrer(ligne.empreinte(), null);
+        }
+        return lignes.size();
+    }
+
+    private record Ligne(String id, Empreinte empreinte) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.ColisArchive;
+import com.smartlogi.sdms.entity.Utilisateur;
+import com.smartlogi.sdms.mapper.ColisArchiveMapper;
+import com.smartlogi.sdms.mapper.ColisMapper;
+import com.smartlogi.sdms.repository.ColisArchiveRepository;
+import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Projection d'accès d'un colis, lue au plus une fois par requête HTTP : le contrôle {@code @PreAuthorize}
+ * et la lecture conditionnelle (ETag) du contrôleur partagent la même lecture.
+ * <p>
+ * Les endpoints qui servent le colis lui-même ({@code GET /colis/{id}}) passent par {@link #chargerDetail} :
+ * le colis complet (produits compris) est lu une seule fois, et la projection d'accès en est dérivée
+ * au lieu d'être relue. Un 304 coûte alors la même requête qu'un 200, mais aucune requête de plus.
+ * <p>
+ * Instantané pris à la première lecture : à réserver aux vérifications faites avant toute écriture
+ * du colis dans la requête. Hors requête HTTP (tâches, tests), chaque appel relit la base.
+ * Un colis absent de la table chaude est cherché dans l'archive froide (colis livrés archivés).
+ */
+@Component
+public class ColisAccesMemo {
+
+    private static final String PREFIXE_ATTRIBUT = ColisAccesMemo.class.getName() + ".";
+    private static final String PREFIXE_DETAIL = ColisAccesMemo.class.getName() + ".detail.";
+
+    private final ColisRepository colisRepository;
+    private final ColisArchiveRepository colisArchiveRepository;
+    private final ColisMapper colisMapper;
+    private final ColisArchiveMapper colisArchiveMapper;
+
+    public ColisAccesMemo(ColisRepository colisRepository, ColisArchiveRepository colisArchiveRepository,
+                          ColisMapper colisMapper, ColisArchiveMapper colisArchiveMapper) {
+        this.colisRepository = colisRepository;
+        this.colisArchiveRepository = colisArchiveRepository;
+        this.colisMapper = colisMapper;
+        this.colisArchiveMapper = colisArchiveMapper;
+    }
+
+    /**
+     * Colis complet et projection d'accès issus d'une même lecture.
+     */
+    public record Detail(ColisAccesProjection acces, ColisDTO colis) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<ColisAccesProjection> charger(String colisId) {
+        RequestAttributes requete = RequestContextHolder.getRequestAttributes();
+        if (requete == null || colisId == null) {
+            return colisId != null ? lire(colisId) : Optional.empty();
+        }
+        String attribut = PREFIXE_ATTRIBUT + colisId;
+        Object memorise = requete.getAttribute(attribut, RequestAttributes.SCOPE_REQUEST);
+        if (memorise != null) {
+            return (Optional<ColisAccesProjection>) memorise;
+        }
+        Optional<ColisAccesProjection> acces = lire(colisId);
+        requete.setAttribute(attribut, acces, RequestAttributes.SCOPE_REQUEST);
+        return acces;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<Detail> chargerDetail(String colisId) {
+        RequestAttributes requete = RequestContextHolder.getRequestAttributes();
+        if (requete == null || colisId == null) {
+            return colisId != null ? lireDetail(colisId) : Optional.empty();
+        }
+        String attribut = PREFIXE_DETAIL + colisId;
+        Object memorise = requete.getAttribute(attribut, RequestAttributes.SCOPE_REQUEST);
+        if (memorise != null) {
+            return (Optional<Detail>) memorise;
+        }
+        Optional<Detail> detail = lireDetail(colisId);
+        requete.setAttribute(attribut, detail, RequestAttributes.SCOPE_REQUEST);
+        // La projection suit la même lecture : les appels suivants à charger() ne relisent pas la base
+        requete.setAttribute(PREFIXE_ATTRIBUT + colisId, detail.map(Detail::acces), RequestAttributes.SCOPE_REQUEST);
+        return detail;
+    }
+
+    private Optional<ColisAccesProjection> lire(String colisId) {
+        return colisRepository.findAccesById(colisId).or(() -> colisArchiveRepository.findAccesById(colisId));
+    }
+
+    private Optional<Detail> lireDetail(String colisId) {
+        return colisRepository.findWithProduitsById(colisId)
+                .map(colis -> new Detail(acces(colis), colisMapper.toDto(colis)))
+                .or(() -> colisArchiveRepository.findWithProduitsById(colisId)
+                        .map(archive -> new Detail(acces(archive), colisArchiveMapper.toDto(archive))));
+    }
+
+    private static ColisAccesProjection acces(Colis colis) {
+        // Identifiants lus sur les proxys des associations, sans les initialiser
+        return new Acces(colis.getVersion(), colis.getDateDernierStatut(), colis.getDateCreation(),
+                id(colis.getClientExpediteur()), id(colis.getDestinataire()), id(colis.getLivreur()));
+    }
+
+    private static ColisAccesProjection acces(ColisArchive archive) {
+        return new Acces(archive.getVersion(), archive.getDateDernierStatut(), archive.getDateCreation(),
+                archive.getClientExpediteurId(), archive.getDestinataireId(), archive.getLivreurId());
+    }
+
+    private static String id(Utilisateur utilisateur) {
+        return utilisateur != null ? utilisateur.getId() : null;
+    }
+
+    private record Acces(Long version, LocalDateTime dateDernierStatut, LocalDateTime dateCreation,
+                         String clientExpediteurId, String destinataireId, String livreurId)
+            implements ColisAccesProjection {
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public LocalDateTime getDateDernierStatut() {
+            return dateDernierStatut;
+        }
+
+        @Override
+        public LocalDateTime getDateCreation() {
+            return dateCreation;
+        }
+
+        @Override
+        public String getClientExpediteurId() {
+            return clientExpediteurId;
+        }
+
+        @Override
+        public String getDestinataireId() {
+            return destinataireId;
+        }
+
+        @Override
+        public String getLivreurId() {
+            return livreurId;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.exception.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position d'une pagination par curseur sur les colis : valeurs de la clé de tri du dernier colis renvoyé
+ * et son ID (départage des égalités). Transmise au client sous forme opaque (Base64 URL).
+ */
+public record ColisCurseur(Ordre ordre, String cle, String zoneNom, String id) {
+
+    /**
+     * Ordres de parcours supportés. Seul DATE_CREATION est un parcours d'index borné à toute profondeur
+     * (changelog 013) ; PRIORITE_ZONE garde le curseur opaque et l'absence de COUNT, mais pas ce coût.
+     */
+    public enum Ordre {
+        /** date_creation DESC, id DESC : colis les plus récents d'abord. */
+        DATE_CREATION,
+        /**
+         * priorite DESC, zone.nom ASC, id ASC : tri par défaut des tournées livreur. zone.nom vient de la jointure,
+         * aucun index ne porte cet ordre : chaque page trie les colis du filtre restant après le curseur.
+         * Acceptable pour la tournée d'un livreur (quelques centaines de colis, index (livreur_id, priorite, id)),
+         * pas pour un parcours profond de tous les colis ou d'un gros client : utiliser DATE_CREATION.
+         */
+        PRIORITE_ZONE
+    }
+
+    private static final String SEPARATEUR = "\u001F";
+
+    public static ColisCurseur depuis(Colis colis, Ordre ordre) {
+        return switch (ordre) {
+            // Précision des colonnes TIMESTAMP (µs) : une entité encore en mémoire peut porter des nanosecondes
+            case DATE_CREATION -> new ColisCurseur(ordre,
+                    colis.getDateCreation().truncatedTo(ChronoUnit.MICROS).toString(), null, colis.getId());
+            case PRIORITE_ZONE -> new ColisCurseur(ordre, colis.getPriorite().name(),
+                    colis.getZone() != null && colis.getZone().getNom() != null ? colis.getZone().getNom() : "",
+                    colis.getId());
+        };
+    }
+
+    public String encoder() {
+        String brut = String.join(SEPARATEUR, ordre.name(), cle, zoneNom == null ? "" : zoneNom, id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidDataException si le curseur est illisible ou a été produit pour un autre ordre de tri
+     */
+    public static ColisCurseur decoder(String curseur, Ordre ordreAttendu) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            String[] parties = brut.split(SEPARATEUR, -1);
+            if (parties.length != 4 || parties[3].isEmpty()) {
+                throw new IllegalArgumentException("Nombre de champs inattendu");
+            }
+            ColisCurseur position = new ColisCurseur(Ordre.valueOf(parties[0]), parties[1], parties[2], parties[3]);
+            if (position.ordre() != ordreAttendu) {
+                throw new InvalidDataException("Le curseur a été obtenu avec l'ordre " + position.ordre()
+                        + " et ne peut pas être utilisé avec l'ordre " + ordreAttendu + ".");
+            }
+            // Valide la clé dès le décodage plutôt qu'au moment de la requête
+            if (ordreAttendu == Ordre.DATE_CREATION) {
+                position.dateCreation();
+            } else {
+                position.priorite();
+            }
+            return position;
+        } catch (InvalidDataException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidDataException("Curseur de pagination invalide.");
+        }
+    }
+
+    public LocalDateTime dateCreation() {
+        return LocalDateTime.parse(cle);
+    }
+
+    public Priorite priorite() {
+        return Priorite.valueOf(cle);
+    }
+}
@@ -0,0 +1,301 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.event.ColisEvenement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion en Server-Sent Events des changements de statut et d'assignation des colis.
+ * <p>
+ * Les abonnements sont des {@link SseEmitter} (requêtes asynchrones du conteneur) : une connexion inactive
+ * n'occupe aucun thread, seulement une entrée dans le registre. Les événements sont reçus après le commit
+ * de la transaction qui les a produits, puis répartis par un thread de diffusion dédié afin de ne pas
+ * retarder la requête d'écriture. Un battement périodique maintient les connexions ouvertes à travers
+ * les proxys et purge les abonnés déconnectés.
+ * <p>
+ * Chaque abonné a sa propre file bornée, vidée par un pool de threads d'envoi (un seul envoi à la fois par
+ * abonné : l'ordre est conservé). {@code SseEmitter.send} est bloquant : un client lent ou à moitié fermé
+ * n'immobilise qu'un thread d'envoi et ne retarde pas les autres abonnés. Il est fermé dès que sa file est
+ * pleine, ou par le battement si un envoi dure plus de {@code delai-envoi-ms}.
+ */
+@Component
+public class ColisEvenementDiffuseur {
+
+    private static final Logger log = LoggerFactory.getLogger(ColisEvenementDiffuseur.class);
+
+    static final String NOM_EVENEMENT = "colis";
+
+    private final Map<String, Set<Abonne>> abonnes = new ConcurrentHashMap<>();
+    private final AtomicInteger nombreAbonnements = new AtomicInteger();
+    private final ThreadPoolExecutor executeur;
+    private final ThreadPoolExecutor envoyeurs;
+    private final long delaiExpirationMs;
+    private final int maxAbonnements;
+    private final int capaciteAbonne;
+    private final long delaiEnvoiMs;
+
+    private final Counter abonnesLents;
+
+    public ColisEvenementDiffuseur(MeterRegistry meterRegistry,
+                                   @Value("${sdms.sse.delai-expiration-ms:1800000}") long delaiExpirationMs,
+                                   @Value("${sdms.sse.max-abonnements:50000}") int maxAbonnements,
+                                   @Value("${sdms.sse.capacite-file:10000}") int capaciteFile,
+                                   @Value("${sdms.sse.threads-envoi:4}") int threadsEnvoi,
+                                   @Value("${sdms.sse.capacite-abonne:64}") int capaciteAbonne,
+                                   @Value("${sdms.sse.delai-envoi-ms:10000}") long delaiEnvoiMs) {
+        this.delaiExpirationMs = delaiExpirationMs;
+        this.maxAbonnements = maxAbonnements;
+        this.capaciteAbonne = capaciteAbonne;
+        this.delaiEnvoiMs = delaiEnvoiMs;
+        // Un seul thread de répartition : les événements entrent dans les files des abonnés dans l'ordre
+        this.executeur = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capaciteFile),
+                fabrique("sdms-sse-diffusion"),
+                (runnable, pool) -> log.warn("File de diffusion SSE pleine, événement abandonné"));
+        // Au plus une tâche en attente par abonné (voir Abonne.planifie) : file bornée par le nombre d'abonnements
+        this.envoyeurs = new ThreadPoolExecutor(threadsEnvoi, threadsEnvoi, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxAbonnements),
+                fabrique("sdms-sse-envoi"));
+
+        Gauge.builder("sdms.sse.abonnements", nombreAbonnements, AtomicInteger::get)
+                .description("Nombre de connexions SSE ouvertes")
+                .register(meterRegistry);
+        this.abonnesLents = Counter.builder("sdms.sse.abonnes-lents")
+                .description("Abonnés SSE fermés car trop lents (file pleine ou envoi bloqué)")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter abonnerColis(String colisId) {
+        return abonner(cle("colis", colisId));
+    }
+
+    public SseEmitter abonnerClient(String clientExpediteurId) {
+        return abonner(cle("client", clientExpediteurId));
+    }
+
+    public SseEmitter abonnerLivreur(String livreurId) {
+        return abonner(cle("livreur", livreurId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onColisEvenement(ColisEvenement evenement) {
+        if (nombreAbonnements.get() == 0) {
+            return;
+        }
+        executeur.execute(() -> diffuser(evenement));
+    }
+
+    /**
+     * Commentaire SSE périodique : évite la fermeture des connexions inactives par les proxys
+     * et détecte les clients partis sans fermer proprement. Ferme aussi les abonnés dont l'envoi en cours
+     * est bloqué depuis plus de {@code delai-envoi-ms}.
+     */
+    @Scheduled(fixedDelayString = "${sdms.sse.battement-ms:25000}")
+    public void envoyerBattement() {
+        long maintenant = System.currentTimeMillis();
+        for (Set<Abonne> ensemble : abonnes.values()) {
+            for (Abonne abonne : ensemble) {
+                long debutEnvoi = abonne.debutEnvoi;
+                if (debutEnvoi != 0 && maintenant - debutEnvoi > delaiEnvoiMs) {
+                    fermerLent(abonne, "envoi bloqué depuis " + (maintenant - debutEnvoi) + " ms");
+                } else {
+                    publier(abonne, SseEmitter.event().comment("ping"));
+                }
+            }
+        }
+    }
+
+    public int getNombreAbonnements() {
+        return nombreAbonnements.get();
+    }
+
+    @PreDestroy
+    void arreter() {
+        executeur.shutdownNow();
+        envoyeurs.shutdownNow();
+        abonnes.values().forEach(ensemble -> ensemble.forEach(abonne -> abonne.emitter.complete()));
+        abonnes.clear();
+    }
+
+    void diffuser(ColisEvenement evenement) {
+        List<String> cles = new ArrayList<>(3);
+        cles.add(cle("colis", evenement.colisId()));
+        if (evenement.clientExpediteurId() != null) {
+            cles.add(cle("client", evenement.clientExpediteurId()));
+        }
+        if (evenement.livreurId() != null) {
+            cles.add(cle("livreur", evenement.livreurId()));
+        }
+        // Le livreur qui perd le colis est aussi notifié
+        if (evenement.ancienLivreurId() != null && !evenement.ancienLivreurId().equals(evenement.livreurId())) {
+            cles.add(cle("livreur", evenement.ancienLivreurId()));
+        }
+
+        for (String cle : cles) {
+            Set<Abonne> ensemble = abonnes.get(cle);
+            if (ensemble == null) {
+                continue;
+            }
+            for (Abonne abonne : ensemble) {
+                publier(abonne, SseEmitter.event()
+                        .name(NOM_EVENEMENT)
+                        .id(evenement.colisId() + ":" + evenement.horodatage())
+                        .data(evenement));
+            }
+        }
+    }
+
+    /**
+     * Émetteur d'un nouvel abonnement ; point d'extension des tests.
+     */
+    SseEmitter creerEmitter(long delaiExpirationMs) {
+        return new SseEmitter(delaiExpirationMs);
+    }
+
+    private SseEmitter abonner(String cle) {
+        if (nombreAbonnements.incrementAndGet() > maxAbonnements) {
+            nombreAbonnements.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Nombre maximal d'abonnements aux événements atteint, réessayez plus tard.");
+        }
+
+        Abonne abonne = new Abonne(cle, creerEmitter(delaiExpirationMs), capaciteAbonne);
+        // Ajout atomique : une purge concurrente ne peut pas retirer l'ensemble entre sa création et l'ajout
+        abonnes.compute(cle, (k, ensemble) -> {
+            Set<Abonne> resultat = ensemble != null ? ensemble : ConcurrentHashMap.newKeySet();
+            resultat.add(abonne);
+            return resultat;
+        });
+
+        Runnable retrait = () -> retirer(abonne);
+        abonne.emitter.onCompletion(retrait);
+        abonne.emitter.onTimeout(retrait);
+        abonne.emitter.onError(erreur -> retrait.run());
+        log.debug("Nouvel abonnement SSE {} ({} ouvert(s))", cle, nombreAbonnements.get());
+        return abonne.emitter;
+    }
+
+    private void publier(Abonne abonne, SseEmitter.SseEventBuilder evenement) {
+        if (!abonne.file.offer(evenement)) {
+            fermerLent(abonne, "file de " + capaciteAbonne + " événements pleine");
+            return;
+        }
+        planifier(abonne);
+    }
+
+    private void planifier(Abonne abonne) {
+        if (!abonne.planifie.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            envoyeurs.execute(() -> vider(abonne));
+        } catch (RejectedExecutionException e) {
+            abonne.planifie.set(false);
+            fermerLent(abonne, "envoi refusé");
+        }
+    }
+
+    private void vider(Abonne abonne) {
+        SseEmitter.SseEventBuilder evenement;
+        while ((evenement = abonne.file.poll()) != null) {
+            if (!envoyer(abonne, evenement)) {
+                abonne.file.clear();
+                break;
+            }
+        }
+        abonne.planifie.set(false);
+        // Événement ajouté entre le dernier poll et la libération : replanifié ici, faute d'autre thread
+        if (!abonne.file.isEmpty()) {
+            planifier(abonne);
+        }
+    }
+
+    private boolean envoyer(Abonne abonne, SseEmitter.SseEventBuilder evenement) {
+        abonne.debutEnvoi = System.currentTimeMillis();
+        try {
+            abonne.emitter.send(evenement);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté : le conteneur terminera la requête asynchrone
+            retirer(abonne);
+            abonne.emitter.completeWithError(e);
+            return false;
+        } finally {
+            abonne.debutEnvoi = 0;
+        }
+    }
+
+    private void fermerLent(Abonne abonne, String raison) {
+        if (retirer(abonne)) {
+            abonnesLents.increment();
+            log.warn("Abonné SSE {} fermé : {}", abonne.cle, raison);
+            abonne.file.clear();
+            // Termine la requête asynchrone : une écriture bloquée échoue, le client se reconnecte
+            abonne.emitter.completeWithError(new IOException("Abonné SSE trop lent : " + raison));
+        }
+    }
+
+    private boolean retirer(Abonne abonne) {
+        boolean[] retire = new boolean[1];
+        abonnes.computeIfPresent(abonne.cle, (k, ensemble) -> {
+            if (ensemble.remove(abonne)) {
+                nombreAbonnements.decrementAndGet();
+                retire[0] = true;
+            }
+            return ensemble.isEmpty() ? null : ensemble;
+        });
+        return retire[0];
+    }
+
+    private static ThreadFactory fabrique(String nom) {
+        AtomicInteger numero = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, nom + "-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static String cle(String type, String id) {
+        return type + ":" + id;
+    }
+
+    /**
+     * Abonnement : émetteur, file d'événements en attente et état de l'envoi en cours.
+     */
+    private static final class Abonne {
+        private final String cle;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> file;
+        private final AtomicBoolean planifie = new AtomicBoolean();
+        // Début de l'envoi en cours (0 : aucun envoi), lu par le battement
+        private volatile long debutEnvoi;
+
+        private Abonne(String cle, SseEmitter emitter, int capacite) {
+            this.cle = cle;
+            this.emitter = emitter;
+            this.file = new ArrayBlockingQueue<>(capacite);
+        }
+    }
+}
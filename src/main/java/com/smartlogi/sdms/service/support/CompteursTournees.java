@@ -0,0 +1,418 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.dto.StatistiqueLivreurDTO;
+import com.smartlogi.sdms.dto.StatistiqueZoneDTO;
+import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.repository.projection.AgregatTourneeProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Compteurs de tournées maintenus en mémoire, activés par {@code sdms.statistiques.compteurs.enabled=true}.
+ * <p>
+ * Pour chaque livreur et chaque zone : nombre de colis et poids total par statut. Les écritures de colis
+ * (création, changement de statut, assignation, suppression) transmettent l'empreinte du colis avant et après
+ * l'opération ; la différence n'est appliquée qu'après la validation de la transaction, une tentative annulée
+ * ne modifie donc pas les compteurs. Le tableau de bord est servi sans requête d'agrégation.
+ * <p>
+ * Les compteurs sont construits depuis la table colis au démarrage, puis comparés périodiquement à la base
+ * par {@link #verifier()} : une divergence (écriture hors service, SQL manuel...) déclenche une reconstruction.
+ * Les différences validées pendant la lecture de référence sont journalisées puis rejouées sur le résultat.
+ * <p>
+ * Déploiement sur une seule instance uniquement : les compteurs sont propres à la JVM et ne reçoivent que
+ * les écritures validées sur ce nœud. Avec plusieurs instances, chacune servirait des chiffres faux jusqu'à
+ * la vérification suivante ({@code verification-ms}) ; laisser alors la fonctionnalité désactivée (défaut).
+ */
+@Component
+public class CompteursTournees {
+
+    private static final Logger log = LoggerFactory.getLogger(CompteursTournees.class);
+
+    /** Statuts comptés dans la charge d'une tournée (nombre de colis et poids des statistiques). */
+    static final Set<StatutColis> STATUTS_ACTIFS = EnumSet.of(StatutColis.COLLECTE, StatutColis.EN_STOCK, StatutColis.EN_TRANSIT);
+
+    private static final double TOLERANCE_POIDS = 0.001;
+
+    private final ColisRepository colisRepository;
+    private final LivreurRepository livreurRepository;
+    private final ZoneRepository zoneRepository;
+    private final boolean actif;
+
+    private final Counter divergences;
+    private final Timer dureeReconstruction;
+
+    // Une seule lecture de référence à la fois (reconstruction ou vérification)
+    private final Object verrouReference = new Object();
+
+    // Protégés par this : compteurs courants (null tant qu'ils ne sont pas construits)
+    // et journal des mouvements reçus pendant une lecture de référence
+    private Etat etat;
+    private List<Mouvement> journal;
+
+    public CompteursTournees(ColisRepository colisRepository,
+                             LivreurRepository livreurRepository,
+                             ZoneRepository zoneRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${sdms.statistiques.compteurs.enabled:false}") boolean actif) {
+        this.colisRepository = colisRepository;
+        this.livreurRepository = livreurRepository;
+        this.zoneRepository = zoneRepository;
+        this.actif = actif;
+        this.divergences = Counter.builder("sdms.statistiques.divergences")
+                .description("Écarts détectés entre les compteurs de tournées et la table colis")
+                .register(meterRegistry);
+        this.dureeReconstruction = Timer.builder("sdms.statistiques.reconstruction")
+                .description("Durée de reconstruction des compteurs de tournées")
+                .register(meterRegistry);
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    /**
+     * Enregistre le passage d'un colis de l'état {@code avant} à l'état {@code apres}
+     * ({@code avant} nul pour une création, {@code apres} nul pour une suppression).
+     * Dans une transaction, la différence n'est appliquée qu'après sa validation.
+     */
+    public void enregistrer(Empreinte avant, Empreinte apres) {
+        if (!actif || Objects.equals(avant, apres)) {
+            return;
+        }
+        Mouvement mouvement = new Mouvement(avant, apres);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        appliquer(mouvement);
+                    }
+                }
+            });
+        } else {
+            appliquer(mouvement);
+        }
+    }
+
+    /**
+     * Statistiques courantes, vides si les compteurs sont désactivés ou pas encore construits
+     * (l'appelant se rabat alors sur les requêtes d'agrégation).
+     */
+    public Optional<StatistiquesTourneeDTO> statistiques() {
+        if (!actif) {
+            return Optional.empty();
+        }
+        List<StatistiqueLivreurDTO> parLivreur;
+        List<StatistiqueZoneDTO> parZone;
+        synchronized (this) {
+            if (etat == null) {
+                return Optional.empty();
+            }
+            parLivreur = lister(etat.parLivreur, (id, compteur) -> new StatistiqueLivreurDTO(id, compteur.nom,
+                    compteur.nombreActifs(), compteur.poidsActifs(), compteur.parStatut()));
+            parZone = lister(etat.parZone, (id, compteur) -> new StatistiqueZoneDTO(id, compteur.nom,
+                    compteur.nombreActifs(), compteur.poidsActifs(), compteur.parStatut()));
+        }
+        completerNomsLivreurs(parLivreur);
+        completerNomsZones(parZone);
+
+        StatistiquesTourneeDTO statistiques = new StatistiquesTourneeDTO();
+        statistiques.setParLivreur(parLivreur);
+        statistiques.setParZone(parZone);
+        return Optional.of(statistiques);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        if (actif) {
+            reconstruire();
+        }
+    }
+
+    /**
+     * Recalcule tous les compteurs depuis la table colis et remplace l'état courant.
+     */
+    public void reconstruire() {
+        Timer.Sample chrono = Timer.start();
+        int entrees = avecReference(reference -> {
+            etat = reference;
+            return reference.parLivreur.size() + reference.parZone.size();
+        });
+        long dureeNs = chrono.stop(dureeReconstruction);
+        log.info("Compteurs de tournées reconstruits : {} livreur(s) et zone(s) en {} ms", entrees, dureeNs / 1_000_000);
+    }
+
+    /**
+     * Compare les compteurs courants à un recalcul depuis la table colis.
+     *
+     * @return la description de chaque écart (vide si les compteurs sont cohérents)
+     */
+    public List<String> verifier() {
+        return avecReference(reference -> {
+            if (etat == null) {
+                return List.of("Compteurs de tournées non construits.");
+            }
+            List<String> ecarts = new ArrayList<>();
+            comparer("livreur", etat.parLivreur, reference.parLivreur, ecarts);
+            comparer("zone", etat.parZone, reference.parZone, ecarts);
+            return ecarts;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${sdms.statistiques.verification-ms:600000}",
+            initialDelayString = "${sdms.statistiques.verification-ms:600000}")
+    public void verifierPeriodiquement() {
+        if (!actif) {
+            return;
+        }
+        List<String> ecarts = verifier();
+        if (ecarts.isEmpty()) {
+            return;
+        }
+        divergences.increment(ecarts.size());
+        log.warn("{} écart(s) entre les compteurs de tournées et la table colis, reconstruction : {}",
+                ecarts.size(), ecarts.subList(0, Math.min(ecarts.size(), 10)));
+        reconstruire();
+    }
+
+    synchronized void appliquer(Mouvement mouvement) {
+        if (journal != null) {
+            journal.add(mouvement);
+        }
+        if (etat != null) {
+            mouvement.appliquer(etat);
+        }
+    }
+
+    /**
+     * Lit l'état de référence en base puis y rejoue les mouvements validés pendant la lecture,
+     * et exécute {@code action} sous le verrou des compteurs.
+     * Seul un mouvement validé entre l'ouverture du journal et le début effectif de la requête
+     * peut être compté deux fois ; la vérification suivante le corrige.
+     */
+    private <T> T avecReference(Function<Etat, T> action) {
+        synchronized (verrouReference) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            try {
+                Etat reference = new Etat();
+                for (AgregatTourneeProjection agregat : colisRepository.findAgregatsTournees()) {
+                    reference.ajouter(agregat.getLivreurId(), agregat.getLivreurNom(), agregat.getZoneId(), agregat.getZoneNom(),
+                            agregat.getStatut(), agregat.getNombre(), agregat.getPoids() != null ? agregat.getPoids() : 0.0);
+                }
+                synchronized (this) {
+                    journal.forEach(mouvement -> mouvement.appliquer(reference));
+                    return action.apply(reference);
+                }
+            } finally {
+                synchronized (this) {
+                    journal = null;
+                }
+            }
+        }
+    }
+
+    private static <T> List<T> lister(Map<String, Compteur> compteurs, BiFunction<String, Compteur, T> conversion) {
+        List<T> resultat = new ArrayList<>();
+        compteurs.entrySet().stream()
+                .filter(entree -> entree.getValue().nombreActifs() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entree -> resultat.add(conversion.apply(entree.getKey(), entree.getValue())));
+        return resultat;
+    }
+
+    /**
+     * Les mouvements ne portent que les identifiants : les noms encore inconnus
+     * (livreur ou zone apparus depuis la dernière reconstruction) sont chargés en une requête.
+     */
+    private void completerNomsLivreurs(List<StatistiqueLivreurDTO> statistiques) {
+        Set<String> ids = new HashSet<>();
+        statistiques.stream().filter(s -> s.getLivreurNom() == null).forEach(s -> ids.add(s.getLivreurId()));
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, String> noms = new HashMap<>();
+        for (Livreur livreur : livreurRepository.findAllById(ids)) {
+            noms.put(livreur.getId(), livreur.getPrenom() != null ? livreur.getNom() + " " + livreur.getPrenom() : livreur.getNom());
+        }
+        statistiques.forEach(s -> {
+            if (s.getLivreurNom() == null) {
+                s.setLivreurNom(noms.get(s.getLivreurId()));
+            }
+        });
+        memoriserNoms(noms, true);
+    }
+
+    private void completerNomsZones(List<StatistiqueZoneDTO> statistiques) {
+        Set<String> ids = new HashSet<>();
+        statistiques.stream().filter(s -> s.getZoneNom() == null).forEach(s -> ids.add(s.getZoneId()));
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, String> noms = new HashMap<>();
+        for (Zone zone : zoneRepository.findAllById(ids)) {
+            noms.put(zone.getId(), zone.getNom());
+        }
+        statistiques.forEach(s -> {
+            if (s.getZoneNom() == null) {
+                s.setZoneNom(noms.get(s.getZoneId()));
+            }
+        });
+        memoriserNoms(noms, false);
+    }
+
+    private synchronized void memoriserNoms(Map<String, String> noms, boolean livreurs) {
+        if (etat == null) {
+            return;
+        }
+        Map<String, Compteur> compteurs = livreurs ? etat.parLivreur : etat.parZone;
+        noms.forEach((id, nom) -> {
+            Compteur compteur = compteurs.get(id);
+            if (compteur != null && compteur.nom == null) {
+                compteur.nom = nom;
+            }
+        });
+    }
+
+    private static void comparer(String type, Map<String, Compteur> courant, Map<String, Compteur> reference, List<String> ecarts) {
+        Set<String> ids = new TreeSet<>(courant.keySet());
+        ids.addAll(reference.keySet());
+        for (String id : ids) {
+            Compteur enMemoire = courant.getOrDefault(id, new Compteur(null));
+            Compteur enBase = reference.getOrDefault(id, new Compteur(null));
+            for (StatutColis statut : StatutColis.values()) {
+                int i = statut.ordinal();
+                if (enMemoire.nombres[i] != enBase.nombres[i]
+                        || Math.abs(enMemoire.poids[i] - enBase.poids[i]) > TOLERANCE_POIDS) {
+                    ecarts.add(String.format("%s %s / %s : %d colis, %.3f kg en mémoire ; %d colis, %.3f kg en base",
+                            type, id, statut, enMemoire.nombres[i], enMemoire.poids[i], enBase.nombres[i], enBase.poids[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Ce que les compteurs retiennent d'un colis : ses clés de regroupement, son statut et son poids.
+     * Seuls les identifiants sont lus (un proxy Hibernate non initialisé n'est pas chargé).
+     */
+    public record Empreinte(String livreurId, String zoneId, StatutColis statut, double poids) {
+
+        public static Empreinte de(Colis colis) {
+            return new Empreinte(
+                    colis.getLivreur() != null ? colis.getLivreur().getId() : null,
+                    colis.getZone() != null ? colis.getZone().getId() : null,
+                    colis.getStatut(),
+                    colis.getPoidsTotal() != null ? colis.getPoidsTotal() : 0.0);
+        }
+    }
+
+    record Mouvement(Empreinte avant, Empreinte apres) {
+
+        void appliquer(Etat etat) {
+            if (avant != null) {
+                etat.ajouter(avant.livreurId(), null, avant.zoneId(), null, avant.statut(), -1, -avant.poids());
+            }
+            if (apres != null) {
+                etat.ajouter(apres.livreurId(), null, apres.zoneId(), null, apres.statut(), 1, apres.poids());
+            }
+        }
+    }
+
+    static final class Etat {
+        final Map<String, Compteur> parLivreur = new HashMap<>();
+        final Map<String, Compteur> parZone = new HashMap<>();
+
+        void ajouter(String livreurId, String livreurNom, String zoneId, String zoneNom,
+                     StatutColis statut, long nombre, double poids) {
+            if (livreurId != null) {
+                ajouter(parLivreur, livreurId, livreurNom, statut, nombre, poids);
+            }
+            if (zoneId != null) {
+                ajouter(parZone, zoneId, zoneNom, statut, nombre, poids);
+            }
+        }
+
+        private static void ajouter(Map<String, Compteur> compteurs, String id, String nom,
+                                    StatutColis statut, long nombre, double poids) {
+            Compteur compteur = compteurs.computeIfAbsent(id, cle -> new Compteur(nom));
+            if (compteur.nom == null) {
+                compteur.nom = nom;
+            }
+            compteur.nombres[statut.ordinal()] += nombre;
+            compteur.poids[statut.ordinal()] += poids;
+            // Un livreur ou une zone sans aucun colis ne reste pas en mémoire
+            if (compteur.estVide()) {
+                compteurs.remove(id);
+            }
+        }
+    }
+
+    static final class Compteur {
+        String nom;
+        final long[] nombres = new long[StatutColis.values().length];
+        final double[] poids = new double[StatutColis.values().length];
+
+        Compteur(String nom) {
+            this.nom = nom;
+        }
+
+        long nombreActifs() {
+            return STATUTS_ACTIFS.stream().mapToLong(statut -> nombres[statut.ordinal()]).sum();
+        }
+
+        double poidsActifs() {
+            return STATUTS_ACTIFS.stream().mapToDouble(statut -> poids[statut.ordinal()]).sum();
+        }
+
+        Map<StatutColis, Long> parStatut() {
+            Map<StatutColis, Long> parStatut = new EnumMap<>(StatutColis.class);
+            for (StatutColis statut : StatutColis.values()) {
+                if (nombres[statut.ordinal()] != 0) {
+                    parStatut.put(statut, nombres[statut.ordinal()]);
+                }
+            }
+            return parStatut;
+        }
+
+        boolean estVide() {
+            for (long nombre : nombres) {
+                if (nombre != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartlogi.sdms.service.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Politique de reprise sur conflit de verrouillage optimiste.
+ * Chaque tentative s'exécute dans sa propre transaction ; en cas de conflit, l'opération est rejouée
+ * (relecture de l'état à jour) après une attente aléatoire ("full jitter") bornée,
+ * jusqu'à {@code sdms.conflits.max-tentatives}. Au-delà, l'exception est propagée (HTTP 409).
+ * <p>
+ * Si une transaction est déjà ouverte par l'appelant, l'action y est exécutée telle quelle :
+ * une reprise partielle à l'intérieur d'une transaction englobante serait incohérente.
+ */
+@Component
+public class ConflictRetryPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetryPolicy.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxTentatives;
+    private final long delaiBaseMs;
+    private final long delaiMaxMs;
+
+    public ConflictRetryPolicy(PlatformTransactionManager transactionManager,
+                               @Value("${sdms.conflits.max-tentatives:4}") int maxTentatives,
+                               @Value("${sdms.conflits.delai-base-ms:10}") long delaiBaseMs,
+                               @Value("${sdms.conflits.delai-max-ms:200}") long delaiMaxMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxTentatives = Math.max(1, maxTentatives);
+        this.delaiBaseMs = delaiBaseMs;
+        this.delaiMaxMs = delaiMaxMs;
+    }
+
+    public <T> T executer(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (tentative >= maxTentatives) {
+                    log.warn("Conflit persistant sur {} après {} tentative(s)", operation, tentative);
+                    throw e;
+                }
+                long delai = delaiAvantTentative(tentative);
+                log.debug("Conflit de mise à jour sur {} (tentative {}/{}), nouvel essai dans {} ms",
+                        operation, tentative, maxTentatives, delai);
+                attendre(delai);
+            }
+        }
+    }
+
+    /**
+     * Attente aléatoire dans [0, min(delaiMax, delaiBase * 2^(tentative-1))].
+     */
+    long delaiAvantTentative(int tentative) {
+        long plafond = Math.min(delaiMaxMs, delaiBaseMs << Math.min(tentative - 1, 20));
+        return plafond <= 0 ? 0 : ThreadLocalRandom.current().nextLong(plafond + 1);
+    }
+
+    private static void attendre(long delaiMs) {
+        if (delaiMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delaiMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reprise sur conflit interrompue", e);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DebitZoneDTO;
+import com.smartlogi.sdms.dto.PointDebitDTO;
+import com.smartlogi.sdms.entity.CleDebit;
+import com.smartlogi.sdms.entity.CompactionDebit;
+import com.smartlogi.sdms.entity.CumulDebit;
+import com.smartlogi.sdms.entity.CumulDebitHeure;
+import com.smartlogi.sdms.entity.CumulDebitJour;
+import com.smartlogi.sdms.entity.CumulDebitMinute;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.repository.CompactionDebitRepository;
+import com.smartlogi.sdms.repository.CumulDebitHeureRepository;
+import com.smartlogi.sdms.repository.CumulDebitJourRepository;
+import com.smartlogi.sdms.repository.CumulDebitMinuteRepository;
+import com.smartlogi.sdms.repository.CumulDebitRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cumuls de débit (colis créés, collectés, livrés... par zone) à la minute, à l'heure et au jour,
+ * activés par {@code sdms.debit.enabled=true}.
+ * <p>
+ * Les statuts atteints sont comptés en mémoire après la validation de la transaction, puis ajoutés
+ * périodiquement aux cumuls à la minute par un seul thread : les transactions métier ne se disputent
+ * aucune ligne de cumul. Une compaction reporte les minutes terminées sur les heures, puis les heures
+ * terminées sur les jours, derrière un filigrane par granularité ; chaque table est ensuite purgée
+ * au-delà de sa rétention. Un statut daté d'avant un filigrane (scan antidaté) est aussi ajouté
+ * directement aux granularités déjà compactées.
+ * <p>
+ * Une lecture à l'heure lit les heures compactées, puis les minutes au-delà du filigrane regroupées par heure :
+ * la réponse est à jour de la dernière écriture (au plus {@code sdms.debit.ecriture-ms} de retard).
+ * <p>
+ * Fenêtre de perte : entre la validation d'un changement de statut et l'écriture suivante, son comptage n'existe
+ * qu'en mémoire. Un arrêt normal écrit ce reliquat ({@link #arreter()}), mais un arrêt brutal de l'instance
+ * (kill, crash, perte du nœud) perd les comptages des dernières {@code sdms.debit.ecriture-ms} au plus, ainsi
+ * que ceux remis en attente après une écriture en échec. Le statut et l'historique du colis, eux, sont validés :
+ * les cumuls sont alors sous-estimés, jamais faux dans l'autre sens. Compromis assumé pour ne pas écrire de
+ * ligne de cumul disputée dans chaque transaction métier ; réduire {@code ecriture-ms} réduit la fenêtre.
+ */
+@Component
+public class DebitColis {
+
+    private static final Logger log = LoggerFactory.getLogger(DebitColis.class);
+
+    // Nombre d'intervalles au-delà duquel la granularité automatique passe à la suivante
+    private static final int POINTS_MAX = 1_500;
+
+    private static final GranulariteDebit[] GRANULARITES = GranulariteDebit.values();
+
+    private final Map<GranulariteDebit, CumulDebitRepository<? extends CumulDebit>> cumuls = new EnumMap<>(GranulariteDebit.class);
+    private final CompactionDebitRepository compactionRepository;
+    private final ZoneRepository zoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean actif;
+    private final Map<GranulariteDebit, Duration> retentions = new EnumMap<>(GranulariteDebit.class);
+    private final Duration decalage;
+
+    // Statuts validés pas encore écrits, par minute, zone et statut
+    private final ConcurrentHashMap<CleDebit, Long> enAttente = new ConcurrentHashMap<>();
+    private final Object verrouEcriture = new Object();
+
+    private final Timer dureeCompaction;
+
+    public DebitColis(CumulDebitMinuteRepository minuteRepository,
+                      CumulDebitHeureRepository heureRepository,
+                      CumulDebitJourRepository jourRepository,
+                      CompactionDebitRepository compactionRepository,
+                      ZoneRepository zoneRepository,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${sdms.debit.enabled:false}") boolean actif,
+                      @Value("${sdms.debit.retention-minute-heures:48}") int retentionMinuteHeures,
+                      @Value("${sdms.debit.retention-heure-jours:92}") int retentionHeureJours,
+                      @Value("${sdms.debit.retention-jour-jours:730}") int retentionJourJours,
+                      @Value("${sdms.debit.decalage-s:300}") long decalageSecondes) {
+        this.cumuls.put(GranulariteDebit.MINUTE, minuteRepository);
+        this.cumuls.put(GranulariteDebit.HEURE, heureRepository);
+        this.cumuls.put(GranulariteDebit.JOUR, jourRepository);
+        this.compactionRepository = compactionRepository;
+        this.zoneRepository = zoneRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.actif = actif;
+        this.retentions.put(GranulariteDebit.MINUTE, Duration.ofHours(retentionMinuteHeures));
+        this.retentions.put(GranulariteDebit.HEURE, Duration.ofDays(retentionHeureJours));
+        this.retentions.put(GranulariteDebit.JOUR, Duration.ofDays(retentionJourJours));
+        this.decalage = Duration.ofSeconds(decalageSecondes);
+
+        Gauge.builder("sdms.debit.en_attente", enAttente, Map::size)
+                .description("Cumuls de débit en attente d'écriture")
+                .register(meterRegistry);
+        this.dureeCompaction = Timer.builder("sdms.debit.compaction")
+                .description("Durée de la compaction et de la purge des cumuls de débit")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void arreter() {
+        ecrire();
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    /**
+     * Compte un colis ayant atteint ce statut à cette date ; dans une transaction, après sa validation.
+     */
+    public void enregistrer(String zoneId, StatutColis statut, LocalDateTime date) {
+        if (!actif) {
+            return;
+        }
+        CleDebit cle = new CleDebit(GranulariteDebit.MINUTE.tronquer(date), zoneId != null ? zoneId : CleDebit.SANS_ZONE, statut);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        ajouter(cle, 1L);
+                    }
+                }
+            });
+        } else {
+            ajouter(cle, 1L);
+        }
+    }
+
+    /**
+     * Ajoute les statuts en attente aux cumuls ; en cas d'échec, ils sont remis en attente.
+     */
+    @Scheduled(fixedDelayString = "${sdms.debit.ecriture-ms:10000}")
+    public void ecrire() {
+        if (!actif) {
+            return;
+        }
+        synchronized (verrouEcriture) {
+            Map<CleDebit, Long> lot = new HashMap<>();
+            for (CleDebit cle : enAttente.keySet()) {
+                Long nombre = enAttente.remove(cle);
+                if (nombre != null) {
+                    lot.put(cle, nombre);
+                }
+            }
+            if (lot.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<GranulariteDebit, LocalDateTime> filigranes = filigranes(compactionRepository.lirePartage());
+                    Map<GranulariteDebit, Map<CleDebit, Long>> parGranularite = new EnumMap<>(GranulariteDebit.class);
+                    lot.forEach((cle, nombre) -> {
+                        parGranularite.computeIfAbsent(GranulariteDebit.MINUTE, g -> new HashMap<>()).put(cle, nombre);
+                        for (GranulariteDebit granularite : List.of(GranulariteDebit.HEURE, GranulariteDebit.JOUR)) {
+                            LocalDateTime filigrane = filigranes.get(granularite);
+                            CleDebit grossiere = cle.tronquer(granularite);
+                            if (filigrane != null && grossiere.getDebut().isBefore(filigrane)) {
+                                parGranularite.computeIfAbsent(granularite, g -> new HashMap<>())
+                                        .merge(grossiere, nombre, Long::sum);
+                            }
+                        }
+                    });
+                    parGranularite.forEach((granularite, cles) -> cles.forEach((cle, nombre) -> incrementer(granularite, cle, nombre)));
+                });
+            } catch (RuntimeException e) {
+                lot.forEach(this::ajouter);
+                log.warn("Écriture de {} cumul(s) de débit reportée : {}", lot.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reporte les minutes terminées sur les heures et les heures terminées sur les jours, puis purge.
+     */
+    @Scheduled(fixedDelayString = "${sdms.debit.compaction-ms:300000}", initialDelayString = "${sdms.debit.compaction-ms:300000}")
+    public void compacter() {
+        if (!actif) {
+            return;
+        }
+        dureeCompaction.record(() -> {
+            LocalDateTime limite = LocalDateTime.now().minus(decalage);
+            compacter(GranulariteDebit.HEURE, limite);
+            compacter(GranulariteDebit.JOUR, limite);
+            purger();
+        });
+    }
+
+    /**
+     * Débit par zone sur [du, au[, à la granularité demandée (automatique si nulle) ou à la plus fine
+     * dont la rétention couvre encore le début de la période.
+     */
+    public DebitColisDTO debit(LocalDateTime du, LocalDateTime au, GranulariteDebit pas, String zoneId) {
+        if (!actif) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Les cumuls de débit sont désactivés.");
+        }
+        if (!du.isBefore(au)) {
+            throw new InvalidDataException("La date de début doit précéder la date de fin.");
+        }
+        GranulariteDebit granularite = choisir(du, au, pas);
+        Map<GranulariteDebit, LocalDateTime> filigranes = filigranes(compactionRepository.findAll());
+        Map<CleDebit, Long> lus = new HashMap<>();
+        lire(granularite, granularite, granularite.tronquer(du), au, zoneId, filigranes, lus);
+
+        Map<String, TreeMap<LocalDateTime, Map<StatutColis, Long>>> parZone = new TreeMap<>();
+        lus.forEach((cle, nombre) -> parZone.computeIfAbsent(cle.getZoneId(), z -> new TreeMap<>())
+                .computeIfAbsent(cle.getDebut(), d -> new EnumMap<>(StatutColis.class))
+                .merge(cle.getStatut(), nombre, Long::sum));
+        Map<String, String> noms = new HashMap<>();
+        List<String> ids = parZone.keySet().stream().filter(id -> !CleDebit.SANS_ZONE.equals(id)).toList();
+        if (!ids.isEmpty()) {
+            for (Zone zone : zoneRepository.findAllById(ids)) {
+                noms.put(zone.getId(), zone.getNom());
+            }
+        }
+
+        List<DebitZoneDTO> zones = new ArrayList<>(parZone.size());
+        parZone.forEach((id, points) -> {
+            String idZone = CleDebit.SANS_ZONE.equals(id) ? null : id;
+            zones.add(new DebitZoneDTO(idZone, noms.get(id), points.entrySet().stream()
+                    .map(point -> new PointDebitDTO(point.getKey(), point.getValue()))
+                    .toList()));
+        });
+
+        DebitColisDTO debit = new DebitColisDTO();
+        debit.setDu(du);
+        debit.setAu(au);
+        debit.setPas(granularite);
+        debit.setParZone(zones);
+        return debit;
+    }
+
+    GranulariteDebit choisir(LocalDateTime du, LocalDateTime au, GranulariteDebit pas) {
+        GranulariteDebit choix = pas;
+        if (choix == null) {
+            choix = GranulariteDebit.MINUTE;
+            while (choix != GranulariteDebit.JOUR && choix.getUnite().between(du, au) > POINTS_MAX) {
+                choix = suivante(choix);
+            }
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        while (choix != GranulariteDebit.JOUR && du.isBefore(maintenant.minus(retentions.get(choix)))) {
+            choix = suivante(choix);
+        }
+        return choix;
+    }
+
+    /**
+     * Lit [du, au[ dans la table de {@code niveau} jusqu'à son filigrane, puis dans les tables plus fines
+     * au-delà, en regroupant par intervalle de {@code granularite}.
+     */
+    private void lire(GranulariteDebit granularite, GranulariteDebit niveau, LocalDateTime du, LocalDateTime au,
+                      String zoneId, Map<GranulariteDebit, LocalDateTime> filigranes, Map<CleDebit, Long> lus) {
+        LocalDateTime borne = au;
+        if (niveau != GranulariteDebit.MINUTE) {
+            LocalDateTime filigrane = filigranes.get(niveau);
+            borne = filigrane == null ? du : max(du, min(filigrane, au));
+        }
+        if (borne.isAfter(du)) {
+            for (CumulDebit cumul : cumuls.get(niveau).findPeriode(du, borne, zoneId)) {
+                lus.merge(cumul.getId().tronquer(granularite), cumul.getNombre(), Long::sum);
+            }
+        }
+        if (niveau != GranulariteDebit.MINUTE && au.isAfter(borne)) {
+            lire(granularite, plusFine(niveau), borne, au, zoneId, filigranes, lus);
+        }
+    }
+
+    /**
+     * Reporte sur {@code cible} les cumuls plus fins entre son filigrane et la fin du dernier intervalle terminé,
+     * sous le verrou exclusif du filigrane. Au premier passage, le filigrane est seulement créé.
+     */
+    private void compacter(GranulariteDebit cible, LocalDateTime limite) {
+        GranulariteDebit source = plusFine(cible);
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<CompactionDebit> verrou = compactionRepository.verrouiller(cible);
+            if (verrou.isEmpty()) {
+                compactionRepository.save(new CompactionDebit(cible, null));
+                return;
+            }
+            CompactionDebit compaction = verrou.get();
+            LocalDateTime fin = cible.tronquer(limite);
+            if (source != GranulariteDebit.MINUTE) {
+                // La source n'est complète qu'en deçà de son propre filigrane
+                LocalDateTime filigraneSource = compactionRepository.findById(source)
+                        .map(CompactionDebit::getFiligrane).orElse(null);
+                if (filigraneSource == null) {
+                    return;
+                }
+                fin = min(fin, cible.tronquer(filigraneSource));
+            }
+            LocalDateTime debut = compaction.getFiligrane();
+            if (debut == null) {
+                LocalDateTime premier = cumuls.get(source).findPremierDebut();
+                debut = premier != null ? cible.tronquer(premier) : fin;
+            }
+            if (fin.isAfter(debut)) {
+                Map<CleDebit, Long> reports = new HashMap<>();
+                for (CumulDebit cumul : cumuls.get(source).findPeriode(debut, fin, null)) {
+                    reports.merge(cumul.getId().tronquer(cible), cumul.getNombre(), Long::sum);
+                }
+                reports.forEach((cle, nombre) -> incrementer(cible, cle, nombre));
+                log.debug("Compaction {} -> {} sur [{}, {}[ : {} cumul(s)", source, cible, debut, fin, reports.size());
+            }
+            if (compaction.getFiligrane() == null || fin.isAfter(compaction.getFiligrane())) {
+                compaction.setFiligrane(fin);
+            }
+        });
+    }
+
+    /**
+     * Supprime les cumuls au-delà de la rétention ; une granularité n'est purgée qu'une fois reportée sur la suivante.
+     */
+    private void purger() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<GranulariteDebit, LocalDateTime> filigranes = filigranes(compactionRepository.findAll());
+            for (GranulariteDebit granularite : GRANULARITES) {
+                LocalDateTime limite = maintenant.minus(retentions.get(granularite));
+                if (granularite != GranulariteDebit.JOUR) {
+                    LocalDateTime filigrane = filigranes.get(suivante(granularite));
+                    if (filigrane == null) {
+                        continue;
+                    }
+                    limite = min(limite, filigrane);
+                }
+                int supprimes = cumuls.get(granularite).supprimerAvant(limite);
+                if (supprimes > 0) {
+                    log.info("{} cumul(s) de débit {} antérieur(s) au {} purgé(s)", supprimes, granularite, limite);
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void incrementer(GranulariteDebit granularite, CleDebit cle, long nombre) {
+        CumulDebitRepository<CumulDebit> repository = (CumulDebitRepository<CumulDebit>) cumuls.get(granularite);
+        if (repository.incrementer(cle, nombre) == 0) {
+            repository.save(nouveauCumul(granularite, cle, nombre));
+        }
+    }
+
+    private void ajouter(CleDebit cle, long nombre) {
+        enAttente.merge(cle, nombre, Long::sum);
+    }
+
+    private static CumulDebit nouveauCumul(GranulariteDebit granularite, CleDebit cle, long nombre) {
+        return switch (granularite) {
+            case MINUTE -> new CumulDebitMinute(cle, nombre);
+            case HEURE -> new CumulDebitHeure(cle, nombre);
+            case JOUR -> new CumulDebitJour(cle, nombre);
+        };
+    }
+
+    private static Map<GranulariteDebit, LocalDateTime> filigranes(List<CompactionDebit> compactions) {
+        Map<GranulariteDebit, LocalDateTime> filigranes = new EnumMap<>(GranulariteDebit.class);
+        for (CompactionDebit compaction : compactions) {
+            if (compaction.getFiligrane() != null) {
+                filigranes.put(compaction.getGranularite(), compaction.getFiligrane());
+            }
+        }
+        return filigranes;
+    }
+
+    private static GranulariteDebit suivante(GranulariteDebit granularite) {
+        return GRANULARITES[granularite.ordinal() + 1];
+    }
+
+    private static GranulariteDebit plusFine(GranulariteDebit granularite) {
+        return GRANULARITES[granularite.ordinal() - 1];
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
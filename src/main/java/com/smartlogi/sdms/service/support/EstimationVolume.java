@@ -0,0 +1,102 @@
+package com.smartlogi.sdms.service.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Nombre de lignes estimé à partir des statistiques du planificateur, sans parcourir la table.
+ * <ul>
+ *     <li>PostgreSQL : {@code pg_class.reltuples}, et {@code pg_stats.most_common_freqs} pour une valeur
+ *     de colonne (discriminant de l'héritage {@code utilisateur}) ;</li>
+ *     <li>H2 : {@code INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE} (table entière uniquement).</li>
+ * </ul>
+ * Résultat vide si la base n'a pas encore de statistiques (table jamais analysée) : l'appelant compte alors exactement.
+ */
+@Component
+public class EstimationVolume {
+
+    private static final Logger log = LoggerFactory.getLogger(EstimationVolume.class);
+
+    private static final String SQL_RELTUPLES =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+    private static final String SQL_FREQUENCES =
+            "SELECT most_common_vals::text::text[] AS valeurs, most_common_freqs AS frequences "
+                    + "FROM pg_stats WHERE schemaname = current_schema() AND tablename = ? AND attname = ?";
+    private static final String SQL_H2 =
+            "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = UPPER(?) AND TABLE_SCHEMA = SCHEMA()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private volatile String produitBase;
+
+    public EstimationVolume(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    public OptionalLong lignes(String table) {
+        try {
+            Long estime = switch (produitBase()) {
+                case "PostgreSQL" -> jdbcTemplate.queryForObject(SQL_RELTUPLES, Long.class, table);
+                case "H2" -> jdbcTemplate.queryForObject(SQL_H2, Long.class, table);
+                default -> null;
+            };
+            // reltuples vaut -1 tant que la table n'a jamais été analysée (PostgreSQL 14+)
+            return estime == null || estime < 0 ? OptionalLong.empty() : OptionalLong.of(estime);
+        } catch (DataAccessException e) {
+            log.debug("Estimation indisponible pour {} : {}", table, e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Lignes de {@code table} dont {@code colonne} vaut {@code valeur}, d'après les valeurs les plus fréquentes
+     * collectées par ANALYZE (PostgreSQL uniquement).
+     */
+    public OptionalLong lignes(String table, String colonne, String valeur) {
+        if (!"PostgreSQL".equals(produitBase())) {
+            return OptionalLong.empty();
+        }
+        OptionalLong total = lignes(table);
+        if (total.isEmpty()) {
+            return total;
+        }
+        try {
+            List<OptionalLong> resultat = jdbcTemplate.query(SQL_FREQUENCES, (rs, i) -> {
+                String[] valeurs = (String[]) rs.getArray("valeurs").getArray();
+                Float[] frequences = (Float[]) rs.getArray("frequences").getArray();
+                for (int k = 0; k < valeurs.length; k++) {
+                    if (valeur.equals(valeurs[k])) {
+                        return OptionalLong.of(Math.round(total.getAsLong() * frequences[k]));
+                    }
+                }
+                return OptionalLong.empty();
+            }, table, colonne);
+            return resultat.isEmpty() ? OptionalLong.empty() : resultat.get(0);
+        } catch (DataAccessException e) {
+            log.debug("Estimation indisponible pour {}.{} = {} : {}", table, colonne, valeur, e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    private String produitBase() {
+        String produit = produitBase;
+        if (produit == null) {
+            try {
+                produit = JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> metaData.getDatabaseProductName());
+            } catch (Exception e) {
+                produit = "";
+            }
+            produitBase = produit;
+        }
+        return produit;
+    }
+}
@@ -0,0 +1,92 @@
+package com.smartlogi.sdms.service.support;
+
+/**
+ * Histogramme log-linéaire de durées en secondes, de taille fixe et fusionnable.
+ * <p>
+ * Chaque puissance de 2 est découpée en 16 intervalles égaux : un percentile est restitué avec une erreur
+ * relative inférieure à 1/32 (milieu d'intervalle), que la durée se compte en secondes ou en semaines.
+ * 368 compteurs (environ 1,5 Ko) couvrent jusqu'à 2^26 s, soit un peu plus de deux ans ; les durées
+ * supérieures sont rangées dans le dernier intervalle. Deux histogrammes se fusionnent par simple addition
+ * des compteurs, ce qui permet d'agréger des jours, des zones ou des livreurs a posteriori.
+ * <p>
+ * Non synchronisé : l'appelant protège les accès concurrents.
+ */
+public final class HistogrammeDurees {
+
+    private static final int BITS_SOUS_INTERVALLES = 4;
+    private static final int SOUS_INTERVALLES = 1 << BITS_SOUS_INTERVALLES;
+    private static final int EXPOSANT_MAX = 25;
+
+    static final int NOMBRE_INTERVALLES = (EXPOSANT_MAX - BITS_SOUS_INTERVALLES + 2) * SOUS_INTERVALLES;
+
+    private final int[] compteurs = new int[NOMBRE_INTERVALLES];
+    private long nombre;
+    private long max;
+
+    /**
+     * Enregistre une durée ; une durée négative (horloges désynchronisées) compte pour zéro.
+     */
+    public void enregistrer(long secondes) {
+        long valeur = Math.max(0, secondes);
+        compteurs[indice(valeur)]++;
+        nombre++;
+        max = Math.max(max, valeur);
+    }
+
+    public void fusionner(HistogrammeDurees autre) {
+        for (int i = 0; i < NOMBRE_INTERVALLES; i++) {
+            compteurs[i] += autre.compteurs[i];
+        }
+        nombre += autre.nombre;
+        max = Math.max(max, autre.max);
+    }
+
+    /**
+     * @param quantile entre 0 et 1 (0.5 pour la médiane)
+     * @return la durée en secondes sous laquelle se trouve cette proportion des valeurs, 0 si l'histogramme est vide
+     */
+    public long percentile(double quantile) {
+        if (nombre == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(quantile * nombre));
+        long cumul = 0;
+        for (int i = 0; i < NOMBRE_INTERVALLES; i++) {
+            cumul += compteurs[i];
+            if (cumul >= rang) {
+                return Math.min(milieu(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getNombre() {
+        return nombre;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    static int indice(long valeur) {
+        if (valeur < SOUS_INTERVALLES) {
+            return (int) valeur;
+        }
+        int exposant = 63 - Long.numberOfLeadingZeros(valeur);
+        if (exposant > EXPOSANT_MAX) {
+            return NOMBRE_INTERVALLES - 1;
+        }
+        int sousIntervalle = (int) (valeur >>> (exposant - BITS_SOUS_INTERVALLES)) - SOUS_INTERVALLES;
+        return (exposant - BITS_SOUS_INTERVALLES + 1) * SOUS_INTERVALLES + sousIntervalle;
+    }
+
+    static long milieu(int indice) {
+        if (indice < SOUS_INTERVALLES) {
+            return indice;
+        }
+        int exposant = indice / SOUS_INTERVALLES + BITS_SOUS_INTERVALLES - 1;
+        long largeur = 1L << (exposant - BITS_SOUS_INTERVALLES);
+        long borneInferieure = (long) (SOUS_INTERVALLES + indice % SOUS_INTERVALLES) << (exposant - BITS_SOUS_INTERVALLES);
+        return borneInferieure + largeur / 2;
+    }
+}
@@ -0,0 +1,323 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.HistoriqueLivraison;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Écriture différée (write-behind) des historiques de livraison, activée par
+ * {@code sdms.historique.write-behind.enabled=true}.
+ * <p>
+ * Les historiques sont placés dans une file bornée après la validation de la transaction appelante,
+ * puis insérés par lots JDBC par un thread dédié. Toutes les écritures passent par un même verrou
+ * et vident la file dans l'ordre FIFO : l'ordre d'insertion est donc conservé pour chaque colis.
+ * File pleine ou arrêt de l'application : la file est vidée de manière synchrone.
+ * Les historiques non encore écrits restent consultables via {@link #enAttente(String)}.
+ */
+@Component
+public class HistoriqueWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoriqueWriteBehind.class);
+
+    private static final String SQL_INSERT =
+            "INSERT INTO historique_livraison (id, colis_id, statut, date_changement, commentaire) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean actif;
+    private final int tailleBatch;
+    private final long intervalleMs;
+
+    private final BlockingQueue<EvenementHistorique> file;
+    private final Map<String, Queue<EvenementHistorique>> enAttenteParColis = new ConcurrentHashMap<>();
+    private final ReentrantLock verrouEcriture = new ReentrantLock();
+    // Lot rejeté sur une erreur transitoire, réessayé avant tout nouveau lot (protégé par verrouEcriture)
+    private final List<EvenementHistorique> lotEnEchec = new ArrayList<>();
+
+    private final Timer latence;
+    private final Counter vidagesSynchrones;
+
+    private volatile boolean enCours;
+    private Thread worker;
+
+    public HistoriqueWriteBehind(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${sdms.historique.write-behind.enabled:false}") boolean actif,
+                                 @Value("${sdms.historique.write-behind.capacite:10000}") int capacite,
+                                 @Value("${sdms.historique.write-behind.taille-batch:200}") int tailleBatch,
+                                 @Value("${sdms.historique.write-behind.intervalle-ms:100}") long intervalleMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Toujours une transaction indépendante : l'écriture peut se faire depuis afterCompletion()
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.actif = actif;
+        this.tailleBatch = tailleBatch;
+        this.intervalleMs = intervalleMs;
+        this.file = new ArrayBlockingQueue<>(capacite);
+
+        Gauge.builder("sdms.historique.write_behind.profondeur", file, BlockingQueue::size)
+                .description("Nombre d'historiques en attente d'écriture")
+                .register(meterRegistry);
+        this.latence = Timer.builder("sdms.historique.write_behind.latence")
+                .description("Délai entre l'enregistrement d'un historique et son écriture en base")
+                .register(meterRegistry);
+        this.vidagesSynchrones = Counter.builder("sdms.historique.write_behind.vidages_synchrones")
+                .description("Nombre de vidages synchrones déclenchés par une file pleine")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void demarrer() {
+        if (!actif) {
+            return;
+        }
+        enCours = true;
+        worker = new Thread(this::boucler, "historique-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Écriture différée des historiques activée (capacité {}, lots de {})", file.remainingCapacity(), tailleBatch);
+    }
+
+    @PreDestroy
+    void arreter() {
+        if (worker == null) {
+            return;
+        }
+        enCours = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vider();
+        if (!lotEnEchec.isEmpty() || !file.isEmpty()) {
+            log.error("Arrêt avec {} historique(s) non écrit(s)", lotEnEchec.size() + file.size());
+        }
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    /**
+     * Enregistre un historique en écriture différée. L'identifiant et la date de changement
+     * (bornée par la création du colis, comme à la persistance JPA) sont attribués immédiatement
+     * sur l'entité passée (qui n'est pas rendue persistante).
+     * Dans une transaction, la mise en file n'a lieu qu'après sa validation.
+     */
+    public void ajouter(HistoriqueLivraison historique) {
+        if (historique.getId() == null) {
+            historique.setId(TimeOrderedUuidGenerator.nextId());
+        }
+        historique.horodater();
+        EvenementHistorique evenement = new EvenementHistorique(
+                historique.getId(),
+                historique.getColis().getId(),
+                historique.getStatut(),
+                historique.getDateChangement(),
+                historique.getCommentaire());
+
+        enAttenteParColis.compute(evenement.colisId(), (colisId, enAttente) -> {
+            Queue<EvenementHistorique> queue = enAttente != null ? enAttente : new ConcurrentLinkedQueue<>();
+            queue.add(evenement);
+            return queue;
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        publier(evenement);
+                    } else {
+                        retirerEnAttente(evenement);
+                    }
+                }
+            });
+        } else {
+            publier(evenement);
+        }
+    }
+
+    /**
+     * Historiques d'un colis validés mais pas encore écrits en base (lecture de ses propres écritures).
+     */
+    public List<HistoriqueLivraison> enAttente(String colisId) {
+        Queue<EvenementHistorique> enAttente = enAttenteParColis.get(colisId);
+        if (enAttente == null) {
+            return List.of();
+        }
+        List<HistoriqueLivraison> historiques = new ArrayList<>();
+        for (EvenementHistorique evenement : enAttente) {
+            historiques.add(evenement.versEntite());
+        }
+        return historiques;
+    }
+
+    /**
+     * Vide entièrement la file de manière synchrone.
+     */
+    public void vider() {
+        while (viderUnLot() > 0) {
+            // Continue jusqu'à ce que la file soit vide ou qu'un lot reste en échec
+        }
+    }
+
+    private void publier(EvenementHistorique evenement) {
+        if (file.offer(evenement)) {
+            return;
+        }
+        // File pleine : le thread appelant vide la file lui-même, dans l'ordre, avant son propre historique
+        vidagesSynchrones.increment();
+        log.warn("File d'écriture des historiques pleine ({} éléments), vidage synchrone", file.size());
+        verrouEcriture.lock();
+        try {
+            vider();
+            if (!file.offer(evenement)) {
+                ecrire(new ArrayList<>(List.of(evenement)));
+            }
+        } finally {
+            verrouEcriture.unlock();
+        }
+    }
+
+    private void boucler() {
+        while (enCours) {
+            if (viderUnLot() == 0) {
+                // Réveillé plus tôt par arreter() via unpark
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervalleMs));
+            }
+        }
+    }
+
+    /**
+     * @return le nombre d'historiques écrits (0 si la file est vide ou si le lot a échoué)
+     */
+    private int viderUnLot() {
+        verrouEcriture.lock();
+        try {
+            List<EvenementHistorique> lot;
+            if (!lotEnEchec.isEmpty()) {
+                lot = new ArrayList<>(lotEnEchec);
+                lotEnEchec.clear();
+            } else {
+                lot = new ArrayList<>(tailleBatch);
+                file.drainTo(lot, tailleBatch);
+            }
+            return lot.isEmpty() ? 0 : ecrire(lot);
+        } finally {
+            verrouEcriture.unlock();
+        }
+    }
+
+    private int ecrire(List<EvenementHistorique> lot) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(SQL_INSERT, lot, lot.size(), (ps, evenement) -> {
+                        ps.setString(1, evenement.id());
+                        ps.setString(2, evenement.colisId());
+                        ps.setString(3, evenement.statut() != null ? evenement.statut().name() : null);
+                        ps.setTimestamp(4, Timestamp.valueOf(evenement.dateChangement()));
+                        ps.setString(5, evenement.commentaire());
+                    }));
+        } catch (TransientDataAccessException | RecoverableDataAccessException | DataAccessResourceFailureException e) {
+            // Base indisponible : le lot est conservé et réessayé au prochain passage
+            log.warn("Écriture de {} historique(s) reportée : {}", lot.size(), e.getMessage());
+            lotEnEchec.addAll(lot);
+            return 0;
+        } catch (DataAccessException e) {
+            log.error("Échec de l'écriture groupée de {} historique(s), reprise ligne par ligne", lot.size(), e);
+            ecrireLigneParLigne(lot);
+        }
+        long maintenant = System.nanoTime();
+        for (EvenementHistorique evenement : lot) {
+            latence.record(maintenant - evenement.misEnFileNanos(), TimeUnit.NANOSECONDS);
+            retirerEnAttente(evenement);
+        }
+        return lot.size();
+    }
+
+    private void ecrireLigneParLigne(List<EvenementHistorique> lot) {
+        for (EvenementHistorique evenement : lot) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(SQL_INSERT,
+                        evenement.id(),
+                        evenement.colisId(),
+                        evenement.statut() != null ? evenement.statut().name() : null,
+                        Timestamp.valueOf(evenement.dateChangement()),
+                        evenement.commentaire()));
+            } catch (DataAccessException e) {
+                // Typiquement un colis supprimé entre-temps (clé étrangère) : l'historique est abandonné
+                log.error("Historique {} du colis {} abandonné : {}", evenement.id(), evenement.colisId(), e.getMessage());
+            }
+        }
+    }
+
+    private void retirerEnAttente(EvenementHistorique evenement) {
+        enAttenteParColis.computeIfPresent(evenement.colisId(), (colisId, enAttente) -> {
+            enAttente.remove(evenement);
+            return enAttente.isEmpty() ? null : enAttente;
+        });
+    }
+
+    private record EvenementHistorique(String id,
+                                       String colisId,
+                                       StatutColis statut,
+                                       LocalDateTime dateChangement,
+                                       String commentaire,
+                                       long misEnFileNanos) {
+
+        EvenementHistorique(String id, String colisId, StatutColis statut, LocalDateTime dateChangement, String commentaire) {
+            this(id, colisId, statut, dateChangement, commentaire, System.nanoTime());
+        }
+
+        HistoriqueLivraison versEntite() {
+            Colis colis = new Colis();
+            colis.setId(colisId);
+            HistoriqueLivraison historique = new HistoriqueLivraison();
+            historique.setId(id);
+            historique.setColis(colis);
+            historique.setStatut(statut);
+            historique.setDateChangement(dateChangement);
+            historique.setCommentaire(commentaire);
+            return historique;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartlogi.sdms.service.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Liste paginée continuant dans l'archive froide : les colis chauds d'abord, puis les colis archivés,
+ * chaque partie dans l'ordre demandé. Une page à cheval sur les deux est complétée par le début de l'archive.
+ * <p>
+ * Tant que la page reste dans les colis chauds, l'archive n'est consultée que pour le total (mode Page).
+ * L'archive est lue par fenêtre (offset, limite) : sa position dans la liste dépend du nombre de colis chauds.
+ * <p>
+ * Mode Page uniquement : une page sans total (Slice) située après les colis chauds ne pourrait être placée dans
+ * l'archive qu'en comptant les colis chauds, ce que ce mode doit éviter. Les listes sans total se limitent donc
+ * aux colis chauds.
+ */
+public final class LectureArchive {
+
+    /** Attributs communs à Colis et ColisArchive ; les autres critères de tri sont ignorés dans l'archive. */
+    private static final Set<String> TRI_ARCHIVE = Set.of("id", "description", "poidsTotal", "statut", "priorite",
+            "villeDestination", "dateCreation", "dateDernierStatut");
+
+    private LectureArchive() {
+    }
+
+    /**
+     * @param chaude       lecture Page des colis chauds (données + COUNT)
+     * @param archive      lecture d'une fenêtre de l'archive
+     * @param totalArchive nombre de colis archivés de la liste
+     */
+    public static <T> Page<T> page(Pageable pageable,
+                                   Function<Pageable, Page<T>> chaude,
+                                   Function<Pageable, List<T>> archive,
+                                   LongSupplier totalArchive) {
+        Page<T> chaud = chaude.apply(pageable);
+        if (pageable.isUnpaged()) {
+            List<T> contenu = new ArrayList<>(chaud.getContent());
+            contenu.addAll(archive.apply(Pageable.unpaged(triArchive(pageable.getSort()))));
+            return new PageImpl<>(contenu, pageable, contenu.size());
+        }
+
+        int manque = pageable.getPageSize() - chaud.getNumberOfElements();
+        if (manque == 0) {
+            return new PageImpl<>(chaud.getContent(), pageable, chaud.getTotalElements() + totalArchive.getAsLong());
+        }
+        long debut = Math.max(0, pageable.getOffset() - chaud.getTotalElements());
+        List<T> archives = archive.apply(new Fenetre(debut, manque, triArchive(pageable.getSort())));
+        // Fin de l'archive atteinte dans cette page : le total se déduit sans COUNT
+        long archivesTotal = archives.size() < manque && (debut == 0 || !archives.isEmpty())
+                ? debut + archives.size()
+                : totalArchive.getAsLong();
+
+        List<T> contenu = new ArrayList<>(chaud.getContent());
+        contenu.addAll(archives);
+        return new PageImpl<>(contenu, pageable, chaud.getTotalElements() + archivesTotal);
+    }
+
+    static Sort triArchive(Sort tri) {
+        return Sort.by(tri.stream().filter(ordre -> TRI_ARCHIVE.contains(ordre.getProperty())).toList());
+    }
+
+    /**
+     * Fenêtre (offset, limite) quelconque, non alignée sur un numéro de page.
+     */
+    record Fenetre(long offset, int limite, Sort tri) implements Pageable {
+
+        @Override
+        public int getPageNumber() {
+            return (int) (offset / limite);
+        }
+
+        @Override
+        public int getPageSize() {
+            return limite;
+        }
+
+        @Override
+        public long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public Sort getSort() {
+            return tri;
+        }
+
+        @Override
+        public Pageable next() {
+            return new Fenetre(offset + limite, limite, tri);
+        }
+
+        @Override
+        public Pageable previousOrFirst() {
+            return hasPrevious() ? new Fenetre(Math.max(0, offset - limite), limite, tri) : first();
+        }
+
+        @Override
+        public Pageable first() {
+            return new Fenetre(0, limite, tri);
+        }
+
+        @Override
+        public Pageable withPage(int pageNumber) {
+            return new Fenetre((long) pageNumber * limite, limite, tri);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return offset > 0;
+        }
+    }
+}
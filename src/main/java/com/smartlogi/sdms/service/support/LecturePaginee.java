@@ -0,0 +1,45 @@
+package com.smartlogi.sdms.service.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lecture d'une liste paginée selon le {@link ModeTotal} demandé.
+ */
+public final class LecturePaginee {
+
+    private LecturePaginee() {
+    }
+
+    /**
+     * @param sansTotal  lecture Slice (size + 1 lignes, aucune requête COUNT)
+     * @param avecTotal  lecture Page classique (données + COUNT)
+     * @param estimation nombre de lignes estimé ; vide si aucune statistique n'est disponible (repli sur COUNT)
+     */
+    public static <T> Slice<T> lire(ModeTotal mode, Pageable pageable,
+                                    Function<Pageable, Slice<T>> sansTotal,
+                                    Function<Pageable, Page<T>> avecTotal,
+                                    Supplier<OptionalLong> estimation) {
+        return switch (mode) {
+            case AUCUN -> sansTotal.apply(pageable);
+            case EXACT -> avecTotal.apply(pageable);
+            case ESTIME -> {
+                OptionalLong estime = estimation.get();
+                if (estime.isEmpty()) {
+                    yield avecTotal.apply(pageable);
+                }
+                Slice<T> slice = sansTotal.apply(pageable);
+                // Le total annoncé ne peut pas être inférieur à ce qui a déjà été lu
+                long minimum = (pageable.isPaged() ? pageable.getOffset() : 0)
+                        + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+                yield new PageImpl<>(slice.getContent(), pageable, Math.max(estime.getAsLong(), minimum));
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.exception.InvalidDataException;
+
+/**
+ * Calcul du nombre total d'éléments d'une liste paginée (paramètre HTTP {@code withTotal}).
+ */
+public enum ModeTotal {
+    /** {@code withTotal=true} (défaut) : requête COUNT, réponse Page complète. */
+    EXACT,
+    /** {@code withTotal=false} : lecture de size + 1 lignes, réponse Slice sans total. */
+    AUCUN,
+    /** {@code withTotal=estime} : Page dont le total provient des statistiques du planificateur. */
+    ESTIME;
+
+    public static ModeTotal depuis(String withTotal) {
+        if (withTotal == null || withTotal.isBlank() || "true".equalsIgnoreCase(withTotal)) {
+            return EXACT;
+        }
+        if ("false".equalsIgnoreCase(withTotal)) {
+            return AUCUN;
+        }
+        if ("estime".equalsIgnoreCase(withTotal) || "approx".equalsIgnoreCase(withTotal)) {
+            return ESTIME;
+        }
+        throw new InvalidDataException("Valeur de withTotal invalide : " + withTotal + " (attendu true, false ou estime).");
+    }
+}
@@ -0,0 +1,149 @@
+package com.smartlogi.sdms.service.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintenance des partitions mensuelles de historique_livraison (changelog 019, PostgreSQL) :
+ * crée à l'avance les partitions des mois à venir et détache celles qui sortent de la rétention.
+ * <p>
+ * Une partition détachée devient une table ordinaire du même nom, conservée pour archivage ou suppression ;
+ * elle n'est plus lue par les requêtes de l'application. Chaque opération de schéma s'exécute dans sa propre
+ * transaction avec un délai d'attente de verrou court : en cas de conflit, la tâche réessaie au passage suivant.
+ * Les dates hors des partitions créées tombent dans la partition par défaut, surveillée par une jauge.
+ * <p>
+ * Désactivé par défaut : {@code sdms.historique.partitions.enabled} conditionne aussi le passage du changelog 019.
+ */
+@Component
+public class PartitionsHistorique {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionsHistorique.class);
+
+    static final String TABLE = "historique_livraison";
+    static final String PARTITION_DEFAUT = TABLE + "_defaut";
+    private static final DateTimeFormatter FORMAT_NOM = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final Pattern NOM_PARTITION = Pattern.compile(TABLE + "_y(\\d{4})m(\\d{2})");
+
+    private static final String SQL_EST_PARTITIONNEE =
+            "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('" + TABLE + "')";
+    private static final String SQL_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = to_regclass('" + TABLE + "')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean actif;
+    private final int moisAvance;
+    private final int retentionMois;
+    private final long delaiVerrouMs;
+
+    private final AtomicInteger lignesPartitionDefaut = new AtomicInteger();
+
+    public PartitionsHistorique(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${sdms.historique.partitions.enabled:false}") boolean actif,
+                                @Value("${sdms.historique.partitions.mois-avance:3}") int moisAvance,
+                                @Value("${sdms.historique.partitions.retention-mois:0}") int retentionMois,
+                                @Value("${sdms.historique.partitions.delai-verrou-ms:5000}") long delaiVerrouMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.actif = actif;
+        this.moisAvance = moisAvance;
+        this.retentionMois = retentionMois;
+        this.delaiVerrouMs = delaiVerrouMs;
+        meterRegistry.gauge("sdms.historique.partition-defaut.lignes", lignesPartitionDefaut);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${sdms.historique.partitions.cron:0 0 2 * * *}")
+    public void maintenir() {
+        if (!actif) {
+            return;
+        }
+        maintenir(LocalDate.now());
+    }
+
+    void maintenir(LocalDate aujourdhui) {
+        Integer partitionnee = jdbcTemplate.queryForObject(SQL_EST_PARTITIONNEE, Integer.class);
+        if (partitionnee == null || partitionnee == 0) {
+            log.warn("{} n'est pas partitionnée (changelog 019 non appliqué ?) : maintenance ignorée", TABLE);
+            return;
+        }
+
+        YearMonth courant = YearMonth.from(aujourdhui);
+        for (int i = 0; i <= moisAvance; i++) {
+            creer(courant.plusMonths(i));
+        }
+        if (retentionMois > 0) {
+            YearMonth limite = courant.minusMonths(retentionMois);
+            for (String partition : jdbcTemplate.queryForList(SQL_PARTITIONS, String.class)) {
+                YearMonth mois = mois(partition);
+                if (mois != null && mois.isBefore(limite)) {
+                    detacher(partition);
+                }
+            }
+        }
+
+        Integer horsPartition = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + PARTITION_DEFAUT, Integer.class);
+        lignesPartitionDefaut.set(horsPartition != null ? horsPartition : 0);
+        if (lignesPartitionDefaut.get() > 0) {
+            log.warn("{} historiques dans {} : dates hors des partitions mensuelles", lignesPartitionDefaut.get(), PARTITION_DEFAUT);
+        }
+    }
+
+    static String nom(YearMonth mois) {
+        return TABLE + "_" + FORMAT_NOM.format(mois);
+    }
+
+    /**
+     * @return le mois couvert par une partition mensuelle, null pour la partition par défaut ou un autre nom
+     */
+    static YearMonth mois(String partition) {
+        Matcher matcher = NOM_PARTITION.matcher(partition);
+        return matcher.matches() ? YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))) : null;
+    }
+
+    private void creer(YearMonth mois) {
+        String sql = String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                nom(mois), TABLE, mois.atDay(1), mois.plusMonths(1).atDay(1));
+        executer(sql, "création de " + nom(mois));
+    }
+
+    private void detacher(String partition) {
+        if (executer("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition, "détachement de " + partition)) {
+            log.info("Partition {} détachée de {}", partition, TABLE);
+        }
+    }
+
+    private boolean executer(String ddl, String operation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + delaiVerrouMs + "ms'");
+                jdbcTemplate.execute(ddl);
+            });
+            return true;
+        } catch (DataAccessException e) {
+            // Verrou non obtenu, ou lignes du mois déjà présentes dans la partition par défaut
+            log.error("Échec de la {} : {}", operation, e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+}
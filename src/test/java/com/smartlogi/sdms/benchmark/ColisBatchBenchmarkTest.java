@@ -0,0 +1,127 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.Produit;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.repository.*;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark : création de N colis via N appels unitaires vs un seul appel en lot.
+ * Désactivé par défaut, lancer avec :
+ * mvn test -Dtest=ColisBatchBenchmarkTest -Dbenchmark=true [-Dbenchmark.colis=5000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark - Création de colis unitaire vs en lot")
+class ColisBatchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ColisBatchBenchmarkTest.class);
+
+    private static final int NOMBRE_COLIS = Integer.getInteger("benchmark.colis", 2_000);
+
+    @Autowired private ColisService colisService;
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private HistoriqueLivraisonRepository historiqueLivraisonRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+    @Autowired private ProduitRepository produitRepository;
+
+    private final List<ColisDTO> colisDTOs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        historiqueLivraisonRepository.deleteAll();
+        colisRepository.deleteAll();
+        produitRepository.deleteAll();
+        destinataireRepository.deleteAll();
+        clientExpediteurRepository.deleteAll();
+
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Bench");
+        client.setEmail("bench.client@test.com");
+        client = clientExpediteurRepository.save(client);
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Bench");
+        destinataire.setEmail("bench.dest@test.com");
+        destinataire = destinataireRepository.save(destinataire);
+
+        List<Produit> produits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Produit produit = new Produit();
+            produit.setNom("Produit " + i);
+            produit.setPoids(1.0 + i);
+            produit.setPrix(BigDecimal.TEN);
+            produits.add(produitRepository.save(produit));
+        }
+
+        colisDTOs.clear();
+        for (int i = 0; i < NOMBRE_COLIS; i++) {
+            ColisDTO dto = new ColisDTO();
+            dto.setDescription("Colis bench " + i);
+            dto.setPriorite(Priorite.NORMALE);
+            dto.setVilleDestination("Casablanca");
+            dto.setClientExpediteurId(client.getId());
+            dto.setDestinataireId(destinataire.getId());
+            List<ColisProduitDTO> lignes = new ArrayList<>();
+            for (Produit produit : produits) {
+                ColisProduitDTO ligne = new ColisProduitDTO();
+                ligne.setProduitId(produit.getId());
+                ligne.setQuantite(1 + (i % 3));
+                lignes.add(ligne);
+            }
+            dto.setProduits(lignes);
+            colisDTOs.add(dto);
+        }
+    }
+
+    @Test
+    @DisplayName("compare N appels unitaires et un appel en lot")
+    void comparerCreationUnitaireEtEnLot() {
+        long debutUnitaire = System.nanoTime();
+        for (ColisDTO dto : colisDTOs) {
+            colisService.creerDemandeLivraison(dto);
+        }
+        long dureeUnitaireMs = (System.nanoTime() - debutUnitaire) / 1_000_000;
+
+        historiqueLivraisonRepository.deleteAll();
+        colisRepository.deleteAll();
+
+        long debutLot = System.nanoTime();
+        ColisBatchResponseDTO response = colisService.creerDemandesLivraisonEnLot(colisDTOs);
+        long dureeLotMs = (System.nanoTime() - debutLot) / 1_000_000;
+
+        log.info("[BENCHMARK] {} colis - unitaire : {} ms ({} colis/s) - lot : {} ms ({} colis/s)",
+                NOMBRE_COLIS,
+                dureeUnitaireMs, debit(dureeUnitaireMs),
+                dureeLotMs, debit(dureeLotMs));
+
+        assertThat(response.getNombreSucces()).isEqualTo(NOMBRE_COLIS);
+        assertThat(colisRepository.count()).isEqualTo(NOMBRE_COLIS);
+    }
+
+    private static long debit(long dureeMs) {
+        return dureeMs == 0 ? NOMBRE_COLIS : NOMBRE_COLIS * 1000L / dureeMs;
+    }
+}
@@ -0,0 +1,142 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlogi.sdms.dto.auth.LoginRequest;
+import com.smartlogi.sdms.dto.auth.RefreshRequest;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.repository.JetonRafraichissementRepository;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Benchmark : rafale de connexions en début de tournée, chaque livreur se reconnectant par mot de passe
+ * (vérification BCrypt) ou par jeton de rafraîchissement. Mesure le temps CPU du processus et la durée totale.
+ * Désactivé par défaut, lancer avec :
+ * mvn test -Dtest=ConnexionRafaleBenchmarkTest -Dbenchmark=true [-Dbenchmark.livreurs=500] [-Dbenchmark.threads=16]
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark - Rafale de connexions : login vs refresh")
+class ConnexionRafaleBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnexionRafaleBenchmarkTest.class);
+
+    private static final int NOMBRE_LIVREURS = Integer.getInteger("benchmark.livreurs", 200);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final String MOT_DE_PASSE = "tournee-2024";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private LivreurRepository livreurRepository;
+    @Autowired private JetonRafraichissementRepository jetonRafraichissementRepository;
+
+    private final List<Livreur> livreurs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String empreinte = passwordEncoder.encode(MOT_DE_PASSE);
+        for (int i = 0; i < NOMBRE_LIVREURS; i++) {
+            Livreur livreur = new Livreur();
+            livreur.setNom("Bench");
+            livreur.setPrenom("Livreur " + i);
+            livreur.setEmail("bench.livreur." + i + "@test.com");
+            livreur.setPassword(empreinte);
+            livreurs.add(livreur);
+        }
+        livreurRepository.saveAll(livreurs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jetonRafraichissementRepository.deleteAllInBatch();
+        livreurRepository.deleteAll(livreurs);
+        livreurs.clear();
+    }
+
+    @Test
+    @DisplayName("les reconnexions par jeton de rafraîchissement consomment moins de CPU que par mot de passe")
+    void benchmarkLoginVsRefresh() throws Exception {
+        // Préchauffage : classes chargées et JIT sur les deux chemins
+        String[] jetons = new String[NOMBRE_LIVREURS];
+        rafale(i -> () -> jetons[i] = login(i));
+        rafale(i -> () -> jetons[i] = refresh(jetons[i]));
+
+        Mesure login = rafale(i -> () -> jetons[i] = login(i));
+        Mesure refresh = rafale(i -> () -> jetons[i] = refresh(jetons[i]));
+
+        log.info("Rafale de {} connexions sur {} threads", NOMBRE_LIVREURS, THREADS);
+        log.info("  /auth/login   : CPU {} ms, durée {} ms", login.cpuMs(), login.dureeMs());
+        log.info("  /auth/refresh : CPU {} ms, durée {} ms", refresh.cpuMs(), refresh.dureeMs());
+        log.info("  CPU économisé : {} %", 100 - 100 * refresh.cpuMs() / Math.max(1, login.cpuMs()));
+
+        assertThat(refresh.cpuMs()).isLessThan(login.cpuMs());
+    }
+
+    private String login(int i) throws Exception {
+        LoginRequest request = new LoginRequest(livreurs.get(i).getEmail(), MOT_DE_PASSE);
+        return jetonRafraichissement(post("/auth/login"), objectMapper.writeValueAsString(request));
+    }
+
+    private String refresh(String jeton) throws Exception {
+        return jetonRafraichissement(post("/auth/refresh"), objectMapper.writeValueAsString(new RefreshRequest(jeton)));
+    }
+
+    private String jetonRafraichissement(MockHttpServletRequestBuilder requete,
+                                         String corps) throws Exception {
+        String reponse = mockMvc.perform(requete.contentType(MediaType.APPLICATION_JSON).content(corps))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(reponse).get("refreshToken").asText();
+    }
+
+    private Mesure rafale(IntFunction<Callable<String>> connexion) throws Exception {
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long cpuDebut = os.getProcessCpuTime();
+            long debut = System.nanoTime();
+            List<Future<String>> resultats = new ArrayList<>();
+            for (int i = 0; i < NOMBRE_LIVREURS; i++) {
+                resultats.add(executor.submit(connexion.apply(i)));
+            }
+            for (Future<String> resultat : resultats) {
+                assertThat(resultat.get()).isNotBlank();
+            }
+            return new Mesure((os.getProcessCpuTime() - cpuDebut) / 1_000_000, (System.nanoTime() - debut) / 1_000_000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private record Mesure(long cpuMs, long dureeMs) {
+    }
+}
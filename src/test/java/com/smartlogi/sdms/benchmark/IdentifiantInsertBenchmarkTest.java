@@ -0,0 +1,97 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark : débit d'insertion avec des clés primaires UUID aléatoires (v4) vs ordonnées dans le temps (v7).
+ * Les deux tables reprennent la forme de la table colis (clé VARCHAR(36)).
+ * Désactivé par défaut, lancer avec :
+ * mvn test -Dtest=IdentifiantInsertBenchmarkTest -Dbenchmark=true [-Dbenchmark.lignes=500000]
+ * Pour mesurer l'effet réel sur le btree, pointer spring.datasource.* vers une base PostgreSQL (-Dspring.datasource.url=...).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark - Insertion avec UUID aléatoires vs UUIDv7")
+class IdentifiantInsertBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentifiantInsertBenchmarkTest.class);
+
+    private static final int NOMBRE_LIGNES = Integer.getInteger("benchmark.lignes", 200_000);
+    private static final int TAILLE_BATCH = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (String table : List.of("bench_id_aleatoire", "bench_id_ordonne")) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id VARCHAR(36) PRIMARY KEY, description VARCHAR(255), date_creation TIMESTAMP)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_id_aleatoire");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_id_ordonne");
+    }
+
+    @Test
+    @DisplayName("compare le débit d'insertion des deux stratégies d'identifiant")
+    void comparerDebitInsertion() {
+        // Préchauffage JIT / pool de connexions
+        inserer("bench_id_aleatoire", () -> UUID.randomUUID().toString(), TAILLE_BATCH);
+        inserer("bench_id_ordonne", TimeOrderedUuidGenerator::nextId, TAILLE_BATCH);
+
+        long dureeAleatoireMs = inserer("bench_id_aleatoire", () -> UUID.randomUUID().toString(), NOMBRE_LIGNES);
+        long dureeOrdonneMs = inserer("bench_id_ordonne", TimeOrderedUuidGenerator::nextId, NOMBRE_LIGNES);
+
+        log.info("[BENCHMARK] {} lignes - UUID aléatoire : {} ms ({} lignes/s) - UUIDv7 : {} ms ({} lignes/s)",
+                NOMBRE_LIGNES,
+                dureeAleatoireMs, debit(dureeAleatoireMs),
+                dureeOrdonneMs, debit(dureeOrdonneMs));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bench_id_ordonne", Long.class))
+                .isEqualTo(NOMBRE_LIGNES + TAILLE_BATCH);
+    }
+
+    private long inserer(String table, Supplier<String> generateur, int nombre) {
+        String sql = "INSERT INTO " + table + " (id, description, date_creation) VALUES (?, ?, CURRENT_TIMESTAMP)";
+        long debut = System.nanoTime();
+        List<Object[]> lot = new ArrayList<>(TAILLE_BATCH);
+        for (int i = 0; i < nombre; i++) {
+            lot.add(new Object[]{generateur.get(), "Colis bench " + i});
+            if (lot.size() == TAILLE_BATCH) {
+                jdbcTemplate.batchUpdate(sql, lot);
+                lot.clear();
+            }
+        }
+        if (!lot.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lot);
+        }
+        return (System.nanoTime() - debut) / 1_000_000;
+    }
+
+    private static long debit(long dureeMs) {
+        return dureeMs == 0 ? NOMBRE_LIGNES : NOMBRE_LIGNES * 1000L / dureeMs;
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+import com.smartlogi.sdms.config.security.CustomUserDetailsService;
+import com.smartlogi.sdms.config.security.JwtAuthenticationFilter;
+import com.smartlogi.sdms.config.security.JwtTokenProvider;
+import com.smartlogi.sdms.entity.GestionnaireLogistique;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark JMH : coût du filtre JWT par requête authentifiée.
+ * <ul>
+ *     <li>{@code ancienChemin} : parseur reconstruit et token décodé deux fois (validation puis sujet) ;</li>
+ *     <li>{@code filtreSansCache} : filtre actuel, parseur unique, un décodage par requête ;</li>
+ *     <li>{@code filtreAvecCache} : filtre actuel, claims servis par le cache.</li>
+ * </ul>
+ * Le chargement de l'utilisateur est simulé pour isoler le coût du token.
+ * Désactivé par défaut, lancer avec :
+ * mvn test -Dtest=JwtAuthenticationFilterBenchmarkTest -Dbenchmark=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark - Filtre JWT avant / après cache des claims")
+public class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-must-be-at-least-256-bits-long-1234567890";
+    private static final long EXPIRATION_MS = 3_600_000L;
+    private static final FilterChain CHAINE_VIDE = (request, response) -> { };
+
+    private Key cle;
+    private String token;
+    private CustomUserDetailsService utilisateurs;
+    private JwtAuthenticationFilter filtreSansCache;
+    private JwtAuthenticationFilter filtreAvecCache;
+
+    @Test
+    @DisplayName("mesure les trois chemins du filtre")
+    void lancer() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmarkTest.class.getSimpleName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        assertThat(new Runner(options).run()).hasSize(3);
+    }
+
+    @Setup
+    public void setUp() {
+        cle = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        GestionnaireLogistique gestionnaire = new GestionnaireLogistique();
+        gestionnaire.setId("benchmark-user-id");
+        gestionnaire.setEmail("manager@test.com");
+        gestionnaire.setNom("Benchmark");
+        gestionnaire.setPrenom("User");
+        gestionnaire.setPassword("password");
+        UserDetails utilisateur = new CustomUserDetails(gestionnaire);
+        utilisateurs = new CustomUserDetailsService(null) {
+            @Override
+            public UserDetails loadUserByUsername(String email) {
+                return utilisateur;
+            }
+        };
+
+        JwtTokenProvider sansCache = new JwtTokenProvider(SECRET, EXPIRATION_MS, 0);
+        JwtTokenProvider avecCache = new JwtTokenProvider(SECRET, EXPIRATION_MS, 10_000);
+        token = avecCache.generateToken(new UsernamePasswordAuthenticationToken(utilisateur, null, utilisateur.getAuthorities()));
+        filtreSansCache = new JwtAuthenticationFilter(sansCache, utilisateurs, null, false);
+        filtreAvecCache = new JwtAuthenticationFilter(avecCache, utilisateurs, null, false);
+    }
+
+    @Benchmark
+    public void ancienChemin(Blackhole blackhole) {
+        // Reproduit validateToken() puis getUsernameFromToken() d'avant le cache
+        Jwts.parserBuilder().setSigningKey(cle).build().parseClaimsJws(token);
+        String username = Jwts.parserBuilder().setSigningKey(cle).build().parseClaimsJws(token).getBody().getSubject();
+        UserDetails userDetails = utilisateurs.loadUserByUsername(username);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filtreSansCache(Blackhole blackhole) throws ServletException, IOException {
+        filtrer(filtreSansCache, blackhole);
+    }
+
+    @Benchmark
+    public void filtreAvecCache(Blackhole blackhole) throws ServletException, IOException {
+        filtrer(filtreAvecCache, blackhole);
+    }
+
+    private void filtrer(JwtAuthenticationFilter filtre, Blackhole blackhole) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/colis");
+        request.setServletPath("/api/v1/colis");
+        request.addHeader("Authorization", "Bearer " + token);
+        filtre.doFilter(request, new MockHttpServletResponse(), CHAINE_VIDE);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,187 @@
+package com.smartlogi.sdms.benchmark;
+
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import com.smartlogi.sdms.repository.ClientExpediteurRepository;
+import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.DestinataireRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark : recherche par mot-clé sur un grand volume de colis (GET /api/v1/gestion/recherche).
+ * Sur PostgreSQL, mesure la même requête sans puis avec les index trigrammes du changelog 012.
+ * Désactivé par défaut, lancer avec :
+ * mvn test -Dtest=RechercheMotCleBenchmarkTest -Dbenchmark=true [-Dbenchmark.colis=3000000]
+ * -Dspring.datasource.url=jdbc:postgresql://... -Dspring.datasource.username=... -Dspring.datasource.password=...
+ * Sur H2 (par défaut), seule la mesure sans index est disponible.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark - Recherche par mot-clé avec et sans index trigrammes")
+class RechercheMotCleBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RechercheMotCleBenchmarkTest.class);
+
+    private static final int NOMBRE_COLIS = Integer.getInteger("benchmark.colis", 2_000_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+    private static final int TAILLE_BATCH = 5_000;
+
+    private static final String[] VILLES = {"Casablanca", "Rabat", "Marrakech", "Fès", "Tanger", "Agadir", "Meknès", "Oujda"};
+    private static final String[] ARTICLES = {"Ordinateur portable", "Livres", "Vêtements", "Électroménager",
+            "Pièces auto", "Cosmétiques", "Jouets", "Téléphone", "Chaussures", "Matériel médical"};
+
+    // Mêmes index que db/changelog/012-search-trigram-indexes.xml (sans CONCURRENTLY : table de test)
+    private static final List<String> INDEX_TRIGRAMMES = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_colis_id_trgm ON colis USING gin (id gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_colis_description_trgm ON colis USING gin (lower(description) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_colis_ville_destination_trgm ON colis USING gin (lower(ville_destination) gin_trgm_ops)");
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DataSource dataSource;
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+
+    private String clientId;
+    private String destinataireId;
+    private String colisRepere;
+
+    @BeforeEach
+    void setUp() {
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Bench");
+        client.setEmail("bench.recherche.client@test.com");
+        clientId = clientExpediteurRepository.save(client).getId();
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Bench");
+        destinataire.setEmail("bench.recherche.dest@test.com");
+        destinataireId = destinataireRepository.save(destinataire).getId();
+
+        colisRepere = genererColis();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM colis WHERE client_expediteur_id = ?", clientId);
+        clientExpediteurRepository.deleteById(clientId);
+        destinataireRepository.deleteById(destinataireId);
+    }
+
+    @Test
+    @DisplayName("mesure la latence de searchByKeyword sur un mot fréquent, un mot rare et un n° de suivi partiel")
+    void mesurerRecherche() throws Exception {
+        Map<String, String> motsCles = new LinkedHashMap<>();
+        motsCles.put("ville fréquente", "rabat");
+        motsCles.put("article fréquent", "ordinateur");
+        motsCles.put("mot rare", "repère-unique");
+        motsCles.put("n° de suivi partiel", colisRepere.substring(24));
+
+        Map<String, long[]> sansIndex = mesurer(motsCles);
+        journaliser("sans index", sansIndex);
+
+        if (estPostgreSql()) {
+            INDEX_TRIGRAMMES.forEach(jdbcTemplate::execute);
+            jdbcTemplate.execute("ANALYZE colis");
+            Map<String, long[]> avecIndex = mesurer(motsCles);
+            journaliser("index trigrammes", avecIndex);
+        } else {
+            log.info("[BENCHMARK] Base non PostgreSQL : index trigrammes non disponibles, mesure sans index uniquement");
+        }
+
+        Page<?> repere = colisRepository.searchByKeyword("%" + colisRepere.substring(24) + "%", PageRequest.of(0, 20));
+        assertThat(repere.getTotalElements()).isGreaterThanOrEqualTo(1);
+    }
+
+    /**
+     * @return pour chaque mot-clé : médiane et p95 en microsecondes (requête de page + requête de comptage)
+     */
+    private Map<String, long[]> mesurer(Map<String, String> motsCles) {
+        Map<String, long[]> resultats = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entree : motsCles.entrySet()) {
+            String motif = "%" + entree.getValue() + "%";
+            colisRepository.searchByKeyword(motif, PageRequest.of(0, 20)); // préchauffage
+            long[] durees = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long debut = System.nanoTime();
+                colisRepository.searchByKeyword(motif, PageRequest.of(0, 20));
+                durees[i] = (System.nanoTime() - debut) / 1_000;
+            }
+            Arrays.sort(durees);
+            resultats.put(entree.getKey(), new long[]{durees[ITERATIONS / 2], durees[(int) (ITERATIONS * 0.95)]});
+        }
+        return resultats;
+    }
+
+    private void journaliser(String configuration, Map<String, long[]> resultats) {
+        resultats.forEach((cas, mesures) -> log.info("[BENCHMARK] {} colis - {} - {} : médiane {} µs, p95 {} µs",
+                NOMBRE_COLIS, configuration, cas, mesures[0], mesures[1]));
+    }
+
+    /**
+     * Insère les colis par lots JDBC et retourne l'ID d'un colis repère au milieu du jeu de données.
+     */
+    private String genererColis() {
+        String sql = "INSERT INTO colis (id, description, poids_total, statut, priorite, ville_destination, "
+                + "date_creation, date_dernier_statut, version, client_expediteur_id, destinataire_id) "
+                + "VALUES (?, ?, ?, 'CREE', 'NORMALE', ?, ?, ?, 0, ?, ?)";
+        Random random = new Random(42);
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        String repere = null;
+        List<Object[]> lot = new ArrayList<>(TAILLE_BATCH);
+        long debut = System.nanoTime();
+        for (int i = 0; i < NOMBRE_COLIS; i++) {
+            String id = TimeOrderedUuidGenerator.nextId();
+            String description = ARTICLES[random.nextInt(ARTICLES.length)] + " lot " + random.nextInt(100_000);
+            if (i == NOMBRE_COLIS / 2) {
+                repere = id;
+                description = "Colis repère-unique";
+            }
+            lot.add(new Object[]{id, description, 1.0 + random.nextInt(30), VILLES[random.nextInt(VILLES.length)],
+                    maintenant, maintenant, clientId, destinataireId});
+            if (lot.size() == TAILLE_BATCH) {
+                jdbcTemplate.batchUpdate(sql, lot);
+                lot.clear();
+            }
+        }
+        if (!lot.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, lot);
+        }
+        log.info("[BENCHMARK] {} colis générés en {} ms", NOMBRE_COLIS, (System.nanoTime() - debut) / 1_000_000);
+        return repere;
+    }
+
+    private boolean estPostgreSql() throws Exception {
+        try (Connection connexion = dataSource.getConnection()) {
+            return connexion.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql");
+        }
+    }
+}
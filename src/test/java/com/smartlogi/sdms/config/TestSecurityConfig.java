@@ -5,6 +5,7 @@ import com.smartlogi.sdms.config.security.CustomUserDetailsService;
 import com.smartlogi.sdms.config.security.JwtAuthenticationEntryPoint;
 import com.smartlogi.sdms.config.security.JwtAuthenticationFilter;
 import com.smartlogi.sdms.config.security.JwtTokenProvider;
+import com.smartlogi.sdms.config.security.LimitationDebitFilter;
 import com.smartlogi.sdms.config.security.oauth2.CustomOAuth2UserService;
 import com.smartlogi.sdms.config.security.oauth2.OAuth2AuthenticationFailureHandler;
 import com.smartlogi.sdms.config.security.oauth2.OAuth2AuthenticationSuccessHandler;
@@ -48,6 +49,12 @@ public class TestSecurityConfig {
         return Mockito.mock(JwtAuthenticationFilter.class);
     }
 
+    @Bean
+    @Primary
+    public LimitationDebitFilter limitationDebitFilter() {
+        return Mockito.mock(LimitationDebitFilter.class);
+    }
+
     @Bean
     @Primary
     public CustomUserDetailsService customUserDetailsService() {
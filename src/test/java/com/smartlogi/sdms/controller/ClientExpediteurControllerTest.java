@@ -6,6 +6,7 @@ import com.smartlogi.sdms.dto.ClientExpediteurDTO;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.exception.InvalidDataException;
 import com.smartlogi.sdms.service.interfaces.ClientExpediteurService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -291,7 +292,7 @@ class ClientExpediteurControllerTest {
         List<ClientExpediteurDTO> clients = Arrays.asList(savedClientDTO, client2);
         Page<ClientExpediteurDTO> page = new PageImpl<>(clients, PageRequest.of(0, 10), 2);
 
-        when(clientExpediteurService.findAll(any(Pageable.class))).thenReturn(page);
+        when(clientExpediteurService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(page);
 
         // When & Then
         mockMvc.perform(get("/api/v1/client-expediteurs")
@@ -306,7 +307,7 @@ class ClientExpediteurControllerTest {
                 .andExpect(jsonPath("$.totalElements", is(2)))
                 .andExpect(jsonPath("$.totalPages", is(1)));
 
-        verify(clientExpediteurService, times(1)).findAll(any(Pageable.class));
+        verify(clientExpediteurService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
@@ -314,7 +315,7 @@ class ClientExpediteurControllerTest {
     void testGetAllClientExpediteurs_EmptyList() throws Exception {
         // Given
         Page<ClientExpediteurDTO> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
-        when(clientExpediteurService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(clientExpediteurService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(emptyPage);
 
         // When & Then
         mockMvc.perform(get("/api/v1/client-expediteurs")
@@ -324,7 +325,7 @@ class ClientExpediteurControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(0)))
                 .andExpect(jsonPath("$.totalElements", is(0)));
 
-        verify(clientExpediteurService, times(1)).findAll(any(Pageable.class));
+        verify(clientExpediteurService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
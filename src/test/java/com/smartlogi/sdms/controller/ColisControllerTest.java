@@ -2,14 +2,23 @@ package com.smartlogi.sdms.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartlogi.sdms.config.TestSecurityConfig;
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
+import com.smartlogi.sdms.dto.ColisBatchResultatDTO;
 import com.smartlogi.sdms.dto.ColisDTO;
 import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.CursorPageDTO;
+import com.smartlogi.sdms.dto.ScanStatutDTO;
 import com.smartlogi.sdms.dto.UpdateStatutRequestDTO;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
 import com.smartlogi.sdms.exception.InvalidDataException;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.service.interfaces.ColisImportService;
 import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.smartlogi.sdms.service.security.ColisSecurityService;
+import com.smartlogi.sdms.service.support.ColisCurseur;
+import com.smartlogi.sdms.service.support.ColisEvenementDiffuseur;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,12 +33,21 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,6 +67,15 @@ class ColisControllerTest {
     @MockitoBean
     private ColisService colisService;
 
+    @MockitoBean
+    private ColisImportService colisImportService;
+
+    @MockitoBean
+    private ColisSecurityService colisSecurityService;
+
+    @MockitoBean
+    private ColisEvenementDiffuseur colisEvenementDiffuseur;
+
     private ColisDTO validColisDTO;
     private ColisDTO savedColisDTO;
     private String colisId;
@@ -248,7 +275,7 @@ class ColisControllerTest {
         Page<ColisDTO> page = new PageImpl<>(colis, PageRequest.of(0, 10), 1);
 
         when(colisService.findAllColisByCriteria(
-                any(), any(), any(), any(), any(Pageable.class)
+                any(), any(), any(), any(), any(Pageable.class), eq(ModeTotal.EXACT)
         )).thenReturn(page);
 
         // When & Then
@@ -262,7 +289,7 @@ class ColisControllerTest {
                 .andExpect(jsonPath("$.content[0].id", is(colisId)));
 
         verify(colisService, times(1)).findAllColisByCriteria(
-                any(), any(), any(), any(), any(Pageable.class)
+                any(), any(), any(), any(), any(Pageable.class), eq(ModeTotal.EXACT)
         );
     }
 
@@ -337,7 +364,7 @@ class ColisControllerTest {
         List<ColisDTO> colis = List.of(savedColisDTO);
         Page<ColisDTO> page = new PageImpl<>(colis, PageRequest.of(0, 10), 1);
 
-        when(colisService.findColisByClientExpediteur(eq(clientId), any(Pageable.class)))
+        when(colisService.findColisByClientExpediteur(eq(clientId), any(Pageable.class), eq(ModeTotal.EXACT)))
                 .thenReturn(page);
 
         // When & Then
@@ -348,7 +375,7 @@ class ColisControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].clientExpediteurId", is(clientId)));
 
-        verify(colisService, times(1)).findColisByClientExpediteur(eq(clientId), any(Pageable.class));
+        verify(colisService, times(1)).findColisByClientExpediteur(eq(clientId), any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
@@ -359,7 +386,7 @@ class ColisControllerTest {
         List<ColisDTO> colis = List.of(savedColisDTO);
         Page<ColisDTO> page = new PageImpl<>(colis, PageRequest.of(0, 10), 1);
 
-        when(colisService.findColisByDestinataire(eq(destinataireId), any(Pageable.class)))
+        when(colisService.findColisByDestinataire(eq(destinataireId), any(Pageable.class), eq(ModeTotal.EXACT)))
                 .thenReturn(page);
 
         // When & Then
@@ -370,7 +397,7 @@ class ColisControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].destinataireId", is(destinataireId)));
 
-        verify(colisService, times(1)).findColisByDestinataire(eq(destinataireId), any(Pageable.class));
+        verify(colisService, times(1)).findColisByDestinataire(eq(destinataireId), any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
@@ -382,7 +409,7 @@ class ColisControllerTest {
         List<ColisDTO> colis = List.of(savedColisDTO);
         Page<ColisDTO> page = new PageImpl<>(colis, PageRequest.of(0, 10), 1);
 
-        when(colisService.findColisByLivreur(eq(livreurId), any(Pageable.class)))
+        when(colisService.findColisByLivreur(eq(livreurId), any(Pageable.class), eq(ModeTotal.EXACT)))
                 .thenReturn(page);
 
         // When & Then
@@ -393,7 +420,41 @@ class ColisControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].livreurId", is(livreurId)));
 
-        verify(colisService, times(1)).findColisByLivreur(eq(livreurId), any(Pageable.class));
+        verify(colisService, times(1)).findColisByLivreur(eq(livreurId), any(Pageable.class), eq(ModeTotal.EXACT));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/livreur/{livreurId}/curseur - Page par curseur, ordre priorité/zone par défaut (200)")
+    void testGetColisByLivreurParCurseur_Success() throws Exception {
+        // Given
+        String livreurId = "livreur-123";
+        CursorPageDTO<ColisDTO> page = new CursorPageDTO<>(List.of(savedColisDTO), 1, "curseur-suivant");
+
+        when(colisService.findColisByLivreurCurseur(livreurId, ColisCurseur.Ordre.PRIORITE_ZONE, "curseur-courant", 10))
+                .thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/livreur/{livreurId}/curseur", livreurId)
+                        .param("curseur", "curseur-courant")
+                        .param("taille", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenu", hasSize(1)))
+                .andExpect(jsonPath("$.taille", is(1)))
+                .andExpect(jsonPath("$.curseurSuivant", is("curseur-suivant")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/curseur - Curseur invalide (400)")
+    void testFilterColisParCurseur_CurseurInvalide() throws Exception {
+        // Given
+        when(colisService.findAllColisByCriteriaCurseur(isNull(), isNull(), isNull(), isNull(),
+                eq(ColisCurseur.Ordre.DATE_CREATION), eq("abc"), eq(20)))
+                .thenThrow(new InvalidDataException("Curseur de pagination invalide."));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/curseur").param("curseur", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Curseur de pagination invalide.")));
     }
 
     @Test
@@ -422,4 +483,175 @@ class ColisControllerTest {
 
         verify(colisService, times(1)).delete(colisId);
     }
+
+    @Test
+    @DisplayName("POST /api/v1/colis/batch - Créer un lot de colis avec résultats par élément (200)")
+    void testCreateColisBatch_Success() throws Exception {
+        // Given
+        ColisBatchResponseDTO response = new ColisBatchResponseDTO();
+        response.setTotal(2);
+        response.setNombreSucces(1);
+        response.setNombreEchecs(1);
+        response.setResultats(List.of(
+                ColisBatchResultatDTO.succes(0, colisId),
+                ColisBatchResultatDTO.echec(1, "Produit non trouvé : produit-inconnu")));
+        when(colisService.creerDemandesLivraisonEnLot(anyList())).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/colis/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(validColisDTO, validColisDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.nombreSucces", is(1)))
+                .andExpect(jsonPath("$.resultats[0].colisId", is(colisId)))
+                .andExpect(jsonPath("$.resultats[1].succes", is(false)))
+                .andExpect(jsonPath("$.resultats[1].erreur", containsString("produit-inconnu")));
+
+        verify(colisService, times(1)).creerDemandesLivraisonEnLot(anyList());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/colis/import - Importer un flux NDJSON et renvoyer la progression en flux (200)")
+    void testImportColis_Ndjson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            OutputStream sortie = invocation.getArgument(2);
+            sortie.write("{\"type\":\"TERMINE\",\"lignesLues\":2,\"nombreSucces\":2,\"nombreEchecs\":0}\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(colisImportService).importerColis(any(), eq(ColisImportService.FormatImport.NDJSON), any());
+
+        String corps = objectMapper.writeValueAsString(validColisDTO) + "\n" + objectMapper.writeValueAsString(validColisDTO);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/v1/colis/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corps))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"nombreSucces\":2")));
+
+        verify(colisImportService, times(1)).importerColis(any(), eq(ColisImportService.FormatImport.NDJSON), any());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/colis/statuts - Appliquer un lot de scans (gestionnaire, sans restriction de livreur)")
+    void testUpdateStatutsEnLot_Gestionnaire() throws Exception {
+        // Given
+        ScanStatutDTO scan = new ScanStatutDTO();
+        scan.setColisId(colisId);
+        scan.setStatut(StatutColis.EN_TRANSIT);
+
+        ColisBatchResponseDTO response = new ColisBatchResponseDTO();
+        response.setTotal(1);
+        response.setNombreSucces(1);
+        response.setResultats(List.of(ColisBatchResultatDTO.succes(0, colisId)));
+
+        when(colisSecurityService.isManager(any())).thenReturn(true);
+        when(colisService.updateStatutsEnLot(anyList(), isNull())).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/colis/statuts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(scan))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombreSucces", is(1)))
+                .andExpect(jsonPath("$.resultats[0].colisId", is(colisId)));
+
+        verify(colisService, times(1)).updateStatutsEnLot(anyList(), isNull());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/colis/statuts - Un livreur ne traite que ses propres colis")
+    void testUpdateStatutsEnLot_Livreur() throws Exception {
+        // Given
+        ScanStatutDTO scan = new ScanStatutDTO();
+        scan.setColisId(colisId);
+        scan.setStatut(StatutColis.EN_TRANSIT);
+
+        ColisBatchResponseDTO response = new ColisBatchResponseDTO();
+        response.setTotal(1);
+        response.setNombreEchecs(1);
+        response.setResultats(List.of(ColisBatchResultatDTO.echec(0, "Le colis colis-123 n'est pas assigné à ce livreur.")));
+
+        when(colisSecurityService.isManager(any())).thenReturn(false);
+        when(colisSecurityService.getCurrentUserId(any())).thenReturn("livreur-1");
+        when(colisService.updateStatutsEnLot(anyList(), eq("livreur-1"))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(patch("/api/v1/colis/statuts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(scan))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombreEchecs", is(1)))
+                .andExpect(jsonPath("$.resultats[0].succes", is(false)));
+
+        verify(colisService, times(1)).updateStatutsEnLot(anyList(), eq("livreur-1"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/{id}/evenements - Ouvre un flux SSE pour le colis")
+    void testSuivreColis_OuvreFluxSse() throws Exception {
+        // Given
+        when(colisEvenementDiffuseur.abonnerColis(colisId)).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/{id}/evenements", colisId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(colisEvenementDiffuseur, times(1)).abonnerColis(colisId);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/livreur/{livreurId}/evenements - Ouvre un flux SSE pour le livreur")
+    void testSuivreColisLivreur_OuvreFluxSse() throws Exception {
+        // Given
+        when(colisEvenementDiffuseur.abonnerLivreur("livreur-1")).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/livreur/{livreurId}/evenements", "livreur-1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(colisEvenementDiffuseur, times(1)).abonnerLivreur("livreur-1");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/{id} - Colis inchangé (304) sans corps de réponse")
+    void testGetColisById_NotModified() throws Exception {
+        // Given
+        when(colisService.findEtag(colisId)).thenReturn(Optional.of("2-18d"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/{id}", colisId)
+                        .header("If-None-Match", "\"2-18d\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2-18d\""))
+                .andExpect(content().string(""));
+
+        verify(colisService, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/{id} - Renvoie le colis et son ETag quand il a changé (200)")
+    void testGetColisById_RenvoieEtag() throws Exception {
+        // Given
+        when(colisService.findEtag(colisId)).thenReturn(Optional.of("3-18e"));
+        when(colisService.findById(colisId)).thenReturn(savedColisDTO);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/{id}", colisId)
+                        .header("If-None-Match", "\"2-18d\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-18e\""))
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andExpect(jsonPath("$.id", is(colisId)));
+    }
 }
@@ -5,6 +5,7 @@ import com.smartlogi.sdms.config.TestSecurityConfig;
 import com.smartlogi.sdms.dto.DestinataireDTO;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.service.interfaces.DestinataireService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -182,7 +183,7 @@ class DestinataireControllerTest {
         List<DestinataireDTO> destinataires = Arrays.asList(savedDestinataireDTO, dest2);
         Page<DestinataireDTO> page = new PageImpl<>(destinataires, PageRequest.of(0, 10), 2);
 
-        when(destinataireService.findAll(any(Pageable.class))).thenReturn(page);
+        when(destinataireService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(page);
 
         // When & Then
         mockMvc.perform(get("/api/v1/destinataires")
@@ -194,7 +195,7 @@ class DestinataireControllerTest {
                 .andExpect(jsonPath("$.content[1].nom", is("Bernard")))
                 .andExpect(jsonPath("$.totalElements", is(2)));
 
-        verify(destinataireService, times(1)).findAll(any(Pageable.class));
+        verify(destinataireService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
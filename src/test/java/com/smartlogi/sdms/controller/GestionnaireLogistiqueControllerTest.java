@@ -2,9 +2,12 @@ package com.smartlogi.sdms.controller;
 
 import com.smartlogi.sdms.config.TestSecurityConfig;
 import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
 import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.service.interfaces.ColisService;
@@ -21,6 +24,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -169,6 +173,69 @@ class GestionnaireLogistiqueControllerTest {
         verify(gestionnaireLogistiqueService, times(1)).getStatistiquesTournees();
     }
 
+    @Test
+    @DisplayName("GET /api/v1/gestion/statistiques/delais - Sans période : les 7 derniers jours (200)")
+    void testGetDelaisLivraison_PeriodeParDefaut() throws Exception {
+        LocalDate aujourdhui = LocalDate.now();
+        when(gestionnaireLogistiqueService.getDelaisLivraison(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(new DelaisLivraisonDTO());
+
+        mockMvc.perform(get("/api/v1/gestion/statistiques/delais"))
+                .andExpect(status().isOk());
+
+        verify(gestionnaireLogistiqueService).getDelaisLivraison(eq(aujourdhui.minusDays(6)), eq(aujourdhui));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/gestion/statistiques/delais - Période explicite (200)")
+    void testGetDelaisLivraison_PeriodeExplicite() throws Exception {
+        LocalDate du = LocalDate.of(2025, 3, 1);
+        LocalDate au = LocalDate.of(2025, 3, 31);
+        DelaisLivraisonDTO delais = new DelaisLivraisonDTO();
+        delais.setDu(du);
+        delais.setAu(au);
+        when(gestionnaireLogistiqueService.getDelaisLivraison(du, au)).thenReturn(delais);
+
+        mockMvc.perform(get("/api/v1/gestion/statistiques/delais")
+                        .param("du", "2025-03-01")
+                        .param("au", "2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.du", is("2025-03-01")))
+                .andExpect(jsonPath("$.au", is("2025-03-31")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/gestion/statistiques/debit - Période, pas et zone explicites (200)")
+    void testGetDebitColis_Parametres() throws Exception {
+        LocalDateTime du = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime au = LocalDateTime.of(2025, 3, 8, 0, 0);
+        DebitColisDTO debit = new DebitColisDTO();
+        debit.setPas(GranulariteDebit.HEURE);
+        when(gestionnaireLogistiqueService.getDebitColis(du, au, GranulariteDebit.HEURE, "zone-1")).thenReturn(debit);
+
+        mockMvc.perform(get("/api/v1/gestion/statistiques/debit")
+                        .param("du", "2025-03-01T00:00:00")
+                        .param("au", "2025-03-08T00:00:00")
+                        .param("pas", "HEURE")
+                        .param("zoneId", "zone-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pas", is("HEURE")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/gestion/statistiques/debit - Sans période : les dernières 24 heures (200)")
+    void testGetDebitColis_PeriodeParDefaut() throws Exception {
+        when(gestionnaireLogistiqueService.getDebitColis(any(LocalDateTime.class), any(LocalDateTime.class), isNull(), isNull()))
+                .thenReturn(new DebitColisDTO());
+
+        mockMvc.perform(get("/api/v1/gestion/statistiques/debit"))
+                .andExpect(status().isOk());
+
+        verify(gestionnaireLogistiqueService).getDebitColis(
+                argThat(du -> du != null && du.isBefore(LocalDateTime.now().minusHours(23))),
+                any(LocalDateTime.class), isNull(), isNull());
+    }
+
     @Test
     @DisplayName("GET /api/v1/gestion/colis/{colisId}/historique - Récupérer l'historique d'un colis (200)")
     void testGetHistoriqueColis_Success() throws Exception {
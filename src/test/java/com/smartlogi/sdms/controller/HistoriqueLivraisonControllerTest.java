@@ -18,8 +18,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -161,5 +163,34 @@ class HistoriqueLivraisonControllerTest {
 
         verify(historiqueLivraisonService, times(1)).findHistoriqueByColisId(eq(colisId));
     }
-}
 
+    @Test
+    @DisplayName("GET /api/v1/colis/{id}/historique - Historique inchangé (304) sans lecture des historiques")
+    void testGetHistoriqueByColisId_NotModified() throws Exception {
+        // Given
+        when(historiqueLivraisonService.findEtagHistorique(eq(colisId))).thenReturn(Optional.of("h3-18d"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/{id}/historique", colisId)
+                        .header("If-None-Match", "\"h3-18d\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"h3-18d\""));
+
+        verify(historiqueLivraisonService, never()).findHistoriqueByColisId(anyString());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/{id}/historique - Renvoie l'ETag courant (200)")
+    void testGetHistoriqueByColisId_RenvoieEtag() throws Exception {
+        // Given
+        when(historiqueLivraisonService.findEtagHistorique(eq(colisId))).thenReturn(Optional.of("h4-18e"));
+        when(historiqueLivraisonService.findHistoriqueByColisId(eq(colisId))).thenReturn(historique);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/colis/{id}/historique", colisId)
+                        .header("If-None-Match", "\"h3-18d\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"h4-18e\""))
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+}
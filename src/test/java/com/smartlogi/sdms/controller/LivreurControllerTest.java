@@ -6,6 +6,7 @@ import com.smartlogi.sdms.dto.LivreurDTO;
 import com.smartlogi.sdms.exception.InvalidDataException;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.service.interfaces.LivreurService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -283,7 +284,7 @@ class LivreurControllerTest {
         List<LivreurDTO> livreurs = Arrays.asList(savedLivreurDTO, livreur2);
         Page<LivreurDTO> page = new PageImpl<>(livreurs, PageRequest.of(0, 10), 2);
 
-        when(livreurService.findAll(any(Pageable.class))).thenReturn(page);
+        when(livreurService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(page);
 
         // When & Then
         mockMvc.perform(get("/api/v1/livreurs")
@@ -298,7 +299,7 @@ class LivreurControllerTest {
                 .andExpect(jsonPath("$.totalElements", is(2)))
                 .andExpect(jsonPath("$.totalPages", is(1)));
 
-        verify(livreurService, times(1)).findAll(any(Pageable.class));
+        verify(livreurService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
@@ -306,7 +307,7 @@ class LivreurControllerTest {
     void testGetAllLivreurs_EmptyList() throws Exception {
         // Given
         Page<LivreurDTO> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
-        when(livreurService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(livreurService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(emptyPage);
 
         // When & Then
         mockMvc.perform(get("/api/v1/livreurs")
@@ -316,7 +317,7 @@ class LivreurControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(0)))
                 .andExpect(jsonPath("$.totalElements", is(0)));
 
-        verify(livreurService, times(1)).findAll(any(Pageable.class));
+        verify(livreurService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
@@ -5,6 +5,7 @@ import com.smartlogi.sdms.config.TestSecurityConfig;
 import com.smartlogi.sdms.dto.ProduitDTO;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.service.interfaces.ProduitService;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -220,7 +223,7 @@ class ProduitControllerTest {
         List<ProduitDTO> produits = Arrays.asList(savedProduitDTO, produit2);
         Page<ProduitDTO> page = new PageImpl<>(produits, PageRequest.of(0, 10), 2);
 
-        when(produitService.findAll(any(Pageable.class))).thenReturn(page);
+        when(produitService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(page);
 
         // When & Then
         mockMvc.perform(get("/api/v1/produits")
@@ -232,7 +235,7 @@ class ProduitControllerTest {
                 .andExpect(jsonPath("$.content[1].nom", is("Smartphone")))
                 .andExpect(jsonPath("$.totalElements", is(2)));
 
-        verify(produitService, times(1)).findAll(any(Pageable.class));
+        verify(produitService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
     }
 
     @Test
@@ -240,7 +243,7 @@ class ProduitControllerTest {
     void testGetAllProduits_EmptyList() throws Exception {
         // Given
         Page<ProduitDTO> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
-        when(produitService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(produitService.findAll(any(Pageable.class), eq(ModeTotal.EXACT))).thenReturn(emptyPage);
 
         // When & Then
         mockMvc.perform(get("/api/v1/produits")
@@ -250,7 +253,33 @@ class ProduitControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(0)))
                 .andExpect(jsonPath("$.totalElements", is(0)));
 
-        verify(produitService, times(1)).findAll(any(Pageable.class));
+        verify(produitService, times(1)).findAll(any(Pageable.class), eq(ModeTotal.EXACT));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/produits?withTotal=false - Slice sans total (200)")
+    void testGetAllProduits_SansTotal() throws Exception {
+        // Given
+        Slice<ProduitDTO> slice = new SliceImpl<>(List.of(savedProduitDTO), PageRequest.of(0, 10), true);
+        when(produitService.findAll(any(Pageable.class), eq(ModeTotal.AUCUN))).thenReturn(slice);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/produits")
+                        .param("size", "10")
+                        .param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/produits?withTotal=peut-etre - Valeur invalide (400)")
+    void testGetAllProduits_WithTotalInvalide() throws Exception {
+        mockMvc.perform(get("/api/v1/produits").param("withTotal", "peut-etre"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(produitService);
     }
 
     @Test
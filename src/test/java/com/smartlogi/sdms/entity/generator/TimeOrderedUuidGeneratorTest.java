@@ -0,0 +1,78 @@
+package com.smartlogi.sdms.entity.generator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tests Unitaires pour TimeOrderedUuidGenerator")
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    @DisplayName("génère un UUID version 7, variante RFC, au format texte de 36 caractères")
+    void testNextId_Format() {
+        String id = TimeOrderedUuidGenerator.nextId();
+        UUID uuid = UUID.fromString(id);
+
+        assertThat(id).hasSize(36).isEqualTo(id.toLowerCase());
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("encode l'horodatage courant en millisecondes")
+    void testNextUuid_Horodatage() {
+        long avant = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.nextUuid();
+        long apres = System.currentTimeMillis();
+
+        // Le débordement du compteur peut avancer l'horodatage logique de quelques millisecondes
+        assertThat(TimeOrderedUuidGenerator.extraireHorodatage(uuid)).isBetween(avant, apres + 50);
+    }
+
+    @Test
+    @DisplayName("les identifiants sont strictement croissants, y compris dans leur forme texte")
+    void testNextId_Monotone() {
+        String precedent = TimeOrderedUuidGenerator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            String courant = TimeOrderedUuidGenerator.nextId();
+            assertThat(courant).isGreaterThan(precedent);
+            precedent = courant;
+        }
+    }
+
+    @Test
+    @DisplayName("aucun doublon sous accès concurrent")
+    void testNextId_Concurrence() throws Exception {
+        int threads = 8;
+        int parThread = 20_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                taches.add(executor.submit(() -> {
+                    for (int i = 0; i < parThread; i++) {
+                        ids.add(TimeOrderedUuidGenerator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(threads * parThread);
+    }
+}
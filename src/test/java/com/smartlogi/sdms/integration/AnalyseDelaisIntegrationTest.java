@@ -0,0 +1,204 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.DelaiSerieDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.repository.ClientExpediteurRepository;
+import com.smartlogi.sdms.repository.DestinataireRepository;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.service.support.AnalyseDelais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Analyse des délais sur H2 : lecture en flux de l'historique, rattrapage incrémental et plafond mémoire.
+ * Les historiques sont insérés en JDBC avec des dates choisies ; le composant est instancié activé,
+ * sans tâche planifiée, pour maîtriser chaque lecture.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Tests d'Intégration - Analyse des délais de livraison")
+class AnalyseDelaisIntegrationTest {
+
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ZoneRepository zoneRepository;
+    @Autowired private LivreurRepository livreurRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+
+    private Zone zone;
+    private Livreur livreur;
+    private String clientId;
+    private String destinataireId;
+    private LocalDate hier;
+
+    @BeforeEach
+    void setUp() {
+        zone = new Zone();
+        zone.setNom("Zone Délais");
+        zone.setCodePostal("20000");
+        zone.setVille("Casablanca");
+        zone = zoneRepository.saveAndFlush(zone);
+
+        livreur = new Livreur();
+        livreur.setNom("Bennani");
+        livreur.setPrenom("Omar");
+        livreur.setEmail("omar.bennani.delais@test.com");
+        livreur.setZone(zone);
+        livreur = livreurRepository.saveAndFlush(livreur);
+
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Client");
+        client.setEmail("client.delais@test.com");
+        clientId = clientExpediteurRepository.saveAndFlush(client).getId();
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Destinataire");
+        destinataire.setEmail("destinataire.delais@test.com");
+        destinataireId = destinataireRepository.saveAndFlush(destinataire).getId();
+
+        hier = LocalDate.now().minusDays(1);
+    }
+
+    @Test
+    @DisplayName("calcule le délai de livraison et le temps par statut, global, par zone et par livreur")
+    void testReconstruire_DelaisParSerie() {
+        LocalDateTime debut = hier.atTime(8, 0);
+        inserer(debut, StatutColis.CREE, StatutColis.COLLECTE, StatutColis.EN_STOCK, StatutColis.EN_TRANSIT, StatutColis.LIVRE);
+        // Colis encore en transit : pas de délai de livraison, mais ses statuts quittés comptent
+        inserer(debut, StatutColis.CREE, StatutColis.COLLECTE);
+
+        // Plafond calculé d'après la rétention et le nombre de zones et de livreurs
+        AnalyseDelais analyse = analyse(0);
+        analyse.reconstruire();
+        DelaisLivraisonDTO rapport = analyse.rapport(hier, hier);
+        assertThat(rapport.isTronque()).isFalse();
+
+        // Une transition par heure : livraison en 4 h, 1 h dans chaque statut
+        DelaiSerieDTO parZone = rapport.getParZone().stream()
+                .filter(serie -> zone.getId().equals(serie.getId())).findFirst().orElseThrow();
+        assertThat(parZone.getNom()).isEqualTo("Zone Délais");
+        assertThat(parZone.getLivraison().getNombre()).isEqualTo(1);
+        assertThat(parZone.getLivraison().getP50()).isEqualTo(4 * 3600);
+        assertThat(parZone.getParStatut().get(StatutColis.CREE).getNombre()).isEqualTo(2);
+        assertThat(parZone.getParStatut().get(StatutColis.CREE).getP99()).isEqualTo(3600);
+        assertThat(parZone.getParStatut()).containsKeys(StatutColis.COLLECTE, StatutColis.EN_STOCK, StatutColis.EN_TRANSIT);
+
+        DelaiSerieDTO parLivreur = rapport.getParLivreur().stream()
+                .filter(serie -> livreur.getId().equals(serie.getId())).findFirst().orElseThrow();
+        assertThat(parLivreur.getNom()).isEqualTo("Bennani Omar");
+        assertThat(parLivreur.getLivraison().getP90()).isEqualTo(4 * 3600);
+        assertThat(rapport.getGlobal().getLivraison().getNombre()).isGreaterThanOrEqualTo(1);
+
+        // Jour sans transition : séries vides
+        assertThat(analyse.rapport(hier.minusDays(3), hier.minusDays(2)).getParZone()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("le rattrapage n'intègre que les transitions postérieures au filigrane")
+    void testRattraper_Incremental() throws Exception {
+        String colisId = inserer(hier.atTime(9, 0), StatutColis.CREE, StatutColis.COLLECTE);
+        AnalyseDelais analyse = analyse(20_000);
+        analyse.rattraper(); // premier passage : reconstruction
+
+        Thread.sleep(5);
+        // Nouvelle transition du même colis : le statut quitté (COLLECTE) est relu dans l'historique
+        historique(colisId, StatutColis.EN_STOCK, LocalDateTime.now());
+        analyse.rattraper();
+
+        DelaiSerieDTO parZone = analyse.rapport(hier, LocalDate.now()).getParZone().stream()
+                .filter(serie -> zone.getId().equals(serie.getId())).findFirst().orElseThrow();
+        assertThat(parZone.getParStatut().get(StatutColis.CREE).getNombre()).isEqualTo(1);
+        assertThat(parZone.getParStatut().get(StatutColis.COLLECTE).getNombre()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("au-delà du plafond d'histogrammes, les jours les plus anciens sont évincés")
+    void testPlafond_EvinceLesJoursAnciens() {
+        inserer(hier.minusDays(2).atTime(8, 0), StatutColis.CREE, StatutColis.COLLECTE);
+        inserer(hier.atTime(8, 0), StatutColis.CREE, StatutColis.COLLECTE);
+
+        // 3 histogrammes par jour (global, zone, livreur) : un seul jour tient sous le plafond.
+        // Fenêtre arrêtée à minuit pour ignorer les historiques du jour laissés par d'autres tests.
+        long jusquaMinuit = Duration.between(LocalDate.now().atStartOfDay(), LocalDateTime.now()).toSeconds() + 1;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AnalyseDelais analyse = new AnalyseDelais(dataSource, transactionManager, livreurRepository, zoneRepository,
+                meterRegistry, true, 31, 3, jusquaMinuit);
+        analyse.reconstruire();
+
+        assertThat(analyse.getNombreHistogrammes()).isLessThanOrEqualTo(3);
+        DelaisLivraisonDTO evince = analyse.rapport(hier.minusDays(2), hier.minusDays(2));
+        assertThat(evince.getParZone()).isEmpty();
+        assertThat(evince.isTronque()).isTrue();
+        assertThat(evince.getCouvertDepuis()).isEqualTo(hier.minusDays(1));
+        DelaisLivraisonDTO conserve = analyse.rapport(hier, hier);
+        assertThat(conserve.getParZone()).hasSize(1);
+        assertThat(conserve.isTronque()).isFalse();
+        assertThat(meterRegistry.counter("sdms.delais.evictions").count()
+                + meterRegistry.counter("sdms.delais.valeurs-ignorees").count()).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("période invalide : InvalidDataException ; analyse désactivée : 503")
+    void testRapport_Erreurs() {
+        assertThrows(InvalidDataException.class, () -> analyse(20_000).rapport(hier, hier.minusDays(1)));
+
+        AnalyseDelais inactive = new AnalyseDelais(dataSource, transactionManager, livreurRepository, zoneRepository,
+                new SimpleMeterRegistry(), false, 31, 20_000, 0);
+        assertThrows(ResponseStatusException.class, () -> inactive.rapport(hier, hier));
+    }
+
+    private AnalyseDelais analyse(int maxHistogrammes) {
+        return new AnalyseDelais(dataSource, transactionManager, livreurRepository, zoneRepository,
+                new SimpleMeterRegistry(), true, 31, maxHistogrammes, 0);
+    }
+
+    /**
+     * Insère un colis et un historique d'une transition par heure à partir de {@code debut}.
+     */
+    private String inserer(LocalDateTime debut, StatutColis... statuts) {
+        String colisId = TimeOrderedUuidGenerator.nextId();
+        jdbcTemplate.update("INSERT INTO colis (id, description, poids_total, statut, priorite, ville_destination, "
+                        + "date_creation, date_dernier_statut, version, client_expediteur_id, destinataire_id, zone_id, livreur_id) "
+                        + "VALUES (?, 'Colis délais', 1.0, ?, 'NORMALE', 'Casablanca', ?, ?, 0, ?, ?, ?, ?)",
+                colisId, statuts[statuts.length - 1].name(), Timestamp.valueOf(debut),
+                Timestamp.valueOf(debut.plusHours(statuts.length - 1)), clientId, destinataireId, zone.getId(), livreur.getId());
+        for (int i = 0; i < statuts.length; i++) {
+            historique(colisId, statuts[i], debut.plusHours(i));
+        }
+        return colisId;
+    }
+
+    private void historique(String colisId, StatutColis statut, LocalDateTime date) {
+        jdbcTemplate.update("INSERT INTO historique_livraison (id, colis_id, statut, date_changement) VALUES (?, ?, ?, ?)",
+                TimeOrderedUuidGenerator.nextId(), colisId, statut.name(), Timestamp.valueOf(date));
+    }
+}
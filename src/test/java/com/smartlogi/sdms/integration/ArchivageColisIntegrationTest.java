@@ -0,0 +1,214 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.Produit;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.repository.*;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.smartlogi.sdms.service.interfaces.HistoriqueLivraisonService;
+import com.smartlogi.sdms.service.support.ArchivageColis;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
+import com.smartlogi.sdms.service.support.CompteursTournees;
+import com.smartlogi.sdms.service.support.ModeTotal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Archivage froid sur H2 : trois colis livrés anciens, un colis livré récent et un colis actif ancien.
+ * Le composant est instancié activé, par lots de deux colis ; les tables d'archive sont vidées après chaque test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - Archivage des colis livrés")
+class ArchivageColisIntegrationTest {
+
+    @Autowired private ColisService colisService;
+    @Autowired private HistoriqueLivraisonService historiqueLivraisonService;
+    @Autowired private ColisAccesMemo colisAccesMemo;
+    @Autowired private CompteursTournees compteursTournees;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private ColisArchiveRepository colisArchiveRepository;
+    @Autowired private HistoriqueLivraisonRepository historiqueLivraisonRepository;
+    @Autowired private HistoriqueLivraisonArchiveRepository historiqueArchiveRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+    @Autowired private ProduitRepository produitRepository;
+
+    private final LocalDateTime maintenant = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private String clientId;
+    // Du plus ancien au plus récent : trois livrés anciens, puis le livré récent et l'actif ancien
+    private final List<String> livresAnciens = new ArrayList<>();
+    private String livreRecent;
+    private String actifAncien;
+
+    @BeforeEach
+    void setUp() {
+        viderArchive();
+        historiqueLivraisonRepository.deleteAll();
+        colisRepository.deleteAll();
+        produitRepository.deleteAll();
+        destinataireRepository.deleteAll();
+        clientExpediteurRepository.deleteAll();
+
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Archive");
+        client.setEmail("archive.client@test.com");
+        clientId = clientExpediteurRepository.save(client).getId();
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Archive");
+        destinataire.setEmail("archive.dest@test.com");
+        String destinataireId = destinataireRepository.save(destinataire).getId();
+
+        Produit produit = new Produit();
+        produit.setNom("Produit archivé");
+        produit.setPoids(2.0);
+        produit.setPrix(BigDecimal.TEN);
+        String produitId = produitRepository.save(produit).getId();
+
+        for (int i = 0; i < 3; i++) {
+            livresAnciens.add(creer(destinataireId, produitId, StatutColis.LIVRE, maintenant.minusDays(120 - i)));
+        }
+        livreRecent = creer(destinataireId, produitId, StatutColis.LIVRE, maintenant.minusDays(5));
+        actifAncien = creer(destinataireId, produitId, StatutColis.EN_TRANSIT, maintenant.minusDays(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        viderArchive();
+    }
+
+    @Test
+    @DisplayName("les colis livrés anciens sont déplacés par lots, du plus ancien, et un passage borné reprend au suivant")
+    void testArchiver_LotsReprise() {
+        // Un seul lot de deux colis par passage
+        assertThat(archivage(1).archiver(maintenant)).isEqualTo(2);
+        assertThat(colisArchiveRepository.findAll()).extracting(c -> c.getId())
+                .containsExactlyInAnyOrderElementsOf(livresAnciens.subList(0, 2));
+
+        assertThat(archivage(1).archiver(maintenant)).isEqualTo(1);
+        assertThat(archivage(0).archiver(maintenant)).isZero();
+
+        assertThat(colisRepository.findAll()).extracting(c -> c.getId())
+                .containsExactlyInAnyOrder(livreRecent, actifAncien);
+        assertThat(colisArchiveRepository.count()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM colis_produit_archive", Integer.class)).isEqualTo(3);
+        assertThat(historiqueArchiveRepository.count()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM colis_produit WHERE colis_id IN (?, ?, ?)",
+                Integer.class, livresAnciens.toArray())).isZero();
+        assertThat(historiqueLivraisonRepository.count()).isEqualTo(2);
+        assertThat(colisArchiveRepository.findById(livresAnciens.get(0)).orElseThrow().getDateArchivage())
+                .isEqualTo(maintenant);
+    }
+
+    @Test
+    @DisplayName("lecture par identifiant, historique, contrôle d'accès et ETag se replient sur l'archive")
+    void testLectures_ReplisSurArchive() {
+        String archive = livresAnciens.get(0);
+        String etagAvant = colisService.findEtag(archive).orElseThrow();
+        archivage(0).archiver(maintenant);
+
+        ColisDTO colis = colisService.findById(archive);
+        assertThat(colis.getStatut()).isEqualTo(StatutColis.LIVRE);
+        assertThat(colis.getClientExpediteurId()).isEqualTo(clientId);
+        assertThat(colis.getProduits()).singleElement().extracting(ColisProduitDTO::getQuantite).isEqualTo(3);
+
+        assertThat(historiqueLivraisonService.findHistoriqueByColisId(archive))
+                .extracting(HistoriqueLivraisonDTO::getStatut, HistoriqueLivraisonDTO::getColisId)
+                .containsExactly(tuple(StatutColis.CREE, archive));
+        assertThat(historiqueLivraisonService.findEtagHistorique(archive)).isPresent();
+        assertThat(colisAccesMemo.charger(archive)).get()
+                .extracting(acces -> acces.getClientExpediteurId()).isEqualTo(clientId);
+        assertThat(colisService.findEtag(archive)).contains(etagAvant);
+
+        assertThrows(ResourceNotFoundException.class, () -> colisService.findById("inconnu"));
+    }
+
+    @Test
+    @DisplayName("les listes client continuent dans l'archive après les colis chauds ; sans total, colis chauds seulement")
+    void testListeClient_ContinueDansArchive() {
+        archivage(0).archiver(maintenant);
+        Sort tri = Sort.by(Sort.Order.desc("dateCreation"), Sort.Order.desc("id"));
+
+        // Deux colis chauds puis trois archivés, par pages de deux
+        List<String> parPage = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<ColisDTO> resultat = colisService.findColisByClientExpediteur(clientId, PageRequest.of(page, 2, tri));
+            assertThat(resultat.getTotalElements()).isEqualTo(5);
+            resultat.forEach(colis -> parPage.add(colis.getId()));
+        }
+        assertThat(parPage.subList(0, 2)).containsExactlyInAnyOrder(livreRecent, actifAncien);
+        assertThat(parPage.subList(2, 5)).containsExactlyInAnyOrderElementsOf(livresAnciens);
+
+        // Sans total : colis chauds seulement, l'archive ne se situe pas sans compter les colis chauds
+        Slice<ColisDTO> sansTotal = colisService.findColisByClientExpediteur(clientId, PageRequest.of(0, 2, tri), ModeTotal.AUCUN);
+        assertThat(sansTotal.getContent()).extracting(ColisDTO::getId).containsExactlyElementsOf(parPage.subList(0, 2));
+        assertThat(sansTotal.hasNext()).isFalse();
+        assertThat(colisService.findColisByClientExpediteur(clientId, PageRequest.of(1, 2, tri), ModeTotal.AUCUN)).isEmpty();
+    }
+
+    private ArchivageColis archivage(int maxLots) {
+        return new ArchivageColis(jdbcTemplate, transactionManager, compteursTournees, new SimpleMeterRegistry(),
+                true, 30, 2, maxLots);
+    }
+
+    /**
+     * Crée le colis par le service (produit et historique CREE), puis fixe son statut et sa date
+     * du dernier statut en SQL, sans passer par les transitions.
+     */
+    private String creer(String destinataireId, String produitId, StatutColis statut, LocalDateTime dernierStatut) {
+        ColisProduitDTO ligne = new ColisProduitDTO();
+        ligne.setProduitId(produitId);
+        ligne.setQuantite(3);
+        ColisDTO dto = new ColisDTO();
+        dto.setDescription("Colis " + statut);
+        dto.setPriorite(Priorite.NORMALE);
+        dto.setVilleDestination("Fès");
+        dto.setClientExpediteurId(clientId);
+        dto.setDestinataireId(destinataireId);
+        dto.setProduits(List.of(ligne));
+
+        String id = colisService.creerDemandeLivraison(dto).getId();
+        jdbcTemplate.update("UPDATE colis SET statut = ?, date_dernier_statut = ? WHERE id = ?",
+                statut.name(), Timestamp.valueOf(dernierStatut), id);
+        return id;
+    }
+
+    private void viderArchive() {
+        jdbcTemplate.update("DELETE FROM historique_livraison_archive");
+        jdbcTemplate.update("DELETE FROM colis_produit_archive");
+        jdbcTemplate.update("DELETE FROM colis_archive");
+    }
+}
@@ -0,0 +1,220 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.ScanStatutDTO;
+import com.smartlogi.sdms.entity.*;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.repository.*;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mises à jour concurrentes d'un même colis (scans et réassignations) :
+ * le verrouillage optimiste doit empêcher les mises à jour perdues et les historiques en double.
+ * Pas de @Transactional ici : chaque appel doit valider sa propre transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - Mises à jour concurrentes d'un colis")
+class ColisConcurrenceIntegrationTest {
+
+    private static final int NB_SCANNEURS = 6;
+    private static final int NB_REASSIGNATIONS = 10;
+
+    @Autowired private ColisService colisService;
+
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private HistoriqueLivraisonRepository historiqueLivraisonRepository;
+    @Autowired private ColisProduitRepository colisProduitRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+    @Autowired private ProduitRepository produitRepository;
+    @Autowired private LivreurRepository livreurRepository;
+
+    private String colisId;
+    private final List<String> livreurIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        historiqueLivraisonRepository.deleteAll();
+        colisProduitRepository.deleteAll();
+        colisRepository.deleteAll();
+        produitRepository.deleteAll();
+        livreurRepository.deleteAll();
+        destinataireRepository.deleteAll();
+        clientExpediteurRepository.deleteAll();
+
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Concurrence");
+        client.setEmail("concurrence.client@test.com");
+        client = clientExpediteurRepository.save(client);
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Concurrence");
+        destinataire.setEmail("concurrence.dest@test.com");
+        destinataire = destinataireRepository.save(destinataire);
+
+        Produit produit = new Produit();
+        produit.setNom("Produit");
+        produit.setPoids(1.0);
+        produit.setPrix(BigDecimal.ONE);
+        produit = produitRepository.save(produit);
+
+        livreurIds.clear();
+        for (int i = 0; i < 2; i++) {
+            Livreur livreur = new Livreur();
+            livreur.setNom("Livreur" + i);
+            livreur.setPrenom("Test");
+            livreur.setEmail("concurrence.livreur" + i + "@test.com");
+            livreur.setTelephone("060000000" + i);
+            livreurIds.add(livreurRepository.save(livreur).getId());
+        }
+
+        ColisProduitDTO ligne = new ColisProduitDTO();
+        ligne.setProduitId(produit.getId());
+        ligne.setQuantite(1);
+
+        ColisDTO colisDTO = new ColisDTO();
+        colisDTO.setDescription("Colis concurrent");
+        colisDTO.setPriorite(Priorite.NORMALE);
+        colisDTO.setVilleDestination("Rabat");
+        colisDTO.setClientExpediteurId(client.getId());
+        colisDTO.setDestinataireId(destinataire.getId());
+        colisDTO.setProduits(List.of(ligne));
+        colisId = colisService.creerDemandeLivraison(colisDTO).getId();
+    }
+
+    @Test
+    @DisplayName("scans et réassignations concurrents : une seule entrée d'historique par transition, dans l'ordre")
+    void testMisesAJourConcurrentes() throws Exception {
+        List<StatutColis> parcours = List.of(
+                StatutColis.COLLECTE, StatutColis.EN_STOCK, StatutColis.EN_TRANSIT, StatutColis.LIVRE);
+        AtomicInteger transitionsRefusees = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NB_SCANNEURS + 2);
+        List<Future<?>> taches = new ArrayList<>();
+
+        try {
+            for (int s = 0; s < NB_SCANNEURS; s++) {
+                taches.add(executor.submit(() -> {
+                    depart.await();
+                    for (StatutColis statut : parcours) {
+                        try {
+                            reessayerSurConflit(() -> colisService.updateStatutColis(colisId, statut, "scan " + statut));
+                        } catch (InvalidDataException e) {
+                            // Un autre scanneur est déjà passé à une étape ultérieure
+                            transitionsRefusees.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 2; r++) {
+                int decalage = r;
+                taches.add(executor.submit(() -> {
+                    depart.await();
+                    for (int i = 0; i < NB_REASSIGNATIONS; i++) {
+                        String livreurId = livreurIds.get((i + decalage) % livreurIds.size());
+                        reessayerSurConflit(() -> colisService.assignerColisLivreur(colisId, livreurId));
+                    }
+                    return null;
+                }));
+            }
+
+            depart.countDown();
+            for (Future<?> tache : taches) {
+                tache.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Colis colis = colisRepository.findById(colisId).orElseThrow();
+        assertThat(colis.getStatut()).isEqualTo(StatutColis.LIVRE);
+        assertThat(colis.getVersion()).isGreaterThanOrEqualTo((long) parcours.size());
+
+        assertHistoriqueComplet(colisId);
+    }
+
+    @Test
+    @DisplayName("lots de scans concurrents : conflits rejoués, une seule entrée d'historique par transition, dans l'ordre")
+    void testScansEnLotConcurrents() throws Exception {
+        String livreurId = livreurIds.get(0);
+        colisService.assignerColisLivreur(colisId, livreurId);
+        List<StatutColis> parcours = List.of(
+                StatutColis.COLLECTE, StatutColis.EN_STOCK, StatutColis.EN_TRANSIT, StatutColis.LIVRE);
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NB_SCANNEURS);
+        List<Future<?>> taches = new ArrayList<>();
+
+        try {
+            for (int s = 0; s < NB_SCANNEURS; s++) {
+                taches.add(executor.submit(() -> {
+                    depart.await();
+                    for (StatutColis statut : parcours) {
+                        ScanStatutDTO scan = new ScanStatutDTO();
+                        scan.setColisId(colisId);
+                        scan.setStatut(statut);
+                        scan.setCommentaire("scan en lot " + statut);
+                        // Une transition déjà dépassée est rapportée en échec dans la réponse, sans exception
+                        reessayerSurConflit(() -> colisService.updateStatutsEnLot(List.of(scan), livreurId));
+                    }
+                    return null;
+                }));
+            }
+
+            depart.countDown();
+            for (Future<?> tache : taches) {
+                tache.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(colisRepository.findById(colisId).orElseThrow().getStatut()).isEqualTo(StatutColis.LIVRE);
+        assertHistoriqueComplet(colisId);
+    }
+
+    /**
+     * Historique dans l'ordre renvoyé par le repository (du plus récent au plus ancien), sans tri côté test.
+     */
+    private void assertHistoriqueComplet(String id) {
+        assertThat(historiqueLivraisonRepository.findAllByColisIdOrderByDateChangementDesc(id))
+                .extracting(HistoriqueLivraison::getStatut)
+                .containsExactly(StatutColis.LIVRE, StatutColis.EN_TRANSIT, StatutColis.EN_STOCK,
+                        StatutColis.COLLECTE, StatutColis.CREE);
+    }
+
+    /**
+     * Simule un client qui renvoie sa requête après un 409 (reprises internes épuisées).
+     */
+    private static void reessayerSurConflit(Runnable appel) {
+        for (int tentative = 1; ; tentative++) {
+            try {
+                appel.run();
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (tentative >= 20) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
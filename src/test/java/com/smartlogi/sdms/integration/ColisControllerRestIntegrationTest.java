@@ -429,5 +429,172 @@ public class ColisControllerRestIntegrationTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.statut").value("CREE"));
     }
-}
 
+    @Test
+    @DisplayName("GET /api/v1/colis/{id} - If-None-Match : 304 tant que le colis ne change pas, 200 après un changement de statut")
+    void testGetColisById_LectureConditionnelle() throws Exception {
+        // Given
+        ColisDTO colisDTO = new ColisDTO();
+        colisDTO.setDescription("Colis suivi par polling");
+        colisDTO.setPriorite(Priorite.NORMALE);
+        colisDTO.setVilleDestination("Lille");
+        colisDTO.setClientExpediteurId(clientExpediteur.getId());
+        colisDTO.setDestinataireId(destinataire.getId());
+        ColisProduitDTO produitDTO = new ColisProduitDTO();
+        produitDTO.setProduitId(produit1.getId());
+        produitDTO.setQuantite(1);
+        colisDTO.setProduits(List.of(produitDTO));
+
+        MvcResult createResult = mockMvc.perform(post("/api/v1/colis")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(colisDTO)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String colisId = objectMapper.readValue(createResult.getResponse().getContentAsString(), ColisDTO.class).getId();
+
+        String etag = mockMvc.perform(get("/api/v1/colis/{id}", colisId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When / Then - Colis inchangé
+        mockMvc.perform(get("/api/v1/colis/{id}", colisId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        String etagHistorique = mockMvc.perform(get("/api/v1/colis/{id}/historique", colisId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/colis/{id}/historique", colisId).header("If-None-Match", etagHistorique))
+                .andExpect(status().isNotModified());
+
+        // When / Then - Changement de statut : les deux ETags changent
+        mockMvc.perform(patch("/api/v1/colis/{colisId}/statut", colisId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"statut\":\"COLLECTE\",\"commentaire\":\"Pris en charge\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/colis/{id}", colisId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.statut").value("COLLECTE"));
+        mockMvc.perform(get("/api/v1/colis/{id}/historique", colisId).header("If-None-Match", etagHistorique))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/livreur/{id}/curseur - Parcours complet page par page dans l'ordre priorité / zone / id")
+    void testGetColisByLivreur_PaginationParCurseur() throws Exception {
+        // Given - priorités et zones variées, dont des colis sans zone
+        Zone zoneSud = new Zone();
+        zoneSud.setNom("Zone Atlas");
+        zoneSud.setCodePostal("13001");
+        zoneSud.setVille("Marseille");
+        zoneSud = zoneRepository.save(zoneSud);
+
+        Priorite[] priorites = {Priorite.HAUTE, Priorite.NORMALE, Priorite.URGENTE, Priorite.BASSE};
+        Zone[] zones = {zone, zoneSud, null};
+        List<Colis> crees = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            crees.add(creerColisLivreur(priorites[i % priorites.length], zones[i % zones.length]));
+        }
+        List<String> attendus = crees.stream()
+                .sorted(java.util.Comparator.comparing((Colis c) -> c.getPriorite().name()).reversed()
+                        .thenComparing(c -> c.getZone() == null ? "" : c.getZone().getNom())
+                        .thenComparing(Colis::getId))
+                .map(Colis::getId)
+                .toList();
+
+        // When - parcours par pages de 4
+        List<String> parcourus = new ArrayList<>();
+        String curseur = null;
+        int pages = 0;
+        do {
+            var requete = get("/api/v1/colis/livreur/{livreurId}/curseur", livreur.getId()).param("taille", "4");
+            if (curseur != null) {
+                requete.param("curseur", curseur);
+            }
+            MvcResult result = mockMvc.perform(requete)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            var page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("contenu").forEach(colis -> parcourus.add(colis.get("id").asText()));
+            curseur = page.get("curseurSuivant").isNull() ? null : page.get("curseurSuivant").asText();
+            pages++;
+        } while (curseur != null);
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(parcourus).containsExactlyElementsOf(attendus);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis/curseur - Ordre date de création décroissante, curseur d'un autre ordre refusé")
+    void testFilterColis_PaginationParCurseur_DateCreation() throws Exception {
+        // Given
+        List<Colis> crees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            crees.add(creerColisLivreur(Priorite.NORMALE, zone));
+        }
+        List<String> attendus = crees.stream()
+                .sorted(java.util.Comparator.comparing(Colis::getDateCreation).thenComparing(Colis::getId).reversed())
+                .map(Colis::getId)
+                .toList();
+
+        // When
+        MvcResult premiere = mockMvc.perform(get("/api/v1/colis/curseur").param("taille", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taille").value(3))
+                .andExpect(jsonPath("$.curseurSuivant").isNotEmpty())
+                .andReturn();
+        String curseur = objectMapper.readTree(premiere.getResponse().getContentAsString()).get("curseurSuivant").asText();
+
+        // Then
+        mockMvc.perform(get("/api/v1/colis/curseur").param("taille", "3").param("curseur", curseur))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenu[*].id").value(contains(attendus.get(3), attendus.get(4))))
+                .andExpect(jsonPath("$.curseurSuivant").doesNotExist());
+        mockMvc.perform(get("/api/v1/colis/curseur").param("ordre", "PRIORITE_ZONE").param("curseur", curseur))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/colis/curseur").param("curseur", "pas-un-curseur"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/colis - withTotal=false renvoie une Slice sans total, withTotal=estime un total issu des statistiques")
+    void testFilterColis_ModesDeTotal() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            creerColisLivreur(Priorite.NORMALE, zone);
+        }
+
+        // When & Then - Slice : page pleine + indicateur de page suivante, pas de COUNT
+        mockMvc.perform(get("/api/v1/colis").param("size", "2").param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/api/v1/colis").param("size", "2").param("page", "1").param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last").value(true));
+
+        // Estimation : statistiques H2 ou repli sur COUNT, le total est toujours présent
+        mockMvc.perform(get("/api/v1/colis").param("size", "2").param("withTotal", "estime"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.totalElements").isNumber());
+    }
+
+    private Colis creerColisLivreur(Priorite priorite, Zone zoneColis) {
+        Colis colis = new Colis();
+        colis.setDescription("Colis " + priorite);
+        colis.setPriorite(priorite);
+        colis.setVilleDestination("Paris");
+        colis.setPoidsTotal(1.0);
+        colis.setClientExpediteur(clientExpediteur);
+        colis.setDestinataire(destinataire);
+        colis.setLivreur(livreur);
+        colis.setZone(zoneColis);
+        return colisRepository.saveAndFlush(colis);
+    }
+}
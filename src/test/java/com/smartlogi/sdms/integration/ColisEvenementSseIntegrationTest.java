@@ -0,0 +1,128 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.Produit;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.repository.*;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Flux SSE des changements de colis : les événements ne sont poussés qu'aux abonnés concernés,
+ * après validation de la transaction (pas de @Transactional sur le test).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "manager@test.com", roles = {"MANAGER"})
+@DisplayName("Tests d'Intégration - Flux SSE des événements colis")
+class ColisEvenementSseIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ColisService colisService;
+
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private HistoriqueLivraisonRepository historiqueLivraisonRepository;
+    @Autowired private ColisProduitRepository colisProduitRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+    @Autowired private ProduitRepository produitRepository;
+
+    private ColisDTO colisDTO;
+    private String clientId;
+
+    @BeforeEach
+    void setUp() {
+        historiqueLivraisonRepository.deleteAll();
+        colisProduitRepository.deleteAll();
+        colisRepository.deleteAll();
+        produitRepository.deleteAll();
+        destinataireRepository.deleteAll();
+        clientExpediteurRepository.deleteAll();
+
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Sse");
+        client.setEmail("sse.client@test.com");
+        clientId = clientExpediteurRepository.save(client).getId();
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Sse");
+        destinataire.setEmail("sse.dest@test.com");
+        destinataire = destinataireRepository.save(destinataire);
+
+        Produit produit = new Produit();
+        produit.setNom("Produit");
+        produit.setPoids(1.0);
+        produit.setPrix(BigDecimal.ONE);
+        produit = produitRepository.save(produit);
+
+        ColisProduitDTO ligne = new ColisProduitDTO();
+        ligne.setProduitId(produit.getId());
+        ligne.setQuantite(1);
+
+        colisDTO = new ColisDTO();
+        colisDTO.setDescription("Colis suivi");
+        colisDTO.setPriorite(Priorite.NORMALE);
+        colisDTO.setVilleDestination("Rabat");
+        colisDTO.setClientExpediteurId(clientId);
+        colisDTO.setDestinataireId(destinataire.getId());
+        colisDTO.setProduits(List.of(ligne));
+    }
+
+    @Test
+    @DisplayName("un changement de statut validé est poussé aux abonnés du colis et du client, pas aux autres")
+    void testDiffusionChangementStatut() throws Exception {
+        String colisSuivi = colisService.creerDemandeLivraison(colisDTO).getId();
+        String autreColis = colisService.creerDemandeLivraison(colisDTO).getId();
+
+        MockHttpServletResponse fluxColis = abonner("/api/v1/colis/" + colisSuivi + "/evenements");
+        MockHttpServletResponse fluxClient = abonner("/api/v1/colis/client/" + clientId + "/evenements");
+        MockHttpServletResponse fluxAutre = abonner("/api/v1/colis/" + autreColis + "/evenements");
+
+        colisService.updateStatutColis(colisSuivi, StatutColis.COLLECTE, "collecte");
+
+        String contenuColis = attendreContenu(fluxColis, "COLLECTE");
+        assertThat(contenuColis).contains("event:colis").contains(colisSuivi).contains("\"ancienStatut\":\"CREE\"");
+        assertThat(attendreContenu(fluxClient, "COLLECTE")).contains(colisSuivi);
+        assertThat(fluxAutre.getContentAsString()).doesNotContain("COLLECTE");
+    }
+
+    private MockHttpServletResponse abonner(String chemin) throws Exception {
+        MvcResult resultat = mockMvc.perform(get(chemin).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return resultat.getResponse();
+    }
+
+    private static String attendreContenu(MockHttpServletResponse reponse, String attendu) throws Exception {
+        long limite = System.currentTimeMillis() + 5_000;
+        String contenu = reponse.getContentAsString();
+        while (!contenu.contains(attendu) && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+            contenu = reponse.getContentAsString();
+        }
+        return contenu;
+    }
+}
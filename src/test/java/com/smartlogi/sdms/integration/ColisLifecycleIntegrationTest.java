@@ -1,12 +1,18 @@
 package com.smartlogi.sdms.integration;
 
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
 import com.smartlogi.sdms.dto.ColisDTO;
 import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.ScanStatutDTO;
+import com.smartlogi.sdms.dto.StatistiqueLivreurDTO;
+import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
 import com.smartlogi.sdms.entity.*;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
 import com.smartlogi.sdms.repository.*;
 import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.smartlogi.sdms.service.support.CompteursTournees;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -14,6 +20,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -400,6 +408,105 @@ class ColisLifecycleIntegrationTest {
         assertThat(historique.get(0).getStatut()).isEqualTo(StatutColis.CREE);
     }
 
+    @Test
+    @Order(6)
+    @DisplayName("6. Appliquer un lot de scans du livreur et vérifier les historiques")
+    @Transactional
+    void testUpdateStatutsEnLot_ScansLivreur() {
+        // Given - Deux colis assignés au livreur
+        ColisProduitDTO colisProduitDTO = new ColisProduitDTO();
+        colisProduitDTO.setProduitId(produit.getId());
+        colisProduitDTO.setQuantite(1);
+
+        ColisDTO colisDTO = new ColisDTO();
+        colisDTO.setDescription("Colis scanné au dépôt");
+        colisDTO.setPriorite(Priorite.NORMALE);
+        colisDTO.setVilleDestination("Paris");
+        colisDTO.setClientExpediteurId(clientExpediteur.getId());
+        colisDTO.setDestinataireId(destinataire.getId());
+        colisDTO.setProduits(List.of(colisProduitDTO));
+
+        String colis1 = colisService.creerDemandeLivraison(colisDTO).getId();
+        String colis2 = colisService.creerDemandeLivraison(colisDTO).getId();
+        colisService.assignerColisLivreur(colis1, livreur.getId());
+        colisService.assignerColisLivreur(colis2, livreur.getId());
+        // Assignations écrites (et dernier statut horodaté par @PreUpdate) avant l'heure du scan
+        colisRepository.flush();
+
+        // Heure du terminal, postérieure au dernier statut du colis (arrondie à la microseconde supérieure,
+        // précision de la colonne) et antérieure au traitement du lot
+        LocalDateTime dateScan = LocalDateTime.now().plus(1, ChronoUnit.MICROS).truncatedTo(ChronoUnit.MICROS);
+        ScanStatutDTO scan1 = new ScanStatutDTO();
+        scan1.setColisId(colis1);
+        scan1.setStatut(StatutColis.COLLECTE);
+        scan1.setScannedAt(dateScan);
+        ScanStatutDTO scan2 = new ScanStatutDTO();
+        scan2.setColisId(colis2);
+        scan2.setStatut(StatutColis.EN_STOCK);
+        ScanStatutDTO scanInvalide = new ScanStatutDTO();
+        scanInvalide.setColisId(colis2);
+        scanInvalide.setStatut(StatutColis.CREE);
+
+        // When
+        ColisBatchResponseDTO response = colisService.updateStatutsEnLot(List.of(scan1, scan2, scanInvalide), livreur.getId());
+
+        // Then
+        assertThat(response.getNombreSucces()).isEqualTo(2);
+        assertThat(response.getResultats().get(2).getErreur()).contains("retour en arrière");
+        assertThat(colisRepository.findById(colis1).orElseThrow().getStatut()).isEqualTo(StatutColis.COLLECTE);
+        assertThat(colisRepository.findById(colis1).orElseThrow().getDateDernierStatut()).isEqualTo(dateScan);
+        assertThat(colisRepository.findById(colis2).orElseThrow().getStatut()).isEqualTo(StatutColis.EN_STOCK);
+
+        HistoriqueLivraison historiqueScan = historiqueLivraisonRepository.findAllByColisIdOrderByDateChangementDesc(colis1).stream()
+                .filter(h -> h.getStatut() == StatutColis.COLLECTE)
+                .findFirst()
+                .orElseThrow();
+        assertThat(historiqueScan.getDateChangement()).isEqualTo(dateScan);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. Reconstruire les compteurs de tournées : mêmes chiffres que les requêtes d'agrégation")
+    @Transactional
+    void testCompteursTournees_ReconstructionCoherente() {
+        // Given - Deux colis assignés au livreur, dont un seul actif (COLLECTE)
+        ColisProduitDTO colisProduitDTO = new ColisProduitDTO();
+        colisProduitDTO.setProduitId(produit.getId());
+        colisProduitDTO.setQuantite(2);
+
+        ColisDTO colisDTO = new ColisDTO();
+        colisDTO.setDescription("Colis pour compteurs");
+        colisDTO.setPriorite(Priorite.NORMALE);
+        colisDTO.setVilleDestination("Paris");
+        colisDTO.setClientExpediteurId(clientExpediteur.getId());
+        colisDTO.setDestinataireId(destinataire.getId());
+        colisDTO.setProduits(List.of(colisProduitDTO));
+
+        String colisActif = colisService.creerDemandeLivraison(colisDTO).getId();
+        String colisCree = colisService.creerDemandeLivraison(colisDTO).getId();
+        colisService.assignerColisLivreur(colisActif, livreur.getId());
+        colisService.assignerColisLivreur(colisCree, livreur.getId());
+        colisService.updateStatutColis(colisActif, StatutColis.COLLECTE, "Collecté");
+
+        CompteursTournees compteurs = new CompteursTournees(colisRepository, livreurRepository, zoneRepository,
+                new SimpleMeterRegistry(), true);
+
+        // When
+        compteurs.reconstruire();
+        StatistiquesTourneeDTO statistiques = compteurs.statistiques().orElseThrow();
+
+        // Then
+        StatistiqueLivreurDTO attendu = colisRepository.findStatistiquesParLivreur().get(0);
+        assertThat(statistiques.getParLivreur()).hasSize(1);
+        StatistiqueLivreurDTO obtenu = statistiques.getParLivreur().get(0);
+        assertThat(obtenu.getLivreurId()).isEqualTo(attendu.getLivreurId());
+        assertThat(obtenu.getLivreurNom()).isEqualTo(attendu.getLivreurNom());
+        assertThat(obtenu.getNombreColis()).isEqualTo(attendu.getNombreColis()).isEqualTo(1);
+        assertThat(obtenu.getPoidsTotal()).isEqualTo(attendu.getPoidsTotal());
+        assertThat(obtenu.getParStatut()).containsEntry(StatutColis.COLLECTE, 1L).containsEntry(StatutColis.CREE, 1L);
+        assertThat(compteurs.verifier()).isEmpty();
+    }
+
     @AfterEach
     void tearDown() {
         // Nettoyer après chaque test
@@ -0,0 +1,190 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DebitZoneDTO;
+import com.smartlogi.sdms.dto.PointDebitDTO;
+import com.smartlogi.sdms.entity.CleDebit;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import com.smartlogi.sdms.repository.CompactionDebitRepository;
+import com.smartlogi.sdms.repository.CumulDebitHeureRepository;
+import com.smartlogi.sdms.repository.CumulDebitJourRepository;
+import com.smartlogi.sdms.repository.CumulDebitMinuteRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.service.support.DebitColis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cumuls de débit sur H2 : écriture, compaction minute → heure → jour, lecture à travers les granularités.
+ * Le composant est instancié activé, sans tâche planifiée ; les tables sont vidées après chaque test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - Cumuls de débit des colis")
+class DebitColisIntegrationTest {
+
+    @Autowired private CumulDebitMinuteRepository minuteRepository;
+    @Autowired private CumulDebitHeureRepository heureRepository;
+    @Autowired private CumulDebitJourRepository jourRepository;
+    @Autowired private CompactionDebitRepository compactionRepository;
+    @Autowired private ZoneRepository zoneRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Zone zone;
+
+    @BeforeEach
+    void setUp() {
+        zone = new Zone();
+        zone.setNom("Zone Débit");
+        zone.setVille("Rabat");
+        zone = zoneRepository.save(zone);
+    }
+
+    @AfterEach
+    void tearDown() {
+        minuteRepository.deleteAllInBatch();
+        heureRepository.deleteAllInBatch();
+        jourRepository.deleteAllInBatch();
+        compactionRepository.deleteAllInBatch();
+        zoneRepository.delete(zone);
+    }
+
+    @Test
+    @DisplayName("les statuts sont cumulés par minute, zone et statut ; une nouvelle écriture s'ajoute au cumul")
+    void testEcrire_CumulParMinute() {
+        DebitColis debit = debitColis(48);
+        LocalDateTime minute = LocalDateTime.now().minusMinutes(30).truncatedTo(ChronoUnit.MINUTES);
+        debit.enregistrer(zone.getId(), StatutColis.CREE, minute.plusSeconds(5));
+        debit.enregistrer(zone.getId(), StatutColis.CREE, minute.plusSeconds(40));
+        debit.enregistrer(zone.getId(), StatutColis.LIVRE, minute);
+        debit.enregistrer(null, StatutColis.CREE, minute);
+        debit.ecrire();
+        debit.enregistrer(zone.getId(), StatutColis.CREE, minute);
+        debit.ecrire();
+
+        DebitColisDTO resultat = debit.debit(minute.minusMinutes(5), LocalDateTime.now(), GranulariteDebit.MINUTE, null);
+
+        assertThat(resultat.getPas()).isEqualTo(GranulariteDebit.MINUTE);
+        assertThat(minuteRepository.count()).isEqualTo(3);
+        DebitZoneDTO parZone = serie(resultat, zone.getId());
+        assertThat(parZone.getZoneNom()).isEqualTo("Zone Débit");
+        assertThat(parZone.getPoints()).singleElement().satisfies(point -> {
+            assertThat(point.getDebut()).isEqualTo(minute);
+            assertThat(point.getParStatut()).isEqualTo(Map.of(StatutColis.CREE, 3L, StatutColis.LIVRE, 1L));
+        });
+        assertThat(serie(resultat, null).getPoints().get(0).getParStatut()).isEqualTo(Map.of(StatutColis.CREE, 1L));
+        // Filtre par zone
+        assertThat(debit.debit(minute, LocalDateTime.now(), GranulariteDebit.MINUTE, zone.getId()).getParZone()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("la compaction reporte minutes puis heures, purge les minutes et la lecture combine les granularités")
+    void testCompacter_LectureMultiGranularite() {
+        // Rétention d'une heure à la minute : les minutes compactées des jours précédents sont purgées
+        DebitColis debit = debitColis(1);
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime avantHier = maintenant.toLocalDate().minusDays(2).atStartOfDay();
+        LocalDateTime hier = maintenant.toLocalDate().minusDays(1).atStartOfDay();
+        debit.enregistrer(zone.getId(), StatutColis.LIVRE, avantHier.plusHours(10).plusMinutes(15));
+        debit.enregistrer(zone.getId(), StatutColis.LIVRE, avantHier.plusHours(10).plusMinutes(45));
+        debit.enregistrer(zone.getId(), StatutColis.LIVRE, hier.plusHours(9).plusMinutes(5));
+        debit.enregistrer(zone.getId(), StatutColis.LIVRE, maintenant);
+        debit.ecrire();
+
+        debit.compacter(); // premier passage : création des filigranes
+        debit.compacter();
+
+        assertThat(jourRepository.findPeriode(avantHier, hier.plusDays(1), null))
+                .extracting(cumul -> cumul.getId().getDebut(), cumul -> cumul.getNombre())
+                .containsExactlyInAnyOrder(
+                        tuple(avantHier, 2L),
+                        tuple(hier, 1L));
+        assertThat(minuteRepository.findPeriode(avantHier, hier.plusDays(1), null)).isEmpty();
+
+        // Scan antidaté, écrit après la compaction : ajouté directement aux heures et aux jours
+        debit.enregistrer(zone.getId(), StatutColis.LIVRE, avantHier.plusHours(10).plusMinutes(20));
+        debit.ecrire();
+
+        LocalDateTime fin = maintenant.plusMinutes(1);
+        DebitColisDTO parHeure = debit.debit(avantHier, fin, GranulariteDebit.HEURE, null);
+        assertThat(parHeure.getPas()).isEqualTo(GranulariteDebit.HEURE);
+        assertThat(serie(parHeure, zone.getId()).getPoints())
+                .extracting(PointDebitDTO::getDebut, point -> point.getParStatut().get(StatutColis.LIVRE))
+                .containsExactly(
+                        tuple(avantHier.plusHours(10), 3L),
+                        tuple(hier.plusHours(9), 1L),
+                        tuple(maintenant.truncatedTo(ChronoUnit.HOURS), 1L));
+
+        DebitColisDTO parJour = debit.debit(avantHier, fin, GranulariteDebit.JOUR, null);
+        assertThat(serie(parJour, zone.getId()).getPoints())
+                .extracting(point -> point.getParStatut().get(StatutColis.LIVRE))
+                .containsExactly(3L, 1L, 1L);
+
+        // Minutes purgées au-delà d'une heure : une demande à la minute est servie à l'heure
+        assertThat(debit.debit(avantHier, fin, GranulariteDebit.MINUTE, null).getPas()).isEqualTo(GranulariteDebit.HEURE);
+    }
+
+    @Test
+    @DisplayName("sans pas, la granularité dépend de la durée de la période")
+    void testDebit_GranulariteAutomatique() {
+        DebitColis debit = debitColis(48);
+        LocalDateTime maintenant = LocalDateTime.now();
+
+        assertThat(debit.debit(maintenant.minusHours(2), maintenant, null, null).getPas()).isEqualTo(GranulariteDebit.MINUTE);
+        assertThat(debit.debit(maintenant.minusDays(10), maintenant, null, null).getPas()).isEqualTo(GranulariteDebit.HEURE);
+        assertThat(debit.debit(maintenant.minusDays(200), maintenant, null, null).getPas()).isEqualTo(GranulariteDebit.JOUR);
+    }
+
+    @Test
+    @DisplayName("transaction annulée : rien n'est compté ; période invalide : 400 ; désactivé : 503")
+    void testEnregistrer_TransactionAnnuleeEtErreurs() {
+        DebitColis debit = debitColis(48);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            debit.enregistrer(zone.getId(), StatutColis.CREE, LocalDateTime.now());
+            status.setRollbackOnly();
+        });
+        debit.ecrire();
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        assertThat(debit.debit(maintenant.minusHours(1), maintenant.plusMinutes(1), null, null).getParZone()).isEmpty();
+        assertThrows(InvalidDataException.class, () -> debit.debit(maintenant, maintenant, null, null));
+
+        DebitColis inactif = new DebitColis(minuteRepository, heureRepository, jourRepository, compactionRepository,
+                zoneRepository, transactionManager, new SimpleMeterRegistry(), false, 48, 92, 730, 0);
+        assertThrows(ResponseStatusException.class, () -> inactif.debit(maintenant.minusHours(1), maintenant, null, null));
+    }
+
+    private DebitColis debitColis(int retentionMinuteHeures) {
+        return new DebitColis(minuteRepository, heureRepository, jourRepository, compactionRepository,
+                zoneRepository, transactionManager, new SimpleMeterRegistry(), true, retentionMinuteHeures, 92, 730, 0);
+    }
+
+    private static DebitZoneDTO serie(DebitColisDTO debit, String zoneId) {
+        List<DebitZoneDTO> series = debit.getParZone().stream()
+                .filter(serie -> zoneId == null ? serie.getZoneId() == null : zoneId.equals(serie.getZoneId()))
+                .toList();
+        assertThat(series).as("série de la zone %s", zoneId != null ? zoneId : CleDebit.SANS_ZONE).hasSize(1);
+        return series.get(0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.config.security.EtatUtilisateurCache;
+import com.smartlogi.sdms.entity.GestionnaireLogistique;
+import com.smartlogi.sdms.entity.Utilisateur;
+import com.smartlogi.sdms.repository.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * État des comptes pour les JWT sur H2 : version des jetons, désactivation et cache.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - État des utilisateurs pour les JWT")
+class EtatUtilisateurCacheIntegrationTest {
+
+    @Autowired private UtilisateurRepository utilisateurRepository;
+    @Autowired private EtatUtilisateurCache etatUtilisateurCache;
+
+    private Utilisateur utilisateur;
+
+    @BeforeEach
+    void setUp() {
+        GestionnaireLogistique gestionnaire = new GestionnaireLogistique();
+        gestionnaire.setNom("Idrissi");
+        gestionnaire.setPrenom("Sara");
+        gestionnaire.setEmail("sara.idrissi.etat@test.com");
+        gestionnaire.setPassword("password");
+        utilisateur = utilisateurRepository.save(gestionnaire);
+    }
+
+    @AfterEach
+    void tearDown() {
+        etatUtilisateurCache.invalider(utilisateur.getId());
+        utilisateurRepository.deleteById(utilisateur.getId());
+    }
+
+    @Test
+    @DisplayName("révoquer incrémente la version : les jetons déjà émis sont refusés")
+    void testRevoquer_InvalideLesJetonsEmis() {
+        assertThat(etatUtilisateurCache.estValide(utilisateur.getId(), 0)).isTrue();
+
+        etatUtilisateurCache.revoquer(utilisateur.getId());
+
+        assertThat(etatUtilisateurCache.estValide(utilisateur.getId(), 0)).isFalse();
+        assertThat(etatUtilisateurCache.estValide(utilisateur.getId(), 1)).isTrue();
+        assertThat(utilisateurRepository.findEtatById(utilisateur.getId()).orElseThrow().getJetonVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("un compte désactivé est refusé une fois le cache invalidé ; un compte inconnu est refusé")
+    void testCompteDesactiveOuInconnu() {
+        assertThat(etatUtilisateurCache.estValide(utilisateur.getId(), 0)).isTrue();
+
+        utilisateur.setEnabled(false);
+        utilisateurRepository.save(utilisateur);
+        // Encore servi par le cache jusqu'à l'invalidation (ou l'expiration)
+        assertThat(etatUtilisateurCache.estValide(utilisateur.getId(), 0)).isTrue();
+
+        etatUtilisateurCache.invalider(utilisateur.getId());
+        assertThat(etatUtilisateurCache.estValide(utilisateur.getId(), 0)).isFalse();
+        assertThat(etatUtilisateurCache.estValide("utilisateur-inconnu", 0)).isFalse();
+    }
+}
@@ -0,0 +1,143 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.dto.ColisProduitDTO;
+import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.HistoriqueLivraison;
+import com.smartlogi.sdms.entity.Produit;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.repository.*;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import com.smartlogi.sdms.service.interfaces.HistoriqueLivraisonService;
+import com.smartlogi.sdms.service.support.HistoriqueWriteBehind;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Écriture différée des historiques : file de 2 éléments et thread d'écriture quasi inactif,
+ * pour observer le vidage synchrone sur file pleine et la lecture des historiques en attente.
+ */
+@SpringBootTest(properties = {
+        "sdms.historique.write-behind.enabled=true",
+        "sdms.historique.write-behind.capacite=2",
+        "sdms.historique.write-behind.intervalle-ms=600000"
+})
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - Écriture différée des historiques")
+class HistoriqueWriteBehindIntegrationTest {
+
+    @Autowired private ColisService colisService;
+    @Autowired private HistoriqueLivraisonService historiqueLivraisonService;
+    @Autowired private HistoriqueWriteBehind historiqueWriteBehind;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private HistoriqueLivraisonRepository historiqueLivraisonRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+    @Autowired private ProduitRepository produitRepository;
+
+    private ColisDTO colisDTO;
+
+    @BeforeEach
+    void setUp() {
+        historiqueWriteBehind.vider();
+        historiqueLivraisonRepository.deleteAll();
+        colisRepository.deleteAll();
+        produitRepository.deleteAll();
+        destinataireRepository.deleteAll();
+        clientExpediteurRepository.deleteAll();
+
+        ClientExpediteur client = new ClientExpediteur();
+        client.setNom("Write");
+        client.setEmail("write.behind.client@test.com");
+        client = clientExpediteurRepository.save(client);
+
+        Destinataire destinataire = new Destinataire();
+        destinataire.setNom("Behind");
+        destinataire.setEmail("write.behind.dest@test.com");
+        destinataire = destinataireRepository.save(destinataire);
+
+        Produit produit = new Produit();
+        produit.setNom("Produit");
+        produit.setPoids(1.0);
+        produit.setPrix(BigDecimal.ONE);
+        produit = produitRepository.save(produit);
+
+        ColisProduitDTO ligne = new ColisProduitDTO();
+        ligne.setProduitId(produit.getId());
+        ligne.setQuantite(1);
+
+        colisDTO = new ColisDTO();
+        colisDTO.setDescription("Colis write-behind");
+        colisDTO.setPriorite(Priorite.NORMALE);
+        colisDTO.setVilleDestination("Rabat");
+        colisDTO.setClientExpediteurId(client.getId());
+        colisDTO.setDestinataireId(destinataire.getId());
+        colisDTO.setProduits(List.of(ligne));
+    }
+
+    @Test
+    @DisplayName("les historiques sont lisibles avant écriture, vidés sur file pleine puis écrits dans l'ordre")
+    void testEcritureDifferee() {
+        double vidagesAvant = meterRegistry.get("sdms.historique.write_behind.vidages_synchrones").counter().count();
+
+        String colisId = colisService.creerDemandeLivraison(colisDTO).getId();
+        colisService.updateStatutColis(colisId, StatutColis.COLLECTE, "collecte");
+
+        // Deux historiques en file (capacité atteinte), rien en base
+        assertThat(historiqueLivraisonRepository.count()).isZero();
+        assertThat(historiqueLivraisonService.findHistoriqueByColisId(colisId))
+                .extracting(HistoriqueLivraisonDTO::getStatut)
+                .containsExactly(StatutColis.COLLECTE, StatutColis.CREE);
+
+        // Le troisième déclenche un vidage synchrone des deux premiers
+        colisService.updateStatutColis(colisId, StatutColis.EN_STOCK, "stock");
+        assertThat(historiqueLivraisonRepository.count()).isEqualTo(2);
+        assertThat(meterRegistry.get("sdms.historique.write_behind.vidages_synchrones").counter().count())
+                .isEqualTo(vidagesAvant + 1);
+        assertThat(historiqueLivraisonService.findHistoriqueByColisId(colisId)).hasSize(3);
+
+        historiqueWriteBehind.vider();
+
+        assertThat(historiqueLivraisonRepository.count()).isEqualTo(3);
+        assertThat(meterRegistry.get("sdms.historique.write_behind.profondeur").gauge().value()).isZero();
+        assertThat(historiqueLivraisonService.findHistoriqueByColisId(colisId))
+                .extracting(HistoriqueLivraisonDTO::getStatut)
+                .containsExactly(StatutColis.EN_STOCK, StatutColis.COLLECTE, StatutColis.CREE);
+    }
+
+    @Test
+    @DisplayName("un historique antidaté est ramené à la date de création du colis")
+    void testHistoriqueAntidate_BorneCreation() {
+        String colisId = colisService.creerDemandeLivraison(colisDTO).getId();
+        Colis colis = colisRepository.findById(colisId).orElseThrow();
+
+        HistoriqueLivraison historique = new HistoriqueLivraison();
+        historique.setColis(colis);
+        historique.setStatut(StatutColis.COLLECTE);
+        historique.setDateChangement(colis.getDateCreation().minusDays(40));
+        historiqueWriteBehind.ajouter(historique);
+        historiqueWriteBehind.vider();
+
+        assertThat(historiqueLivraisonRepository.findById(historique.getId()).orElseThrow().getDateChangement())
+                .isEqualTo(colis.getDateCreation());
+        assertThat(historiqueLivraisonService.findHistoriqueByColisId(colisId))
+                .extracting(HistoriqueLivraisonDTO::getStatut)
+                .containsExactlyInAnyOrder(StatutColis.COLLECTE, StatutColis.CREE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.smartlogi.sdms.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Limitation de débit dans la chaîne de sécurité complète : un seul prélèvement par requête
+ * (filtre aussi enregistré auprès du conteneur) et rejet avant l'authentification des endpoints publics.
+ */
+@SpringBootTest(properties = {
+        "sdms.limitation-debit.enabled=true",
+        "sdms.limitation-debit.anonyme=3/0.01",
+        "sdms.limitation-debit.endpoints=POST /auth/login=1/0.01"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - Limitation de débit")
+class LimitationDebitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("une IP anonyme obtient exactement sa rafale, puis 429 ; la limite de /auth/login s'y ajoute")
+    void testRafaleAnonyme_Puis429() throws Exception {
+        String login = "{\"email\":\"inconnu@test.com\",\"password\":\"mauvais\"}";
+        mockMvc.perform(post("/auth/login").with(ip("10.1.0.1")).contentType(MediaType.APPLICATION_JSON).content(login))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/login").with(ip("10.1.0.1")).contentType(MediaType.APPLICATION_JSON).content(login))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.path").value("/auth/login"));
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/colis").with(ip("10.1.0.2"))).andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(get("/api/v1/colis").with(ip("10.1.0.2"))).andExpect(status().isTooManyRequests());
+    }
+
+    private static RequestPostProcessor ip(String adresse) {
+        return request -> {
+            request.setRemoteAddr(adresse);
+            return request;
+        };
+    }
+}
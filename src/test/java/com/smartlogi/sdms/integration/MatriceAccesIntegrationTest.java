@@ -0,0 +1,93 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.dto.admin.PermissionDTO;
+import com.smartlogi.sdms.dto.admin.RoleDTO;
+import com.smartlogi.sdms.service.interfaces.AdminService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Matrice d'accès : chaque rôle porte ici toutes les permissions, et les endpoints protégés par
+ * {@code hasRole(...) or hasAuthority(...)} restent réservés aux seuls rôles nommés. Les permissions du modèle
+ * compilé (ModelePermissions) n'élargissent pas les autorisations.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Tests d'Intégration - Matrice d'accès par rôle")
+class MatriceAccesIntegrationTest {
+
+    private static final List<String> ROLES = List.of("ADMIN", "MANAGER", "CLIENT", "DELIVERY", "VIEWER");
+    private static final List<String> PERMISSIONS = List.of("USER_MANAGE", "ZONE_MANAGE", "LIVREUR_MANAGE",
+            "STATS_VIEW", "COLIS_READ", "ROLE_MANAGE");
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private AdminService adminService;
+
+    private final List<RoleDTO> roles = new ArrayList<>();
+    private final List<PermissionDTO> permissions = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        for (String nom : PERMISSIONS) {
+            String[] parties = nom.split("_");
+            permissions.add(adminService.createPermission(new PermissionDTO(null, nom, nom, parties[0], parties[1], true)));
+        }
+        for (String nom : ROLES) {
+            RoleDTO role = adminService.createRole(new RoleDTO(null, nom, nom, true));
+            for (PermissionDTO permission : permissions) {
+                adminService.assignPermissionToRole(role.getId(), permission.getId());
+            }
+            roles.add(role);
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        roles.forEach(role -> adminService.deleteRole(role.getId()));
+        permissions.forEach(permission -> adminService.deletePermission(permission.getId()));
+    }
+
+    @ParameterizedTest(name = "{0} : {1}")
+    @CsvSource(delimiter = ';', value = {
+            "/api/v1/client-expediteurs;MANAGER",
+            "/api/v1/destinataires;MANAGER",
+            "/api/v1/zones;MANAGER",
+            "/api/v1/livreurs;MANAGER",
+            "/api/v1/gestion/statistiques;MANAGER",
+            "/api/v1/colis;MANAGER",
+            "/api/v1/admin/roles;ADMIN"})
+    @DisplayName("seuls les rôles nommés par l'endpoint y accèdent, quelles que soient les permissions du rôle")
+    void testMatrice(String endpoint, String autorises) throws Exception {
+        Set<String> attendus = Set.of(autorises.split(" "));
+        for (String role : ROLES) {
+            int statut = mockMvc.perform(get(endpoint).with(user(role.toLowerCase() + "@test.com").roles(role)))
+                    .andReturn().getResponse().getStatus();
+
+            if (attendus.contains(role)) {
+                assertThat(statut).as("%s sur %s", role, endpoint).isNotEqualTo(HttpStatus.FORBIDDEN.value());
+            } else {
+                assertThat(statut).as("%s sur %s", role, endpoint).isEqualTo(HttpStatus.FORBIDDEN.value());
+            }
+        }
+    }
+}
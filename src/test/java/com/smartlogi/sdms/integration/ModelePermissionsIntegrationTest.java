@@ -0,0 +1,94 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.config.security.ModelePermissions;
+import com.smartlogi.sdms.dto.admin.PermissionDTO;
+import com.smartlogi.sdms.dto.admin.RoleDTO;
+import com.smartlogi.sdms.entity.VersionPermissions;
+import com.smartlogi.sdms.repository.VersionPermissionsRepository;
+import com.smartlogi.sdms.service.interfaces.AdminService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modèle RBAC compilé sur H2 : recompilation après les modifications d'AdminService ou d'une autre instance
+ * (version partagée). Les autorisations HTTP n'en dépendent pas (voir MatriceAccesIntegrationTest).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Tests d'Intégration - Modèle de permissions compilé")
+class ModelePermissionsIntegrationTest {
+
+    @Autowired private AdminService adminService;
+    @Autowired private ModelePermissions modelePermissions;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private VersionPermissionsRepository versionRepository;
+
+    private RoleDTO role;
+    private PermissionDTO permission;
+
+    @BeforeEach
+    void setUp() {
+        role = adminService.createRole(new RoleDTO(null, "CLIENT", "Client expéditeur", true));
+        permission = adminService.createPermission(new PermissionDTO(null, "ZONE_MANAGE", "Gestion des zones", "ZONE", "MANAGE", true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        adminService.deleteRole(role.getId());
+        adminService.deletePermission(permission.getId());
+    }
+
+    @Test
+    @DisplayName("une permission assignée puis retirée au rôle est accordée puis refusée, sans redémarrage")
+    void testAssignation_RecompileLeModele() {
+        assertThat(autorise()).isFalse();
+
+        adminService.assignPermissionToRole(role.getId(), permission.getId());
+        assertThat(autorise()).isTrue();
+
+        adminService.removePermissionFromRole(role.getId(), permission.getId());
+        assertThat(autorise()).isFalse();
+    }
+
+    @Test
+    @DisplayName("une modification faite par une autre instance est prise en compte à la vérification de version")
+    void testAutreInstance_VersionPartagee() {
+        assertThat(autorise()).isFalse();
+
+        // Autre instance : écriture directe en base et incrément de version, sans recompilation locale
+        jdbcTemplate.update("INSERT INTO role_permission (role_id, permission_id) VALUES (?, ?)",
+                role.getId(), permission.getId());
+        versionRepository.incrementer(VersionPermissions.ID);
+        assertThat(autorise()).isFalse();
+
+        modelePermissions.verifierVersion();
+
+        assertThat(autorise()).isTrue();
+    }
+
+    @Test
+    @DisplayName("un rôle désactivé perd ses permissions")
+    void testRoleDesactive() {
+        adminService.assignPermissionToRole(role.getId(), permission.getId());
+        assertThat(autorise()).isTrue();
+
+        adminService.setRoleActive(role.getId(), false);
+
+        assertThat(autorise()).isFalse();
+    }
+
+    private boolean autorise() {
+        return modelePermissions.autorise(List.of(new SimpleGrantedAuthority("ROLE_CLIENT")), "ZONE_MANAGE");
+    }
+}
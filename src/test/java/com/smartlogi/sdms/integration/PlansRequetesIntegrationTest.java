@@ -0,0 +1,239 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import com.smartlogi.sdms.repository.ClientExpediteurRepository;
+import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.DestinataireRepository;
+import com.smartlogi.sdms.repository.HistoriqueLivraisonRepository;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.repository.specification.ColisSpecification;
+import com.smartlogi.sdms.util.CaptureSql;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Non-régression des plans d'exécution : les index des changelogs 013, 014 et 018 sont appliqués à la base H2
+ * de test, puis le SQL réellement émis par les repositories est passé à EXPLAIN. Chaque chemin chaud doit
+ * accéder à la table par une recherche d'index sur sa colonne de filtre, et non par un parcours ou une jointure.
+ * <p>
+ * H2 indexe d'office les clés étrangères et peut retenir ces index à la place de ceux du changelog ; PostgreSQL
+ * n'en crée pas. Le test vérifie donc aussi qu'un index du changelog commence par la colonne de filtre.
+ * Les index partiels (PostgreSQL uniquement) ne sont pas vérifiables ici.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.smartlogi.sdms.util.CaptureSql")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Tests d'Intégration - Plans d'exécution des requêtes colis et historique")
+class PlansRequetesIntegrationTest {
+
+    private static final List<String> CHANGELOGS_INDEX = List.of(
+            "db/changelog/013-colis-keyset-indexes.xml",
+            "db/changelog/014-historique-analyse-indexes.xml",
+            "db/changelog/018-colis-index-pack.xml");
+
+    private static final int NOMBRE_COLIS = 4000;
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dateCreation", "id"));
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ColisRepository colisRepository;
+    @Autowired private HistoriqueLivraisonRepository historiqueLivraisonRepository;
+    @Autowired private ZoneRepository zoneRepository;
+    @Autowired private LivreurRepository livreurRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+
+    private final List<Zone> zones = new ArrayList<>();
+    private final List<Livreur> livreurs = new ArrayList<>();
+    private ClientExpediteur client;
+    private Destinataire destinataire;
+    private final List<String> colisIds = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() throws Exception {
+        appliquerChangelogsIndex();
+
+        client = new ClientExpediteur();
+        client.setNom("Client Plans");
+        client.setEmail("client.plans@test.com");
+        client = clientExpediteurRepository.save(client);
+        destinataire = new Destinataire();
+        destinataire.setNom("Destinataire Plans");
+        destinataire.setEmail("destinataire.plans@test.com");
+        destinataire = destinataireRepository.save(destinataire);
+        for (int i = 0; i < 40; i++) {
+            Zone zone = new Zone();
+            zone.setNom("Zone Plans " + i);
+            zone.setVille("Rabat");
+            zones.add(zoneRepository.save(zone));
+            Livreur livreur = new Livreur();
+            livreur.setNom("Plans");
+            livreur.setPrenom("Livreur " + i);
+            livreur.setEmail("livreur.plans." + i + "@test.com");
+            livreurs.add(livreurRepository.save(livreur));
+        }
+
+        // Volume et répartition réalistes (un livreur, une zone ou un destinataire ne portent qu'une petite
+        // fraction des colis) : l'optimiseur compare alors vraiment index de filtre et index de tri
+        StatutColis[] statuts = StatutColis.values();
+        LocalDateTime debut = LocalDateTime.now().minusDays(30);
+        List<Object[]> lignesColis = new ArrayList<>();
+        List<Object[]> lignesHistorique = new ArrayList<>();
+        for (int i = 0; i < NOMBRE_COLIS; i++) {
+            String colisId = TimeOrderedUuidGenerator.nextId();
+            Timestamp creation = Timestamp.valueOf(debut.plusMinutes(i * 10L));
+            lignesColis.add(new Object[]{colisId, statuts[i % statuts.length].name(), creation, creation, client.getId(),
+                    i % 100 == 0 ? destinataire.getId() : null,
+                    zones.get(i % zones.size()).getId(), livreurs.get(i % livreurs.size()).getId()});
+            for (int j = 0; j < 3; j++) {
+                lignesHistorique.add(new Object[]{TimeOrderedUuidGenerator.nextId(), colisId,
+                        Timestamp.valueOf(creation.toLocalDateTime().plusHours(j))});
+            }
+            colisIds.add(colisId);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO colis (id, description, poids_total, statut, priorite, ville_destination, "
+                + "date_creation, date_dernier_statut, version, client_expediteur_id, destinataire_id, zone_id, livreur_id) "
+                + "VALUES (?, 'Colis plans', 1.5, ?, 'NORMALE', 'Rabat', ?, ?, 0, ?, ?, ?, ?)", lignesColis);
+        jdbcTemplate.batchUpdate("INSERT INTO historique_livraison (id, colis_id, statut, date_changement) "
+                + "VALUES (?, ?, 'CREE', ?)", lignesHistorique);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM historique_livraison WHERE colis_id IN (SELECT id FROM colis WHERE client_expediteur_id = ?)",
+                client.getId());
+        jdbcTemplate.update("DELETE FROM colis WHERE client_expediteur_id = ?", client.getId());
+        livreurRepository.deleteAll(livreurs);
+        zoneRepository.deleteAll(zones);
+        clientExpediteurRepository.delete(client);
+        destinataireRepository.delete(destinataire);
+    }
+
+    @Test
+    @DisplayName("colis d'un destinataire : index (destinataire_id, date_creation, id)")
+    void testColisParDestinataire() {
+        CaptureSql.demarrer();
+        colisRepository.findSliceByDestinataireId(destinataire.getId(), PAGE);
+
+        assertThat(plan(CaptureSql.arreter())).containsPattern(rechercheIndex("DESTINATAIRE_ID")).doesNotContain("UTILISATEUR");
+        assertThat(premiereColonne("IDX_COLIS_DESTINATAIRE_DATE_CREATION_ID")).isEqualTo("DESTINATAIRE_ID");
+    }
+
+    @Test
+    @DisplayName("colis d'un livreur : index (livreur_id, date_creation, id)")
+    void testColisParLivreur() {
+        CaptureSql.demarrer();
+        colisRepository.findSliceByLivreurId(livreurs.get(0).getId(), PAGE);
+
+        assertThat(plan(CaptureSql.arreter())).containsPattern(rechercheIndex("LIVREUR_ID")).doesNotContain("UTILISATEUR");
+        assertThat(premiereColonne("IDX_COLIS_LIVREUR_DATE_CREATION_ID")).isEqualTo("LIVREUR_ID");
+    }
+
+    @Test
+    @DisplayName("filtre par statut : index (statut, date_creation, id) ; statut et zone : index (zone_id, statut)")
+    void testFiltreStatutEtZone() {
+        CaptureSql.demarrer();
+        colisRepository.findAll(ColisSpecification.findByCriteria(StatutColis.EN_STOCK, null, null, null), PAGE);
+        assertThat(plan(CaptureSql.arreter())).contains("IDX_COLIS_STATUT_DATE_CREATION_ID");
+
+        CaptureSql.demarrer();
+        colisRepository.findAll(ColisSpecification.findByCriteria(StatutColis.EN_STOCK, zones.get(1).getId(), null, null), PAGE);
+        assertThat(plan(CaptureSql.arreter())).contains("IDX_COLIS_ZONE_STATUT");
+    }
+
+    @Test
+    @DisplayName("statistiques des colis actifs : pas de parcours complet de la table colis")
+    void testStatistiquesColisActifs() {
+        CaptureSql.demarrer();
+        colisRepository.findStatistiquesParLivreur();
+        assertThat(plan(CaptureSql.arreter())).doesNotContain("COLIS.tableScan").containsPattern("PUBLIC\\.IDX_COLIS_");
+
+        CaptureSql.demarrer();
+        colisRepository.findStatistiquesParZone();
+        assertThat(plan(CaptureSql.arreter())).doesNotContain("COLIS.tableScan").containsPattern("PUBLIC\\.IDX_COLIS_");
+    }
+
+    @Test
+    @DisplayName("historique d'un colis : lecture par index sur colis_id, bornée par la création, sans jointure sur colis")
+    void testHistoriqueParColis() {
+        CaptureSql.demarrer();
+        historiqueLivraisonRepository.findAllByColisIdDepuis(colisIds.get(42), LocalDateTime.now().minusDays(1));
+
+        // La borne sur date_changement fait retenir (colis_id, date_changement), recherché sur ses deux colonnes
+        assertThat(plan(CaptureSql.arreter()))
+                .containsPattern("IDX_HISTORIQUE_COLIS_DATE_CHANGEMENT: COLIS_ID = \\?1\\s+AND DATE_CHANGEMENT >= \\?2\\s+\\*/")
+                .doesNotContain("tableScan")
+                .doesNotContain("JOIN");
+    }
+
+    /**
+     * Plan H2 de la première requête relevée (paramètres laissés libres).
+     */
+    private String plan(List<String> requetes) {
+        assertThat(requetes).as("requêtes relevées").isNotEmpty();
+        return jdbcTemplate.queryForObject("EXPLAIN " + requetes.get(0), String.class);
+    }
+
+    /**
+     * Accès par index sur la colonne de filtre, tel qu'H2 l'annote dans le plan (PUBLIC.NOM_INDEX: COLONNE = ?1).
+     */
+    private static String rechercheIndex(String colonne) {
+        return "/\\* PUBLIC\\.\\w+: " + colonne + " = \\?1 \\*/";
+    }
+
+    private String premiereColonne(String index) {
+        return jdbcTemplate.queryForObject("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                + "WHERE INDEX_NAME = ? AND ORDINAL_POSITION = 1", String.class, index);
+    }
+
+    /**
+     * Crée les index des changelogs sur le schéma généré par Hibernate, une fois par base H2.
+     */
+    private void appliquerChangelogsIndex() throws Exception {
+        Integer existants = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_COLIS_ZONE_STATUT'", Integer.class);
+        if (existants != null && existants > 0) {
+            return;
+        }
+        // Suivi Liquibase laissé par un contexte précédent, dont le schéma a été recréé depuis
+        jdbcTemplate.execute("DROP TABLE IF EXISTS DATABASECHANGELOG");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS DATABASECHANGELOGLOCK");
+        for (String changelog : CHANGELOGS_INDEX) {
+            try (Connection connection = dataSource.getConnection()) {
+                Liquibase liquibase = new Liquibase(changelog, new ClassLoaderResourceAccessor(), new JdbcConnection(connection));
+                liquibase.update("");
+            }
+        }
+    }
+}
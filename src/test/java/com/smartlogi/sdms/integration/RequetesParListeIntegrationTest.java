@@ -0,0 +1,224 @@
+package com.smartlogi.sdms.integration;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Destinataire;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.Produit;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.generator.TimeOrderedUuidGenerator;
+import com.smartlogi.sdms.repository.ClientExpediteurRepository;
+import com.smartlogi.sdms.repository.DestinataireRepository;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import com.smartlogi.sdms.repository.ProduitRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.util.CaptureSql;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nombre de requêtes SQL par liste de colis : chaque endpoint de liste est appelé avec des pages de 2 puis de 10 colis
+ * (trois produits par colis). Le nombre de requêtes relevé doit être le même pour les deux tailles et rester borné :
+ * pas de chargement des lignes de produits colis par colis à la conversion en DTO.
+ * <p>
+ * Seules les requêtes Hibernate sur les tables de colis sont relevées (CaptureSql) ; avec total, la liste continue dans l'archive
+ * pour les endpoints client et destinataire, d'où une lecture supplémentaire. La lecture d'un colis par identifiant
+ * se limite à une requête, contrôle d'accès compris.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.smartlogi.sdms.util.CaptureSql")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WithMockUser(username = "manager@test.com", roles = {"MANAGER"})
+@DisplayName("Tests d'Intégration - Requêtes SQL par page des listes de colis")
+class RequetesParListeIntegrationTest {
+
+    private static final int NOMBRE_COLIS = 12;
+    private static final int PRODUITS_PAR_COLIS = 3;
+    private static final int MAX_REQUETES = 6;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ZoneRepository zoneRepository;
+    @Autowired private LivreurRepository livreurRepository;
+    @Autowired private ClientExpediteurRepository clientExpediteurRepository;
+    @Autowired private DestinataireRepository destinataireRepository;
+    @Autowired private ProduitRepository produitRepository;
+
+    private Zone zone;
+    private Livreur livreur;
+    private ClientExpediteur client;
+    private Destinataire destinataire;
+    private final List<Produit> produits = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        zone = new Zone();
+        zone.setNom("Zone Requêtes");
+        zone.setVille("Tanger");
+        zone = zoneRepository.save(zone);
+        livreur = new Livreur();
+        livreur.setNom("Requêtes");
+        livreur.setPrenom("Livreur");
+        livreur.setEmail("livreur.requetes@test.com");
+        livreur = livreurRepository.save(livreur);
+        client = new ClientExpediteur();
+        client.setNom("Client Requêtes");
+        client.setEmail("client.requetes@test.com");
+        client = clientExpediteurRepository.save(client);
+        destinataire = new Destinataire();
+        destinataire.setNom("Destinataire Requêtes");
+        destinataire.setEmail("destinataire.requetes@test.com");
+        destinataire = destinataireRepository.save(destinataire);
+        for (int i = 0; i < PRODUITS_PAR_COLIS; i++) {
+            Produit produit = new Produit();
+            produit.setNom("Produit Requêtes " + i);
+            produit.setPoids(1.0);
+            produit.setPrix(BigDecimal.ONE);
+            produits.add(produitRepository.save(produit));
+        }
+
+        LocalDateTime debut = LocalDateTime.now().minusDays(1);
+        List<Object[]> lignesColis = new ArrayList<>();
+        List<Object[]> lignesProduits = new ArrayList<>();
+        for (int i = 0; i < NOMBRE_COLIS; i++) {
+            String colisId = TimeOrderedUuidGenerator.nextId();
+            Timestamp creation = Timestamp.valueOf(debut.plusMinutes(i));
+            lignesColis.add(new Object[]{colisId, creation, creation, client.getId(), destinataire.getId(),
+                    zone.getId(), livreur.getId()});
+            for (Produit produit : produits) {
+                lignesProduits.add(new Object[]{TimeOrderedUuidGenerator.nextId(), creation, colisId, produit.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO colis (id, description, poids_total, statut, priorite, ville_destination, "
+                + "date_creation, date_dernier_statut, version, client_expediteur_id, destinataire_id, zone_id, livreur_id) "
+                + "VALUES (?, 'Colis requêtes', 3.0, 'EN_STOCK', 'NORMALE', 'Tanger', ?, ?, 0, ?, ?, ?, ?)", lignesColis);
+        jdbcTemplate.batchUpdate("INSERT INTO colis_produit (id, quantite, date_ajout, colis_id, produit_id) "
+                + "VALUES (?, 2, ?, ?, ?)", lignesProduits);
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM colis_produit WHERE colis_id IN (SELECT id FROM colis WHERE client_expediteur_id = ?)",
+                client.getId());
+        jdbcTemplate.update("DELETE FROM colis WHERE client_expediteur_id = ?", client.getId());
+        produitRepository.deleteAll(produits);
+        livreurRepository.delete(livreur);
+        zoneRepository.delete(zone);
+        clientExpediteurRepository.delete(client);
+        destinataireRepository.delete(destinataire);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"/api/v1/colis?zoneId=%s&withTotal=true", "/api/v1/colis?zoneId=%s&withTotal=false",
+            "/api/v1/colis/livreur/%s?withTotal=true", "/api/v1/colis/livreur/%s?withTotal=false",
+            "/api/v1/colis/client/%s?withTotal=true", "/api/v1/colis/client/%s?withTotal=false",
+            "/api/v1/colis/destinataire/%s?withTotal=true", "/api/v1/colis/destinataire/%s?withTotal=false"})
+    @DisplayName("listes paginées : nombre de requêtes indépendant de la taille de la page")
+    void testListesPaginees(String modele) throws Exception {
+        String url = String.format(modele, identifiant(modele));
+
+        List<String> petitePage = requetes(url + "&size=2", "$.content", 2);
+        List<String> grandePage = requetes(url + "&size=10", "$.content", 10);
+
+        assertThat(grandePage).hasSameSizeAs(petitePage).hasSizeLessThanOrEqualTo(MAX_REQUETES);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"/api/v1/colis/curseur?zoneId=%s", "/api/v1/colis/livreur/%s/curseur",
+            "/api/v1/colis/client/%s/curseur"})
+    @DisplayName("listes par curseur : nombre de requêtes indépendant de la taille de la page")
+    void testListesParCurseur(String modele) throws Exception {
+        String url = String.format(modele, identifiant(modele));
+        String separateur = url.contains("?") ? "&" : "?";
+
+        List<String> petitePage = requetes(url + separateur + "taille=2", "$.contenu", 2);
+        List<String> grandePage = requetes(url + separateur + "taille=10", "$.contenu", 10);
+
+        assertThat(grandePage).hasSameSizeAs(petitePage).hasSizeLessThanOrEqualTo(MAX_REQUETES);
+    }
+
+    @Test
+    @DisplayName("GET /colis/{id} : contrôle d'accès, ETag et corps servis par une seule lecture du colis")
+    void testColisParId_UneSeuleLecture() throws Exception {
+        String colisId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM colis WHERE client_expediteur_id = ?",
+                String.class, client.getId());
+        CustomUserDetails proprietaire = new CustomUserDetails(client);
+
+        for (RequestPostProcessor utilisateur : List.of(user(proprietaire), user("manager@test.com").roles("MANAGER"))) {
+            List<String> requetes;
+            ResultActions resultat;
+            CaptureSql.demarrer();
+            try {
+                resultat = mockMvc.perform(get("/api/v1/colis/{id}", colisId).with(utilisateur));
+            } finally {
+                requetes = CaptureSql.arreter().stream().filter(sql -> sql.contains(" colis")).toList();
+            }
+            resultat.andExpect(status().isOk())
+                    .andExpect(jsonPath("$.produits", hasSize(PRODUITS_PAR_COLIS)));
+            assertThat(requetes).hasSize(1);
+        }
+    }
+
+    private String identifiant(String modele) {
+        if (modele.contains("/livreur/")) {
+            return livreur.getId();
+        }
+        if (modele.contains("/client/")) {
+            return client.getId();
+        }
+        if (modele.contains("/destinataire/")) {
+            return destinataire.getId();
+        }
+        return zone.getId();
+    }
+
+    /**
+     * Appelle l'endpoint, vérifie la taille de la page et la présence des produits de chaque colis,
+     * et renvoie les requêtes SQL émises pendant l'appel sur les tables de colis (les autres lectures, comme
+     * le chargement initial des rôles en cache, ne dépendent pas de la liste).
+     */
+    private List<String> requetes(String url, String contenu, int taille) throws Exception {
+        ResultActions resultat;
+        List<String> requetes;
+        CaptureSql.demarrer();
+        try {
+            resultat = mockMvc.perform(get(url));
+        } finally {
+            requetes = CaptureSql.arreter().stream().filter(sql -> sql.contains(" colis")).toList();
+        }
+
+        resultat.andExpect(status().isOk())
+                .andExpect(jsonPath(contenu, hasSize(taille)))
+                .andExpect(jsonPath(contenu + "[*].produits[*]", hasSize(taille * PRODUITS_PAR_COLIS)));
+        return requetes;
+    }
+}
@@ -1,7 +1,10 @@
 package com.smartlogi.sdms.security;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlogi.sdms.config.security.CookieRafraichissement;
 import com.smartlogi.sdms.dto.auth.LoginRequest;
+import com.smartlogi.sdms.dto.auth.RefreshRequest;
 import com.smartlogi.sdms.entity.GestionnaireLogistique;
 import com.smartlogi.sdms.repository.UtilisateurRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +14,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import jakarta.servlet.http.Cookie;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
@@ -18,6 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -77,7 +83,8 @@ class AuthenticationIntegrationTest {
                 .andExpect(jsonPath("$.type").value("Bearer"))
                 .andExpect(jsonPath("$.expiresIn").isNumber())
                 .andExpect(jsonPath("$.email").value(TEST_EMAIL))
-                .andExpect(jsonPath("$.role").value("GESTIONNAIRE"));
+                .andExpect(jsonPath("$.role").value("GESTIONNAIRE"))
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
         }
 
         @Test
@@ -206,10 +213,85 @@ class AuthenticationIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tests de rafraîchissement de token")
+    class RefreshTests {
+
+        @Test
+        @DisplayName("POST /auth/refresh - Émet un nouveau JWT et un nouveau jeton de rafraîchissement")
+        void refresh_WithValidRefreshToken_ReturnsNewTokens() throws Exception {
+            JsonNode connexion = login();
+            String refreshToken = connexion.get("refreshToken").asText();
+
+            JsonNode rafraichi = refresh(refreshToken, 200);
+
+            assertThat(rafraichi.get("refreshToken").asText()).isNotBlank().isNotEqualTo(refreshToken);
+            assertThat(rafraichi.get("email").asText()).isEqualTo(TEST_EMAIL);
+            mockMvc.perform(get("/auth/me")
+                    .header("Authorization", "Bearer " + rafraichi.get("token").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("GESTIONNAIRE"));
+        }
+
+        @Test
+        @DisplayName("POST /auth/refresh - La réutilisation d'un jeton révoque toute la session")
+        void refresh_WithReusedRefreshToken_RevokesFamily() throws Exception {
+            String premier = login().get("refreshToken").asText();
+            String second = refresh(premier, 200).get("refreshToken").asText();
+
+            refresh(premier, 401);
+            // Le successeur légitime est révoqué avec sa famille
+            refresh(second, 401);
+        }
+
+        @Test
+        @DisplayName("POST /auth/refresh - Jeton inconnu : 401 ; jeton vide : 400")
+        void refresh_WithUnknownOrBlankToken() throws Exception {
+            refresh("jeton-inconnu", 401);
+            refresh("", 400);
+        }
+
+        @Test
+        @DisplayName("POST /auth/refresh sans corps - Jeton lu et renouvelé dans le cookie HttpOnly, absent de la réponse")
+        void refresh_ParCookie_RenouvelleLeCookie() throws Exception {
+            String premier = login().get("refreshToken").asText();
+
+            MvcResult result = mockMvc.perform(post("/auth/refresh").cookie(new Cookie(CookieRafraichissement.NOM, premier)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").doesNotExist())
+                .andReturn();
+
+            String setCookie = result.getResponse().getHeader(HttpHeaders.SET_COOKIE);
+            assertThat(setCookie).startsWith(CookieRafraichissement.NOM + "=")
+                    .contains("HttpOnly", "Secure", "SameSite=Strict", "Path=/auth/refresh")
+                    .doesNotContain(CookieRafraichissement.NOM + "=" + premier + ";");
+
+            // Cookie rejoué : 401 et cookie effacé
+            MvcResult rejoue = mockMvc.perform(post("/auth/refresh").cookie(new Cookie(CookieRafraichissement.NOM, premier)))
+                .andExpect(status().isUnauthorized())
+                .andReturn();
+            assertThat(rejoue.getResponse().getHeader(HttpHeaders.SET_COOKIE)).contains("Max-Age=0");
+        }
+
+        private JsonNode refresh(String refreshToken, int statut) throws Exception {
+            MvcResult result = mockMvc.perform(post("/auth/refresh")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new RefreshRequest(refreshToken))))
+                .andExpect(status().is(statut))
+                .andReturn();
+            return objectMapper.readTree(result.getResponse().getContentAsString());
+        }
+    }
+
     /**
      * Utilitaire pour obtenir un token JWT valide.
      */
     private String obtainValidToken() throws Exception {
+        return login().get("token").asText();
+    }
+
+    private JsonNode login() throws Exception {
         LoginRequest request = new LoginRequest(TEST_EMAIL, TEST_PASSWORD);
 
         MvcResult result = mockMvc.perform(post("/auth/login")
@@ -219,7 +301,7 @@ class AuthenticationIntegrationTest {
             .andReturn();
 
         String responseBody = result.getResponse().getContentAsString();
-        return objectMapper.readTree(responseBody).get("token").asText();
+        return objectMapper.readTree(responseBody);
     }
 }
 
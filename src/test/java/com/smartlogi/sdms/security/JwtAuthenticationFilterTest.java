@@ -0,0 +1,156 @@
+package com.smartlogi.sdms.security;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+import com.smartlogi.sdms.config.security.CustomUserDetailsService;
+import com.smartlogi.sdms.config.security.EtatUtilisateurCache;
+import com.smartlogi.sdms.config.security.JwtAuthenticationFilter;
+import com.smartlogi.sdms.config.security.JwtTokenProvider;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.enumeration.RoleUtilisateur;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitaires du filtre JWT : utilisateur reconstruit depuis les claims ou chargé depuis la base.
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String TEST_SECRET = "test-secret-key-32-bytes-long-!!";
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private EtatUtilisateurCache etatUtilisateurCache;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private CustomUserDetails livreur;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(TEST_SECRET, 3600000L, 100);
+        Livreur utilisateur = new Livreur();
+        utilisateur.setId("livreur-id");
+        utilisateur.setEmail("livreur@test.com");
+        utilisateur.setNom("Alami");
+        utilisateur.setPrenom("Karim");
+        utilisateur.setRole(RoleUtilisateur.LIVREUR);
+        utilisateur.setJetonVersion(2);
+        livreur = new CustomUserDetails(utilisateur);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Sans base - L'utilisateur est reconstruit depuis les claims")
+    void doFilter_PrincipalSansBase_ReconstruitDepuisClaims() throws Exception {
+        when(etatUtilisateurCache.estValide("livreur-id", 2)).thenReturn(true);
+
+        Authentication authentication = filtrer(filtre(true), jeton(livreur));
+
+        assertThat(authentication).isNotNull();
+        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+        assertThat(principal.getId()).isEqualTo("livreur-id");
+        assertThat(principal.getUsername()).isEqualTo("livreur@test.com");
+        assertThat(principal.getNom()).isEqualTo("Alami");
+        assertThat(principal.getRole()).isEqualTo(RoleUtilisateur.LIVREUR);
+        assertThat(principal.getJetonVersion()).isEqualTo(2);
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_DELIVERY");
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("Sans base - Jeton révoqué ou compte désactivé : pas d'authentification")
+    void doFilter_PrincipalSansBase_JetonRevoque() throws Exception {
+        when(etatUtilisateurCache.estValide("livreur-id", 2)).thenReturn(false);
+
+        assertThat(filtrer(filtre(true), jeton(livreur))).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("Sans base - Jeton émis sans version : chargement depuis la base")
+    void doFilter_PrincipalSansBase_JetonSansVersion_ChargeDepuisLaBase() throws Exception {
+        when(userDetailsService.loadUserByUsername("livreur@test.com")).thenReturn(livreur);
+        String ancienJeton = Jwts.builder()
+                .setSubject("livreur@test.com")
+                .claim("userId", "livreur-id")
+                .claim("roles", "ROLE_DELIVERY")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(TEST_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(filtrer(filtre(true), ancienJeton).getPrincipal()).isSameAs(livreur);
+        verify(etatUtilisateurCache, never()).estValide(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Mode désactivé - L'utilisateur est chargé depuis la base")
+    void doFilter_ModeDesactive_ChargeDepuisLaBase() throws Exception {
+        when(userDetailsService.loadUserByUsername("livreur@test.com")).thenReturn(livreur);
+
+        assertThat(filtrer(filtre(false), jeton(livreur)).getPrincipal()).isSameAs(livreur);
+        verify(etatUtilisateurCache, never()).estValide(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Mode désactivé - Jeton d'une version révoquée : pas d'authentification")
+    void doFilter_ModeDesactive_JetonRevoque() throws Exception {
+        String ancienJeton = jeton(livreur);
+        Livreur revoque = new Livreur();
+        revoque.setId("livreur-id");
+        revoque.setEmail("livreur@test.com");
+        revoque.setRole(RoleUtilisateur.LIVREUR);
+        revoque.setJetonVersion(3);
+        when(userDetailsService.loadUserByUsername("livreur@test.com")).thenReturn(new CustomUserDetails(revoque));
+
+        assertThat(filtrer(filtre(false), ancienJeton)).isNull();
+    }
+
+    private JwtAuthenticationFilter filtre(boolean principalSansBase) {
+        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, etatUtilisateurCache, principalSansBase);
+    }
+
+    private String jeton(CustomUserDetails userDetails) {
+        return jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    private static Authentication filtrer(JwtAuthenticationFilter filtre, String jeton) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/colis");
+        request.setServletPath("/api/v1/colis");
+        request.addHeader("Authorization", "Bearer " + jeton);
+        MockFilterChain chaine = new MockFilterChain();
+        filtre.doFilter(request, new MockHttpServletResponse(), chaine);
+        assertThat(chaine.getRequest()).isNotNull();
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -4,6 +4,7 @@ import com.smartlogi.sdms.config.security.JwtTokenProvider;
 import com.smartlogi.sdms.config.security.CustomUserDetails;
 import com.smartlogi.sdms.entity.GestionnaireLogistique;
 import com.smartlogi.sdms.entity.enumeration.RoleUtilisateur;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,10 +22,11 @@ class JwtTokenProviderTest {
     private JwtTokenProvider jwtTokenProvider;
     private static final String TEST_SECRET = "test-secret-key-32-bytes-long-!!";
     private static final long TEST_EXPIRATION = 86400000L; // 24h
+    private static final int TEST_CACHE_MAX = 100;
 
     @BeforeEach
     void setUp() {
-        jwtTokenProvider = new JwtTokenProvider(TEST_SECRET, TEST_EXPIRATION);
+        jwtTokenProvider = new JwtTokenProvider(TEST_SECRET, TEST_EXPIRATION, TEST_CACHE_MAX);
     }
 
     @Test
@@ -85,7 +87,7 @@ class JwtTokenProviderTest {
     @DisplayName("Validation token - Token expiré retourne false")
     void validateToken_WithExpiredToken_ReturnsFalse() throws InterruptedException {
         // Given - Provider avec expiration très courte
-        JwtTokenProvider shortLivedProvider = new JwtTokenProvider(TEST_SECRET, 1L);
+        JwtTokenProvider shortLivedProvider = new JwtTokenProvider(TEST_SECRET, 1L, TEST_CACHE_MAX);
         Authentication auth = createMockAuthentication("manager@test.com", RoleUtilisateur.GESTIONNAIRE);
         String token = shortLivedProvider.generateToken(auth);
 
@@ -140,6 +142,74 @@ class JwtTokenProviderTest {
         assertThat(roles).contains("ROLE_MANAGER");
     }
 
+    @Test
+    @DisplayName("Claims - Le token porte l'identifiant, le rôle et la version des jetons")
+    void generateToken_ContientLesClaimsDuPrincipal() {
+        Authentication auth = createMockAuthentication("manager@test.com", RoleUtilisateur.GESTIONNAIRE);
+        Claims claims = jwtTokenProvider.getValidClaims(jwtTokenProvider.generateToken(auth)).orElseThrow();
+
+        assertThat(claims.get("userId", String.class)).isEqualTo("test-user-id");
+        assertThat(claims.get("roles", String.class)).isEqualTo("ROLE_MANAGER");
+        assertThat(claims.get("ver", Integer.class)).isZero();
+
+        CustomUserDetails reconstruit = CustomUserDetails.fromClaims(claims);
+        assertThat(reconstruit.getUsername()).isEqualTo("manager@test.com");
+        assertThat(reconstruit.getRole()).isEqualTo(RoleUtilisateur.GESTIONNAIRE);
+        assertThat(reconstruit.getPassword()).isNull();
+    }
+
+    @Test
+    @DisplayName("Cache - Un token déjà vérifié n'est pas redécodé")
+    void getValidClaims_SecondAppel_ServiDepuisLeCache() {
+        Authentication auth = createMockAuthentication("manager@test.com", RoleUtilisateur.GESTIONNAIRE);
+        String token = jwtTokenProvider.generateToken(auth);
+
+        Claims premier = jwtTokenProvider.getValidClaims(token).orElseThrow();
+        Claims second = jwtTokenProvider.getValidClaims(token).orElseThrow();
+
+        assertThat(second).isSameAs(premier);
+        assertThat(second.getSubject()).isEqualTo("manager@test.com");
+        assertThat(jwtTokenProvider.getCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cache - Un token invalide n'est jamais mis en cache")
+    void getValidClaims_TokenInvalide_NonMisEnCache() {
+        Authentication auth = createMockAuthentication("manager@test.com", RoleUtilisateur.GESTIONNAIRE);
+        String token = jwtTokenProvider.generateToken(auth);
+
+        assertThat(jwtTokenProvider.getValidClaims(token.substring(0, token.length() - 2) + "xx")).isEmpty();
+        assertThat(jwtTokenProvider.getValidClaims(null)).isEmpty();
+        assertThat(jwtTokenProvider.getCacheSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Cache - Taille bornée par la configuration")
+    void getValidClaims_CacheBorne() {
+        JwtTokenProvider petitCache = new JwtTokenProvider(TEST_SECRET, TEST_EXPIRATION, 10);
+
+        for (int i = 0; i < 25; i++) {
+            String token = petitCache.generateToken(createMockAuthentication("user" + i + "@test.com", RoleUtilisateur.CLIENT_EXPEDITEUR));
+            assertThat(petitCache.validateToken(token)).isTrue();
+        }
+
+        assertThat(petitCache.getCacheSize()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Cache - Un token expiré après sa mise en cache est refusé")
+    void validateToken_ExpireApresMiseEnCache_ReturnsFalse() throws InterruptedException {
+        // Expiration du JWT à la seconde : 1,5 s laisse au moins une demi-seconde de validité
+        JwtTokenProvider provider = new JwtTokenProvider(TEST_SECRET, 1500L, TEST_CACHE_MAX);
+        String token = provider.generateToken(createMockAuthentication("manager@test.com", RoleUtilisateur.GESTIONNAIRE));
+        assertThat(provider.validateToken(token)).isTrue();
+
+        Thread.sleep(2600);
+
+        assertThat(provider.validateToken(token)).isFalse();
+        assertThat(provider.getCacheSize()).isZero();
+    }
+
     @Test
     @DisplayName("Expiration - Retourne la valeur configurée")
     void getExpirationMs_ReturnsConfiguredValue() {
@@ -0,0 +1,178 @@
+package com.smartlogi.sdms.security;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+import com.smartlogi.sdms.config.security.LimitationDebitFilter;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.enumeration.RoleUtilisateur;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests unitaires de la limitation de débit : clés par utilisateur ou IP, limites par rôle et par endpoint.
+ */
+class LimitationDebitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("IP anonyme : rafale admise jusqu'à la capacité, puis 429 avec Retry-After")
+    void doFilter_Anonyme_RafalePuis429() throws Exception {
+        LimitationDebitFilter filtre = filtre("3/0.5", "", "");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejet = filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1");
+
+        assertThat(rejet.getStatus()).isEqualTo(429);
+        assertThat(rejet.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejet.getContentAsString()).contains("\"status\":429");
+        // Autre IP : seau distinct
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("sdms.limitation.rejets", "classe", "ANONYME", "regle", "global").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Utilisateur authentifié : limite de son rôle, indépendante de l'IP")
+    void doFilter_Authentifie_LimiteDuRole() throws Exception {
+        LimitationDebitFilter filtre = filtre("1/0.5", "LIVREUR=2/0.5, ADMIN=50/10", "");
+        authentifier(RoleUtilisateur.LIVREUR);
+
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.3").getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.counter("sdms.limitation.rejets", "classe", "LIVREUR", "regle", "global").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Limite d'endpoint : appliquée en plus de la limite globale, selon la méthode et le motif")
+    void doFilter_LimiteEndpoint() throws Exception {
+        LimitationDebitFilter filtre = filtre("100/10", "", "GET /api/v1/colis/client/**=2/0.5");
+
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis/client/c1", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis/client/c1", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis/client/c2", "10.0.0.1").getStatus()).isEqualTo(429);
+        // Autre méthode ou autre chemin : seule la limite globale s'applique
+        assertThat(filtrer(filtre, "POST", "/api/v1/colis/client/c1", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("sdms.limitation.rejets",
+                "classe", "ANONYME", "regle", "GET /api/v1/colis/client/**").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Limite d'endpoint atteinte : la requête refusée ne consomme pas la limite globale")
+    void doFilter_RejetEndpoint_NeConsommePasLaLimiteGlobale() throws Exception {
+        LimitationDebitFilter filtre = filtre("3/0.01", "", "POST /auth/login=1/0.01");
+
+        assertThat(filtrer(filtre, "POST", "/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        for (int i = 0; i < 5; i++) {
+            assertThat(filtrer(filtre, "POST", "/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+        }
+
+        // Deux jetons globaux restants, malgré les cinq refus
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    @DisplayName("Recharge : un jeton redevient disponible après l'intervalle ; les seaux pleins sont purgés")
+    void doFilter_RechargeEtPurge() throws Exception {
+        LimitationDebitFilter filtre = filtre("1/50", "", "");
+
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        Thread.sleep(30);
+        assertThat(filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filtre.getNombreSeaux()).isEqualTo(1);
+
+        Thread.sleep(30);
+        filtre.purger();
+        assertThat(filtre.getNombreSeaux()).isZero();
+    }
+
+    @Test
+    @DisplayName("Accès concurrents : exactement la capacité est admise, sans verrou")
+    void doFilter_Concurrent_CapaciteExacte() throws Exception {
+        LimitationDebitFilter filtre = filtre("100/0.01", "", "");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuts = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                statuts.add(executor.submit(() -> filtrer(filtre, "GET", "/api/v1/colis", "10.0.0.1").getStatus()));
+            }
+            int admises = 0;
+            for (Future<Integer> statut : statuts) {
+                admises += statut.get() == 200 ? 1 : 0;
+            }
+            assertThat(admises).isEqualTo(100);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Configuration invalide ou filtre désactivé")
+    void configurationEtDesactivation() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> filtre("dix", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> filtre("10/0", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> filtre("10/1", "LIVREUR", ""));
+
+        LimitationDebitFilter inactif = new LimitationDebitFilter(meterRegistry, false, "1/0.01", "", "", 1000);
+        for (int i = 0; i < 5; i++) {
+            assertThat(filtrer(inactif, "GET", "/api/v1/colis", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+    }
+
+    private LimitationDebitFilter filtre(String anonyme, String roles, String endpoints) {
+        return new LimitationDebitFilter(meterRegistry, true, anonyme, roles, endpoints, 1000);
+    }
+
+    private static void authentifier(RoleUtilisateur role) {
+        Livreur utilisateur = new Livreur();
+        utilisateur.setId("utilisateur-id");
+        utilisateur.setEmail("utilisateur@test.com");
+        utilisateur.setRole(role);
+        CustomUserDetails userDetails = new CustomUserDetails(utilisateur);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    private static MockHttpServletResponse filtrer(LimitationDebitFilter filtre, String methode, String chemin,
+                                                   String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(methode, chemin);
+        request.setServletPath(chemin);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtre.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartlogi.sdms.security;
+
+import com.smartlogi.sdms.config.security.ModelePermissions;
+import com.smartlogi.sdms.entity.Permission;
+import com.smartlogi.sdms.entity.Role;
+import com.smartlogi.sdms.entity.VersionPermissions;
+import com.smartlogi.sdms.repository.RoleRepository;
+import com.smartlogi.sdms.repository.VersionPermissionsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires du modèle RBAC compilé.
+ */
+@ExtendWith(MockitoExtension.class)
+class ModelePermissionsTest {
+
+    private static final List<GrantedAuthority> MANAGER = List.of(new SimpleGrantedAuthority("ROLE_MANAGER"));
+    private static final List<GrantedAuthority> CLIENT = List.of(new SimpleGrantedAuthority("ROLE_CLIENT"));
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private VersionPermissionsRepository versionRepository;
+
+    @InjectMocks
+    private ModelePermissions modelePermissions;
+
+    private Permission zoneManage;
+    private Permission colisRead;
+
+    @BeforeEach
+    void setUp() {
+        zoneManage = Permission.manage("ZONE");
+        colisRead = Permission.read("COLIS");
+    }
+
+    @Test
+    @DisplayName("Compilation - Les permissions du rôle sont accessibles depuis son autorité, base lue une seule fois")
+    void autorise_PermissionsDuRole() {
+        when(roleRepository.findByActifTrue()).thenReturn(List.of(role("MANAGER", zoneManage, colisRead), role("CLIENT", colisRead)));
+
+        assertThat(modelePermissions.autorise(MANAGER, "ZONE_MANAGE")).isTrue();
+        assertThat(modelePermissions.autorise(CLIENT, "COLIS_READ")).isTrue();
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isFalse();
+        assertThat(modelePermissions.autorise(CLIENT, "INCONNUE")).isFalse();
+        assertThat(modelePermissions.autorise(List.of(new SimpleGrantedAuthority("COLIS_READ")), "COLIS_READ")).isTrue();
+
+        verify(roleRepository, times(1)).findByActifTrue();
+    }
+
+    @Test
+    @DisplayName("Compilation - Les permissions inactives sont ignorées ; un rôle inconnu n'a aucune permission")
+    void autorise_PermissionInactiveEtRoleInconnu() {
+        zoneManage.setActif(false);
+        when(roleRepository.findByActifTrue()).thenReturn(List.of(role("MANAGER", zoneManage, colisRead)));
+
+        assertThat(modelePermissions.autorise(MANAGER, "ZONE_MANAGE")).isFalse();
+        List<GrantedAuthority> viewer = List.of(new SimpleGrantedAuthority("ROLE_VIEWER"));
+        assertThat(modelePermissions.autorise(viewer, "COLIS_READ")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Recompilation - Le nouveau modèle remplace l'ancien ; en cas d'échec l'ancien est conservé")
+    void recompiler_RemplaceLeModele() {
+        when(roleRepository.findByActifTrue())
+                .thenReturn(List.of(role("CLIENT", colisRead)))
+                .thenReturn(List.of(role("CLIENT", colisRead, zoneManage)))
+                .thenThrow(new IllegalStateException("base indisponible"));
+
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isFalse();
+
+        modelePermissions.recompiler();
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isTrue();
+
+        modelePermissions.recompiler();
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Vérification - Recompile seulement quand la version partagée a changé sur une autre instance")
+    void verifierVersion_RecompileSiVersionChangee() {
+        when(versionRepository.findById(VersionPermissions.ID))
+                .thenReturn(Optional.of(new VersionPermissions(VersionPermissions.ID, 3L)));
+        when(roleRepository.findByActifTrue())
+                .thenReturn(List.of(role("CLIENT", colisRead)))
+                .thenReturn(List.of(role("CLIENT", colisRead, zoneManage)));
+
+        // Pas encore compilé : rien à vérifier
+        modelePermissions.verifierVersion();
+        verify(versionRepository, never()).findById(any());
+
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isFalse();
+        modelePermissions.verifierVersion();
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isFalse();
+
+        // Version 3 -> 4 : modification validée ailleurs
+        when(versionRepository.findById(VersionPermissions.ID))
+                .thenReturn(Optional.of(new VersionPermissions(VersionPermissions.ID, 4L)));
+        modelePermissions.verifierVersion();
+        assertThat(modelePermissions.autorise(CLIENT, "ZONE_MANAGE")).isTrue();
+        verify(roleRepository, times(2)).findByActifTrue();
+    }
+
+    @Test
+    @DisplayName("Modification - La version partagée est incrémentée, la ligne est créée si absente")
+    void recompilerApresCommit_IncrementeLaVersion() {
+        when(versionRepository.incrementer(VersionPermissions.ID)).thenReturn(0);
+        when(roleRepository.findByActifTrue()).thenReturn(List.of());
+
+        modelePermissions.recompilerApresCommit();
+
+        verify(versionRepository).save(argThat(v -> v.getId() == VersionPermissions.ID && v.getVersion() == 1L));
+        verify(roleRepository).findByActifTrue();
+    }
+
+    private static Role role(String nom, Permission... permissions) {
+        Role role = new Role(nom, nom);
+        for (Permission permission : permissions) {
+            role.addPermission(permission);
+        }
+        return role;
+    }
+}
@@ -222,7 +222,6 @@ class RoleBasedAccessControlTest {
 
         @Test
         @DisplayName("Health check est accessible sans authentification")
-        @org.junit.jupiter.api.Disabled("Actuator health endpoint non configuré dans ce projet")
         void healthCheck_IsPublic() throws Exception {
             mockMvc.perform(get("/actuator/health"))
                 .andExpect(status().isOk());
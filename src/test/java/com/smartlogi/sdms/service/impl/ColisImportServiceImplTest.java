@@ -0,0 +1,153 @@
+package com.smartlogi.sdms.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartlogi.sdms.dto.ColisBatchResponseDTO;
+import com.smartlogi.sdms.dto.ColisBatchResultatDTO;
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.service.interfaces.ColisImportService.FormatImport;
+import com.smartlogi.sdms.service.interfaces.ColisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour ColisImportServiceImpl")
+class ColisImportServiceImplTest {
+
+    @Mock private ColisService colisService;
+    @Mock private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ColisImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        // Paquets de 2 lignes pour vérifier le découpage
+        importService = new ColisImportServiceImpl(colisService, dataSource, objectMapper, 2, 0);
+    }
+
+    @Test
+    @DisplayName("NDJSON : crée les colis par paquets et rapporte les erreurs avec leur numéro de ligne")
+    void testImporterColis_Ndjson() throws Exception {
+        when(colisService.creerDemandesLivraisonEnLot(anyList()))
+                .thenReturn(reponse(ColisBatchResultatDTO.succes(0, "c1"), ColisBatchResultatDTO.succes(1, "c2")))
+                .thenReturn(reponse(ColisBatchResultatDTO.echec(0, "Produit non trouvé : p-x")));
+
+        String flux = ligneJson("Colis 1") + "\n"
+                + "{ pas du json\n"
+                + "\n"
+                + ligneJson("Colis 2") + "\n"
+                + ligneJson("Colis 3") + "\n";
+
+        List<JsonNode> evenements = importer(flux, FormatImport.NDJSON);
+
+        verify(colisService, times(2)).creerDemandesLivraisonEnLot(anyList());
+        assertThat(evenements).filteredOn(e -> "ERREUR".equals(e.get("type").asText()))
+                .extracting(e -> e.get("ligne").asLong())
+                .containsExactly(2L, 5L);
+        JsonNode bilan = evenements.get(evenements.size() - 1);
+        assertThat(bilan.get("type").asText()).isEqualTo("TERMINE");
+        assertThat(bilan.get("lignesLues").asLong()).isEqualTo(4);
+        assertThat(bilan.get("nombreSucces").asLong()).isEqualTo(2);
+        assertThat(bilan.get("nombreEchecs").asLong()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("CSV : lit l'en-tête, les champs entre guillemets et la liste des produits")
+    @SuppressWarnings("unchecked")
+    void testImporterColis_Csv() throws Exception {
+        when(colisService.creerDemandesLivraisonEnLot(anyList()))
+                .thenReturn(reponse(ColisBatchResultatDTO.succes(0, "c1")));
+
+        String flux = "clientExpediteurId,destinataireId,villeDestination,priorite,description,produits\n"
+                + "cli-1,dest-1,Rabat,haute,\"Livres, \"\"neufs\"\"\",p-1:2|p-2:1\n"
+                + "cli-1,dest-1,Rabat,EXPRESS,Colis,p-1:1\n";
+
+        List<JsonNode> evenements = importer(flux, FormatImport.CSV);
+
+        ArgumentCaptor<List<ColisDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(colisService).creerDemandesLivraisonEnLot(captor.capture());
+        ColisDTO dto = captor.getValue().get(0);
+        assertThat(dto.getDescription()).isEqualTo("Livres, \"neufs\"");
+        assertThat(dto.getPriorite()).isEqualTo(Priorite.HAUTE);
+        assertThat(dto.getProduits()).hasSize(2);
+        assertThat(dto.getProduits().get(0).getQuantite()).isEqualTo(2);
+
+        assertThat(evenements.get(0).get("type").asText()).isEqualTo("ERREUR");
+        assertThat(evenements.get(0).get("ligne").asLong()).isEqualTo(3);
+        assertThat(evenements.get(0).get("message").asText()).contains("EXPRESS");
+    }
+
+    @Test
+    @DisplayName("CSV : un en-tête sans colonne obligatoire arrête l'import sans rien créer")
+    void testImporterColis_CsvEnTeteInvalide() throws Exception {
+        List<JsonNode> evenements = importer("description\nColis\n", FormatImport.CSV);
+
+        verifyNoInteractions(colisService);
+        assertThat(evenements).hasSize(2);
+        assertThat(evenements.get(0).get("message").asText()).contains("clientexpediteurid");
+        assertThat(evenements.get(1).get("type").asText()).isEqualTo("TERMINE");
+    }
+
+    @Test
+    @DisplayName("Un paquet annulé est signalé ligne par ligne et l'import continue")
+    void testImporterColis_PaquetEnEchec() throws Exception {
+        when(colisService.creerDemandesLivraisonEnLot(anyList()))
+                .thenThrow(new IllegalStateException("connexion perdue"))
+                .thenReturn(reponse(ColisBatchResultatDTO.succes(0, "c3")));
+
+        String flux = ligneJson("Colis 1") + "\n" + ligneJson("Colis 2") + "\n" + ligneJson("Colis 3") + "\n";
+
+        List<JsonNode> evenements = importer(flux, FormatImport.NDJSON);
+
+        assertThat(evenements).filteredOn(e -> "ERREUR".equals(e.get("type").asText()))
+                .extracting(e -> e.get("ligne").asLong())
+                .containsExactly(1L, 2L);
+        JsonNode bilan = evenements.get(evenements.size() - 1);
+        assertThat(bilan.get("nombreSucces").asLong()).isEqualTo(1);
+        assertThat(bilan.get("nombreEchecs").asLong()).isEqualTo(2);
+    }
+
+    private List<JsonNode> importer(String flux, FormatImport format) throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        importService.importerColis(new ByteArrayInputStream(flux.getBytes(StandardCharsets.UTF_8)), format, sortie);
+        List<JsonNode> evenements = new ArrayList<>();
+        for (String ligne : sortie.toString(StandardCharsets.UTF_8).split("\n")) {
+            evenements.add(objectMapper.readTree(ligne));
+        }
+        return evenements;
+    }
+
+    private String ligneJson(String description) throws Exception {
+        ColisDTO dto = new ColisDTO();
+        dto.setDescription(description);
+        dto.setVilleDestination("Rabat");
+        dto.setClientExpediteurId("cli-1");
+        dto.setDestinataireId("dest-1");
+        return objectMapper.writeValueAsString(dto);
+    }
+
+    private static ColisBatchResponseDTO reponse(ColisBatchResultatDTO... resultats) {
+        ColisBatchResponseDTO response = new ColisBatchResponseDTO();
+        response.setResultats(List.of(resultats));
+        return response;
+    }
+}
@@ -4,10 +4,23 @@ import com.smartlogi.sdms.dto.*;
 import com.smartlogi.sdms.entity.*;
 import com.smartlogi.sdms.entity.enumeration.Priorite;
 import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.event.ColisEvenement;
 import com.smartlogi.sdms.exception.InvalidDataException;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
+import com.smartlogi.sdms.mapper.ColisArchiveMapper;
 import com.smartlogi.sdms.mapper.ColisMapper;
 import com.smartlogi.sdms.repository.*;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
+import com.smartlogi.sdms.service.support.ColisCurseur;
+import com.smartlogi.sdms.service.support.CompteursTournees;
+import com.smartlogi.sdms.service.support.ConflictRetryPolicy;
+import com.smartlogi.sdms.service.support.DebitColis;
+import com.smartlogi.sdms.service.support.HistoriqueWriteBehind;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,14 +29,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,6 +62,16 @@ class ColisServiceImplTest {
     @Mock private ProduitRepository produitRepository;
     @Mock private ColisProduitRepository colisProduitRepository;
     @Mock private LivreurRepository livreurRepository;
+    @Mock private Validator validator;
+    @Mock private EntityManager entityManager;
+    @Mock private HistoriqueWriteBehind historiqueWriteBehind;
+    @Mock private ConflictRetryPolicy conflictRetryPolicy;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private CompteursTournees compteursTournees;
+    @Mock private DebitColis debitColis;
+    @Mock private ColisAccesMemo colisAccesMemo;
+    @Mock private ColisArchiveRepository colisArchiveRepository;
+    @Mock private ColisArchiveMapper colisArchiveMapper;
 
 
 
@@ -56,6 +84,9 @@ class ColisServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        // La politique de reprise exécute l'action telle quelle (pas de conflit simulé ici)
+        lenient().when(conflictRetryPolicy.executer(anyString(), any()))
+                .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
 
         produit_entity = new Produit();
         produit_entity.setId("prod-1");
@@ -147,6 +178,104 @@ class ColisServiceImplTest {
         assertThat(historiqueSauvegarde.getCommentaire()).isEqualTo("Pris en charge");
     }
 
+    @Test
+    @DisplayName("l'ETag change avec la version et la date du dernier statut")
+    void testFindEtag() {
+        LocalDateTime date = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(colisAccesMemo.chargerDetail("colis-1"))
+                .thenReturn(Optional.of(new ColisAccesMemo.Detail(projection(2L, date), colisDTO_in)))
+                .thenReturn(Optional.of(new ColisAccesMemo.Detail(projection(3L, date), colisDTO_in)))
+                .thenReturn(Optional.of(new ColisAccesMemo.Detail(projection(3L, date.plusSeconds(1)), colisDTO_in)));
+
+        String etagV2 = colisService.findEtag("colis-1").orElseThrow();
+        String etagV3 = colisService.findEtag("colis-1").orElseThrow();
+        String etagV3Date = colisService.findEtag("colis-1").orElseThrow();
+
+        assertThat(etagV2).isNotEqualTo(etagV3);
+        assertThat(etagV3).isNotEqualTo(etagV3Date);
+        assertThat(colisService.findEtag("inconnu")).isEmpty();
+        verify(colisRepository, never()).findById(anyString());
+    }
+
+    private static ColisAccesProjection projection(Long version, LocalDateTime dateDernierStatut) {
+        return new ColisAccesProjection() {
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public LocalDateTime getDateDernierStatut() {
+                return dateDernierStatut;
+            }
+
+            @Override
+            public LocalDateTime getDateCreation() {
+                return null;
+            }
+
+            @Override
+            public String getClientExpediteurId() {
+                return null;
+            }
+
+            @Override
+            public String getDestinataireId() {
+                return null;
+            }
+
+            @Override
+            public String getLivreurId() {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("doit publier un événement de changement de statut avec l'ancien et le nouveau statut")
+    void testUpdateStatutColis_PublieEvenement() {
+        colis_entity.setStatut(StatutColis.CREE);
+        when(colisRepository.findById("colis-1")).thenReturn(Optional.of(colis_entity));
+        when(colisRepository.save(any(Colis.class))).thenReturn(colis_entity);
+
+        colisService.updateStatutColis("colis-1", StatutColis.COLLECTE, "Pris en charge");
+
+        ArgumentCaptor<ColisEvenement> evenementCaptor = ArgumentCaptor.forClass(ColisEvenement.class);
+        verify(eventPublisher).publishEvent(evenementCaptor.capture());
+        ColisEvenement evenement = evenementCaptor.getValue();
+        assertThat(evenement.type()).isEqualTo(ColisEvenement.Type.STATUT);
+        assertThat(evenement.colisId()).isEqualTo("colis-1");
+        assertThat(evenement.ancienStatut()).isEqualTo(StatutColis.CREE);
+        assertThat(evenement.statut()).isEqualTo(StatutColis.COLLECTE);
+        assertThat(evenement.clientExpediteurId()).isEqualTo("client-1");
+    }
+
+    @Test
+    @DisplayName("un changement de statut est compté dans les cumuls de débit de la zone du colis")
+    void testUpdateStatutColis_CompteLeDebit() {
+        Zone zone = new Zone();
+        zone.setId("zone-1");
+        colis_entity.setZone(zone);
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        when(colisRepository.findById("colis-1")).thenReturn(Optional.of(colis_entity));
+        when(colisRepository.save(any(Colis.class))).thenReturn(colis_entity);
+
+        colisService.updateStatutColis("colis-1", StatutColis.EN_STOCK, null);
+
+        verify(debitColis).enregistrer(eq("zone-1"), eq(StatutColis.EN_STOCK), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("ne doit publier aucun événement si le colis est déjà au statut demandé")
+    void testUpdateStatutColis_MemeStatut_AucunEvenement() {
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        when(colisRepository.findById("colis-1")).thenReturn(Optional.of(colis_entity));
+
+        colisService.updateStatutColis("colis-1", StatutColis.COLLECTE, "Doublon");
+
+        verifyNoInteractions(eventPublisher);
+    }
+
 
     @Test
     @DisplayName("doit jeter InvalidDataException si la transition de statut est invalide (ex: LIVRE -> EN_STOCK)")
@@ -196,6 +325,54 @@ class ColisServiceImplTest {
         assertThat(pageableCapture.getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("findColisByLivreurCurseur : lit taille + 1 colis et renvoie le curseur du dernier colis de la page")
+    void testFindColisByLivreurCurseur_PageSuivante() {
+        List<Colis> lus = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Colis colis = new Colis();
+            colis.setId("colis-" + i);
+            colis.setPriorite(Priorite.HAUTE);
+            lus.add(colis);
+        }
+        when(colisRepository.<Colis, List<Colis>>findBy(any(Specification.class), any())).thenReturn(lus);
+        when(colisMapper.toDto(any(Colis.class))).thenReturn(new ColisDTO());
+
+        CursorPageDTO<ColisDTO> page = colisService.findColisByLivreurCurseur("livreur-1", null, null, 2);
+
+        assertThat(page.getContenu()).hasSize(2);
+        assertThat(page.getTaille()).isEqualTo(2);
+        ColisCurseur suivant = ColisCurseur.decoder(page.getCurseurSuivant(), ColisCurseur.Ordre.PRIORITE_ZONE);
+        assertThat(suivant.id()).isEqualTo("colis-1");
+        assertThat(suivant.priorite()).isEqualTo(Priorite.HAUTE);
+        assertThat(suivant.zoneNom()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findAllColisByCriteriaCurseur : dernière page sans curseur suivant")
+    void testFindAllColisByCriteriaCurseur_DernierePage() {
+        Colis colis = new Colis();
+        colis.setId("colis-1");
+        colis.setDateCreation(LocalDateTime.now());
+        when(colisRepository.<Colis, List<Colis>>findBy(any(Specification.class), any())).thenReturn(List.of(colis));
+        when(colisMapper.toDto(colis)).thenReturn(new ColisDTO());
+
+        CursorPageDTO<ColisDTO> page = colisService.findAllColisByCriteriaCurseur(
+                null, null, null, null, ColisCurseur.Ordre.DATE_CREATION, null, 20);
+
+        assertThat(page.getContenu()).hasSize(1);
+        assertThat(page.getCurseurSuivant()).isNull();
+    }
+
+    @Test
+    @DisplayName("findColisByClientExpediteurCurseur : un curseur illisible lève InvalidDataException sans requête")
+    void testFindColisByClientExpediteurCurseur_CurseurInvalide() {
+        assertThrows(InvalidDataException.class, () -> colisService.findColisByClientExpediteurCurseur(
+                "client-1", ColisCurseur.Ordre.DATE_CREATION, "%%%", 20));
+
+        verifyNoInteractions(colisRepository);
+    }
+
     @Test
     @DisplayName("doit jeter UnsupportedOperationException pour la méthode update non implémentée")
     void testUpdate_MethodeNonImplementee() {
@@ -206,24 +383,25 @@ class ColisServiceImplTest {
     @Test
     @DisplayName("doit retourner un ColisDTO quand l'ID est trouvé")
     void testFindById_CasNominal() {
-        when(colisRepository.findById("colis-1")).thenReturn(Optional.of(colis_entity));
-        when(colisMapper.toDto(colis_entity)).thenReturn(colisDTO_in);
+        when(colisAccesMemo.chargerDetail("colis-1"))
+                .thenReturn(Optional.of(new ColisAccesMemo.Detail(projection(1L, null), colisDTO_in)));
 
         ColisDTO resultat = colisService.findById("colis-1");
 
         assertThat(resultat).isNotNull();
         assertThat(resultat).isEqualTo(colisDTO_in);
-        verify(colisRepository).findById("colis-1");
+        verify(colisRepository, never()).findById(anyString());
     }
     @Test
     @DisplayName("doit jeter ResourceNotFoundException quand l'ID n'est pas trouvé")
     void testFindById_CasErreur_NonTrouve() {
-        when(colisRepository.findById("bad-id")).thenReturn(Optional.empty());
+        when(colisAccesMemo.chargerDetail("bad-id")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             colisService.findById("bad-id");
         });
     }
+
     @Test
     @DisplayName("doit retourner une page de ColisDTO")
     void testFindAll_CasNominal() {
@@ -309,6 +487,9 @@ class ColisServiceImplTest {
         assertThat(colis_entity.getLivreur()).isEqualTo(livreur);
 
         verify(colisRepository).save(colis_entity);
+        verify(eventPublisher).publishEvent(argThat((ColisEvenement e) ->
+                e.type() == ColisEvenement.Type.ASSIGNATION && "livreur-1".equals(e.livreurId())
+                        && e.ancienLivreurId() == null));
     }
 
     @Test
@@ -354,5 +535,275 @@ class ColisServiceImplTest {
         assertThat(resultat.getParZone()).isEqualTo(statsZones);
     }
 
+    @Test
+    @DisplayName("doit servir les statistiques depuis les compteurs de tournées sans requête d'agrégation")
+    void testGetStatistiquesTournees_DepuisCompteurs() {
+        StatistiquesTourneeDTO compteurs = new StatistiquesTourneeDTO();
+        when(compteursTournees.statistiques()).thenReturn(Optional.of(compteurs));
+
+        assertThat(colisService.getStatistiquesTournees()).isSameAs(compteurs);
+
+        verify(colisRepository, never()).findStatistiquesParLivreur();
+        verify(colisRepository, never()).findStatistiquesParZone();
+    }
+
+    @Test
+    @DisplayName("doit transmettre l'empreinte avant/après d'un changement de statut aux compteurs de tournées")
+    void testUpdateStatutColis_EnregistreMouvementCompteurs() {
+        Livreur livreur = new Livreur();
+        livreur.setId("livreur-1");
+        colis_entity.setLivreur(livreur);
+        colis_entity.setPoidsTotal(4.0);
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        when(colisRepository.findById("colis-1")).thenReturn(Optional.of(colis_entity));
+        when(colisRepository.save(any(Colis.class))).thenReturn(colis_entity);
+
+        colisService.updateStatutColis("colis-1", StatutColis.EN_STOCK, null);
+
+        verify(compteursTournees).enregistrer(
+                new CompteursTournees.Empreinte("livreur-1", null, StatutColis.COLLECTE, 4.0),
+                new CompteursTournees.Empreinte("livreur-1", null, StatutColis.EN_STOCK, 4.0));
+    }
+
+
+    @Test
+    @DisplayName("doit créer un lot en validant clients, destinataires et produits par requêtes ensemblistes")
+    void testCreerDemandesLivraisonEnLot_CasNominal() {
+        ClientExpediteur client = new ClientExpediteur();
+        client.setId("client-1");
+        Destinataire destinataire = new Destinataire();
+        destinataire.setId("dest-1");
+
+        ColisDTO second = new ColisDTO();
+        second.setClientExpediteurId("client-1");
+        second.setDestinataireId("dest-1");
+        second.setPriorite(Priorite.HAUTE);
+        second.setProduits(colisDTO_in.getProduits());
+
+        when(validator.validate(any(ColisDTO.class))).thenReturn(Set.of());
+        when(clientExpediteurRepository.findAllById(any())).thenReturn(List.of(client));
+        when(destinataireRepository.findAllById(any())).thenReturn(List.of(destinataire));
+        when(produitRepository.findAllById(any())).thenReturn(List.of(produit_entity));
+        when(colisMapper.toEntity(any(ColisDTO.class))).thenAnswer(invocation -> new Colis());
+
+        ColisBatchResponseDTO resultat = colisService.creerDemandesLivraisonEnLot(List.of(colisDTO_in, second));
+
+        assertThat(resultat.getTotal()).isEqualTo(2);
+        assertThat(resultat.getNombreSucces()).isEqualTo(2);
+        assertThat(resultat.getNombreEchecs()).isZero();
+        assertThat(resultat.getResultats()).extracting(ColisBatchResultatDTO::getIndex).containsExactly(0, 1);
+
+        ArgumentCaptor<Colis> colisCaptor = ArgumentCaptor.forClass(Colis.class);
+        verify(colisRepository, times(2)).save(colisCaptor.capture());
+        Colis premierColis = colisCaptor.getAllValues().get(0);
+        assertThat(premierColis.getStatut()).isEqualTo(StatutColis.CREE);
+        assertThat(premierColis.getPoidsTotal()).isEqualTo(5.0);
+        assertThat(premierColis.getColisProduits()).hasSize(1);
+        assertThat(premierColis.getHistoriqueLivraisons()).hasSize(1);
+
+        // Une seule requête par type de référence, quel que soit le nombre de colis
+        verify(clientExpediteurRepository, times(1)).findAllById(any());
+        verify(destinataireRepository, times(1)).findAllById(any());
+        verify(produitRepository, times(1)).findAllById(any());
+        verify(clientExpediteurRepository, never()).existsById(anyString());
+        verify(produitRepository, never()).findById(anyString());
+        verify(colisRepository).flush();
+        verify(entityManager, never()).flush();
+    }
+
+    @Test
+    @DisplayName("doit rapporter les éléments invalides sans bloquer le reste du lot")
+    void testCreerDemandesLivraisonEnLot_ElementsInvalides() {
+        ClientExpediteur client = new ClientExpediteur();
+        client.setId("client-1");
+        Destinataire destinataire = new Destinataire();
+        destinataire.setId("dest-1");
+
+        ColisDTO clientInconnu = new ColisDTO();
+        clientInconnu.setClientExpediteurId("client-inconnu");
+        clientInconnu.setDestinataireId("dest-1");
+        clientInconnu.setPriorite(Priorite.NORMALE);
+        clientInconnu.setProduits(colisDTO_in.getProduits());
+
+        ColisDTO invalide = new ColisDTO();
+
+        @SuppressWarnings("unchecked")
+        ConstraintViolation<ColisDTO> violation = mock(ConstraintViolation.class);
+        when(violation.getMessage()).thenReturn("La priorité est obligatoire");
+        when(validator.validate(any(ColisDTO.class))).thenReturn(Set.of());
+        when(validator.validate(invalide)).thenReturn(Set.of(violation));
+        when(clientExpediteurRepository.findAllById(any())).thenReturn(List.of(client));
+        when(destinataireRepository.findAllById(any())).thenReturn(List.of(destinataire));
+        when(produitRepository.findAllById(any())).thenReturn(List.of(produit_entity));
+        when(colisMapper.toEntity(any(ColisDTO.class))).thenAnswer(invocation -> new Colis());
+
+        ColisBatchResponseDTO resultat = colisService.creerDemandesLivraisonEnLot(
+                List.of(colisDTO_in, clientInconnu, invalide));
+
+        assertThat(resultat.getNombreSucces()).isEqualTo(1);
+        assertThat(resultat.getNombreEchecs()).isEqualTo(2);
+        assertThat(resultat.getResultats().get(0).isSucces()).isTrue();
+        assertThat(resultat.getResultats().get(1).getErreur()).contains("client-inconnu");
+        assertThat(resultat.getResultats().get(2).getErreur()).isEqualTo("La priorité est obligatoire");
+        verify(colisRepository, times(1)).save(any(Colis.class));
+    }
+
+    @Test
+    @DisplayName("doit refuser un lot vide ou trop volumineux")
+    void testCreerDemandesLivraisonEnLot_LotInvalide() {
+        assertThrows(InvalidDataException.class, () -> colisService.creerDemandesLivraisonEnLot(List.of()));
+
+        List<ColisDTO> tropGrand = new ArrayList<>();
+        for (int i = 0; i <= ColisServiceImpl.TAILLE_MAX_LOT; i++) {
+            tropGrand.add(colisDTO_in);
+        }
+        assertThrows(InvalidDataException.class, () -> colisService.creerDemandesLivraisonEnLot(tropGrand));
+
+        verify(colisRepository, never()).save(any(Colis.class));
+    }
+
+    @Test
+    @DisplayName("doit appliquer les scans valides en une requête et insérer les historiques en un batch")
+    @SuppressWarnings("unchecked")
+    void testUpdateStatutsEnLot_CasNominal() {
+        Livreur livreur = new Livreur();
+        livreur.setId("livreur-1");
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        colis_entity.setLivreur(livreur);
+
+        Colis colisLivre = new Colis();
+        colisLivre.setId("colis-2");
+        colisLivre.setStatut(StatutColis.LIVRE);
+        colisLivre.setLivreur(livreur);
+
+        Colis colisAutreLivreur = new Colis();
+        colisAutreLivreur.setId("colis-3");
+        colisAutreLivreur.setStatut(StatutColis.COLLECTE);
+
+        Session session = mock(Session.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(colisRepository.findAllById(any())).thenReturn(List.of(colis_entity, colisLivre, colisAutreLivreur));
+
+        LocalDateTime dateScan = LocalDateTime.now().minusHours(1);
+        List<ScanStatutDTO> scans = List.of(
+                scan("colis-1", StatutColis.EN_STOCK, dateScan),
+                scan("colis-2", StatutColis.EN_TRANSIT, null),
+                scan("colis-3", StatutColis.EN_STOCK, null),
+                scan("colis-inconnu", StatutColis.EN_STOCK, null),
+                scan("colis-1", StatutColis.EN_TRANSIT, null));
+
+        ColisBatchResponseDTO response = colisService.updateStatutsEnLot(scans, "livreur-1");
+
+        assertThat(response.getTotal()).isEqualTo(5);
+        assertThat(response.getNombreSucces()).isEqualTo(2);
+        assertThat(response.getResultats()).extracting(ColisBatchResultatDTO::isSucces)
+                .containsExactly(true, false, false, false, true);
+        assertThat(response.getResultats().get(1).getErreur()).contains("déjà livré");
+        assertThat(response.getResultats().get(2).getErreur()).contains("n'est pas assigné");
+        assertThat(response.getResultats().get(3).getErreur()).contains("Colis non trouvé");
+        assertThat(colis_entity.getStatut()).isEqualTo(StatutColis.EN_TRANSIT);
+
+        verify(colisRepository, times(1)).findAllById(any());
+        verify(colisRepository, never()).findById(anyString());
+        ArgumentCaptor<List<HistoriqueLivraison>> captor = ArgumentCaptor.forClass(List.class);
+        verify(historiqueLivraisonRepository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(2);
+        assertThat(captor.getValue().get(0).getDateChangement()).isEqualTo(dateScan);
+        verify(session).setJdbcBatchSize(2);
+    }
 
+    @Test
+    @DisplayName("doit rejeter un scan antérieur à la création du colis ou trop ancien")
+    void testUpdateStatutsEnLot_HeureScanHorsBornes() {
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        colis_entity.setDateCreation(LocalDateTime.now().minusHours(2));
+        when(colisRepository.findAllById(any())).thenReturn(List.of(colis_entity));
+
+        List<ScanStatutDTO> scans = List.of(
+                scan("colis-1", StatutColis.EN_STOCK, LocalDateTime.now().minusHours(3)),
+                scan("colis-1", StatutColis.EN_STOCK,
+                        LocalDateTime.now().minus(ColisServiceImpl.ANCIENNETE_MAX_SCAN).minusMinutes(1)));
+
+        ColisBatchResponseDTO response = colisService.updateStatutsEnLot(scans, null);
+
+        assertThat(response.getNombreSucces()).isZero();
+        assertThat(response.getResultats().get(0).getErreur()).contains("antérieure à la création");
+        assertThat(response.getResultats().get(1).getErreur()).contains("ancienneté maximale");
+        assertThat(colis_entity.getStatut()).isEqualTo(StatutColis.COLLECTE);
+        verify(historiqueLivraisonRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("doit rejeter un scan différé antérieur au dernier statut du colis")
+    void testUpdateStatutsEnLot_ScanAnterieurAuDernierStatut() {
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        colis_entity.setDateCreation(LocalDateTime.now().minusHours(5));
+        colis_entity.setDateDernierStatut(LocalDateTime.now().minusHours(1));
+        when(colisRepository.findAllById(any())).thenReturn(List.of(colis_entity));
+
+        ColisBatchResponseDTO response = colisService.updateStatutsEnLot(
+                List.of(scan("colis-1", StatutColis.EN_STOCK, LocalDateTime.now().minusHours(2))), null);
+
+        assertThat(response.getResultats().get(0).getErreur()).contains("antérieure au dernier statut");
+        assertThat(colis_entity.getStatut()).isEqualTo(StatutColis.COLLECTE);
+        verify(historiqueLivraisonRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("doit rejeter, dans un même lot, un scan du même colis antérieur au scan précédent")
+    @SuppressWarnings("unchecked")
+    void testUpdateStatutsEnLot_ScansDuLotDansLeDesordre() {
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        colis_entity.setDateCreation(LocalDateTime.now().minusHours(5));
+        colis_entity.setDateDernierStatut(LocalDateTime.now().minusHours(4));
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        when(colisRepository.findAllById(any())).thenReturn(List.of(colis_entity));
+
+        LocalDateTime premier = LocalDateTime.now().minusHours(1);
+        ColisBatchResponseDTO response = colisService.updateStatutsEnLot(List.of(
+                scan("colis-1", StatutColis.EN_STOCK, premier),
+                scan("colis-1", StatutColis.EN_TRANSIT, premier.minusMinutes(30))), null);
+
+        assertThat(response.getResultats()).extracting(ColisBatchResultatDTO::isSucces).containsExactly(true, false);
+        assertThat(response.getResultats().get(1).getErreur()).contains("antérieure au dernier statut");
+        assertThat(colis_entity.getStatut()).isEqualTo(StatutColis.EN_STOCK);
+        assertThat(colis_entity.getDateDernierStatut()).isEqualTo(premier);
+        ArgumentCaptor<List<HistoriqueLivraison>> captor = ArgumentCaptor.forClass(List.class);
+        verify(historiqueLivraisonRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(HistoriqueLivraison::getDateChangement).containsExactly(premier);
+    }
+
+    @Test
+    @DisplayName("doit tolérer une légère avance d'horloge du terminal, ramenée à l'heure de traitement")
+    void testUpdateStatutsEnLot_AvanceHorloge() {
+        colis_entity.setStatut(StatutColis.COLLECTE);
+        colis_entity.setDateCreation(LocalDateTime.now().minusHours(5));
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        when(colisRepository.findAllById(any())).thenReturn(List.of(colis_entity));
+
+        LocalDateTime enAvance = LocalDateTime.now().plusSeconds(30);
+        ColisBatchResponseDTO response = colisService.updateStatutsEnLot(List.of(
+                scan("colis-1", StatutColis.EN_STOCK, enAvance),
+                scan("colis-1", StatutColis.EN_TRANSIT,
+                        LocalDateTime.now().plus(ColisServiceImpl.AVANCE_MAX_HORLOGE).plusMinutes(5))), null);
+
+        assertThat(response.getResultats()).extracting(ColisBatchResultatDTO::isSucces).containsExactly(true, false);
+        assertThat(response.getResultats().get(1).getErreur()).contains("futur");
+        assertThat(colis_entity.getDateDernierStatut()).isBefore(enAvance);
+    }
+
+    @Test
+    @DisplayName("doit rejeter une liste de scans vide")
+    void testUpdateStatutsEnLot_ListeVide() {
+        assertThrows(InvalidDataException.class, () -> colisService.updateStatutsEnLot(List.of(), null));
+        verifyNoInteractions(colisRepository, historiqueLivraisonRepository);
+    }
+
+    private static ScanStatutDTO scan(String colisId, StatutColis statut, LocalDateTime scannedAt) {
+        ScanStatutDTO scan = new ScanStatutDTO();
+        scan.setColisId(colisId);
+        scan.setStatut(statut);
+        scan.setScannedAt(scannedAt);
+        return scan;
+    }
 }
@@ -1,14 +1,19 @@
 package com.smartlogi.sdms.service.impl;
 
+import com.smartlogi.sdms.dto.DebitColisDTO;
+import com.smartlogi.sdms.dto.DelaisLivraisonDTO;
 import com.smartlogi.sdms.dto.GestionnaireLogistiqueDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
 import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
 import com.smartlogi.sdms.entity.GestionnaireLogistique;
+import com.smartlogi.sdms.entity.enumeration.GranulariteDebit;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.mapper.GestionnaireLogistiqueMapper;
 import com.smartlogi.sdms.repository.GestionnaireLogistiqueRepository;
 import com.smartlogi.sdms.service.interfaces.ColisService;
 import com.smartlogi.sdms.service.interfaces.GlobalSearchService;
+import com.smartlogi.sdms.service.support.AnalyseDelais;
+import com.smartlogi.sdms.service.support.DebitColis;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +25,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,6 +49,12 @@ class GestionnaireLogistiqueServiceImplTest {
     @Mock
     private GestionnaireLogistiqueMapper gestionnaireMapper;
 
+    @Mock
+    private AnalyseDelais analyseDelais;
+
+    @Mock
+    private DebitColis debitColis;
+
     @InjectMocks
     private GestionnaireLogistiqueServiceImpl gestionnaireService;
 
@@ -65,6 +78,35 @@ class GestionnaireLogistiqueServiceImplTest {
     }
 
 
+    @Test
+    @DisplayName("doit déléguer le calcul des délais de livraison à l'analyse des délais")
+    void testGetDelaisLivraison_DoitDeleguer() {
+        LocalDate du = LocalDate.of(2025, 3, 1);
+        LocalDate au = LocalDate.of(2025, 3, 7);
+        DelaisLivraisonDTO delais = new DelaisLivraisonDTO();
+        when(analyseDelais.rapport(du, au)).thenReturn(delais);
+
+        DelaisLivraisonDTO resultat = gestionnaireService.getDelaisLivraison(du, au);
+
+        assertThat(resultat).isSameAs(delais);
+        verifyNoInteractions(colisService, globalSearchService, gestionnaireRepository);
+    }
+
+    @Test
+    @DisplayName("doit déléguer la lecture du débit aux cumuls de débit")
+    void testGetDebitColis_DoitDeleguer() {
+        LocalDateTime du = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime au = LocalDateTime.of(2025, 3, 2, 0, 0);
+        DebitColisDTO debit = new DebitColisDTO();
+        when(debitColis.debit(du, au, GranulariteDebit.HEURE, "zone-1")).thenReturn(debit);
+
+        DebitColisDTO resultat = gestionnaireService.getDebitColis(du, au, GranulariteDebit.HEURE, "zone-1");
+
+        assertThat(resultat).isSameAs(debit);
+        verifyNoInteractions(colisService, analyseDelais);
+    }
+
+
     @Test
     @DisplayName("doit déléguer l'appel de recherche au GlobalSearchService")
     void testRechercher_DoitDeleguer() {
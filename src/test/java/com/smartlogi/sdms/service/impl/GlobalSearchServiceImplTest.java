@@ -1,24 +1,34 @@
 package com.smartlogi.sdms.service.impl;
 
+import com.smartlogi.sdms.dto.ColisDTO;
 import com.smartlogi.sdms.dto.GlobalSearchResponseDTO;
+import com.smartlogi.sdms.entity.Colis;
 import com.smartlogi.sdms.mapper.ClientExpediteurMapper;
 import com.smartlogi.sdms.mapper.ColisMapper;
 import com.smartlogi.sdms.mapper.LivreurMapper;
 import com.smartlogi.sdms.repository.ClientExpediteurRepository;
 import com.smartlogi.sdms.repository.ColisRepository;
 import com.smartlogi.sdms.repository.LivreurRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -27,6 +37,8 @@ import static org.mockito.Mockito.when;
 @DisplayName("Tests Unitaires pour GlobalSearchServiceImpl")
 class GlobalSearchServiceImplTest {
 
+    private static final long DELAI_SOURCE_MS = 1_000;
+
     @Mock private ColisRepository colisRepository;
     @Mock private ClientExpediteurRepository clientExpediteurRepository;
     @Mock private LivreurRepository livreurRepository;
@@ -35,9 +47,25 @@ class GlobalSearchServiceImplTest {
     @Mock private ClientExpediteurMapper clientExpediteurMapper;
     @Mock private LivreurMapper livreurMapper;
 
-    @InjectMocks
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
     private GlobalSearchServiceImpl searchService;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        searchService = new GlobalSearchServiceImpl(colisRepository, clientExpediteurRepository, livreurRepository,
+                colisMapper, clientExpediteurMapper, livreurMapper,
+                transactionManager, meterRegistry, DELAI_SOURCE_MS, 3, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchService.arreter();
+    }
+
     @Test
     @DisplayName("doit appeler les 3 repositories de recherche et mapper les résultats")
     void testRechercher_CasNominal() {
@@ -57,9 +85,75 @@ class GlobalSearchServiceImplTest {
         assertThat(resultat.getColis()).isNotNull();
         assertThat(resultat.getClients()).isNotNull();
         assertThat(resultat.getLivreurs()).isNotNull();
+        assertThat(resultat.isPartiel()).isFalse();
+        assertThat(resultat.getSourcesIndisponibles()).isEmpty();
+
+        verify(colisRepository, times(1)).searchByKeyword("%test%", pageable);
+        verify(clientExpediteurRepository, times(1)).searchByKeyword("%test%", pageable);
+        verify(livreurRepository, times(1)).searchByKeyword("%test%", pageable);
+        // Une transaction en lecture seule par source
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("une source trop lente est renvoyée vide et la réponse est marquée partielle")
+    void testRechercher_SourceLente_ResultatPartiel() {
+        Pageable pageable = Pageable.unpaged();
+        Colis colis = new Colis();
+        ColisDTO colisDTO = new ColisDTO();
+
+        when(colisRepository.searchByKeyword(anyString(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(colis)));
+        when(colisMapper.toDto(colis)).thenReturn(colisDTO);
+        when(clientExpediteurRepository.searchByKeyword(anyString(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+        when(livreurRepository.searchByKeyword(anyString(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(DELAI_SOURCE_MS * 30);
+                    return Page.empty();
+                });
 
-        verify(colisRepository, times(1)).searchByKeyword(motCle, pageable);
-        verify(clientExpediteurRepository, times(1)).searchByKeyword(motCle, pageable);
-        verify(livreurRepository, times(1)).searchByKeyword(motCle, pageable);
+        long debut = System.currentTimeMillis();
+        GlobalSearchResponseDTO resultat = searchService.rechercher("casa", pageable);
+        long duree = System.currentTimeMillis() - debut;
+
+        assertThat(resultat.isPartiel()).isTrue();
+        assertThat(resultat.getSourcesIndisponibles()).containsExactly(GlobalSearchServiceImpl.SOURCE_LIVREURS);
+        assertThat(resultat.getColis().getContent()).containsExactly(colisDTO);
+        assertThat(resultat.getLivreurs().getContent()).isEmpty();
+        assertThat(duree).isLessThan(DELAI_SOURCE_MS * 10);
+        assertThat(meterRegistry.counter(GlobalSearchServiceImpl.METRIQUE_INDISPONIBLE,
+                "source", GlobalSearchServiceImpl.SOURCE_LIVREURS, "cause", "delai").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("une source en erreur n'empêche pas les autres de répondre")
+    void testRechercher_SourceEnErreur_ResultatPartiel() {
+        Pageable pageable = Pageable.unpaged();
+
+        when(colisRepository.searchByKeyword(anyString(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+        when(clientExpediteurRepository.searchByKeyword(anyString(), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("index indisponible"));
+        when(livreurRepository.searchByKeyword(anyString(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        GlobalSearchResponseDTO resultat = searchService.rechercher("casa", pageable);
+
+        assertThat(resultat.isPartiel()).isTrue();
+        assertThat(resultat.getSourcesIndisponibles()).containsExactly(GlobalSearchServiceImpl.SOURCE_CLIENTS);
+        assertThat(resultat.getClients().getContent()).isEmpty();
+        assertThat(meterRegistry.timer(GlobalSearchServiceImpl.METRIQUE_DUREE,
+                "source", GlobalSearchServiceImpl.SOURCE_CLIENTS, "resultat", "erreur").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer(GlobalSearchServiceImpl.METRIQUE_DUREE,
+                "source", GlobalSearchServiceImpl.SOURCE_COLIS, "resultat", "succes").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("le motif est mis en minuscules une seule fois et les jokers saisis sont échappés")
+    void testConstruireMotif() {
+        assertThat(GlobalSearchServiceImpl.construireMotif("  Casa ")).isEqualTo("%casa%");
+        assertThat(GlobalSearchServiceImpl.construireMotif("50%_Off\\")).isEqualTo("%50\\%\\_off\\\\%");
+        assertThat(GlobalSearchServiceImpl.construireMotif(null)).isEqualTo("%%");
     }
-}
\ No newline at end of file
+}
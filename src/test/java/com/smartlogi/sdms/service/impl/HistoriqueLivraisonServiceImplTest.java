@@ -2,8 +2,14 @@ package com.smartlogi.sdms.service.impl;
 
 import com.smartlogi.sdms.dto.HistoriqueLivraisonDTO;
 import com.smartlogi.sdms.entity.HistoriqueLivraison;
+import com.smartlogi.sdms.entity.HistoriqueLivraisonArchive;
+import com.smartlogi.sdms.mapper.ColisArchiveMapper;
 import com.smartlogi.sdms.mapper.HistoriqueLivraisonMapper;
+import com.smartlogi.sdms.repository.HistoriqueLivraisonArchiveRepository;
 import com.smartlogi.sdms.repository.HistoriqueLivraisonRepository;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
+import com.smartlogi.sdms.service.support.HistoriqueWriteBehind;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,7 +17,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -26,6 +34,18 @@ class HistoriqueLivraisonServiceImplTest {
     @Mock
     private HistoriqueLivraisonMapper historiqueMapper;
 
+    @Mock
+    private HistoriqueWriteBehind historiqueWriteBehind;
+
+    @Mock
+    private ColisAccesMemo colisAccesMemo;
+
+    @Mock
+    private HistoriqueLivraisonArchiveRepository historiqueArchiveRepository;
+
+    @Mock
+    private ColisArchiveMapper colisArchiveMapper;
+
     @InjectMocks
     private HistoriqueLivraisonServiceImpl historiqueService;
 
@@ -47,4 +67,76 @@ class HistoriqueLivraisonServiceImplTest {
         verify(historiqueRepository).findAllByColisIdOrderByDateChangementDesc(colisId);
         verify(historiqueMapper, times(2)).toDto(any(HistoriqueLivraison.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("l'historique est lu à partir de la date de création du colis, tronquée à la seconde")
+    void testFindHistoriqueByColisId_BorneCreation() {
+        ColisAccesProjection projection = mock(ColisAccesProjection.class);
+        when(projection.getDateCreation()).thenReturn(LocalDateTime.of(2025, 1, 1, 9, 30, 15, 123_456_789));
+        when(colisAccesMemo.charger("colis-1")).thenReturn(Optional.of(projection));
+        when(historiqueRepository.findAllByColisIdDepuis("colis-1", LocalDateTime.of(2025, 1, 1, 9, 30, 15)))
+                .thenReturn(List.of(new HistoriqueLivraison()));
+        when(historiqueMapper.toDto(any(HistoriqueLivraison.class))).thenReturn(new HistoriqueLivraisonDTO());
+
+        assertThat(historiqueService.findHistoriqueByColisId("colis-1")).hasSize(1);
+        verify(historiqueRepository, never()).findAllByColisIdOrderByDateChangementDesc(anyString());
+    }
+
+    @Test
+    @DisplayName("doit fusionner les historiques en attente d'écriture différée (lecture de ses propres écritures)")
+    void testFindHistoriqueByColisId_AvecEcritureDifferee() {
+        String colisId = "colis-1";
+        HistoriqueLivraison enBase = historique("h-1", LocalDateTime.of(2025, 1, 1, 10, 0));
+        HistoriqueLivraison enAttente = historique("h-2", LocalDateTime.of(2025, 1, 1, 11, 0));
+        when(historiqueRepository.findAllByColisIdOrderByDateChangementDesc(colisId)).thenReturn(List.of(enBase));
+        // h-1 est à la fois en base et encore référencé en attente : il ne doit pas être dupliqué
+        when(historiqueWriteBehind.enAttente(colisId)).thenReturn(List.of(enAttente, enBase));
+        when(historiqueMapper.toDto(any(HistoriqueLivraison.class))).thenAnswer(invocation -> {
+            HistoriqueLivraison entite = invocation.getArgument(0);
+            HistoriqueLivraisonDTO dto = new HistoriqueLivraisonDTO();
+            dto.setId(entite.getId());
+            return dto;
+        });
+
+        List<HistoriqueLivraisonDTO> resultat = historiqueService.findHistoriqueByColisId(colisId);
+
+        assertThat(resultat).extracting(HistoriqueLivraisonDTO::getId).containsExactly("h-2", "h-1");
+    }
+
+    @Test
+    @DisplayName("l'ETag de l'historique suit la version du colis et se distingue de celui du colis")
+    void testFindEtagHistorique() {
+        ColisAccesProjection projection = mock(ColisAccesProjection.class);
+        when(projection.etag()).thenReturn("3-18d");
+        when(colisAccesMemo.charger("colis-1")).thenReturn(Optional.of(projection));
+        when(colisAccesMemo.charger("inconnu")).thenReturn(Optional.empty());
+
+        assertThat(historiqueService.findEtagHistorique("colis-1")).contains("h3-18d");
+        assertThat(historiqueService.findEtagHistorique("inconnu")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("colis archivé : l'historique est lu dans l'archive lorsque la table chaude n'en a aucun")
+    void testFindHistoriqueByColisId_RepliSurArchive() {
+        HistoriqueLivraisonArchive archive = new HistoriqueLivraisonArchive();
+        HistoriqueLivraisonDTO dto = new HistoriqueLivraisonDTO();
+        when(historiqueRepository.findAllByColisIdOrderByDateChangementDesc("archive-1")).thenReturn(List.of());
+        when(historiqueArchiveRepository.findAllByColisIdOrderByDateChangementDesc("archive-1")).thenReturn(List.of(archive));
+        when(colisArchiveMapper.toDto(archive)).thenReturn(dto);
+
+        assertThat(historiqueService.findHistoriqueByColisId("archive-1")).containsExactly(dto);
+        verify(historiqueWriteBehind, never()).enAttente(anyString());
+
+        // Historique chaud présent : l'archive n'est pas consultée
+        when(historiqueRepository.findAllByColisIdOrderByDateChangementDesc("colis-1")).thenReturn(List.of(new HistoriqueLivraison()));
+        historiqueService.findHistoriqueByColisId("colis-1");
+        verify(historiqueArchiveRepository, never()).findAllByColisIdOrderByDateChangementDesc("colis-1");
+    }
+
+    private static HistoriqueLivraison historique(String id, LocalDateTime dateChangement) {
+        HistoriqueLivraison historique = new HistoriqueLivraison();
+        historique.setId(id);
+        historique.setDateChangement(dateChangement);
+        return historique;
+    }
+}
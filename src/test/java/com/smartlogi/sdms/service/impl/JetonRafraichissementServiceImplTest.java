@@ -0,0 +1,144 @@
+package com.smartlogi.sdms.service.impl;
+
+import com.smartlogi.sdms.config.security.EtatUtilisateurCache;
+import com.smartlogi.sdms.entity.JetonRafraichissement;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.repository.JetonRafraichissementRepository;
+import com.smartlogi.sdms.repository.UtilisateurRepository;
+import com.smartlogi.sdms.service.interfaces.JetonRafraichissementService.Rotation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour JetonRafraichissementServiceImpl")
+class JetonRafraichissementServiceImplTest {
+
+    private static final long EXPIRATION_MS = 3_600_000L;
+
+    @Mock private JetonRafraichissementRepository jetonRepository;
+    @Mock private UtilisateurRepository utilisateurRepository;
+    @Mock private EtatUtilisateurCache etatUtilisateurCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JetonRafraichissementServiceImpl service;
+    private Livreur livreur;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new JetonRafraichissementServiceImpl(jetonRepository, utilisateurRepository, etatUtilisateurCache,
+                meterRegistry, EXPIRATION_MS);
+        livreur = new Livreur();
+        livreur.setId("livreur-1");
+        livreur.setEmail("livreur@test.com");
+    }
+
+    @Test
+    @DisplayName("émettre : seule l'empreinte du jeton est enregistrée, dans une nouvelle famille")
+    void testEmettre_StockeLEmpreinte() {
+        String jeton = service.emettre("livreur-1");
+
+        JetonRafraichissement enregistre = capturerEnregistrement();
+        assertThat(jeton).hasSizeGreaterThanOrEqualTo(43);
+        assertThat(enregistre.getEmpreinte()).hasSize(64).isNotEqualTo(jeton);
+        assertThat(enregistre.getUtilisateurId()).isEqualTo("livreur-1");
+        assertThat(enregistre.getFamille()).isNotBlank();
+        assertThat(enregistre.getDateExpiration()).isAfter(LocalDateTime.now().plusMinutes(59));
+        assertThat(service.emettre("livreur-1")).isNotEqualTo(jeton);
+    }
+
+    @Test
+    @DisplayName("rafraîchir : le jeton est consommé et son successeur émis dans la même famille")
+    void testRafraichir_Rotation() {
+        String jeton = service.emettre("livreur-1");
+        JetonRafraichissement courant = capturerEnregistrement();
+        when(jetonRepository.findByEmpreintePourRotation(courant.getEmpreinte())).thenReturn(Optional.of(courant));
+        when(utilisateurRepository.findById("livreur-1")).thenReturn(Optional.of(livreur));
+
+        Rotation rotation = service.rafraichir(jeton).orElseThrow();
+
+        assertThat(rotation.utilisateur().getUsername()).isEqualTo("livreur@test.com");
+        assertThat(rotation.jeton()).isNotEqualTo(jeton);
+        assertThat(courant.getDateUtilisation()).isNotNull();
+        verify(jetonRepository, times(2)).save(argThat(suivant -> courant.getFamille().equals(suivant.getFamille())));
+        verify(jetonRepository, never()).revoquerFamille(anyString());
+    }
+
+    @Test
+    @DisplayName("rafraîchir un jeton déjà consommé : famille révoquée et JWT de l'utilisateur invalidés")
+    void testRafraichir_ReutilisationDetectee() {
+        JetonRafraichissement consomme = jeton(LocalDateTime.now().plusHours(1));
+        consomme.setDateUtilisation(LocalDateTime.now().minusMinutes(5));
+        when(jetonRepository.findByEmpreintePourRotation(anyString())).thenReturn(Optional.of(consomme));
+
+        assertThat(service.rafraichir("vole")).isEmpty();
+
+        verify(jetonRepository).revoquerFamille("famille-1");
+        verify(etatUtilisateurCache).revoquer("livreur-1");
+        verify(jetonRepository, never()).save(any());
+        assertThat(meterRegistry.counter("sdms.auth.rafraichissement.reutilisations").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("rafraîchir : jeton inconnu, expiré ou révoqué refusé sans rotation")
+    void testRafraichir_JetonRefuse() {
+        JetonRafraichissement expire = jeton(LocalDateTime.now().minusSeconds(1));
+        JetonRafraichissement revoque = jeton(LocalDateTime.now().plusHours(1));
+        revoque.setRevoque(true);
+        when(jetonRepository.findByEmpreintePourRotation(anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(expire))
+                .thenReturn(Optional.of(revoque));
+
+        assertThat(service.rafraichir("inconnu")).isEmpty();
+        assertThat(service.rafraichir("expire")).isEmpty();
+        assertThat(service.rafraichir("revoque")).isEmpty();
+        assertThat(service.rafraichir(" ")).isEmpty();
+
+        verify(jetonRepository, never()).save(any());
+        verifyNoInteractions(utilisateurRepository, etatUtilisateurCache);
+    }
+
+    @Test
+    @DisplayName("rafraîchir pour un compte désactivé : refusé et famille révoquée")
+    void testRafraichir_CompteDesactive() {
+        livreur.setEnabled(false);
+        when(jetonRepository.findByEmpreintePourRotation(anyString())).thenReturn(Optional.of(jeton(LocalDateTime.now().plusHours(1))));
+        when(utilisateurRepository.findById("livreur-1")).thenReturn(Optional.of(livreur));
+
+        assertThat(service.rafraichir("jeton")).isEmpty();
+
+        verify(jetonRepository).revoquerFamille("famille-1");
+        verify(jetonRepository, never()).save(any());
+    }
+
+    private JetonRafraichissement capturerEnregistrement() {
+        ArgumentCaptor<JetonRafraichissement> captor = ArgumentCaptor.forClass(JetonRafraichissement.class);
+        verify(jetonRepository, atLeastOnce()).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static JetonRafraichissement jeton(LocalDateTime expiration) {
+        JetonRafraichissement jeton = new JetonRafraichissement();
+        jeton.setEmpreinte("empreinte");
+        jeton.setUtilisateurId("livreur-1");
+        jeton.setFamille("famille-1");
+        jeton.setDateCreation(LocalDateTime.now().minusHours(1));
+        jeton.setDateExpiration(expiration);
+        return jeton;
+    }
+}
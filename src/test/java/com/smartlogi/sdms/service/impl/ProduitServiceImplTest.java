@@ -5,6 +5,8 @@ import com.smartlogi.sdms.entity.Produit;
 import com.smartlogi.sdms.exception.ResourceNotFoundException;
 import com.smartlogi.sdms.mapper.ProduitMapper;
 import com.smartlogi.sdms.repository.ProduitRepository;
+import com.smartlogi.sdms.service.support.EstimationVolume;
+import com.smartlogi.sdms.service.support.ModeTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +17,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -34,6 +40,9 @@ class ProduitServiceImplTest {
     @Mock
     private ProduitMapper produitMapper;
 
+    @Mock
+    private EstimationVolume estimationVolume;
+
     @InjectMocks
     private ProduitServiceImpl produitService;
 
@@ -152,4 +161,49 @@ class ProduitServiceImplTest {
         assertThat(resultat).isNotNull();
         verify(produitRepository).findAll(pageable);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("findAll sans total : lecture Slice, ni COUNT ni estimation")
+    void testFindAll_SansTotal() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(produitRepository.findSliceBy(pageable)).thenReturn(new SliceImpl<>(List.of(produit), pageable, true));
+        when(produitMapper.toDto(produit)).thenReturn(produitDTO);
+
+        Slice<ProduitDTO> resultat = produitService.findAll(pageable, ModeTotal.AUCUN);
+
+        assertThat(resultat).isNotInstanceOf(Page.class);
+        assertThat(resultat.getContent()).containsExactly(produitDTO);
+        assertThat(resultat.hasNext()).isTrue();
+        verify(produitRepository, never()).findAll(any(Pageable.class));
+        verifyNoInteractions(estimationVolume);
+    }
+
+    @Test
+    @DisplayName("findAll avec total estimé : total issu des statistiques, sans COUNT")
+    void testFindAll_TotalEstime() {
+        Pageable pageable = PageRequest.of(2, 10);
+        when(produitRepository.findSliceBy(pageable)).thenReturn(new SliceImpl<>(List.of(produit), pageable, true));
+        when(produitMapper.toDto(produit)).thenReturn(produitDTO);
+        when(estimationVolume.lignes("produit")).thenReturn(OptionalLong.of(5_000));
+
+        Slice<ProduitDTO> resultat = produitService.findAll(pageable, ModeTotal.ESTIME);
+
+        assertThat(resultat).isInstanceOf(Page.class);
+        assertThat(((Page<ProduitDTO>) resultat).getTotalElements()).isEqualTo(5_000);
+        verify(produitRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("findAll avec total estimé : repli sur COUNT si aucune statistique")
+    void testFindAll_TotalEstime_SansStatistiques() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(estimationVolume.lignes("produit")).thenReturn(OptionalLong.empty());
+        when(produitRepository.findAll(pageable)).thenReturn(Page.empty(pageable));
+
+        Slice<ProduitDTO> resultat = produitService.findAll(pageable, ModeTotal.ESTIME);
+
+        assertThat(resultat).isInstanceOf(Page.class);
+        verify(produitRepository).findAll(pageable);
+        verify(produitRepository, never()).findSliceBy(any(Pageable.class));
+    }
+}
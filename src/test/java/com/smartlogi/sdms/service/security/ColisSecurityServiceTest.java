@@ -0,0 +1,99 @@
+package com.smartlogi.sdms.service.security;
+
+import com.smartlogi.sdms.config.security.CustomUserDetails;
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.enumeration.RoleUtilisateur;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import com.smartlogi.sdms.service.support.ColisAccesMemo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour ColisSecurityService")
+class ColisSecurityServiceTest {
+
+    @Mock private ColisAccesMemo colisAccesMemo;
+    @Mock private ColisAccesProjection acces;
+
+    @InjectMocks
+    private ColisSecurityService colisSecurityService;
+
+    private Authentication livreur;
+
+    @BeforeEach
+    void setUp() {
+        Livreur utilisateur = new Livreur();
+        utilisateur.setId("livreur-1");
+        utilisateur.setEmail("livreur@test.com");
+        utilisateur.setRole(RoleUtilisateur.LIVREUR);
+        CustomUserDetails userDetails = new CustomUserDetails(utilisateur);
+        livreur = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("les contrôles comparent les identifiants de la projection, sans charger le colis")
+    void testControles_ParProjection() {
+        when(colisAccesMemo.charger("colis-1")).thenReturn(Optional.of(acces));
+        when(acces.getLivreurId()).thenReturn("livreur-1");
+        when(acces.getClientExpediteurId()).thenReturn("client-1");
+
+        assertThat(colisSecurityService.canAccess("colis-1", livreur)).isTrue();
+        assertThat(colisSecurityService.canUpdateStatus("colis-1", livreur)).isTrue();
+        assertThat(colisSecurityService.isAssignedDelivery("colis-1", livreur)).isTrue();
+        assertThat(colisSecurityService.isOwner("colis-1", livreur)).isFalse();
+    }
+
+    @Test
+    @DisplayName("colis d'un autre livreur ou inconnu : accès refusé")
+    void testControles_AccesRefuse() {
+        when(colisAccesMemo.charger("colis-2")).thenReturn(Optional.of(acces));
+        when(acces.getLivreurId()).thenReturn("livreur-2");
+        when(colisAccesMemo.charger("inconnu")).thenReturn(Optional.empty());
+
+        assertThat(colisSecurityService.canAccess("colis-2", livreur)).isFalse();
+        assertThat(colisSecurityService.canUpdateStatus("colis-2", livreur)).isFalse();
+        assertThat(colisSecurityService.canAccess("inconnu", livreur)).isFalse();
+    }
+
+    @Test
+    @DisplayName("lecture du colis : mêmes règles, appliquées au colis complet partagé avec la réponse")
+    void testCanRead_ParDetail() {
+        when(colisAccesMemo.chargerDetail("colis-1"))
+                .thenReturn(Optional.of(new ColisAccesMemo.Detail(acces, new ColisDTO())));
+        when(acces.getLivreurId()).thenReturn("livreur-1");
+        when(colisAccesMemo.chargerDetail("inconnu")).thenReturn(Optional.empty());
+
+        assertThat(colisSecurityService.canRead("colis-1", livreur)).isTrue();
+        assertThat(colisSecurityService.canRead("inconnu", livreur)).isFalse();
+        verify(colisAccesMemo, never()).charger(anyString());
+    }
+
+    @Test
+    @DisplayName("un gestionnaire accède à tout sans lecture du colis")
+    void testManager_SansLecture() {
+        Authentication manager = new UsernamePasswordAuthenticationToken("manager", null,
+                List.of(new SimpleGrantedAuthority("ROLE_MANAGER")));
+
+        assertThat(colisSecurityService.canAccess("colis-1", manager)).isTrue();
+        assertThat(colisSecurityService.canRead("colis-1", manager)).isTrue();
+        assertThat(colisSecurityService.canUpdateStatus("colis-1", manager)).isTrue();
+        verify(colisAccesMemo, never()).charger(anyString());
+        verify(colisAccesMemo, never()).chargerDetail(anyString());
+    }
+}
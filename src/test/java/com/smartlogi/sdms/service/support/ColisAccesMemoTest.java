@@ -0,0 +1,136 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.dto.ColisDTO;
+import com.smartlogi.sdms.entity.ClientExpediteur;
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.ColisArchive;
+import com.smartlogi.sdms.mapper.ColisArchiveMapper;
+import com.smartlogi.sdms.mapper.ColisMapper;
+import com.smartlogi.sdms.repository.ColisArchiveRepository;
+import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.projection.ColisAccesProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour ColisAccesMemo")
+class ColisAccesMemoTest {
+
+    @Mock private ColisRepository colisRepository;
+    @Mock private ColisArchiveRepository colisArchiveRepository;
+    @Mock private ColisMapper colisMapper;
+    @Mock private ColisArchiveMapper colisArchiveMapper;
+    @Mock private ColisAccesProjection projection;
+
+    @InjectMocks
+    private ColisAccesMemo colisAccesMemo;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("dans une requête HTTP, la projection d'un colis n'est lue qu'une fois, y compris un colis absent")
+    void testCharger_MemoriseParRequete() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(colisRepository.findAccesById("colis-1")).thenReturn(Optional.of(projection));
+        when(colisRepository.findAccesById("inconnu")).thenReturn(Optional.empty());
+
+        assertThat(colisAccesMemo.charger("colis-1")).containsSame(projection);
+        assertThat(colisAccesMemo.charger("colis-1")).containsSame(projection);
+        assertThat(colisAccesMemo.charger("inconnu")).isEmpty();
+        assertThat(colisAccesMemo.charger("inconnu")).isEmpty();
+
+        verify(colisRepository, times(1)).findAccesById("colis-1");
+        verify(colisRepository, times(1)).findAccesById("inconnu");
+        verify(colisArchiveRepository, times(1)).findAccesById("inconnu");
+
+        // Nouvelle requête : nouvelle lecture
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        colisAccesMemo.charger("colis-1");
+        verify(colisRepository, times(2)).findAccesById("colis-1");
+    }
+
+    @Test
+    @DisplayName("hors requête HTTP, chaque appel relit la base")
+    void testCharger_SansRequete() {
+        when(colisRepository.findAccesById("colis-1")).thenReturn(Optional.of(projection));
+
+        colisAccesMemo.charger("colis-1");
+        colisAccesMemo.charger("colis-1");
+
+        verify(colisRepository, times(2)).findAccesById("colis-1");
+        assertThat(colisAccesMemo.charger(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("un colis absent de la table chaude est cherché dans l'archive")
+    void testCharger_RepliSurArchive() {
+        when(colisRepository.findAccesById("archive-1")).thenReturn(Optional.empty());
+        when(colisArchiveRepository.findAccesById("archive-1")).thenReturn(Optional.of(projection));
+
+        assertThat(colisAccesMemo.charger("archive-1")).containsSame(projection);
+
+        when(colisRepository.findAccesById("colis-1")).thenReturn(Optional.of(projection));
+        colisAccesMemo.charger("colis-1");
+        verify(colisArchiveRepository, never()).findAccesById("colis-1");
+    }
+
+    @Test
+    @DisplayName("le colis complet est lu une fois par requête et la projection d'accès en est dérivée")
+    void testChargerDetail_ProjectionDeriveeDeLaMemeLecture() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        ClientExpediteur client = new ClientExpediteur();
+        client.setId("client-1");
+        Colis colis = new Colis();
+        colis.setClientExpediteur(client);
+        colis.setVersion(4L);
+        colis.setDateDernierStatut(LocalDateTime.of(2025, 3, 1, 10, 0));
+        ColisDTO dto = new ColisDTO();
+        when(colisRepository.findWithProduitsById("colis-1")).thenReturn(Optional.of(colis));
+        when(colisMapper.toDto(colis)).thenReturn(dto);
+
+        ColisAccesMemo.Detail detail = colisAccesMemo.chargerDetail("colis-1").orElseThrow();
+
+        assertThat(detail.colis()).isSameAs(dto);
+        assertThat(detail.acces().getClientExpediteurId()).isEqualTo("client-1");
+        assertThat(detail.acces().getLivreurId()).isNull();
+        assertThat(detail.acces().getVersion()).isEqualTo(4L);
+        assertThat(colisAccesMemo.chargerDetail("colis-1")).containsSame(detail);
+        assertThat(colisAccesMemo.charger("colis-1")).containsSame(detail.acces());
+        verify(colisRepository, times(1)).findWithProduitsById("colis-1");
+        verify(colisRepository, never()).findAccesById(anyString());
+    }
+
+    @Test
+    @DisplayName("le colis complet absent de la table chaude est lu dans l'archive")
+    void testChargerDetail_RepliSurArchive() {
+        ColisArchive archive = new ColisArchive();
+        archive.setDestinataireId("destinataire-1");
+        ColisDTO dto = new ColisDTO();
+        when(colisRepository.findWithProduitsById("archive-1")).thenReturn(Optional.empty());
+        when(colisArchiveRepository.findWithProduitsById("archive-1")).thenReturn(Optional.of(archive));
+        when(colisArchiveMapper.toDto(archive)).thenReturn(dto);
+
+        ColisAccesMemo.Detail detail = colisAccesMemo.chargerDetail("archive-1").orElseThrow();
+
+        assertThat(detail.colis()).isSameAs(dto);
+        assertThat(detail.acces().getDestinataireId()).isEqualTo("destinataire-1");
+        assertThat(colisAccesMemo.chargerDetail("inconnu")).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.entity.Colis;
+import com.smartlogi.sdms.entity.Zone;
+import com.smartlogi.sdms.entity.enumeration.Priorite;
+import com.smartlogi.sdms.exception.InvalidDataException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Tests Unitaires pour ColisCurseur")
+class ColisCurseurTest {
+
+    @Test
+    @DisplayName("encoder puis décoder restitue la position (date tronquée à la microseconde)")
+    void testEncoderDecoder_DateCreation() {
+        Colis colis = new Colis();
+        colis.setId("01a14bd6-041c-73c4-99c6-fb3daf5e4323");
+        colis.setDateCreation(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_789));
+
+        String curseur = ColisCurseur.depuis(colis, ColisCurseur.Ordre.DATE_CREATION).encoder();
+        ColisCurseur position = ColisCurseur.decoder(curseur, ColisCurseur.Ordre.DATE_CREATION);
+
+        assertThat(curseur).doesNotContain("+", "/", "=");
+        assertThat(position.id()).isEqualTo(colis.getId());
+        assertThat(position.dateCreation()).isEqualTo(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000));
+    }
+
+    @Test
+    @DisplayName("ordre priorité/zone : nom de zone conservé, y compris avec des caractères spéciaux")
+    void testEncoderDecoder_PrioriteZone() {
+        Zone zone = new Zone();
+        zone.setNom("Fès | Médina, secteur 2");
+        Colis colis = new Colis();
+        colis.setId("colis-1");
+        colis.setPriorite(Priorite.URGENTE);
+        colis.setZone(zone);
+
+        ColisCurseur position = ColisCurseur.decoder(
+                ColisCurseur.depuis(colis, ColisCurseur.Ordre.PRIORITE_ZONE).encoder(), ColisCurseur.Ordre.PRIORITE_ZONE);
+
+        assertThat(position.priorite()).isEqualTo(Priorite.URGENTE);
+        assertThat(position.zoneNom()).isEqualTo("Fès | Médina, secteur 2");
+    }
+
+    @Test
+    @DisplayName("un curseur obtenu avec un autre ordre ou illisible est refusé")
+    void testDecoder_CurseurRefuse() {
+        Colis colis = new Colis();
+        colis.setId("colis-1");
+        colis.setDateCreation(LocalDateTime.now());
+        String curseur = ColisCurseur.depuis(colis, ColisCurseur.Ordre.DATE_CREATION).encoder();
+
+        assertThrows(InvalidDataException.class, () -> ColisCurseur.decoder(curseur, ColisCurseur.Ordre.PRIORITE_ZONE));
+        assertThrows(InvalidDataException.class, () -> ColisCurseur.decoder("pas-un-curseur", ColisCurseur.Ordre.DATE_CREATION));
+        assertThrows(InvalidDataException.class, () -> ColisCurseur.decoder("%%%", ColisCurseur.Ordre.DATE_CREATION));
+    }
+}
@@ -0,0 +1,147 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.event.ColisEvenement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Abonné lent : un envoi bloqué ne retarde pas les autres abonnés, et l'abonné est fermé quand sa file
+ * déborde ou quand son envoi dépasse le délai. Les émetteurs enregistrent les envois au lieu d'écrire une réponse.
+ */
+@DisplayName("Tests Unitaires - Diffusion SSE avec abonnés lents")
+class ColisEvenementDiffuseurTest {
+
+    private static final int CAPACITE_ABONNE = 4;
+    private static final long DELAI_ENVOI_MS = 50;
+
+    private final List<EmetteurTest> emetteurs = new ArrayList<>();
+    private final CountDownLatch deblocage = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private ColisEvenementDiffuseur diffuseur;
+
+    private EmetteurTest lent;
+    private EmetteurTest rapide;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        diffuseur = new ColisEvenementDiffuseur(meterRegistry, 60_000, 100, 100, 2, CAPACITE_ABONNE, DELAI_ENVOI_MS) {
+            @Override
+            SseEmitter creerEmitter(long delaiExpirationMs) {
+                return emetteurs.remove(0);
+            }
+        };
+        lent = new EmetteurTest(deblocage);
+        rapide = new EmetteurTest(null);
+        emetteurs.add(lent);
+        emetteurs.add(rapide);
+        diffuseur.abonnerClient("client-1");
+        diffuseur.abonnerClient("client-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        deblocage.countDown();
+        diffuseur.arreter();
+    }
+
+    @Test
+    @DisplayName("un envoi bloqué chez un abonné ne retarde pas les autres abonnés de la même clé")
+    void testAbonneLent_NeBloquePasLesAutres() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            diffuseur.diffuser(evenement(i));
+        }
+
+        assertThat(attendre(() -> rapide.recus.size() == 3)).isTrue();
+        assertThat(lent.recus).isEmpty();
+        assertThat(lent.ferme).isFalse();
+    }
+
+    @Test
+    @DisplayName("un abonné dont la file déborde est fermé et compté, les autres restent abonnés")
+    void testAbonneLent_FilePleine() throws Exception {
+        // Un événement bloqué dans l'envoi, CAPACITE_ABONNE en file, le suivant déborde.
+        // L'abonné rapide suit le rythme : sa file ne déborde pas
+        for (int i = 0; i <= CAPACITE_ABONNE + 1; i++) {
+            diffuseur.diffuser(evenement(i));
+            int attendus = i + 1;
+            assertThat(attendre(() -> rapide.recus.size() == attendus)).isTrue();
+        }
+
+        assertThat(lent.ferme).isTrue();
+        assertThat(diffuseur.getNombreAbonnements()).isEqualTo(1);
+        assertThat(meterRegistry.counter("sdms.sse.abonnes-lents").count()).isEqualTo(1.0);
+        assertThat(rapide.ferme).isFalse();
+    }
+
+    @Test
+    @DisplayName("le battement ferme un abonné dont l'envoi dure plus que le délai d'envoi")
+    void testAbonneLent_EnvoiBloque() throws Exception {
+        diffuseur.diffuser(evenement(0));
+        assertThat(attendre(() -> rapide.recus.size() == 1)).isTrue();
+        Thread.sleep(DELAI_ENVOI_MS * 2);
+
+        diffuseur.envoyerBattement();
+
+        assertThat(lent.ferme).isTrue();
+        assertThat(diffuseur.getNombreAbonnements()).isEqualTo(1);
+        assertThat(attendre(() -> rapide.recus.size() == 2)).isTrue();
+    }
+
+    private static ColisEvenement evenement(int numero) {
+        return new ColisEvenement(ColisEvenement.Type.STATUT, "colis-" + numero, StatutColis.COLLECTE, StatutColis.CREE,
+                "client-1", null, null, null, LocalDateTime.now());
+    }
+
+    private static boolean attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+
+    /**
+     * Émetteur qui enregistre les envois ; bloqué jusqu'au déblocage si un verrou est fourni.
+     */
+    private static final class EmetteurTest extends SseEmitter {
+        private final List<Object> recus = new CopyOnWriteArrayList<>();
+        private final CountDownLatch deblocage;
+        private volatile boolean ferme;
+
+        private EmetteurTest(CountDownLatch deblocage) {
+            this.deblocage = deblocage;
+        }
+
+        @Override
+        public void send(SseEventBuilder evenement) {
+            if (deblocage != null) {
+                try {
+                    deblocage.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            recus.add(evenement.build());
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable erreur) {
+            ferme = true;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.dto.StatistiqueLivreurDTO;
+import com.smartlogi.sdms.dto.StatistiquesTourneeDTO;
+import com.smartlogi.sdms.entity.Livreur;
+import com.smartlogi.sdms.entity.enumeration.StatutColis;
+import com.smartlogi.sdms.repository.ColisRepository;
+import com.smartlogi.sdms.repository.LivreurRepository;
+import com.smartlogi.sdms.repository.ZoneRepository;
+import com.smartlogi.sdms.repository.projection.AgregatTourneeProjection;
+import com.smartlogi.sdms.service.support.CompteursTournees.Empreinte;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour CompteursTournees")
+class CompteursTourneesTest {
+
+    @Mock private ColisRepository colisRepository;
+    @Mock private LivreurRepository livreurRepository;
+    @Mock private ZoneRepository zoneRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompteursTournees compteurs;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        compteurs = new CompteursTournees(colisRepository, livreurRepository, zoneRepository, meterRegistry, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("reconstruit les compteurs depuis les agrégats : charge des statuts actifs et détail par statut")
+    void testReconstruire() {
+        when(colisRepository.findAgregatsTournees()).thenReturn(List.of(
+                agregat("L1", "Karim Alami", "Z1", "Nord", StatutColis.EN_TRANSIT, 2, 5.0),
+                agregat("L1", "Karim Alami", "Z1", "Nord", StatutColis.CREE, 1, 1.0),
+                agregat(null, null, "Z2", "Sud", StatutColis.COLLECTE, 1, 3.0)));
+
+        compteurs.reconstruire();
+        StatistiquesTourneeDTO statistiques = compteurs.statistiques().orElseThrow();
+
+        assertThat(statistiques.getParLivreur()).hasSize(1);
+        StatistiqueLivreurDTO livreur = statistiques.getParLivreur().get(0);
+        assertThat(livreur.getLivreurNom()).isEqualTo("Karim Alami");
+        assertThat(livreur.getNombreColis()).isEqualTo(2);
+        assertThat(livreur.getPoidsTotal()).isEqualTo(5.0);
+        assertThat(livreur.getParStatut()).isEqualTo(Map.of(StatutColis.CREE, 1L, StatutColis.EN_TRANSIT, 2L));
+        assertThat(statistiques.getParZone()).extracting("zoneId", "nombreColis")
+                .containsExactly(tuple("Z1", 2L), tuple("Z2", 1L));
+    }
+
+    @Test
+    @DisplayName("hors transaction, un mouvement est appliqué immédiatement ; un nouveau livreur est nommé à la lecture")
+    void testEnregistrer_HorsTransaction() {
+        when(colisRepository.findAgregatsTournees()).thenReturn(List.of(
+                agregat("L1", "Karim Alami", "Z1", "Nord", StatutColis.EN_TRANSIT, 2, 5.0)));
+        compteurs.reconstruire();
+        Livreur nouveau = new Livreur();
+        nouveau.setId("L2");
+        nouveau.setNom("Sara");
+        nouveau.setPrenom("Idrissi");
+        when(livreurRepository.findAllById(any())).thenReturn(List.of(nouveau));
+
+        // Réassignation d'un colis en transit de L1 à L2
+        compteurs.enregistrer(new Empreinte("L1", "Z1", StatutColis.EN_TRANSIT, 2.0),
+                new Empreinte("L2", "Z1", StatutColis.EN_TRANSIT, 2.0));
+
+        List<StatistiqueLivreurDTO> parLivreur = compteurs.statistiques().orElseThrow().getParLivreur();
+        assertThat(parLivreur).extracting("livreurId", "livreurNom", "nombreColis", "poidsTotal").containsExactly(
+                tuple("L1", "Karim Alami", 1L, 3.0),
+                tuple("L2", "Sara Idrissi", 1L, 2.0));
+        assertThat(compteurs.statistiques().orElseThrow().getParZone().get(0).getNombreColis()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("dans une transaction, un mouvement n'est appliqué qu'après validation")
+    void testEnregistrer_DansTransaction() {
+        when(colisRepository.findAgregatsTournees()).thenReturn(List.of());
+        compteurs.reconstruire();
+
+        TransactionSynchronizationManager.initSynchronization();
+        compteurs.enregistrer(null, new Empreinte("L1", null, StatutColis.COLLECTE, 1.0));
+        compteurs.enregistrer(null, new Empreinte("L1", null, StatutColis.COLLECTE, 1.0));
+        List<TransactionSynchronization> synchronisations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(compteurs.statistiques().orElseThrow().getParLivreur()).isEmpty();
+
+        synchronisations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(compteurs.statistiques().orElseThrow().getParLivreur()).isEmpty();
+
+        synchronisations.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(compteurs.statistiques().orElseThrow().getParLivreur().get(0).getNombreColis()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("un mouvement validé pendant la lecture de référence est rejoué sur le résultat")
+    void testReconstruire_RejoueLeJournal() {
+        when(colisRepository.findAgregatsTournees()).thenAnswer(invocation -> {
+            compteurs.enregistrer(new Empreinte("L1", null, StatutColis.EN_STOCK, 2.0),
+                    new Empreinte("L1", null, StatutColis.EN_TRANSIT, 2.0));
+            return List.of(agregat("L1", "Karim Alami", null, null, StatutColis.EN_STOCK, 1, 2.0));
+        });
+
+        compteurs.reconstruire();
+
+        assertThat(compteurs.statistiques().orElseThrow().getParLivreur().get(0).getParStatut())
+                .isEqualTo(Map.of(StatutColis.EN_TRANSIT, 1L));
+    }
+
+    @Test
+    @DisplayName("la vérification signale les écarts avec la base et la tâche périodique reconstruit")
+    void testVerifier_Divergence() {
+        when(colisRepository.findAgregatsTournees())
+                .thenReturn(List.of(agregat("L1", "Karim Alami", "Z1", "Nord", StatutColis.EN_TRANSIT, 2, 5.0)));
+        compteurs.reconstruire();
+        assertThat(compteurs.verifier()).isEmpty();
+
+        // Colis modifié hors service : la base compte un colis de plus
+        when(colisRepository.findAgregatsTournees())
+                .thenReturn(List.of(agregat("L1", "Karim Alami", "Z1", "Nord", StatutColis.EN_TRANSIT, 3, 6.0)));
+        assertThat(compteurs.verifier()).hasSize(2)
+                .anyMatch(ecart -> ecart.startsWith("livreur L1 / EN_TRANSIT"));
+
+        compteurs.verifierPeriodiquement();
+
+        assertThat(meterRegistry.counter("sdms.statistiques.divergences").count()).isEqualTo(2.0);
+        assertThat(compteurs.statistiques().orElseThrow().getParLivreur().get(0).getNombreColis()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("désactivés : aucune statistique servie, aucun mouvement enregistré")
+    void testDesactive() {
+        CompteursTournees inactifs = new CompteursTournees(colisRepository, livreurRepository, zoneRepository, meterRegistry, false);
+
+        inactifs.enregistrer(null, new Empreinte("L1", null, StatutColis.COLLECTE, 1.0));
+        inactifs.verifierPeriodiquement();
+
+        assertThat(inactifs.statistiques()).isEmpty();
+        verifyNoInteractions(colisRepository);
+    }
+
+    private static AgregatTourneeProjection agregat(String livreurId, String livreurNom, String zoneId, String zoneNom,
+                                                    StatutColis statut, long nombre, double poids) {
+        return new AgregatTourneeProjection() {
+            @Override public String getLivreurId() { return livreurId; }
+            @Override public String getLivreurNom() { return livreurNom; }
+            @Override public String getZoneId() { return zoneId; }
+            @Override public String getZoneNom() { return zoneNom; }
+            @Override public StatutColis getStatut() { return statut; }
+            @Override public Long getNombre() { return nombre; }
+            @Override public Double getPoids() { return poids; }
+        };
+    }
+}
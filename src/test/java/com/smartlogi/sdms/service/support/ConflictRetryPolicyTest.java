@@ -0,0 +1,105 @@
+package com.smartlogi.sdms.service.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour ConflictRetryPolicy")
+class ConflictRetryPolicyTest {
+
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private ConflictRetryPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new ConflictRetryPolicy(transactionManager, 3, 0, 0);
+    }
+
+    @Test
+    @DisplayName("rejoue l'opération dans une nouvelle transaction après un conflit")
+    void testExecuter_RepriseApresConflit() {
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        AtomicInteger appels = new AtomicInteger();
+
+        String resultat = policy.executer("test", () -> {
+            if (appels.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException("Colis", "colis-1");
+            }
+            return "ok";
+        });
+
+        assertThat(resultat).isEqualTo("ok");
+        assertThat(appels).hasValue(2);
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("propage le conflit une fois le nombre maximal de tentatives atteint")
+    void testExecuter_AbandonApresMaxTentatives() {
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        AtomicInteger appels = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> policy.executer("test", () -> {
+            appels.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Colis", "colis-1");
+        }));
+
+        assertThat(appels).hasValue(3);
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("ne rejoue pas les autres exceptions")
+    void testExecuter_AutreExceptionNonRejouee() {
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        AtomicInteger appels = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> policy.executer("test", () -> {
+            appels.incrementAndGet();
+            throw new IllegalStateException("erreur métier");
+        }));
+
+        assertThat(appels).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("s'exécute sans reprise dans la transaction déjà ouverte par l'appelant")
+    void testExecuter_TransactionEnglobante() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> policy.executer("test", () -> {
+                throw new ObjectOptimisticLockingFailureException("Colis", "colis-1");
+            }));
+            verifyNoInteractions(transactionManager);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    @DisplayName("le délai d'attente reste borné par le plafond configuré")
+    void testDelaiAvantTentative_Borne() {
+        ConflictRetryPolicy bornee = new ConflictRetryPolicy(transactionManager, 4, 10, 50);
+        for (int tentative = 1; tentative <= 30; tentative++) {
+            assertThat(bornee.delaiAvantTentative(tentative)).isBetween(0L, 50L);
+        }
+    }
+}
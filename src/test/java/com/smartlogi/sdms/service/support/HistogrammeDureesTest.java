@@ -0,0 +1,80 @@
+package com.smartlogi.sdms.service.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Tests Unitaires pour HistogrammeDurees")
+class HistogrammeDureesTest {
+
+    @Test
+    @DisplayName("les percentiles respectent l'erreur relative de 1/32, des secondes aux semaines")
+    void testPercentiles_ErreurRelativeBornee() {
+        HistogrammeDurees histogramme = new HistogrammeDurees();
+        for (long secondes = 1; secondes <= 100_000; secondes++) {
+            histogramme.enregistrer(secondes * 10);
+        }
+
+        assertThat(histogramme.getNombre()).isEqualTo(100_000);
+        assertThat(histogramme.percentile(0.50)).isCloseTo(500_000L, within(500_000L / 32));
+        assertThat(histogramme.percentile(0.90)).isCloseTo(900_000L, within(900_000L / 32));
+        assertThat(histogramme.percentile(0.99)).isCloseTo(990_000L, within(990_000L / 32));
+        assertThat(histogramme.getMax()).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    @DisplayName("les petites durées sont exactes et une valeur unique est restituée telle quelle")
+    void testPercentiles_PetitesValeurs() {
+        HistogrammeDurees histogramme = new HistogrammeDurees();
+        histogramme.enregistrer(3);
+        histogramme.enregistrer(7);
+        histogramme.enregistrer(-5); // compte pour zéro
+
+        assertThat(histogramme.percentile(0.5)).isEqualTo(3);
+        assertThat(histogramme.percentile(1.0)).isEqualTo(7);
+        assertThat(histogramme.percentile(0.0)).isZero();
+
+        HistogrammeDurees unique = new HistogrammeDurees();
+        unique.enregistrer(21_600);
+        assertThat(unique.percentile(0.99)).isEqualTo(21_600);
+    }
+
+    @Test
+    @DisplayName("fusionner deux histogrammes équivaut à tout enregistrer dans un seul")
+    void testFusionner() {
+        Random random = new Random(7);
+        HistogrammeDurees lundi = new HistogrammeDurees();
+        HistogrammeDurees mardi = new HistogrammeDurees();
+        HistogrammeDurees semaine = new HistogrammeDurees();
+        for (int i = 0; i < 10_000; i++) {
+            long duree = random.nextInt(86_400 * 5);
+            (i % 2 == 0 ? lundi : mardi).enregistrer(duree);
+            semaine.enregistrer(duree);
+        }
+
+        lundi.fusionner(mardi);
+
+        assertThat(lundi.getNombre()).isEqualTo(semaine.getNombre());
+        assertThat(lundi.getMax()).isEqualTo(semaine.getMax());
+        for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+            assertThat(lundi.percentile(quantile)).isEqualTo(semaine.percentile(quantile));
+        }
+    }
+
+    @Test
+    @DisplayName("taille fixe : les durées hors plage vont dans le dernier intervalle")
+    void testIndice_Bornes() {
+        assertThat(HistogrammeDurees.indice(0)).isZero();
+        assertThat(HistogrammeDurees.indice(15)).isEqualTo(15);
+        assertThat(HistogrammeDurees.indice(16)).isEqualTo(16);
+        assertThat(HistogrammeDurees.indice((1L << 26) - 1)).isEqualTo(HistogrammeDurees.NOMBRE_INTERVALLES - 1);
+        assertThat(HistogrammeDurees.indice(Long.MAX_VALUE)).isEqualTo(HistogrammeDurees.NOMBRE_INTERVALLES - 1);
+        for (int indice = 0; indice < HistogrammeDurees.NOMBRE_INTERVALLES; indice++) {
+            assertThat(HistogrammeDurees.indice(HistogrammeDurees.milieu(indice))).isEqualTo(indice);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.smartlogi.sdms.service.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Liste de 5 éléments chauds (c0..c4) suivis de 4 archivés (a0..a3), lue par pages de 3.
+ */
+@DisplayName("Tests Unitaires pour LectureArchive")
+class LectureArchiveTest {
+
+    private static final List<String> CHAUDS = elements("c", 5);
+    private static final List<String> ARCHIVES = elements("a", 4);
+
+    private final List<Pageable> fenetres = new ArrayList<>();
+    private final AtomicInteger comptages = new AtomicInteger();
+
+    @Test
+    @DisplayName("mode Page : les pages à cheval ou dans l'archive sont complétées, le total couvre les deux parties")
+    void testPage_ContinueDansArchive() {
+        List<String> lus = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<String> resultat = page(PageRequest.of(page, 3));
+            assertThat(resultat.getTotalElements()).isEqualTo(9);
+            lus.addAll(resultat.getContent());
+        }
+
+        assertThat(lus).containsExactly("c0", "c1", "c2", "c3", "c4", "a0", "a1", "a2", "a3");
+        // Page 0 : archive seulement comptée ; page 1 : a0 ; page 2 : a1..a3 à partir de l'offset 1
+        assertThat(fenetres).extracting(Pageable::getOffset, Pageable::getPageSize)
+                .containsExactly(tuple(0L, 1), tuple(1L, 3));
+        assertThat(comptages.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("mode Page : fin de l'archive atteinte dans la page, total déduit sans COUNT")
+    void testPage_FinArchiveSansComptage() {
+        Page<String> resultat = page(PageRequest.of(2, 4));
+
+        assertThat(resultat.getContent()).containsExactly("a3");
+        assertThat(resultat.getTotalElements()).isEqualTo(9);
+        assertThat(comptages.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("seuls les critères de tri communs à Colis et ColisArchive sont transmis à l'archive")
+    void testTriArchive() {
+        Sort tri = Sort.by(Sort.Order.desc("priorite"), Sort.Order.asc("zone.nom"), Sort.Order.asc("id"));
+
+        assertThat(LectureArchive.triArchive(tri)).containsExactly(Sort.Order.desc("priorite"), Sort.Order.asc("id"));
+    }
+
+    private Page<String> page(Pageable pageable) {
+        return LectureArchive.page(pageable,
+                p -> new PageImpl<>(extraire(CHAUDS, p.getOffset(), p.getPageSize()), p, CHAUDS.size()),
+                this::lireArchive,
+                () -> {
+                    comptages.incrementAndGet();
+                    return ARCHIVES.size();
+                });
+    }
+
+    private List<String> lireArchive(Pageable fenetre) {
+        fenetres.add(fenetre);
+        return extraire(ARCHIVES, fenetre.getOffset(), fenetre.getPageSize());
+    }
+
+    private static List<String> extraire(List<String> source, long offset, int taille) {
+        int debut = (int) Math.min(offset, source.size());
+        return source.subList(debut, Math.min(source.size(), debut + taille));
+    }
+
+    private static List<String> elements(String prefixe, int nombre) {
+        return IntStream.range(0, nombre).mapToObj(i -> prefixe + i).toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartlogi.sdms.service.support;
+
+import com.smartlogi.sdms.exception.InvalidDataException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Tests Unitaires pour LecturePaginee et ModeTotal")
+class LecturePagineeTest {
+
+    private static final Pageable PAGE_3 = PageRequest.of(3, 10);
+
+    @Test
+    @DisplayName("le total estimé n'est jamais inférieur aux éléments déjà lus")
+    void testLire_EstimationSousEvaluee() {
+        Slice<String> resultat = LecturePaginee.lire(ModeTotal.ESTIME, PAGE_3,
+                p -> new SliceImpl<>(Collections.nCopies(10, "a"), p, true),
+                p -> { throw new AssertionError("COUNT inattendu"); },
+                () -> OptionalLong.of(5));
+
+        // 30 éléments avant la page + 10 lus + au moins 1 suivant
+        assertThat(((Page<String>) resultat).getTotalElements()).isEqualTo(41);
+        assertThat(resultat.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("mode exact : délègue à la lecture Page sans consulter les statistiques")
+    void testLire_Exact() {
+        Slice<String> resultat = LecturePaginee.lire(ModeTotal.EXACT, PAGE_3,
+                p -> { throw new AssertionError("Slice inattendu"); },
+                p -> new PageImpl<>(List.of("a"), p, 31),
+                () -> { throw new AssertionError("Estimation inattendue"); });
+
+        assertThat(((Page<String>) resultat).getTotalElements()).isEqualTo(31);
+    }
+
+    @Test
+    @DisplayName("withTotal : true/absent, false, estime ; toute autre valeur est refusée")
+    void testModeTotal_Depuis() {
+        assertThat(ModeTotal.depuis(null)).isEqualTo(ModeTotal.EXACT);
+        assertThat(ModeTotal.depuis("TRUE")).isEqualTo(ModeTotal.EXACT);
+        assertThat(ModeTotal.depuis("false")).isEqualTo(ModeTotal.AUCUN);
+        assertThat(ModeTotal.depuis("estime")).isEqualTo(ModeTotal.ESTIME);
+        assertThrows(InvalidDataException.class, () -> ModeTotal.depuis("oui"));
+    }
+}
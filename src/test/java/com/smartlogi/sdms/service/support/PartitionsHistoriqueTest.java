@@ -0,0 +1,115 @@
+package com.smartlogi.sdms.service.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests Unitaires pour PartitionsHistorique")
+class PartitionsHistoriqueTest {
+
+    private static final LocalDate AUJOURDHUI = LocalDate.of(2025, 11, 17);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("crée le mois courant et les mois à venir, chacun dans sa transaction avec un délai de verrou")
+    void testMaintenir_CreeLesPartitionsAVenir() {
+        partitionnee(true);
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM historique_livraison_defaut", Integer.class)).thenReturn(0);
+
+        partitions(2, 0).maintenir(AUJOURDHUI);
+
+        InOrder ordre = inOrder(jdbcTemplate);
+        ordre.verify(jdbcTemplate).execute("SET LOCAL lock_timeout = '5000ms'");
+        ordre.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS historique_livraison_y2025m11 PARTITION OF "
+                + "historique_livraison FOR VALUES FROM ('2025-11-01') TO ('2025-12-01')");
+        verify(jdbcTemplate).execute(contains("historique_livraison_y2025m12 PARTITION OF"));
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS historique_livraison_y2026m01 PARTITION OF "
+                + "historique_livraison FOR VALUES FROM ('2026-01-01') TO ('2026-02-01')");
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("détache les partitions antérieures à la rétention, jamais la partition par défaut")
+    void testMaintenir_DetacheHorsRetention() {
+        partitionnee(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "historique_livraison_defaut", "historique_livraison_y2024m10",
+                "historique_livraison_y2024m11", "historique_livraison_y2025m11"));
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM historique_livraison_defaut", Integer.class)).thenReturn(7);
+
+        partitions(0, 12).maintenir(AUJOURDHUI);
+
+        verify(jdbcTemplate).execute("ALTER TABLE historique_livraison DETACH PARTITION historique_livraison_y2024m10");
+        verify(jdbcTemplate, never()).execute(contains("DETACH PARTITION historique_livraison_y2024m11"));
+        verify(jdbcTemplate, never()).execute(contains("DETACH PARTITION historique_livraison_defaut"));
+        assertThat(meterRegistry.get("sdms.historique.partition-defaut.lignes").gauge().value()).isEqualTo(7.0);
+    }
+
+    @Test
+    @DisplayName("un échec (verrou non obtenu) est journalisé sans interrompre les autres opérations")
+    void testMaintenir_EchecIsole() {
+        partitionnee(true);
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("historique_livraison_y2025m11")) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return null;
+        }).when(jdbcTemplate).execute(anyString());
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM historique_livraison_defaut", Integer.class)).thenReturn(0);
+
+        partitions(1, 0).maintenir(AUJOURDHUI);
+
+        verify(jdbcTemplate).execute(contains("historique_livraison_y2025m12"));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("table non partitionnée ou tâche désactivée : aucune opération de schéma")
+    void testMaintenir_SansPartitionnement() {
+        partitionnee(false);
+        partitions(3, 12).maintenir(AUJOURDHUI);
+
+        new PartitionsHistorique(jdbcTemplate, transactionManager, meterRegistry, false, 3, 12, 5000).maintenir();
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("nom des partitions : yAAAAmMM, aller-retour avec le mois")
+    void testNomEtMois() {
+        assertThat(PartitionsHistorique.nom(YearMonth.of(2026, 3))).isEqualTo("historique_livraison_y2026m03");
+        assertThat(PartitionsHistorique.mois("historique_livraison_y2026m03")).isEqualTo(YearMonth.of(2026, 3));
+        assertThat(PartitionsHistorique.mois("historique_livraison_defaut")).isNull();
+    }
+
+    private PartitionsHistorique partitions(int moisAvance, int retentionMois) {
+        return new PartitionsHistorique(jdbcTemplate, transactionManager, meterRegistry, true, moisAvance, retentionMois, 5000);
+    }
+
+    private void partitionnee(boolean partitionnee) {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Integer.class))).thenReturn(partitionnee ? 1 : 0);
+    }
+}
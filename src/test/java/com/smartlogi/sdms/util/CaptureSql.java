@@ -0,0 +1,38 @@
+package com.smartlogi.sdms.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inspecteur Hibernate qui relève les requêtes SQL émises par le thread courant entre {@link #demarrer()}
+ * et {@link #arreter()}. Activé par la propriété
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector=com.smartlogi.sdms.util.CaptureSql}.
+ */
+public class CaptureSql implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> REQUETES = new ThreadLocal<>();
+
+    public static void demarrer() {
+        REQUETES.set(new ArrayList<>());
+    }
+
+    /**
+     * @return les requêtes relevées depuis {@link #demarrer()}, dans l'ordre d'émission
+     */
+    public static List<String> arreter() {
+        List<String> requetes = REQUETES.get();
+        REQUETES.remove();
+        return requetes != null ? requetes : List.of();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> requetes = REQUETES.get();
+        if (requetes != null) {
+            requetes.add(sql);
+        }
+        return sql;
+    }
+}